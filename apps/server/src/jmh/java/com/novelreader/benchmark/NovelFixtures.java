@@ -0,0 +1,138 @@
+package com.novelreader.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试用小说样本
+ *
+ * 使用固定种子生成，同一版本的代码每次得到完全相同的文本，不同版本之间的结果可以直接比较。
+ * 文本结构模仿常见网络小说：书名、作者行，约 3000 字一章，段首全角空格缩进，
+ * 正文中夹杂少量形似标题的行（如 "1. ..." 的长句），用于覆盖标题识别的误判路径
+ *
+ * 直接运行 main 方法可将样本写入文件（默认 target/fixtures），供前端解析器或压测复用
+ */
+public final class NovelFixtures {
+
+    /**
+     * 固定随机种子，修改会使历史基准结果不可比
+     */
+    public static final long SEED = 20240601L;
+
+    public static final int MB = 1024 * 1024;
+
+    /**
+     * 样本大小（MB），与路线图中 "32MB 文件解析" 的目标对应
+     */
+    public static final List<Integer> SIZES_MB = List.of(1, 10, 32);
+
+    /**
+     * 样本编码
+     */
+    public static final List<Charset> CHARSETS = List.of(
+        StandardCharsets.UTF_8, Charset.forName("GB18030"), StandardCharsets.UTF_16LE);
+
+    private static final String COMMON_CHARS =
+        "的一是了我不人在他有这个上们来到时大地为子中你说生国年着就那和要她出也得里后自以会家可下而过天去能对小多然于心学么之都好看起发当没成只如事把还用第样道想作种开美总从无情己面最女但现前些所同日手又行意动方期它头经长儿回位分爱老因很给名法间斯知世什两次使身者被高已亲其进此话常与活正感";
+
+    private static final String[] PUNCTUATION = {"，", "，", "，", "。", "。", "！", "？", "……"};
+
+    private static final int CHAPTER_CHARS = 3000;
+
+    private NovelFixtures() {
+    }
+
+    /**
+     * 生成按指定编码不小于 targetBytes 字节的小说文本
+     */
+    public static String text(long targetBytes, Charset charset) {
+        Random random = new Random(SEED);
+        StringBuilder text = new StringBuilder();
+        String header = "《基准测试》\n作者：基准测试\n\n";
+        text.append(header);
+        long bytes = header.getBytes(charset).length;
+
+        int chapterNumber = 0;
+        while (bytes < targetBytes) {
+            String chapter = chapter(++chapterNumber, random);
+            text.append(chapter);
+            bytes += chapter.getBytes(charset).length;
+        }
+        return text.toString();
+    }
+
+    /**
+     * 生成按指定编码不小于 targetBytes 字节的小说文件内容
+     */
+    public static byte[] novel(long targetBytes, Charset charset) {
+        return text(targetBytes, charset).getBytes(charset);
+    }
+
+    /**
+     * 生成约 chars 个字符的章节正文（不含标题）
+     */
+    public static String chapterBody(int chars) {
+        Random random = new Random(SEED);
+        StringBuilder body = new StringBuilder(chars + 64);
+        while (body.length() < chars) {
+            appendParagraph(body, random);
+        }
+        return body.toString();
+    }
+
+    private static String chapter(int number, Random random) {
+        StringBuilder chapter = new StringBuilder(CHAPTER_CHARS + 256);
+        chapter.append("第").append(number).append("章 ");
+        appendWords(chapter, random, 2 + random.nextInt(7));
+        chapter.append("\n\n");
+        int end = chapter.length() + CHAPTER_CHARS;
+        while (chapter.length() < end) {
+            appendParagraph(chapter, random);
+        }
+        chapter.append("\n");
+        return chapter.toString();
+    }
+
+    private static void appendParagraph(StringBuilder text, Random random) {
+        // 约 2% 的段落以 "数字." 开头，长度在标题长度上限内，但超出数字标题格式的 50 字，只能由正则判定为正文
+        if (random.nextInt(50) == 0) {
+            text.append(1 + random.nextInt(20)).append(". ");
+            appendWords(text, random, 51);
+            text.append("。\n");
+            return;
+        }
+        text.append("　　");
+        int sentences = 1 + random.nextInt(5);
+        for (int i = 0; i < sentences; i++) {
+            appendWords(text, random, 8 + random.nextInt(24));
+            text.append(PUNCTUATION[random.nextInt(PUNCTUATION.length)]);
+        }
+        text.append("\n");
+    }
+
+    private static void appendWords(StringBuilder text, Random random, int count) {
+        for (int i = 0; i < count; i++) {
+            text.append(COMMON_CHARS.charAt(random.nextInt(COMMON_CHARS.length())));
+        }
+    }
+
+    /**
+     * 将全部样本写入目录：novel-{大小}mb-{编码}.txt
+     */
+    public static void main(String[] args) throws IOException {
+        Path dir = Path.of(args.length > 0 ? args[0] : "target/fixtures");
+        Files.createDirectories(dir);
+        for (int sizeMb : SIZES_MB) {
+            for (Charset charset : CHARSETS) {
+                Path file = dir.resolve("novel-" + sizeMb + "mb-" + charset.name().toLowerCase() + ".txt");
+                Files.write(file, novel((long) sizeMb * MB, charset));
+                System.out.println(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.novelreader.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novelreader.benchmark.NovelFixtures;
+import com.novelreader.dto.book.BookDTO;
+import com.novelreader.dto.book.ChapterDTO;
+import com.novelreader.util.PageCursor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 响应序列化基准：章节内容（ChapterDTO）与书架分页（CursorPageResponse，与 GET /books 响应一致）
+ *
+ * ObjectMapper 与 Spring Boot 默认配置一致（Jackson2ObjectMapperBuilder）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    @State(Scope.Benchmark)
+    public static class ChapterState {
+
+        /**
+         * 章节正文字数：普通章节与超长章节
+         */
+        @Param({"3000", "50000"})
+        public int chapterChars;
+
+        ApiResponse<ChapterDTO> response;
+
+        @Setup
+        public void setUp() {
+            String content = NovelFixtures.chapterBody(chapterChars);
+            response = ApiResponse.success(ChapterDTO.builder()
+                .id(1024L)
+                .chapterIndex(42)
+                .title("第43章 风起")
+                .content(content)
+                .wordCount(content.length())
+                .build());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PageState {
+
+        @Param({"20", "100"})
+        public int pageSize;
+
+        ApiResponse<CursorPageResponse<BookDTO>> response;
+
+        @Setup
+        public void setUp() {
+            LocalDateTime now = LocalDateTime.now();
+            List<BookDTO> books = new ArrayList<>(pageSize);
+            for (int i = 0; i < pageSize; i++) {
+                books.add(BookDTO.builder()
+                    .id((long) i)
+                    .title("基准测试小说 " + i)
+                    .author("作者 " + i)
+                    .description("这是一本用于序列化基准测试的小说简介。".repeat(3))
+                    .chapterCount(1200)
+                    .wordCount(3_600_000L)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+            }
+            response = ApiResponse.success(CursorPageResponse.<BookDTO>builder()
+                .content(books)
+                .size(pageSize)
+                .nextCursor(new PageCursor(now, pageSize - 1L).encode())
+                .hasMore(true)
+                .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] chapter(ChapterState state) throws JsonProcessingException {
+        return OBJECT_MAPPER.writeValueAsBytes(state.response);
+    }
+
+    @Benchmark
+    public byte[] page(PageState state) throws JsonProcessingException {
+        return OBJECT_MAPPER.writeValueAsBytes(state.response);
+    }
+}
@@ -0,0 +1,56 @@
+package com.novelreader.security;
+
+import com.novelreader.config.JwtConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtTokenProvider 基准：每个已认证请求都会校验并解析一次 Token
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-for-jwt-at-least-48-bytes-long-for-hs384-algorithm";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtConfig jwtConfig = new JwtConfig(new StandardEnvironment());
+        jwtConfig.setSecret(SECRET);
+        jwtConfig.setExpiration(86_400_000L);
+        jwtTokenProvider = new JwtTokenProvider(jwtConfig);
+        token = jwtTokenProvider.generateToken(123L, "reader");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenProvider.generateToken(123L, "reader");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtTokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public Long getUserIdFromToken() {
+        return jwtTokenProvider.getUserIdFromToken(token);
+    }
+
+    /**
+     * JwtAuthenticationFilter 的实际调用序列：先校验，再解析用户 ID
+     */
+    @Benchmark
+    public Long validateAndParse() {
+        return jwtTokenProvider.validateToken(token) ? jwtTokenProvider.getUserIdFromToken(token) : null;
+    }
+}
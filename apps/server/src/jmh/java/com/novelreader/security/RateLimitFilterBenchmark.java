@@ -0,0 +1,70 @@
+package com.novelreader.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novelreader.config.RateLimitConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RateLimitFilter.doFilterInternal 基准（单机计数器，请求均在配额内）
+ *
+ * clients 控制不同客户端 IP 的数量：1 个时测量计数器竞争，大量客户端时测量计数器表查找
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    private static final FilterChain NOOP_CHAIN = (request, response) -> { };
+
+    @Param({"1", "10000"})
+    public int clients;
+
+    private RateLimitFilter filter;
+    private MockHttpServletRequest[] requests;
+    private MockHttpServletResponse response;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+    }
+
+    @Setup
+    public void setUp() {
+        RateLimitConfig config = new RateLimitConfig();
+        config.setRequestsPerMinute(Integer.MAX_VALUE);
+        filter = new RateLimitFilter(config, new ObjectMapper(), RequestCounterFactory.local(),
+            new SimpleMeterRegistry());
+
+        // 经由可信代理转发的章节读取请求，客户端地址取自 X-Forwarded-For
+        requests = new MockHttpServletRequest[clients];
+        for (int i = 0; i < clients; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/1/chapters/" + i);
+            request.setRemoteAddr("10.0.0.2");
+            request.addHeader("X-Forwarded-For", "203.0." + (i >> 8 & 0xFF) + "." + (i & 0xFF) + ", 10.0.0.1");
+            requests[i] = request;
+        }
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void filter(Cursor cursor) throws ServletException, IOException {
+        filter.doFilterInternal(requests[cursor.index++ % clients], response, NOOP_CHAIN);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void filterConcurrent(Cursor cursor) throws ServletException, IOException {
+        filter.doFilterInternal(requests[cursor.index++ % clients], response, NOOP_CHAIN);
+    }
+}
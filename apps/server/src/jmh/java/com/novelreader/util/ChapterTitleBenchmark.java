@@ -0,0 +1,67 @@
+package com.novelreader.util;
+
+import com.novelreader.benchmark.NovelFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 章节标题识别基准
+ *
+ * 单行判定区分标题行与正文行（正文行是绝大多数），整本识别对比逐行解析与并行解析
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ChapterTitleBenchmark {
+
+    private static final String[] TITLE_LINES = {
+        "第1章 开始", "第一百二十三章 风起", "Chapter 42: Dawn", "12. 起程", "【第五章】", "  第3节  回归 ",
+    };
+
+    private final TxtParser txtParser = new TxtParser();
+
+    private String[] bodyLines;
+    private String content;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+    }
+
+    @Setup
+    public void setUp() {
+        content = NovelFixtures.text(10L * NovelFixtures.MB, StandardCharsets.UTF_8);
+        bodyLines = content.lines()
+            .filter(line -> !line.isBlank() && !txtParser.isChapterTitle(line))
+            .limit(4096)
+            .toArray(String[]::new);
+    }
+
+    @Benchmark
+    public boolean titleLine(Cursor cursor) {
+        return txtParser.isChapterTitle(TITLE_LINES[cursor.index++ % TITLE_LINES.length]);
+    }
+
+    @Benchmark
+    public boolean bodyLine(Cursor cursor) {
+        return txtParser.isChapterTitle(bodyLines[cursor.index++ % bodyLines.length]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<TxtParser.ChapterInfo> parseChapters() {
+        return txtParser.parseChapters(content);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<TxtParser.ChapterInfo> parseChaptersParallel() {
+        return txtParser.parseChaptersParallel(content, TxtParser.REGION_SIZE);
+    }
+}
@@ -0,0 +1,50 @@
+package com.novelreader.util;
+
+import com.novelreader.benchmark.NovelFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 字数统计基准：原正则实现、标量实现与 Vector API 实现
+ *
+ * 向量内核需要 --add-modules jdk.incubator.vector（benchmark profile 已添加），
+ * 未启用时 textStats 与 scalar 结果相同
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextStatsBenchmark {
+
+    @Param({"3000", "170000"})
+    public int chars;
+
+    private String chapter;
+    private char[] chapterChars;
+
+    @Setup
+    public void setUp() {
+        chapter = NovelFixtures.chapterBody(chars);
+        chapterChars = chapter.toCharArray();
+    }
+
+    @Benchmark
+    public int regex() {
+        return chapter.replaceAll("\\s", "").length();
+    }
+
+    @Benchmark
+    public long textStats() {
+        return TextStats.of(chapter).nonWhitespace();
+    }
+
+    @Benchmark
+    public long scalar() {
+        long[] counts = new long[3];
+        TextStats.countScalar(chapterChars, 0, chapterChars.length, counts);
+        return counts[0];
+    }
+}
@@ -0,0 +1,41 @@
+package com.novelreader.util;
+
+import com.novelreader.benchmark.NovelFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TxtParser.parse 基准：编码检测、解码、哈希、章节识别与字数统计的完整耗时
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TxtParserBenchmark {
+
+    @Param({"1", "10", "32"})
+    public int sizeMb;
+
+    @Param({"UTF-8", "GB18030", "UTF-16LE"})
+    public String encoding;
+
+    private final TxtParser txtParser = new TxtParser();
+
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        bytes = NovelFixtures.novel((long) sizeMb * NovelFixtures.MB, Charset.forName(encoding));
+    }
+
+    @Benchmark
+    public TxtParser.ParseResult parse() throws IOException {
+        return txtParser.parse(new ByteArrayInputStream(bytes), "基准测试.txt");
+    }
+}
@@ -0,0 +1,59 @@
+package com.novelreader.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JFR 持续录制配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "flight-recorder")
+public class FlightRecorderConfig {
+
+    /**
+     * 是否开启持续录制
+     */
+    private boolean enabled = true;
+
+    /**
+     * JDK 预置录制配置：default（开销约 1%，适合生产）/ profile（更多采样，开销约 2%）
+     */
+    private String settings = "default";
+
+    /**
+     * 录制保留时长（分钟），超出后丢弃最旧的数据块
+     */
+    private int maxAgeMinutes = 30;
+
+    /**
+     * 录制保留大小上限（MB）
+     */
+    private int maxSizeMb = 100;
+
+    /**
+     * 高频事件（请求、章节读取、认证、进度写入）的记录阈值（毫秒），更快的不写入录制
+     */
+    private long eventThresholdMs = 20;
+
+    /**
+     * 慢请求阈值（毫秒），超过后自动转储录制
+     */
+    private long slowRequestThresholdMs = 2_000;
+
+    /**
+     * 两次自动转储的最小间隔（毫秒），避免持续变慢时反复转储
+     */
+    private long dumpCooldownMs = 300_000;
+
+    /**
+     * 转储文件目录
+     */
+    private String dumpDirectory = "./data/jfr";
+
+    /**
+     * 保留的转储文件数，超出后删除最旧的
+     */
+    private int maxDumps = 20;
+}
@@ -0,0 +1,55 @@
+package com.novelreader.config;
+
+import com.novelreader.service.FlightRecorderService;
+import com.novelreader.util.FlightEvents;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * 请求级 JFR 事件与慢请求转储
+ *
+ * 每个请求提交一个 {@link FlightEvents.HttpRequest} 事件（低于事件阈值的由 JFR 丢弃），
+ * 耗时超过慢请求阈值时通知 {@link FlightRecorderService} 转储录制。
+ * 流式响应只统计请求线程上的部分
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class FlightRecorderFilter extends OncePerRequestFilter {
+
+    private final FlightRecorderService flightRecorderService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        FlightEvents.HttpRequest event = new FlightEvents.HttpRequest();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            event.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : request.getRequestURI();
+            if (event.shouldCommit()) {
+                event.method = request.getMethod();
+                event.uri = uri;
+                event.status = response.getStatus();
+                event.commit();
+            }
+            flightRecorderService.onRequestCompleted(request.getMethod() + " " + uri, elapsed);
+        }
+    }
+}
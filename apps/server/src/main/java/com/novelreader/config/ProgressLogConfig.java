@@ -0,0 +1,61 @@
+package com.novelreader.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 阅读进度事件日志配置
+ *
+ * 进度上报追加到 progress_events（组提交），后台压缩任务再折叠进 reading_progress 快照
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "progress-log")
+public class ProgressLogConfig {
+
+    /**
+     * 一次组提交最多写入的事件数
+     */
+    private int batchSize = 500;
+
+    /**
+     * 首个事件到达后再等待多久凑批（毫秒），0 表示只合并写入期间排队的事件
+     */
+    private long commitWindowMs = 0;
+
+    /**
+     * 等待写入的事件队列容量，队列满时拒绝上报
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * 上报等待写入完成的超时（毫秒）
+     */
+    private long appendTimeoutMs = 5_000;
+
+    /**
+     * 压缩任务间隔（毫秒）
+     */
+    private long compactIntervalMs = 1_000;
+
+    /**
+     * 每轮压缩读取的事件数
+     */
+    private int compactBatchSize = 1_000;
+
+    /**
+     * 事件写入后至少等待多久再压缩（毫秒），连续上报的进度合并为一次快照更新
+     */
+    private long compactSettleMs = 2_000;
+
+    /**
+     * 已压缩事件的保留天数，0 表示永久保留
+     */
+    private int retentionDays = 180;
+
+    /**
+     * 清理过期事件的间隔（毫秒）
+     */
+    private long pruneIntervalMs = 3_600_000;
+}
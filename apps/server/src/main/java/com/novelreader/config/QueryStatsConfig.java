@@ -0,0 +1,48 @@
+package com.novelreader.config;
+
+import com.novelreader.util.QueryCountingDataSource;
+import lombok.Data;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * 请求级 SQL 统计配置
+ *
+ * 每个请求执行的 SQL 条数、读取行数和字节数记录为 novel.request.* 指标；
+ * 开启 headers 后同时写入响应头 X-Query-Count / X-Query-Rows / X-Query-Bytes（开发环境使用）
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "query-stats")
+public class QueryStatsConfig {
+
+    /**
+     * 是否统计请求级 SQL
+     */
+    private boolean enabled = true;
+
+    /**
+     * 是否输出统计响应头
+     */
+    private boolean headers = false;
+
+    /**
+     * 包装数据源以统计 SQL（static：BeanPostProcessor 需要在其他 Bean 之前创建）
+     */
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
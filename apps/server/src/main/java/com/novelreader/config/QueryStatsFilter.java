@@ -0,0 +1,129 @@
+package com.novelreader.config;
+
+import com.novelreader.util.QueryStats;
+import com.novelreader.util.Timings;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * 请求级 SQL 统计过滤器
+ *
+ * 最先执行，认证过滤器中加载用户的查询也计入。指标按 method 与路由模板（uri）打标签：
+ * novel.request.queries / novel.request.rows / novel.request.fetched
+ *
+ * 响应头在开始写响应体前写入，流式响应只包含写出第一个字节前的查询；
+ * 异步分派线程上的查询不计入
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    static final String COUNT_HEADER = "X-Query-Count";
+    static final String ROWS_HEADER = "X-Query-Rows";
+    static final String BYTES_HEADER = "X-Query-Bytes";
+
+    private final QueryStatsConfig queryStatsConfig;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!queryStatsConfig.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        try (QueryStats.Scope scope = QueryStats.open()) {
+            HeaderWritingResponse headerResponse = queryStatsConfig.isHeaders()
+                ? new HeaderWritingResponse(response, scope)
+                : null;
+            try {
+                filterChain.doFilter(request, headerResponse != null ? headerResponse : response);
+            } finally {
+                if (headerResponse != null) {
+                    headerResponse.writeHeaders();
+                }
+                record(request, scope.counts());
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryStats.Counts counts) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String[] tags = {"method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN"};
+        Timings.summary(meterRegistry, "novel.request.queries", "statements", tags).record(counts.statements());
+        Timings.summary(meterRegistry, "novel.request.rows", "rows", tags).record(counts.rows());
+        Timings.summary(meterRegistry, "novel.request.fetched", "bytes", tags).record(counts.bytes());
+    }
+
+    /**
+     * 在响应提交前写入统计头
+     */
+    private static final class HeaderWritingResponse extends HttpServletResponseWrapper {
+
+        private final QueryStats.Scope scope;
+        private boolean written;
+
+        HeaderWritingResponse(HttpServletResponse response, QueryStats.Scope scope) {
+            super(response);
+            this.scope = scope;
+        }
+
+        void writeHeaders() {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            QueryStats.Counts counts = scope.counts();
+            setHeader(COUNT_HEADER, Long.toString(counts.statements()));
+            setHeader(ROWS_HEADER, Long.toString(counts.rows()));
+            setHeader(BYTES_HEADER, Long.toString(counts.bytes()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.novelreader.config;
+
+import com.novelreader.security.ClusterRequestCounterFactory;
+import com.novelreader.security.InMemoryRateLimitStore;
+import com.novelreader.security.JdbcRateLimitStore;
+import com.novelreader.security.RateLimitStore;
+import com.novelreader.security.RequestCounterFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 限流后端配置
+ *
+ * rate-limit.backend=local 时每个实例独立计数；
+ * rate-limit.backend=cluster 时各实例从共享存储租用令牌块，配额在集群内生效
+ */
+@Slf4j
+@Configuration
+public class RateLimitBackendConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "rate-limit", name = "backend", havingValue = "local", matchIfMissing = true)
+    public RequestCounterFactory localRequestCounterFactory() {
+        return RequestCounterFactory.local();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "rate-limit", name = "backend", havingValue = "cluster")
+    public RateLimitStore rateLimitStore(RateLimitConfig rateLimitConfig, JdbcTemplate jdbcTemplate) {
+        if ("memory".equals(rateLimitConfig.getClusterStore())) {
+            log.warn("Using in-process rate limit store, limits are NOT shared between instances");
+            return new InMemoryRateLimitStore();
+        }
+        return new JdbcRateLimitStore(jdbcTemplate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "rate-limit", name = "backend", havingValue = "cluster")
+    public ClusterRequestCounterFactory clusterRequestCounterFactory(RateLimitConfig rateLimitConfig,
+                                                                     RateLimitStore rateLimitStore) {
+        log.info("Cluster rate limiting enabled, lease block size: {}", rateLimitConfig.getClusterLeaseBlockSize());
+        return new ClusterRequestCounterFactory(
+            rateLimitStore,
+            rateLimitConfig.getClusterLeaseBlockSize(),
+            rateLimitConfig.getClusterReconcileIntervalMs()
+        );
+    }
+}
@@ -4,6 +4,9 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 限流配置
  */
@@ -36,4 +39,42 @@ public class RateLimitConfig {
      * 上传接口限流：每分钟请求数
      */
     private int uploadRequestsPerMinute = 10;
+
+    /**
+     * 可信代理网段（CIDR），X-Real-IP / X-Forwarded-For 中落在这些网段的地址不视为客户端
+     */
+    private List<String> trustedProxies = new ArrayList<>(List.of(
+        "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", "127.0.0.0/8",
+        "::1/128", "fc00::/7", "fe80::/10"
+    ));
+
+    /**
+     * 用户级限流：每分钟章节读取请求数
+     */
+    private int userReadRequestsPerMinute = 120;
+
+    /**
+     * 用户级限流：每分钟进度/书签写入请求数
+     */
+    private int userWriteRequestsPerMinute = 30;
+
+    /**
+     * 限流后端：local（单实例内存计数）或 cluster（多实例共享配额）
+     */
+    private String backend = "local";
+
+    /**
+     * 集群模式共享存储：jdbc（共享数据库）或 memory（进程内，仅用于测试）
+     */
+    private String clusterStore = "jdbc";
+
+    /**
+     * 集群模式：每次从共享存储租用的令牌数
+     */
+    private int clusterLeaseBlockSize = 10;
+
+    /**
+     * 集群模式：对账间隔（毫秒），空闲超过该时长的本地令牌会被归还
+     */
+    private long clusterReconcileIntervalMs = 5_000;
 }
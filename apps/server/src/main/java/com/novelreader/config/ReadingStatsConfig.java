@@ -0,0 +1,56 @@
+package com.novelreader.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 阅读统计配置
+ *
+ * 阅读时长与字数由相邻两次进度上报推算，超过 idleGapSeconds 的间隔视为新的阅读会话，不计入
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "reading-stats")
+public class ReadingStatsConfig {
+
+    /**
+     * 是否统计阅读数据
+     */
+    private boolean enabled = true;
+
+    /**
+     * 写入 reading_stats 的间隔（毫秒）
+     */
+    private long flushIntervalMs = 60_000;
+
+    /**
+     * 每批写入的行数
+     */
+    private int batchSize = 500;
+
+    /**
+     * 两次上报的最大间隔（秒），超过视为离开
+     */
+    private int idleGapSeconds = 300;
+
+    /**
+     * 阅读速度上限（字/秒），进度跳跃超出部分不计入阅读字数
+     */
+    private int maxCharsPerSecond = 50;
+
+    /**
+     * 一次上报最多计入的章节数，超过视为目录跳转
+     */
+    private int maxChapterJump = 3;
+
+    /**
+     * 汇总任务间隔（毫秒）
+     */
+    private long rollupIntervalMs = 600_000;
+
+    /**
+     * 日期结束后等待多久再汇总（分钟），需大于写入间隔
+     */
+    private int rollupGraceMinutes = 10;
+}
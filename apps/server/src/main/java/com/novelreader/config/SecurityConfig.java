@@ -2,6 +2,8 @@ package com.novelreader.config;
 
 import com.novelreader.security.JwtAuthenticationFilter;
 import com.novelreader.security.RateLimitFilter;
+import com.novelreader.security.UserRateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -33,11 +35,18 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final RateLimitFilter rateLimitFilter;
+    private final UserRateLimitFilter userRateLimitFilter;
 
     // FIXED: CORS origins 从配置读取，支持生产环境配置
     @Value("${cors.allowed-origins:http://localhost:5173,http://localhost:3000}")
     private String allowedOriginsConfig;
 
+    /**
+     * 独立的管理端口（management.server.port），未配置时为 -1
+     */
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -46,11 +55,19 @@ public class SecurityConfig {
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // 流式响应的异步分派沿用原请求已通过的鉴权（无状态会话下异步线程中没有认证信息）
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // 公开接口
                 .requestMatchers("/auth/register", "/auth/login", "/auth/health").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers("/swagger-ui/**", "/api-docs/**", "/v3/api-docs/**").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
+                // Prometheus 抓取无法携带 JWT：独立的管理端口只在内网开放，其上的请求免认证；
+                // 应用端口上的指标仅管理员可用
+                .requestMatchers(request -> managementPort > 0 && request.getLocalPort() == managementPort).permitAll()
+                .requestMatchers("/actuator/prometheus").hasRole("ADMIN")
+                // 运维接口（JFR 录制下载等）仅管理员可用，角色在 users.role 中设置
+                .requestMatchers("/admin/**").hasRole("ADMIN")
                 // 其他需要认证
                 .anyRequest().authenticated()
             )
@@ -58,6 +75,8 @@ public class SecurityConfig {
             .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
             // 添加 JWT 过滤器
             .addFilterAfter(jwtAuthenticationFilter, RateLimitFilter.class)
+            // 添加用户级限流过滤器（依赖 JWT 认证结果）
+            .addFilterAfter(userRateLimitFilter, JwtAuthenticationFilter.class)
             // 允许 H2 Console iframe
             .headers(headers -> headers
                 .frameOptions(frame -> frame.sameOrigin()));
@@ -73,9 +92,12 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(origins);
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         // FIXED: 限制允许的 headers，避免过于宽松
+        // Last-Event-ID：同步推送（GET /progress/events）重连时带上最后收到的事件 id
         configuration.setAllowedHeaders(Arrays.asList(
-            "Content-Type", "Authorization", "X-Requested-With", "Accept", "Origin"
+            "Content-Type", "Authorization", "X-Requested-With", "Accept", "Origin", "Last-Event-ID"
         ));
+        // 导出下载时前端需要读取文件名；X-Query-* 为开发环境的 SQL 统计头
+        configuration.setExposedHeaders(List.of("Content-Disposition", "X-Query-Count", "X-Query-Rows", "X-Query-Bytes"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
@@ -0,0 +1,41 @@
+package com.novelreader.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 同步推送配置（GET /progress/events，Server-Sent Events）
+ *
+ * 每台设备保持一个长连接，进度、书签变化后推送给该用户的所有连接
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "sync-push")
+public class SyncPushConfig {
+
+    /**
+     * 本实例的连接数上限，超出返回 503
+     */
+    private int maxConnections = 10_000;
+
+    /**
+     * 每个用户的连接数上限，超出时关闭该用户最早的连接
+     */
+    private int maxConnectionsPerUser = 5;
+
+    /**
+     * 每个连接待发送的事件上限，超出时丢弃积压的事件，改为通知客户端增量同步
+     */
+    private int bufferSize = 32;
+
+    /**
+     * 心跳间隔（毫秒），防止代理关闭空闲连接，并及时发现已断开的连接
+     */
+    private long heartbeatIntervalMs = 25_000;
+
+    /**
+     * 连接最长保持时间（毫秒），到期后由客户端重连
+     */
+    private long connectionTimeoutMs = 1_800_000;
+}
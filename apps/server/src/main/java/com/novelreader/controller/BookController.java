@@ -1,22 +1,37 @@
 package com.novelreader.controller;
 
+import com.fasterxml.jackson.databind.util.RawValue;
 import com.novelreader.dto.ApiResponse;
-import com.novelreader.dto.PageResponse;
+import com.novelreader.dto.CursorPageResponse;
 import com.novelreader.dto.book.BookDTO;
 import com.novelreader.dto.book.BookDetailDTO;
 import com.novelreader.dto.book.ChapterDTO;
+import com.novelreader.dto.book.ImportJobDTO;
 import com.novelreader.security.CustomUserDetails;
+import com.novelreader.service.BookDetailCache;
+import com.novelreader.service.BookImportService;
 import com.novelreader.service.BookService;
+import com.novelreader.service.ChapterStreamer;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 书籍控制器
@@ -28,6 +43,19 @@ import java.io.IOException;
 public class BookController {
 
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final ChapterStreamer chapterStreamer;
+
+    /**
+     * 换行分隔的 JSON，每行一章
+     */
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson;charset=UTF-8");
+
+    /**
+     * 章节内容上传后不再变化，浏览器缓存一年且无需重新验证
+     */
+    private static final CacheControl CHAPTER_CACHE_CONTROL =
+        CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
 
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "上传书籍", description = "上传 TXT 文件，自动解析章节")
@@ -38,45 +66,127 @@ public class BookController {
         return ResponseEntity.ok(ApiResponse.success("上传成功", book));
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "批量导入书籍",
+        description = "上传包含 TXT 文件的 ZIP 压缩包，后台并行解析，与已有书籍按文件内容去重；返回任务，通过 /books/import/{jobId} 查询进度")
+    public ResponseEntity<ApiResponse<ImportJobDTO>> importBooks(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestParam("file") MultipartFile file) throws IOException {
+        ImportJobDTO job = bookImportService.startImport(userDetails.getId(), file);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("导入任务已创建", job));
+    }
+
+    @GetMapping("/import/{jobId}")
+    @Operation(summary = "查询导入进度")
+    public ResponseEntity<ApiResponse<ImportJobDTO>> getImportJob(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @PathVariable String jobId) {
+        ImportJobDTO job = bookImportService.getImportJob(userDetails.getId(), jobId);
+        return ResponseEntity.ok(ApiResponse.success(job));
+    }
+
     @GetMapping
-    @Operation(summary = "获取书籍列表")
-    public ResponseEntity<ApiResponse<PageResponse<BookDTO>>> getBooks(
+    @Operation(summary = "获取书籍列表", description = "游标分页：传入上一页返回的 nextCursor 获取下一页")
+    public ResponseEntity<ApiResponse<CursorPageResponse<BookDTO>>> getBooks(
             @AuthenticationPrincipal CustomUserDetails userDetails,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        PageResponse<BookDTO> books = bookService.getBooks(userDetails.getId(), page, size);
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        CursorPageResponse<BookDTO> books = bookService.getBooks(userDetails.getId(), cursor, size, withTotal);
         return ResponseEntity.ok(ApiResponse.success(books));
     }
 
     // 注意：/search 必须在 /{bookId} 之前，否则 "search" 会被当作 bookId 解析
     @GetMapping("/search")
-    @Operation(summary = "搜索书籍")
-    public ResponseEntity<ApiResponse<PageResponse<BookDTO>>> searchBooks(
+    @Operation(summary = "搜索书籍", description = "游标分页：传入上一页返回的 nextCursor 获取下一页")
+    public ResponseEntity<ApiResponse<CursorPageResponse<BookDTO>>> searchBooks(
             @AuthenticationPrincipal CustomUserDetails userDetails,
             @RequestParam String keyword,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        PageResponse<BookDTO> books = bookService.searchBooks(userDetails.getId(), keyword, page, size);
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        CursorPageResponse<BookDTO> books = bookService.searchBooks(
+            userDetails.getId(), keyword, cursor, size, withTotal);
         return ResponseEntity.ok(ApiResponse.success(books));
     }
 
     @GetMapping("/{bookId}")
-    @Operation(summary = "获取书籍详情", description = "包含章节列表")
-    public ResponseEntity<ApiResponse<BookDetailDTO>> getBookDetail(
+    @Operation(summary = "获取书籍详情", description = "包含章节列表；支持 If-None-Match，未变化时返回 304")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200",
+        content = @Content(schema = @Schema(implementation = BookDetailDTO.class)))
+    public ResponseEntity<ApiResponse<RawValue>> getBookDetail(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @PathVariable Long bookId,
+            WebRequest webRequest) {
+        BookDetailCache.Entry detail = bookService.getBookDetail(userDetails.getId(), bookId,
+            webRequest::checkNotModified);
+        if (detail == null) {
+            // 304：ETag 已由 checkNotModified 写入，不查询目录
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .build();
+        }
+        return ResponseEntity.ok()
+            .eTag(detail.eTag())
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(ApiResponse.success(detail.content()));
+    }
+
+    @GetMapping("/{bookId}/chapters")
+    @Operation(summary = "批量获取章节内容",
+        description = "流式返回 [from, to] 区间的章节，NDJSON 格式，每行一章；用于离线缓存和预加载")
+    public ResponseEntity<StreamingResponseBody> streamChapters(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @PathVariable Long bookId,
+            @RequestParam(required = false) Integer from,
+            @RequestParam(required = false) Integer to) {
+        // 所有权只在请求线程中校验一次，之后在异步线程中边查边写
+        BookService.ChapterRange range = bookService.getChapterRange(userDetails.getId(), bookId, from, to);
+        StreamingResponseBody body = out ->
+            chapterStreamer.writeNdjson(range.bookId(), range.from(), range.to(), out);
+        return ResponseEntity.ok()
+            .contentType(NDJSON)
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(body);
+    }
+
+    @GetMapping("/{bookId}/export")
+    @Operation(summary = "导出书籍", description = "流式下载整本书的 TXT 文件（UTF-8）")
+    public ResponseEntity<StreamingResponseBody> exportBook(
             @AuthenticationPrincipal CustomUserDetails userDetails,
             @PathVariable Long bookId) {
-        BookDetailDTO book = bookService.getBookDetail(userDetails.getId(), bookId);
-        return ResponseEntity.ok(ApiResponse.success(book));
+        BookService.BookExport export = bookService.getBookExport(userDetails.getId(), bookId);
+        StreamingResponseBody body = out -> chapterStreamer.writeTxt(export, out);
+        return ResponseEntity.ok()
+            .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(export.title() + ".txt", StandardCharsets.UTF_8)
+                .build()
+                .toString())
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(body);
     }
 
     @GetMapping("/{bookId}/chapters/{chapterIndex}")
-    @Operation(summary = "获取章节内容")
+    @Operation(summary = "获取章节内容", description = "章节内容不可变；支持 If-None-Match / If-Modified-Since，未变化时返回 304")
     public ResponseEntity<ApiResponse<ChapterDTO>> getChapter(
             @AuthenticationPrincipal CustomUserDetails userDetails,
             @PathVariable Long bookId,
-            @PathVariable Integer chapterIndex) {
+            @PathVariable Integer chapterIndex,
+            WebRequest webRequest) {
+        BookService.ChapterVersion version = bookService.getChapterVersion(userDetails.getId(), bookId, chapterIndex);
+        if (version.eTag() != null && webRequest.checkNotModified(version.eTag(), version.lastModified())) {
+            // 304：ETag / Last-Modified 已由 checkNotModified 写入，不读取章节正文；
+            // 显式带上 Cache-Control，避免被安全框架默认的 no-store 覆盖已缓存的响应
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CHAPTER_CACHE_CONTROL).build();
+        }
+
         ChapterDTO chapter = bookService.getChapter(userDetails.getId(), bookId, chapterIndex);
-        return ResponseEntity.ok(ApiResponse.success(chapter));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (version.eTag() != null) {
+            response.cacheControl(CHAPTER_CACHE_CONTROL);
+        }
+        return response.body(ApiResponse.success(chapter));
     }
 
     @DeleteMapping("/{bookId}")
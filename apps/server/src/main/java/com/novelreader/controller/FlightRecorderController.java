@@ -0,0 +1,55 @@
+package com.novelreader.controller;
+
+import com.novelreader.dto.ApiResponse;
+import com.novelreader.dto.admin.FlightRecordingDTO;
+import com.novelreader.service.FlightRecorderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * JFR 录制管理控制器（仅 ADMIN 角色）
+ */
+@RestController
+@RequestMapping("/admin/flight-recordings")
+@RequiredArgsConstructor
+@Tag(name = "JFR 录制", description = "慢请求转储的列出、手动转储与下载")
+public class FlightRecorderController {
+
+    private final FlightRecorderService flightRecorderService;
+
+    @GetMapping
+    @Operation(summary = "列出转储文件", description = "最新的在前")
+    public ResponseEntity<ApiResponse<List<FlightRecordingDTO>>> listDumps() {
+        return ResponseEntity.ok(ApiResponse.success(flightRecorderService.listDumps()));
+    }
+
+    @PostMapping
+    @Operation(summary = "立即转储当前录制")
+    public ResponseEntity<ApiResponse<FlightRecordingDTO>> dump() {
+        return ResponseEntity.ok(ApiResponse.success(flightRecorderService.dump("manual")));
+    }
+
+    @GetMapping("/{name}")
+    @Operation(summary = "下载转储文件", description = "用 jfr print 或 JDK Mission Control 打开")
+    public ResponseEntity<Resource> download(@PathVariable String name) {
+        Path file = flightRecorderService.getDump(name);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(name)
+                .build()
+                .toString())
+            .body(new FileSystemResource(file));
+    }
+}
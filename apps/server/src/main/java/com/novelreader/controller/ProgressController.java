@@ -1,17 +1,21 @@
 package com.novelreader.controller;
 
 import com.novelreader.dto.ApiResponse;
-import com.novelreader.dto.PageResponse;
+import com.novelreader.dto.CursorPageResponse;
 import com.novelreader.dto.progress.*;
 import com.novelreader.security.CustomUserDetails;
 import com.novelreader.service.ProgressService;
+import com.novelreader.service.SyncPushService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -25,6 +29,7 @@ import java.util.List;
 public class ProgressController {
 
     private final ProgressService progressService;
+    private final SyncPushService syncPushService;
 
     // ==================== 阅读进度 ====================
 
@@ -63,6 +68,31 @@ public class ProgressController {
         return ResponseEntity.ok(ApiResponse.success(recentList));
     }
 
+    @GetMapping("/changes")
+    @Operation(summary = "获取同步版本号之后的变化",
+        description = "传入上次返回的 version，首次同步传 0；没有变化时只返回 version")
+    public ResponseEntity<ApiResponse<ProgressChangesDTO>> getChanges(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestParam(defaultValue = "0") long since) {
+        ProgressChangesDTO changes = progressService.getChanges(userDetails.getId(), since);
+        return ResponseEntity.ok(ApiResponse.success(changes));
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "订阅进度与书签变化",
+        description = "Server-Sent Events 长连接：changes 事件与 /progress/changes 的 data 格式相同；" +
+            "resync 事件表示需要调用 /progress/changes 增量同步")
+    public ResponseEntity<SseEmitter> subscribe(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = syncPushService.connect(userDetails.getId(), lastEventId);
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noStore())
+            // 关闭 Nginx 代理缓冲，事件立即送达
+            .header("X-Accel-Buffering", "no")
+            .body(emitter);
+    }
+
     // ==================== 书签 ====================
 
     @PostMapping("/bookmarks")
@@ -84,12 +114,14 @@ public class ProgressController {
     }
 
     @GetMapping("/bookmarks")
-    @Operation(summary = "获取所有书签（分页）")
-    public ResponseEntity<ApiResponse<PageResponse<BookmarkDTO>>> getAllBookmarks(
+    @Operation(summary = "获取所有书签（游标分页）", description = "传入上一页返回的 nextCursor 获取下一页")
+    public ResponseEntity<ApiResponse<CursorPageResponse<BookmarkDTO>>> getAllBookmarks(
             @AuthenticationPrincipal CustomUserDetails userDetails,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        PageResponse<BookmarkDTO> bookmarks = progressService.getAllBookmarks(userDetails.getId(), page, size);
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        CursorPageResponse<BookmarkDTO> bookmarks = progressService.getAllBookmarks(
+            userDetails.getId(), cursor, size, withTotal);
         return ResponseEntity.ok(ApiResponse.success(bookmarks));
     }
 
@@ -0,0 +1,27 @@
+package com.novelreader.controller;
+
+import com.novelreader.dto.ApiResponse;
+import com.novelreader.service.StatsRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 阅读统计运维控制器（仅 ADMIN 角色）
+ */
+@RestController
+@RequestMapping("/admin/stats")
+@RequiredArgsConstructor
+@Tag(name = "阅读统计运维", description = "汇总表重建")
+public class StatsAdminController {
+
+    private final StatsRollupService statsRollupService;
+
+    @PostMapping("/rollups/rebuild")
+    @Operation(summary = "重建阅读统计汇总", description = "清空周/月/年/累计汇总后从日统计重新回填，返回汇总的天数")
+    public ResponseEntity<ApiResponse<Integer>> rebuildRollups() {
+        return ResponseEntity.ok(ApiResponse.success(statsRollupService.rebuild()));
+    }
+}
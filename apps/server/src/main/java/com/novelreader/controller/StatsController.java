@@ -0,0 +1,47 @@
+package com.novelreader.controller;
+
+import com.novelreader.dto.ApiResponse;
+import com.novelreader.dto.stats.DailyStatsDTO;
+import com.novelreader.dto.stats.StatsSummaryDTO;
+import com.novelreader.security.CustomUserDetails;
+import com.novelreader.service.StatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 阅读统计控制器
+ */
+@RestController
+@RequestMapping("/stats")
+@RequiredArgsConstructor
+@Tag(name = "阅读统计", description = "阅读时长、字数、章节数统计")
+public class StatsController {
+
+    private final StatsService statsService;
+
+    @GetMapping("/summary")
+    @Operation(summary = "获取阅读统计概览", description = "今天、本周、本月、今年和累计；传入 bookId 只统计该书")
+    public ResponseEntity<ApiResponse<StatsSummaryDTO>> getSummary(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestParam(required = false) Long bookId) {
+        return ResponseEntity.ok(ApiResponse.success(statsService.getSummary(userDetails.getId(), bookId)));
+    }
+
+    @GetMapping("/daily")
+    @Operation(summary = "按日获取阅读统计", description = "默认最近 30 天，区间最长 366 天；没有阅读记录的日期不返回")
+    public ResponseEntity<ApiResponse<List<DailyStatsDTO>>> getDaily(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long bookId) {
+        return ResponseEntity.ok(ApiResponse.success(statsService.getDaily(userDetails.getId(), bookId, from, to)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.novelreader.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.novelreader.util.PageCursor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页响应
+ *
+ * nextCursor 为空表示已到最后一页；totalElements 仅在请求时返回（需要额外的 COUNT 查询）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasMore;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+
+    /**
+     * 根据多查询一行的结果构建响应
+     *
+     * @param rows     查询结果（最多 size + 1 行，多出的一行只用于判断是否还有下一页）
+     * @param size     页大小
+     * @param mapper   实体到 DTO 的转换
+     * @param cursorOf 取行的游标位置
+     * @param total    总数，未请求时为 null
+     */
+    public static <E, T> CursorPageResponse<T> of(List<E> rows, int size,
+                                                  Function<E, T> mapper,
+                                                  Function<E, PageCursor> cursorOf,
+                                                  Long total) {
+        boolean hasMore = rows.size() > size;
+        List<E> page = hasMore ? rows.subList(0, size) : rows;
+
+        return CursorPageResponse.<T>builder()
+            .content(page.stream().map(mapper).toList())
+            .size(size)
+            .nextCursor(hasMore ? cursorOf.apply(page.get(page.size() - 1)).encode() : null)
+            .hasMore(hasMore)
+            .totalElements(total)
+            .build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.novelreader.dto.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * JFR 转储文件 DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightRecordingDTO {
+
+    /**
+     * 文件名（下载时使用）
+     */
+    private String name;
+
+    /**
+     * 文件大小（字节）
+     */
+    private Long size;
+
+    private LocalDateTime createdAt;
+}
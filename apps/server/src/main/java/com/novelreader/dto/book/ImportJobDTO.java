@@ -0,0 +1,48 @@
+package com.novelreader.dto.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 批量导入任务进度 DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobDTO {
+
+    private String jobId;
+
+    /**
+     * RUNNING / COMPLETED / FAILED
+     */
+    private String status;
+
+    /**
+     * 已从压缩包中读取的 TXT 文件数（读取完成前会持续增长）
+     */
+    private Integer totalFiles;
+
+    /**
+     * 已处理（导入、跳过或失败）的文件数
+     */
+    private Integer processedFiles;
+
+    private Integer importedBooks;
+    private Integer duplicateFiles;
+    private Integer failedFiles;
+
+    /**
+     * 失败文件及原因
+     */
+    private List<String> errors;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
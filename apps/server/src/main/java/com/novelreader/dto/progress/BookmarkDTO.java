@@ -26,4 +26,5 @@ public class BookmarkDTO {
     private String note;
     private String color;
     private LocalDateTime createdAt;
+    private Long syncVersion;
 }
@@ -0,0 +1,28 @@
+package com.novelreader.dto.progress;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 同步变化响应
+ *
+ * version 为本次同步到的版本号，下次作为 since 传入；没有变化的类型为 null，没有任何变化时只返回 version
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class ProgressChangesDTO {
+
+    private long version;
+    private List<ProgressDTO> progress;
+    private List<BookmarkDTO> bookmarks;
+    private List<Long> deletedBookmarkIds;
+    private List<Long> deletedBookIds;
+}
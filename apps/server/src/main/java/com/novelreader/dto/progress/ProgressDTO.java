@@ -23,4 +23,5 @@ public class ProgressDTO {
     private Double scrollPosition;
     private Double progressPercent;
     private LocalDateTime lastReadAt;
+    private Long syncVersion;
 }
@@ -20,4 +20,10 @@ public class UpdateProgressRequest {
     private Double scrollPosition = 0.0;
 
     private Double progressPercent = 0.0;
+
+    /**
+     * 客户端上次同步到的该书进度版本号（可选）。服务端进度已被其他设备更新时，
+     * 只有位置更靠后的上报才会覆盖
+     */
+    private Long baseVersion;
 }
@@ -0,0 +1,28 @@
+package com.novelreader.dto.stats;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 单日阅读统计 DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyStatsDTO {
+
+    private LocalDate date;
+
+    /**
+     * 阅读时长（秒）
+     */
+    private Long readingTime;
+
+    private Long charactersRead;
+    private Long chaptersRead;
+}
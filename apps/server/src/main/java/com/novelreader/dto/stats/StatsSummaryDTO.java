@@ -0,0 +1,32 @@
+package com.novelreader.dto.stats;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 阅读统计概览 DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsSummaryDTO {
+
+    /**
+     * 统计的书籍，为空表示所有书籍
+     */
+    private Long bookId;
+
+    private StatsTotalsDTO today;
+
+    /**
+     * 本周（周一开始）
+     */
+    private StatsTotalsDTO thisWeek;
+
+    private StatsTotalsDTO thisMonth;
+    private StatsTotalsDTO thisYear;
+    private StatsTotalsDTO lifetime;
+}
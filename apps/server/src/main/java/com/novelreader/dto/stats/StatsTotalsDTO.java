@@ -0,0 +1,29 @@
+package com.novelreader.dto.stats;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 阅读统计量 DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsTotalsDTO {
+
+    /**
+     * 阅读时长（秒）
+     */
+    private Long readingTime;
+
+    private Long charactersRead;
+    private Long chaptersRead;
+
+    /**
+     * 有阅读记录的天数
+     */
+    private Integer daysRead;
+}
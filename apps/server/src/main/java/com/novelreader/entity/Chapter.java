@@ -9,7 +9,8 @@ import java.time.LocalDateTime;
  * 章节实体
  */
 @Entity
-@Table(name = "chapters")
+@Table(name = "chapters",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"book_id", "chapter_index"}))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -45,4 +45,11 @@ public class ReadingProgress {
     @Column(name = "last_read_at")
     @Builder.Default
     private LocalDateTime lastReadAt = LocalDateTime.now();
+
+    /**
+     * 同步版本号（由进度事件压缩写入）
+     */
+    @Column(name = "sync_version", nullable = false)
+    @Builder.Default
+    private Long syncVersion = 0L;
 }
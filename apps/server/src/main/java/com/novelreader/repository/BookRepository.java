@@ -1,13 +1,13 @@
 package com.novelreader.repository;
 
 import com.novelreader.entity.Book;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,14 +18,28 @@ import java.util.Optional;
 public interface BookRepository extends JpaRepository<Book, Long> {
 
     /**
-     * 根据用户ID查询书籍列表
+     * 游标分页：第一页（按更新时间倒序，id 作为同一时间的次序）
      */
-    Page<Book> findByUserIdOrderByUpdatedAtDesc(Long userId, Pageable pageable);
+    @Query("SELECT b FROM Book b WHERE b.user.id = :userId " +
+           "ORDER BY b.updatedAt DESC, b.id DESC")
+    List<Book> findPageByUserId(@Param("userId") Long userId, Pageable limit);
+
+    /**
+     * 游标分页：从上一页最后一行 (updatedAt, id) 之后继续
+     */
+    @Query("SELECT b FROM Book b WHERE b.user.id = :userId AND " +
+           "(b.updatedAt < :updatedAt OR (b.updatedAt = :updatedAt AND b.id < :id)) " +
+           "ORDER BY b.updatedAt DESC, b.id DESC")
+    List<Book> findPageByUserIdAfter(@Param("userId") Long userId,
+                                     @Param("updatedAt") LocalDateTime updatedAt,
+                                     @Param("id") Long id,
+                                     Pageable limit);
 
     /**
      * 根据用户ID查询所有书籍
      */
-    List<Book> findByUserIdOrderByUpdatedAtDesc(Long userId);
+    @Query("SELECT b FROM Book b WHERE b.user.id = :userId ORDER BY b.updatedAt DESC")
+    List<Book> findByUserIdOrderByUpdatedAtDesc(@Param("userId") Long userId);
 
     /**
      * 根据ID和用户ID查询书籍
@@ -33,22 +47,52 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     Optional<Book> findByIdAndUserId(Long id, Long userId);
 
     /**
-     * 搜索用户的书籍
+     * 搜索用户的书籍：第一页（排序与书籍列表一致）
      */
     @Query("SELECT b FROM Book b WHERE b.user.id = :userId AND " +
            "(LOWER(b.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(b.author) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<Book> searchByKeyword(@Param("userId") Long userId,
+           "LOWER(b.author) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+           "ORDER BY b.updatedAt DESC, b.id DESC")
+    List<Book> searchByKeyword(@Param("userId") Long userId,
                                @Param("keyword") String keyword,
-                               Pageable pageable);
+                               Pageable limit);
+
+    /**
+     * 搜索用户的书籍：从上一页最后一行 (updatedAt, id) 之后继续
+     */
+    @Query("SELECT b FROM Book b WHERE b.user.id = :userId AND " +
+           "(LOWER(b.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(b.author) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND " +
+           "(b.updatedAt < :updatedAt OR (b.updatedAt = :updatedAt AND b.id < :id)) " +
+           "ORDER BY b.updatedAt DESC, b.id DESC")
+    List<Book> searchByKeywordAfter(@Param("userId") Long userId,
+                                    @Param("keyword") String keyword,
+                                    @Param("updatedAt") LocalDateTime updatedAt,
+                                    @Param("id") Long id,
+                                    Pageable limit);
+
+    /**
+     * 统计搜索结果数量（仅在客户端请求总数时使用）
+     */
+    @Query("SELECT COUNT(b) FROM Book b WHERE b.user.id = :userId AND " +
+           "(LOWER(b.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(b.author) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+    long countByKeyword(@Param("userId") Long userId, @Param("keyword") String keyword);
 
     /**
      * 检查用户是否已有同名书籍
      */
     boolean existsByUserIdAndTitle(Long userId, String title);
 
+    /**
+     * 查询用户所有书籍的文件哈希（批量导入去重）
+     */
+    @Query("SELECT b.fileHash FROM Book b WHERE b.user.id = :userId AND b.fileHash IS NOT NULL")
+    List<String> findFileHashesByUserId(@Param("userId") Long userId);
+
     /**
      * 统计用户书籍数量
      */
-    long countByUserId(Long userId);
+    @Query("SELECT COUNT(b) FROM Book b WHERE b.user.id = :userId")
+    long countByUserId(@Param("userId") Long userId);
 }
@@ -1,13 +1,14 @@
 package com.novelreader.repository;
 
 import com.novelreader.entity.Bookmark;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,12 +21,28 @@ public interface BookmarkRepository extends JpaRepository<Bookmark, Long> {
     /**
      * 查询用户某本书的所有书签
      */
-    List<Bookmark> findByUserIdAndBookIdOrderByChapterIndexAscPositionAsc(Long userId, Long bookId);
+    @Query("SELECT b FROM Bookmark b WHERE b.user.id = :userId AND b.book.id = :bookId " +
+           "ORDER BY b.chapterIndex, b.position")
+    List<Bookmark> findByUserIdAndBookIdOrderByChapterIndexAscPositionAsc(@Param("userId") Long userId,
+                                                                         @Param("bookId") Long bookId);
 
     /**
-     * 查询用户所有书签（分页）
+     * 游标分页：第一页（按创建时间倒序，id 作为同一时间的次序）
      */
-    Page<Bookmark> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+    @Query("SELECT b FROM Bookmark b WHERE b.user.id = :userId " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Bookmark> findPageByUserId(@Param("userId") Long userId, Pageable limit);
+
+    /**
+     * 游标分页：从上一页最后一行 (createdAt, id) 之后继续
+     */
+    @Query("SELECT b FROM Bookmark b WHERE b.user.id = :userId AND " +
+           "(b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Bookmark> findPageByUserIdAfter(@Param("userId") Long userId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable limit);
 
     /**
      * 查询用户所有书签（带 Book 信息，避免 N+1）
@@ -36,23 +53,36 @@ public interface BookmarkRepository extends JpaRepository<Bookmark, Long> {
            "ORDER BY b.createdAt DESC")
     List<Bookmark> findByUserIdWithBook(@Param("userId") Long userId);
 
+    /**
+     * 查询同步版本号在 since 之后的书签（带 Book 信息）
+     */
+    @Query("SELECT b FROM Bookmark b " +
+           "JOIN FETCH b.book " +
+           "WHERE b.user.id = :userId AND b.syncVersion > :since " +
+           "ORDER BY b.syncVersion")
+    List<Bookmark> findChangedWithBook(@Param("userId") Long userId, @Param("since") Long since);
+
     /**
      * 根据ID和用户ID查询书签
      */
     Optional<Bookmark> findByIdAndUserId(Long id, Long userId);
 
     /**
-     * 删除书籍的所有书签
+     * 删除书籍的所有书签（批量 DELETE，不逐个加载实体）
      */
-    void deleteByBookId(Long bookId);
+    @Modifying
+    @Query("DELETE FROM Bookmark b WHERE b.book.id = :bookId")
+    void deleteByBookId(@Param("bookId") Long bookId);
 
     /**
      * 统计用户书签数量
      */
-    long countByUserId(Long userId);
+    @Query("SELECT COUNT(b) FROM Bookmark b WHERE b.user.id = :userId")
+    long countByUserId(@Param("userId") Long userId);
 
     /**
      * 统计用户某本书的书签数量
      */
-    long countByUserIdAndBookId(Long userId, Long bookId);
+    @Query("SELECT COUNT(b) FROM Bookmark b WHERE b.user.id = :userId AND b.book.id = :bookId")
+    long countByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
 }
@@ -14,45 +14,54 @@ import java.util.Optional;
  * 章节数据访问层
  */
 @Repository
-public interface ChapterRepository extends JpaRepository<Chapter, Long> {
+public interface ChapterRepository extends JpaRepository<Chapter, Long>, ChapterRepositoryCustom {
 
     /**
      * 根据书籍ID查询所有章节（按章节序号排序）
      */
-    List<Chapter> findByBookIdOrderByChapterIndex(Long bookId);
+    @Query("SELECT c FROM Chapter c WHERE c.book.id = :bookId ORDER BY c.chapterIndex")
+    List<Chapter> findByBookIdOrderByChapterIndex(@Param("bookId") Long bookId);
 
     /**
      * 根据书籍ID和章节序号查询章节
      */
-    Optional<Chapter> findByBookIdAndChapterIndex(Long bookId, Integer chapterIndex);
+    @Query("SELECT c FROM Chapter c WHERE c.book.id = :bookId AND c.chapterIndex = :chapterIndex")
+    Optional<Chapter> findByBookIdAndChapterIndex(@Param("bookId") Long bookId,
+                                                  @Param("chapterIndex") Integer chapterIndex);
 
     /**
-     * 查询章节列表（不含内容，用于目录）
+     * 查询用户书籍中的章节（所有权校验与章节查询合并）
      */
-    @Query("SELECT new Chapter(c.id, c.chapterIndex, c.title, c.wordCount) " +
-           "FROM Chapter c WHERE c.book.id = :bookId ORDER BY c.chapterIndex")
-    List<Chapter> findChapterListByBookId(@Param("bookId") Long bookId);
+    @Query("SELECT c FROM Chapter c WHERE c.book.id = :bookId AND c.book.user.id = :userId " +
+           "AND c.chapterIndex = :chapterIndex")
+    Optional<Chapter> findOwnedChapter(@Param("userId") Long userId,
+                                       @Param("bookId") Long bookId,
+                                       @Param("chapterIndex") Integer chapterIndex);
 
     /**
-     * 删除书籍的所有章节
+     * 只查询章节标题（不加载正文）
      */
-    @Modifying
-    void deleteByBookId(Long bookId);
+    @Query("SELECT c.title FROM Chapter c WHERE c.book.id = :bookId AND c.chapterIndex = :chapterIndex")
+    Optional<String> findTitleByBookIdAndChapterIndex(@Param("bookId") Long bookId,
+                                                      @Param("chapterIndex") Integer chapterIndex);
 
     /**
-     * 统计书籍章节数量
+     * 查询章节列表（不含内容，用于目录）
      */
-    long countByBookId(Long bookId);
+    @Query("SELECT new Chapter(c.id, c.chapterIndex, c.title, c.wordCount) " +
+           "FROM Chapter c WHERE c.book.id = :bookId ORDER BY c.chapterIndex")
+    List<Chapter> findChapterListByBookId(@Param("bookId") Long bookId);
 
     /**
-     * 批量查询章节标题（用于避免 N+1 查询）
+     * 删除书籍的所有章节（批量 DELETE，不逐个加载章节实体）
      */
-    @Query("SELECT c FROM Chapter c WHERE c.book.id = :bookId AND c.chapterIndex IN :indices")
-    List<Chapter> findByBookIdAndChapterIndexIn(@Param("bookId") Long bookId, @Param("indices") List<Integer> indices);
+    @Modifying
+    @Query("DELETE FROM Chapter c WHERE c.book.id = :bookId")
+    void deleteByBookId(@Param("bookId") Long bookId);
 
     /**
-     * 批量查询多本书的章节标题
+     * 统计书籍章节数量
      */
-    @Query("SELECT c FROM Chapter c WHERE c.book.id IN :bookIds")
-    List<Chapter> findByBookIdIn(@Param("bookIds") List<Long> bookIds);
+    @Query("SELECT COUNT(c) FROM Chapter c WHERE c.book.id = :bookId")
+    long countByBookId(@Param("bookId") Long bookId);
 }
@@ -0,0 +1,19 @@
+package com.novelreader.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 章节自定义查询
+ */
+public interface ChapterRepositoryCustom {
+
+    /**
+     * 按精确的 (bookId, chapterIndex) 批量查询章节标题
+     *
+     * @param indicesByBook 每本书需要查询的章节序号
+     * @return 只包含标题的投影，不加载章节正文
+     */
+    List<ChapterTitle> findTitles(Map<Long, Set<Integer>> indicesByBook);
+}
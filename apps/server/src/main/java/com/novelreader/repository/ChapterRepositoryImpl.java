@@ -0,0 +1,70 @@
+package com.novelreader.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 章节自定义查询实现
+ */
+public class ChapterRepositoryImpl implements ChapterRepositoryCustom {
+
+    /**
+     * 单条 SQL 最多包含的书籍数，避免 IN 列表过长
+     */
+    private static final int BOOKS_PER_QUERY = 100;
+
+    /**
+     * book_id IN (...) AND chapter_index IN (...) 在 (book_id, chapter_index) 唯一索引上查找，
+     * 两个 IN 列表的组合是请求键的超集（通常每本书只有一两个序号），多出的行只含标题，在内存中过滤。
+     * 相比按 (book_id = ? AND chapter_index IN ...) OR ... 拼接，这种写法在 H2 和 PostgreSQL 上都能走索引
+     */
+    private static final String TITLE_QUERY =
+        "SELECT new com.novelreader.repository.ChapterTitle(c.book.id, c.chapterIndex, c.title) " +
+        "FROM Chapter c WHERE c.book.id IN :bookIds AND c.chapterIndex IN :indices";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ChapterTitle> findTitles(Map<Long, Set<Integer>> indicesByBook) {
+        List<ChapterTitle> titles = new ArrayList<>();
+        List<Long> bookIds = new ArrayList<>(BOOKS_PER_QUERY);
+        Set<Integer> indices = new HashSet<>();
+
+        for (Map.Entry<Long, Set<Integer>> entry : indicesByBook.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            bookIds.add(entry.getKey());
+            indices.addAll(entry.getValue());
+            if (bookIds.size() == BOOKS_PER_QUERY) {
+                queryTitles(bookIds, indices, indicesByBook, titles);
+                bookIds.clear();
+                indices.clear();
+            }
+        }
+        if (!bookIds.isEmpty()) {
+            queryTitles(bookIds, indices, indicesByBook, titles);
+        }
+        return titles;
+    }
+
+    private void queryTitles(List<Long> bookIds, Set<Integer> indices,
+                             Map<Long, Set<Integer>> indicesByBook, List<ChapterTitle> titles) {
+        List<ChapterTitle> rows = entityManager.createQuery(TITLE_QUERY, ChapterTitle.class)
+            .setParameter("bookIds", bookIds)
+            .setParameter("indices", indices)
+            .getResultList();
+        for (ChapterTitle row : rows) {
+            if (indicesByBook.get(row.bookId()).contains(row.chapterIndex())) {
+                titles.add(row);
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.novelreader.repository;
+
+/**
+ * 章节标题投影（不含正文）
+ */
+public record ChapterTitle(Long bookId, Integer chapterIndex, String title) {
+}
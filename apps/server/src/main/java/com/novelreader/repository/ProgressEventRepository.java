@@ -0,0 +1,246 @@
+package com.novelreader.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 阅读进度事件日志（JDBC）
+ *
+ * progress_events 只追加，id 即日志序号；compacted 标记事件是否已折叠进 reading_progress 快照。
+ * 多实例提交顺序与 id 顺序不一致，因此逐条标记而不是按 id 水位线判断
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProgressEventRepository {
+
+    private static final String COLUMNS =
+        "id, user_id, book_id, chapter_index, scroll_position, progress_percent, created_at, sync_version";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO progress_events (user_id, book_id, chapter_index, scroll_position, progress_percent, created_at, " +
+        "sync_version) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * 只用版本号不小于快照的事件覆盖快照：较早提交的较新事件已压缩时，较晚提交的旧事件不会回退进度
+     */
+    private static final String UPDATE_SNAPSHOT_SQL =
+        "UPDATE reading_progress SET chapter_index = ?, scroll_position = ?, progress_percent = ?, last_read_at = ?, " +
+        "sync_version = ? WHERE user_id = ? AND book_id = ? AND sync_version <= ?";
+
+    private static final String INSERT_SNAPSHOT_SQL =
+        "INSERT INTO reading_progress (chapter_index, scroll_position, progress_percent, last_read_at, sync_version, " +
+        "user_id, book_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 进度事件（一次进度上报）
+     *
+     * @param id          日志序号，追加前为 null
+     * @param createdAt   上报时间，即快照的 last_read_at
+     * @param syncVersion 用户的同步版本号，追加时分配
+     */
+    public record ProgressEvent(Long id, long userId, long bookId, int chapterIndex,
+                                Double scrollPosition, Double progressPercent, LocalDateTime createdAt,
+                                long syncVersion) {
+
+        public static ProgressEvent of(long userId, long bookId, int chapterIndex,
+                                       Double scrollPosition, Double progressPercent, LocalDateTime createdAt) {
+            return new ProgressEvent(null, userId, bookId, chapterIndex, scrollPosition, progressPercent, createdAt, 0);
+        }
+
+        public ProgressEvent withSyncVersion(long version) {
+            return new ProgressEvent(id, userId, bookId, chapterIndex, scrollPosition, progressPercent, createdAt,
+                version);
+        }
+    }
+
+    // ==================== 日志 ====================
+
+    /**
+     * 批量追加事件
+     */
+    public void appendAll(List<ProgressEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setLong(1, event.userId());
+            ps.setLong(2, event.bookId());
+            ps.setInt(3, event.chapterIndex());
+            setDouble(ps, 4, event.scrollPosition());
+            setDouble(ps, 5, event.progressPercent());
+            ps.setTimestamp(6, Timestamp.valueOf(event.createdAt()));
+            ps.setLong(7, event.syncVersion());
+        });
+    }
+
+    /**
+     * 用户某本书的最新事件（不论是否已压缩）
+     */
+    public Optional<ProgressEvent> findLatest(long userId, long bookId) {
+        return jdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM progress_events WHERE user_id = ? AND book_id = ? ORDER BY id DESC LIMIT 1",
+            ProgressEventRepository::mapEvent, userId, bookId).stream().findFirst();
+    }
+
+    /**
+     * 用户某本书的进度快照（id 为 null）
+     */
+    public Optional<ProgressEvent> findSnapshot(long userId, long bookId) {
+        return jdbcTemplate.query(
+            "SELECT user_id, book_id, chapter_index, scroll_position, progress_percent, last_read_at, sync_version " +
+            "FROM reading_progress WHERE user_id = ? AND book_id = ?",
+            ProgressEventRepository::mapSnapshot, userId, bookId).stream().findFirst();
+    }
+
+    /**
+     * 用户尚未压缩的事件（按 id 升序）
+     */
+    public List<ProgressEvent> findPending(long userId) {
+        return jdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM progress_events WHERE user_id = ? AND compacted = FALSE ORDER BY id",
+            ProgressEventRepository::mapEvent, userId);
+    }
+
+    /**
+     * 用户尚未压缩且版本号在 since 之后的事件（按 id 升序）
+     */
+    public List<ProgressEvent> findPendingSince(long userId, long since) {
+        return jdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM progress_events WHERE user_id = ? AND compacted = FALSE " +
+            "AND sync_version > ? ORDER BY id",
+            ProgressEventRepository::mapEvent, userId, since);
+    }
+
+    // ==================== 压缩 ====================
+
+    /**
+     * 锁定压缩互斥行直到事务结束，多实例的压缩依次执行
+     */
+    public void lockCompaction() {
+        jdbcTemplate.queryForObject("SELECT id FROM progress_compaction_lock WHERE id = 1 FOR UPDATE", Integer.class);
+    }
+
+    /**
+     * 写入早于 settledBefore 且尚未压缩的事件（按 id 升序，最多 limit 条）
+     */
+    public List<ProgressEvent> findUncompacted(LocalDateTime settledBefore, int limit) {
+        return jdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM progress_events WHERE compacted = FALSE AND created_at < ? ORDER BY id LIMIT ?",
+            ProgressEventRepository::mapEvent, Timestamp.valueOf(settledBefore), limit);
+    }
+
+    /**
+     * 标记事件已压缩
+     */
+    public void markCompacted(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("UPDATE progress_events SET compacted = TRUE WHERE id = ?", ids, ids.size(),
+            (ps, id) -> ps.setLong(1, id));
+    }
+
+    /**
+     * 用事件覆盖阅读进度快照：先批量 UPDATE，未命中的再确认快照不存在（首次阅读）后批量 INSERT。
+     * 快照的版本号已大于事件时保持不变
+     *
+     * @param events 每个 (用户, 书籍) 最多一条
+     */
+    public void applyToSnapshots(Collection<ProgressEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<ProgressEvent> list = new ArrayList<>(events);
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SNAPSHOT_SQL, list, list.size(), (ps, event) -> {
+            setSnapshot(ps, event);
+            ps.setLong(8, event.syncVersion());
+        });
+
+        List<ProgressEvent> missing = new ArrayList<>();
+        int i = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                if (count == 0 && !snapshotExists(list.get(i))) {
+                    missing.add(list.get(i));
+                }
+                i++;
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SNAPSHOT_SQL, missing, missing.size(),
+                ProgressEventRepository::setSnapshot);
+        }
+    }
+
+    /**
+     * 删除已压缩且早于 before 的事件
+     *
+     * @return 删除的行数
+     */
+    public int deleteCompactedBefore(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM progress_events WHERE compacted = TRUE AND created_at < ?",
+            Timestamp.valueOf(before));
+    }
+
+    /**
+     * 快照只由压缩任务写入，在压缩锁内检查后插入不会与其他实例冲突
+     */
+    private boolean snapshotExists(ProgressEvent event) {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM reading_progress WHERE user_id = ? AND book_id = ?",
+            Integer.class, event.userId(), event.bookId()).isEmpty();
+    }
+
+    private static ProgressEvent mapEvent(ResultSet rs, int rowNum) throws SQLException {
+        double scroll = rs.getDouble(5);
+        Double scrollPosition = rs.wasNull() ? null : scroll;
+        double percent = rs.getDouble(6);
+        Double progressPercent = rs.wasNull() ? null : percent;
+        return new ProgressEvent(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getInt(4),
+            scrollPosition, progressPercent, rs.getTimestamp(7).toLocalDateTime(), rs.getLong(8));
+    }
+
+    private static ProgressEvent mapSnapshot(ResultSet rs, int rowNum) throws SQLException {
+        double scroll = rs.getDouble(4);
+        Double scrollPosition = rs.wasNull() ? null : scroll;
+        double percent = rs.getDouble(5);
+        Double progressPercent = rs.wasNull() ? null : percent;
+        Timestamp lastReadAt = rs.getTimestamp(6);
+        return new ProgressEvent(null, rs.getLong(1), rs.getLong(2), rs.getInt(3), scrollPosition, progressPercent,
+            lastReadAt != null ? lastReadAt.toLocalDateTime() : null, rs.getLong(7));
+    }
+
+    /**
+     * UPDATE 与 INSERT 参数顺序一致：进度在前，主键在后
+     */
+    private static void setSnapshot(PreparedStatement ps, ProgressEvent event) throws SQLException {
+        ps.setInt(1, event.chapterIndex());
+        setDouble(ps, 2, event.scrollPosition());
+        setDouble(ps, 3, event.progressPercent());
+        ps.setTimestamp(4, Timestamp.valueOf(event.createdAt()));
+        ps.setLong(5, event.syncVersion());
+        ps.setLong(6, event.userId());
+        ps.setLong(7, event.bookId());
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value != null) {
+            ps.setDouble(index, value);
+        } else {
+            ps.setNull(index, Types.DOUBLE);
+        }
+    }
+}
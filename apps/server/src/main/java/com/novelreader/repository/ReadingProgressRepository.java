@@ -1,7 +1,9 @@
 package com.novelreader.repository;
 
 import com.novelreader.entity.ReadingProgress;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -18,12 +20,14 @@ public interface ReadingProgressRepository extends JpaRepository<ReadingProgress
     /**
      * 查询用户某本书的阅读进度
      */
-    Optional<ReadingProgress> findByUserIdAndBookId(Long userId, Long bookId);
+    @Query("SELECT rp FROM ReadingProgress rp WHERE rp.user.id = :userId AND rp.book.id = :bookId")
+    Optional<ReadingProgress> findByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
 
     /**
      * 查询用户所有阅读进度
      */
-    List<ReadingProgress> findByUserIdOrderByLastReadAtDesc(Long userId);
+    @Query("SELECT rp FROM ReadingProgress rp WHERE rp.user.id = :userId ORDER BY rp.lastReadAt DESC")
+    List<ReadingProgress> findByUserIdOrderByLastReadAtDesc(@Param("userId") Long userId);
 
     /**
      * 查询用户所有阅读进度（带 Book 信息，避免 N+1）
@@ -42,16 +46,27 @@ public interface ReadingProgressRepository extends JpaRepository<ReadingProgress
     List<ReadingProgress> findRecentReading(@Param("userId") Long userId);
 
     /**
-     * 查询用户最近阅读的书籍（带 Book 信息，避免 N+1）
+     * 查询用户最近阅读的书籍（带 Book 信息，避免 N+1；条数限制在数据库端执行）
      */
     @Query("SELECT rp FROM ReadingProgress rp " +
            "JOIN FETCH rp.book " +
            "WHERE rp.user.id = :userId " +
            "ORDER BY rp.lastReadAt DESC")
-    List<ReadingProgress> findRecentReadingWithBook(@Param("userId") Long userId);
+    List<ReadingProgress> findRecentReadingWithBook(@Param("userId") Long userId, Pageable limit);
 
     /**
-     * 删除书籍的所有阅读进度
+     * 查询同步版本号在 since 之后的阅读进度（带 Book 信息）
      */
-    void deleteByBookId(Long bookId);
+    @Query("SELECT rp FROM ReadingProgress rp " +
+           "JOIN FETCH rp.book " +
+           "WHERE rp.user.id = :userId AND rp.syncVersion > :since " +
+           "ORDER BY rp.syncVersion")
+    List<ReadingProgress> findChangedWithBook(@Param("userId") Long userId, @Param("since") Long since);
+
+    /**
+     * 删除书籍的所有阅读进度（批量 DELETE，不逐个加载实体）
+     */
+    @Modifying
+    @Query("DELETE FROM ReadingProgress rp WHERE rp.book.id = :bookId")
+    void deleteByBookId(@Param("bookId") Long bookId);
 }
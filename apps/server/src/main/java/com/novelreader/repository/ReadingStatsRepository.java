@@ -0,0 +1,286 @@
+package com.novelreader.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * 阅读统计查询（JDBC）
+ *
+ * reading_stats 为每个 (用户, 书籍, 日期) 一行的日统计；reading_stats_rollups 为已结束日期的
+ * 周 / 月 / 年 / 累计汇总，book_id = {@link #ALL_BOOKS} 表示用户所有书籍的合计
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReadingStatsRepository {
+
+    /**
+     * 汇总行中表示"所有书籍"的 book_id
+     */
+    public static final long ALL_BOOKS = 0;
+
+    /**
+     * 累计汇总的起始日期（固定值）
+     */
+    public static final LocalDate LIFETIME_START = LocalDate.of(1970, 1, 1);
+
+    private static final String TOTALS_COLUMNS =
+        "SUM(reading_time), SUM(characters_read), SUM(chapters_read)";
+
+    private static final String UPDATE_ROLLUP_SQL =
+        "UPDATE reading_stats_rollups SET reading_time = reading_time + ?, characters_read = characters_read + ?, " +
+        "chapters_read = chapters_read + ?, days_read = days_read + ? " +
+        "WHERE user_id = ? AND book_id = ? AND period = ? AND period_start = ?";
+
+    private static final String INSERT_ROLLUP_SQL =
+        "INSERT INTO reading_stats_rollups (reading_time, characters_read, chapters_read, days_read, " +
+        "user_id, book_id, period, period_start) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 汇总周期
+     */
+    public enum Period {
+        /** 自然周（周一开始） */
+        WEEK,
+        MONTH,
+        YEAR,
+        LIFETIME;
+
+        /**
+         * 包含 day 的周期的起始日期
+         */
+        public LocalDate start(LocalDate day) {
+            return switch (this) {
+                case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> day.withDayOfMonth(1);
+                case YEAR -> day.withDayOfYear(1);
+                case LIFETIME -> LIFETIME_START;
+            };
+        }
+    }
+
+    /**
+     * 统计量
+     *
+     * @param readingTime 阅读时长（秒）
+     * @param daysRead    有阅读记录的天数
+     */
+    public record Totals(long readingTime, long charactersRead, long chaptersRead, int daysRead) {
+
+        public static final Totals ZERO = new Totals(0, 0, 0, 0);
+
+        public Totals plus(Totals other) {
+            return new Totals(readingTime + other.readingTime, charactersRead + other.charactersRead,
+                chaptersRead + other.chaptersRead, daysRead + other.daysRead);
+        }
+
+        public Totals withDaysRead(int days) {
+            return new Totals(readingTime, charactersRead, chaptersRead, days);
+        }
+    }
+
+    /**
+     * 一天的统计（daysRead 为 1）
+     */
+    public record DayTotals(LocalDate date, Totals totals) {
+    }
+
+    /**
+     * 日统计行（bookId 为 null 表示书籍已删除）
+     */
+    public record DayRow(long userId, Long bookId, Totals totals) {
+    }
+
+    /**
+     * 汇总行主键
+     */
+    public record RollupKey(long userId, long bookId, Period period, LocalDate periodStart) {
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 按日期汇总 [from, to] 区间的日统计
+     *
+     * @param bookId 为 null 时汇总用户所有书籍
+     */
+    public List<DayTotals> findDaily(long userId, Long bookId, LocalDate from, LocalDate to) {
+        if (bookId == null) {
+            return jdbcTemplate.query(
+                "SELECT date, " + TOTALS_COLUMNS + " FROM reading_stats " +
+                "WHERE user_id = ? AND date BETWEEN ? AND ? GROUP BY date ORDER BY date",
+                ReadingStatsRepository::mapDayTotals, userId, Date.valueOf(from), Date.valueOf(to));
+        }
+        return jdbcTemplate.query(
+            "SELECT date, " + TOTALS_COLUMNS + " FROM reading_stats " +
+            "WHERE user_id = ? AND book_id = ? AND date BETWEEN ? AND ? GROUP BY date ORDER BY date",
+            ReadingStatsRepository::mapDayTotals, userId, bookId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * 读取指定周期的汇总行
+     *
+     * period IN (...) AND period_start IN (...) 在主键上查找，组合是请求键的超集（最多 4 × 4 行），
+     * 多出的行在内存中过滤
+     */
+    public Map<Period, Totals> findRollups(long userId, long bookId, Map<Period, LocalDate> starts) {
+        Map<Period, Totals> rollups = new EnumMap<>(Period.class);
+        if (starts.isEmpty()) {
+            return rollups;
+        }
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        args.add(bookId);
+        starts.keySet().forEach(period -> args.add(period.name()));
+        starts.values().forEach(start -> args.add(Date.valueOf(start)));
+        String sql = "SELECT period, period_start, reading_time, characters_read, chapters_read, days_read " +
+            "FROM reading_stats_rollups WHERE user_id = ? AND book_id = ? " +
+            "AND period IN (" + placeholders(starts.size()) + ") " +
+            "AND period_start IN (" + placeholders(starts.size()) + ")";
+
+        jdbcTemplate.query(sql, rs -> {
+            Period period = Period.valueOf(rs.getString(1));
+            if (rs.getDate(2).toLocalDate().equals(starts.get(period))) {
+                rollups.put(period, new Totals(rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getInt(6)));
+            }
+        }, args.toArray());
+        return rollups;
+    }
+
+    // ==================== 汇总 ====================
+
+    /**
+     * 已计入汇总的最后一天
+     */
+    public Optional<LocalDate> findRolledThrough() {
+        Date date = jdbcTemplate.queryForObject(
+            "SELECT rolled_through FROM reading_stats_rollup_state WHERE id = 1", Date.class);
+        return Optional.ofNullable(date).map(Date::toLocalDate);
+    }
+
+    /**
+     * after 之后第一个有日统计的日期
+     *
+     * @param after 为 null 时返回最早的日期
+     */
+    public Optional<LocalDate> findFirstDateAfter(LocalDate after) {
+        Date date = jdbcTemplate.queryForObject(
+            "SELECT MIN(date) FROM reading_stats WHERE date > ?", Date.class,
+            Date.valueOf(after != null ? after : LIFETIME_START.minusDays(1)));
+        return Optional.ofNullable(date).map(Date::toLocalDate);
+    }
+
+    /**
+     * 推进汇总进度（比较更新，锁定进度行直到事务结束，多实例互斥）
+     *
+     * @return 进度仍为 expected 并已更新为 next 时返回 true
+     */
+    public boolean advanceRolledThrough(LocalDate expected, LocalDate next) {
+        int updated = expected == null
+            ? jdbcTemplate.update(
+                "UPDATE reading_stats_rollup_state SET rolled_through = ? WHERE id = 1 AND rolled_through IS NULL",
+                Date.valueOf(next))
+            : jdbcTemplate.update(
+                "UPDATE reading_stats_rollup_state SET rolled_through = ? WHERE id = 1 AND rolled_through = ?",
+                Date.valueOf(next), Date.valueOf(expected));
+        return updated == 1;
+    }
+
+    /**
+     * 逐行读取一天的日统计
+     */
+    public void forEachRowOfDay(LocalDate date, Consumer<DayRow> consumer) {
+        jdbcTemplate.query(
+            "SELECT user_id, book_id, reading_time, characters_read, chapters_read FROM reading_stats WHERE date = ?",
+            rs -> {
+                long bookId = rs.getLong(2);
+                Long book = rs.wasNull() ? null : bookId;
+                consumer.accept(new DayRow(rs.getLong(1), book,
+                    new Totals(rs.getLong(3), rs.getLong(4), rs.getLong(5), 1)));
+            },
+            Date.valueOf(date));
+    }
+
+    /**
+     * 累加汇总行：先批量 UPDATE，未命中的再批量 INSERT
+     */
+    public void addToRollups(Map<RollupKey, Totals> rollups) {
+        if (rollups.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<RollupKey, Totals>> entries = new ArrayList<>(rollups.entrySet());
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_ROLLUP_SQL, entries, entries.size(),
+            ReadingStatsRepository::setRollup);
+
+        List<Map.Entry<RollupKey, Totals>> missing = new ArrayList<>();
+        int i = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                if (count == 0) {
+                    missing.add(entries.get(i));
+                }
+                i++;
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ROLLUP_SQL, missing, missing.size(), ReadingStatsRepository::setRollup);
+        }
+    }
+
+    /**
+     * 删除一本书的汇总行
+     */
+    public int deleteBookRollups(long bookId) {
+        return jdbcTemplate.update("DELETE FROM reading_stats_rollups WHERE book_id = ?", bookId);
+    }
+
+    /**
+     * 清空汇总并重置进度（重建前调用）
+     */
+    public void resetRollups() {
+        jdbcTemplate.update("DELETE FROM reading_stats_rollups");
+        jdbcTemplate.update("UPDATE reading_stats_rollup_state SET rolled_through = NULL WHERE id = 1");
+    }
+
+    private static DayTotals mapDayTotals(ResultSet rs, int rowNum) throws SQLException {
+        return new DayTotals(rs.getDate(1).toLocalDate(),
+            new Totals(rs.getLong(2), rs.getLong(3), rs.getLong(4), 1));
+    }
+
+    /**
+     * UPDATE 与 INSERT 参数顺序一致：统计量在前，主键在后
+     */
+    private static void setRollup(PreparedStatement ps, Map.Entry<RollupKey, Totals> entry) throws SQLException {
+        Totals totals = entry.getValue();
+        RollupKey key = entry.getKey();
+        ps.setLong(1, totals.readingTime());
+        ps.setLong(2, totals.charactersRead());
+        ps.setLong(3, totals.chaptersRead());
+        ps.setInt(4, totals.daysRead());
+        ps.setLong(5, key.userId());
+        ps.setLong(6, key.bookId());
+        ps.setString(7, key.period().name());
+        ps.setDate(8, Date.valueOf(key.periodStart()));
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
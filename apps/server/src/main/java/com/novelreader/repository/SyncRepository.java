@@ -0,0 +1,189 @@
+package com.novelreader.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * 多端同步版本号（JDBC）
+ *
+ * user_sync_state 为每个用户一个单调递增的版本号。递增在调用方事务中执行并锁定用户的版本行，
+ * 同一用户的修改按版本号顺序提交：读到版本号 V 时，版本号不超过 V 的修改都已可见
+ */
+@Repository
+@RequiredArgsConstructor
+public class SyncRepository {
+
+    private static final String INCREMENT_SQL = "UPDATE user_sync_state SET version = version + ? WHERE user_id = ?";
+
+    /** 唯一约束冲突（SQL 标准，H2 与 PostgreSQL 相同） */
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 删除记录的实体类型
+     */
+    public enum EntityType {
+        BOOKMARK,
+        /** 书籍删除时其进度与书签级联删除，客户端一并移除 */
+        BOOK
+    }
+
+    /**
+     * 删除记录
+     */
+    public record Tombstone(EntityType entityType, long entityId, long syncVersion) {
+    }
+
+    // ==================== 版本号 ====================
+
+    /**
+     * 用户当前版本号（没有修改过为 0）
+     */
+    public long findVersion(long userId) {
+        List<Long> versions = jdbcTemplate.queryForList(
+            "SELECT version FROM user_sync_state WHERE user_id = ?", Long.class, userId);
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+
+    /**
+     * 为一次修改分配版本号（在调用方事务中）
+     */
+    public long next(long userId) {
+        return advance(new TreeMap<>(Map.of(userId, 1))).get(userId);
+    }
+
+    /**
+     * 锁定用户的版本行直到事务结束，不分配版本号（在调用方事务中）。
+     * 之后在同一事务中读到的该用户数据不会被其他修改改变，可据此做比较更新
+     */
+    public void lock(Collection<Long> userIds) {
+        SortedMap<Long, Integer> counts = new TreeMap<>();
+        userIds.forEach(userId -> counts.put(userId, 0));
+        advance(counts);
+    }
+
+    /**
+     * 为多个用户批量分配版本号（在调用方事务中）
+     *
+     * 按用户 ID 升序加锁，避免并发事务死锁。用户没有版本行（迁移后注册的用户首次修改）时插入，
+     * 同一用户首次修改并发插入时由 {@link #insertOrIncrement} 在本事务内改为递增
+     *
+     * @param counts 用户 ID -> 本次修改数
+     * @return 用户 ID -> 递增后的版本号（本次修改占用 [返回值 - 修改数 + 1, 返回值]）
+     */
+    public Map<Long, Long> advance(SortedMap<Long, Integer> counts) {
+        if (counts.isEmpty()) {
+            return Map.of();
+        }
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(counts.entrySet());
+        int[][] updated = jdbcTemplate.batchUpdate(INCREMENT_SQL,
+            entries, entries.size(), (ps, entry) -> {
+                ps.setInt(1, entry.getValue());
+                ps.setLong(2, entry.getKey());
+            });
+
+        int i = 0;
+        for (int[] chunk : updated) {
+            for (int count : chunk) {
+                if (count == 0) {
+                    Map.Entry<Long, Integer> entry = entries.get(i);
+                    insertOrIncrement(entry.getKey(), entry.getValue());
+                }
+                i++;
+            }
+        }
+
+        return findVersions(counts.keySet());
+    }
+
+    /**
+     * 批量读取用户当前版本号，没有版本行的用户不在结果中
+     */
+    public Map<Long, Long> findVersions(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Long> versions = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT user_id, version FROM user_sync_state WHERE user_id IN (" + placeholders(userIds.size()) + ")",
+            rs -> {
+                versions.put(rs.getLong(1), rs.getLong(2));
+            },
+            userIds.toArray());
+        return versions;
+    }
+
+    // ==================== 删除记录 ====================
+
+    /**
+     * 记录删除（在调用方事务中，版本号由 {@link #next(long)} 分配）
+     */
+    public void addTombstone(long userId, EntityType entityType, long entityId, long syncVersion) {
+        jdbcTemplate.update(
+            "INSERT INTO sync_tombstones (user_id, entity_type, entity_id, sync_version) VALUES (?, ?, ?, ?)",
+            userId, entityType.name(), entityId, syncVersion);
+    }
+
+    /**
+     * 版本号 since 之后的删除记录（按版本号升序）
+     */
+    public List<Tombstone> findTombstonesSince(long userId, long since) {
+        return jdbcTemplate.query(
+            "SELECT entity_type, entity_id, sync_version FROM sync_tombstones " +
+            "WHERE user_id = ? AND sync_version > ? ORDER BY sync_version",
+            (rs, rowNum) -> new Tombstone(EntityType.valueOf(rs.getString(1)), rs.getLong(2), rs.getLong(3)),
+            userId, since);
+    }
+
+    /**
+     * 插入用户的版本行；其他事务已插入同一用户时回滚到保存点，改为递增其提交的行。
+     * 保存点使冲突不会中止调用方事务（PostgreSQL 中语句出错后整个事务不可再用），H2 与 PostgreSQL 通用
+     */
+    private void insertOrIncrement(long userId, int count) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            Savepoint savepoint = con.getAutoCommit() ? null : con.setSavepoint();
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO user_sync_state (user_id, version) VALUES (?, ?)")) {
+                ps.setLong(1, userId);
+                ps.setLong(2, count);
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                    throw e;
+                }
+                if (savepoint != null) {
+                    con.rollback(savepoint);
+                }
+                try (PreparedStatement ps = con.prepareStatement(INCREMENT_SQL)) {
+                    ps.setInt(1, count);
+                    ps.setLong(2, userId);
+                    ps.executeUpdate();
+                }
+                return null;
+            }
+            if (savepoint != null) {
+                con.releaseSavepoint(savepoint);
+            }
+            return null;
+        });
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
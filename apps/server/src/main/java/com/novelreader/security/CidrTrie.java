@@ -0,0 +1,130 @@
+package com.novelreader.security;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CIDR 前缀树
+ *
+ * 启动时将可信代理网段编译为二叉前缀树，匹配时按位下降，最多 32（IPv4）或 128（IPv6）步，
+ * 不分配对象。IPv4 映射地址（::ffff:a.b.c.d）按 IPv4 匹配
+ */
+final class CidrTrie {
+
+    private final BitTrie ipv4 = new BitTrie();
+    private final BitTrie ipv6 = new BitTrie();
+
+    private CidrTrie() {
+    }
+
+    /**
+     * 编译网段列表，如 "10.0.0.0/8"、"fc00::/7"；省略前缀长度表示单个地址
+     */
+    static CidrTrie compile(List<String> cidrs) {
+        CidrTrie trie = new CidrTrie();
+        for (String cidr : cidrs) {
+            trie.add(cidr.trim());
+        }
+        return trie;
+    }
+
+    private void add(String cidr) {
+        int slash = cidr.indexOf('/');
+        int end = slash >= 0 ? slash : cidr.length();
+        int version = IpAddresses.version(cidr, 0, end);
+        if (version == 0) {
+            throw new IllegalArgumentException("Invalid CIDR: " + cidr);
+        }
+
+        int maxBits = version == 4 ? 32 : 128;
+        int prefix;
+        try {
+            prefix = slash >= 0 ? Integer.parseInt(cidr.substring(slash + 1)) : maxBits;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid CIDR prefix: " + cidr);
+        }
+        if (prefix < 0 || prefix > maxBits) {
+            throw new IllegalArgumentException("Invalid CIDR prefix: " + cidr);
+        }
+
+        if (version == 4) {
+            ipv4.insert(IpAddresses.ipv4(cidr, 0, end) << 32, 0, prefix);
+        } else {
+            ipv6.insert(IpAddresses.ipv6High(cidr, 0, end), IpAddresses.ipv6Low(cidr, 0, end), prefix);
+        }
+    }
+
+    /**
+     * 判断 s[from, to) 表示的地址是否落在任一网段内，非法地址返回 false
+     */
+    boolean contains(String s, int from, int to) {
+        int version = IpAddresses.version(s, from, to);
+        if (version == 4) {
+            return ipv4.matches(IpAddresses.ipv4(s, from, to) << 32, 0, 32);
+        }
+        if (version == 6) {
+            long high = IpAddresses.ipv6High(s, from, to);
+            long low = IpAddresses.ipv6Low(s, from, to);
+            if (high == 0 && (low >>> 32) == 0xFFFF && ipv4.matches(low << 32, 0, 32)) {
+                return true;
+            }
+            return ipv6.matches(high, low, 128);
+        }
+        return false;
+    }
+
+    /**
+     * 基于数组的二叉前缀树，节点 0 为根
+     */
+    private static final class BitTrie {
+
+        /**
+         * next[2 * node + bit] 为子节点下标，0 表示不存在
+         */
+        private int[] next = new int[32];
+        private boolean[] terminal = new boolean[16];
+        private int nodes = 1;
+
+        void insert(long high, long low, int prefix) {
+            int node = 0;
+            for (int i = 0; i < prefix; i++) {
+                int slot = 2 * node + bit(high, low, i);
+                if (next[slot] == 0) {
+                    // newNode 可能扩容数组，先分配再写入
+                    int child = newNode();
+                    next[slot] = child;
+                }
+                node = next[slot];
+            }
+            terminal[node] = true;
+        }
+
+        boolean matches(long high, long low, int bits) {
+            int node = 0;
+            for (int i = 0; i < bits; i++) {
+                if (terminal[node]) {
+                    return true;
+                }
+                node = next[2 * node + bit(high, low, i)];
+                if (node == 0) {
+                    return false;
+                }
+            }
+            return terminal[node];
+        }
+
+        private int newNode() {
+            if (nodes == terminal.length) {
+                terminal = Arrays.copyOf(terminal, nodes * 2);
+                next = Arrays.copyOf(next, nodes * 4);
+            }
+            return nodes++;
+        }
+
+        private static int bit(long high, long low, int index) {
+            return index < 64
+                ? (int) (high >>> (63 - index)) & 1
+                : (int) (low >>> (127 - index)) & 1;
+        }
+    }
+}
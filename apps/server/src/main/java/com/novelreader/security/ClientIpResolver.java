@@ -0,0 +1,150 @@
+package com.novelreader.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.List;
+
+/**
+ * 客户端 IP 解析
+ *
+ * 策略说明：
+ * 1. 优先使用 X-Real-IP（通常由可信代理设置），前提是它不在可信代理网段内
+ * 2. X-Forwarded-For 从右向左取第一个不在可信代理网段内的地址（避免客户端伪造）
+ * 3. 如果都不可用，使用 remoteAddr
+ *
+ * 热路径 {@link #resolveKey} 只在请求头字符串上按下标扫描，返回 long 类型的限流 key，不分配对象
+ */
+final class ClientIpResolver {
+
+    /**
+     * 无法解析为 IP 的值按字符哈希落入 [2^32, 2^33)，对应 IPv6 保留前缀 0:1::/32，
+     * 不与 IPv4 key 及实际分配的 IPv6 /64 冲突
+     */
+    private static final long UNPARSED_KEY_BASE = 1L << 32;
+
+    private final CidrTrie trustedProxies;
+
+    ClientIpResolver(List<String> trustedProxyCidrs) {
+        this.trustedProxies = CidrTrie.compile(trustedProxyCidrs);
+    }
+
+    /**
+     * 解析客户端限流 key
+     *
+     * IPv4 为 32 位地址值；IPv6 取高 64 位（/64 前缀，同一客户端通常分配一个 /64）；
+     * IPv4 映射地址按 IPv4 处理
+     */
+    long resolveKey(HttpServletRequest request) {
+        String xRealIp = request.getHeader("X-Real-IP");
+        if (xRealIp != null) {
+            long span = trim(xRealIp, 0, xRealIp.length());
+            if (!isEmpty(span) && !isTrusted(xRealIp, span)) {
+                return clientKey(xRealIp, from(span), to(span));
+            }
+        }
+
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
+            long span = selectForwarded(xForwardedFor);
+            return clientKey(xForwardedFor, from(span), to(span));
+        }
+
+        String remoteAddr = request.getRemoteAddr();
+        return clientKey(remoteAddr, 0, remoteAddr.length());
+    }
+
+    /**
+     * 解析客户端 IP 字符串（仅用于日志等非热路径）
+     */
+    String resolveAddress(HttpServletRequest request) {
+        String xRealIp = request.getHeader("X-Real-IP");
+        if (xRealIp != null) {
+            long span = trim(xRealIp, 0, xRealIp.length());
+            if (!isEmpty(span) && !isTrusted(xRealIp, span)) {
+                return xRealIp.substring(from(span), to(span));
+            }
+        }
+
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
+            long span = selectForwarded(xForwardedFor);
+            return xForwardedFor.substring(from(span), to(span));
+        }
+
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * X-Forwarded-For: client, proxy1, proxy2
+     * 从右向左找到第一个非可信地址；全部可信时返回最左边的（原始客户端）
+     */
+    private long selectForwarded(String header) {
+        int end = header.length();
+        long leftmost = 0;
+        while (end >= 0) {
+            int comma = header.lastIndexOf(',', end - 1);
+            long span = trim(header, comma + 1, end);
+            if (!isEmpty(span) && !isTrusted(header, span)) {
+                return span;
+            }
+            leftmost = span;
+            end = comma;
+        }
+        return leftmost;
+    }
+
+    private boolean isTrusted(String s, long span) {
+        return trustedProxies.contains(s, from(span), to(span));
+    }
+
+    /**
+     * 计算地址的限流 key
+     */
+    static long clientKey(String s, int from, int to) {
+        int version = IpAddresses.version(s, from, to);
+        if (version == 4) {
+            return IpAddresses.ipv4(s, from, to);
+        }
+        if (version == 6) {
+            long high = IpAddresses.ipv6High(s, from, to);
+            if (high == 0) {
+                long low = IpAddresses.ipv6Low(s, from, to);
+                if ((low >>> 32) == 0xFFFF) {
+                    return low & 0xFFFFFFFFL;
+                }
+            }
+            return high;
+        }
+
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + s.charAt(i);
+        }
+        return UNPARSED_KEY_BASE | (hash & 0xFFFFFFFFL);
+    }
+
+    // ==================== 区间编码 ====================
+    // 子串区间 [from, to) 打包为一个 long：高 32 位 from，低 32 位 to
+
+    private static long trim(String s, int from, int to) {
+        while (from < to && Character.isWhitespace(s.charAt(from))) {
+            from++;
+        }
+        while (to > from && Character.isWhitespace(s.charAt(to - 1))) {
+            to--;
+        }
+        return ((long) from << 32) | to;
+    }
+
+    private static int from(long span) {
+        return (int) (span >>> 32);
+    }
+
+    private static int to(long span) {
+        return (int) span;
+    }
+
+    private static boolean isEmpty(long span) {
+        return from(span) >= to(span);
+    }
+}
@@ -0,0 +1,89 @@
+package com.novelreader.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 集群模式计数器工厂
+ *
+ * 创建 {@link LeasedRequestCounter} 并定期对账：归还空闲计数器手中的令牌，
+ * 清理共享存储中的过期窗口。计数器以弱引用登记，过滤器不再持有后随 GC 移除，
+ * 仍在使用的计数器始终参与对账
+ */
+@Slf4j
+public class ClusterRequestCounterFactory implements RequestCounterFactory {
+
+    private static final long WINDOW_MS = 60_000;
+
+    private final RateLimitStore store;
+    private final int blockSize;
+    private final long reconcileIdleMs;
+    private final LongSupplier clock;
+
+    private final Set<LeasedRequestCounter> counters =
+        Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    /**
+     * 存储恢复探测时间，所有计数器共享
+     */
+    private final AtomicLong storeRetryAt = new AtomicLong();
+
+    public ClusterRequestCounterFactory(RateLimitStore store, int blockSize, long reconcileIdleMs) {
+        this(store, blockSize, reconcileIdleMs, System::currentTimeMillis);
+    }
+
+    ClusterRequestCounterFactory(RateLimitStore store, int blockSize, long reconcileIdleMs, LongSupplier clock) {
+        this.store = store;
+        this.blockSize = Math.max(1, blockSize);
+        this.reconcileIdleMs = reconcileIdleMs;
+        this.clock = clock;
+    }
+
+    @Override
+    public RequestCounter create(String key) {
+        LeasedRequestCounter counter = new LeasedRequestCounter(key, store, blockSize, clock, storeRetryAt);
+        counters.add(counter);
+        return counter;
+    }
+
+    /**
+     * 定期对账：归还空闲令牌（在登记集合的锁外访问存储）
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.cluster-reconcile-interval-ms:5000}")
+    public void reconcile() {
+        List<LeasedRequestCounter> snapshot;
+        synchronized (counters) {
+            snapshot = new ArrayList<>(counters);
+        }
+        int released = 0;
+        for (LeasedRequestCounter counter : snapshot) {
+            released += counter.reconcile(reconcileIdleMs);
+        }
+        if (released > 0) {
+            log.debug("Released {} idle rate limit tokens", released);
+        }
+    }
+
+    /**
+     * 清理共享存储中两个窗口之前的桶（每5分钟执行）
+     */
+    @Scheduled(fixedRate = 300_000)
+    public void purgeExpiredBuckets() {
+        try {
+            int purged = store.purgeBefore(clock.getAsLong() - WINDOW_MS * 2);
+            if (purged > 0) {
+                log.debug("Purged {} expired rate limit buckets", purged);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to purge rate limit buckets: {}", e.getMessage());
+        }
+    }
+}
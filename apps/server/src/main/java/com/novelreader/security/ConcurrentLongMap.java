@@ -0,0 +1,161 @@
+package com.novelreader.security;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+/**
+ * 以 long 为 key 的分段并发哈希表
+ *
+ * 写入按 key 哈希落到固定数量的分段，每段为加锁的开放寻址表；读取不加锁。
+ * key 以原始类型存储，查找时不产生装箱对象
+ */
+final class ConcurrentLongMap<V> {
+
+    private static final int SEGMENTS = 64;
+
+    private final Segment<V>[] segments;
+
+    @SuppressWarnings("unchecked")
+    ConcurrentLongMap() {
+        segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>();
+        }
+    }
+
+    V get(long key) {
+        int hash = mix(key);
+        return segments[hash & (SEGMENTS - 1)].get(key, hash >>> 6);
+    }
+
+    /**
+     * 不存在时放入 value
+     * @return 最终与 key 关联的值（已存在的值或新放入的 value）
+     */
+    V putIfAbsent(long key, V value) {
+        int hash = mix(key);
+        return segments[hash & (SEGMENTS - 1)].putIfAbsent(key, hash >>> 6, value);
+    }
+
+    /**
+     * 删除满足条件的条目
+     * @return 删除的条目数
+     */
+    int removeIf(Predicate<? super V> predicate) {
+        int removed = 0;
+        for (Segment<V> segment : segments) {
+            removed += segment.removeIf(predicate);
+        }
+        return removed;
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * 线性探测的开放寻址表，values[i] == null 表示空槽
+     *
+     * 写入在段锁内进行：空槽先写 key 再以 release 语义写 value，已占用的槽不再修改；
+     * 删除和扩容构建新表后整体替换。读取以 acquire 语义读到非空 value 时，对应的 key 必然可见，因此无需加锁
+     */
+    private static final class Segment<V> {
+
+        private volatile Table table = new Table(16);
+        private int size;
+
+        private static final class Table {
+
+            private final long[] keys;
+            private final AtomicReferenceArray<Object> values;
+
+            private Table(int capacity) {
+                keys = new long[capacity];
+                values = new AtomicReferenceArray<>(capacity);
+            }
+
+            private int capacity() {
+                return keys.length;
+            }
+        }
+
+        V get(long key, int hash) {
+            Table t = table;
+            int mask = t.capacity() - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                Object value = t.values.getAcquire(i);
+                if (value == null) {
+                    return null;
+                }
+                if (t.keys[i] == key) {
+                    return cast(value);
+                }
+            }
+        }
+
+        synchronized V putIfAbsent(long key, int hash, V value) {
+            Table t = table;
+            int mask = t.capacity() - 1;
+            int i = hash & mask;
+            for (Object existing; (existing = t.values.getPlain(i)) != null; i = (i + 1) & mask) {
+                if (t.keys[i] == key) {
+                    return cast(existing);
+                }
+            }
+            t.keys[i] = key;
+            t.values.setRelease(i, value);
+            if (++size * 2 > t.capacity()) {
+                table = copy(t, t.capacity() * 2, v -> true);
+            }
+            return value;
+        }
+
+        synchronized int removeIf(Predicate<? super V> predicate) {
+            int before = size;
+            Table t = table;
+            table = copy(t, t.capacity(), v -> !predicate.test(cast(v)));
+            return before - size;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        /**
+         * 把保留的条目复制到新表（在段锁内），替换前新表对读取不可见
+         */
+        private Table copy(Table from, int capacity, Predicate<Object> keep) {
+            Table to = new Table(capacity);
+            int mask = capacity - 1;
+            size = 0;
+            for (int i = 0; i < from.capacity(); i++) {
+                Object value = from.values.getPlain(i);
+                if (value != null && keep.test(value)) {
+                    long key = from.keys[i];
+                    int j = (mix(key) >>> 6) & mask;
+                    while (to.values.getPlain(j) != null) {
+                        j = (j + 1) & mask;
+                    }
+                    to.keys[j] = key;
+                    to.values.setPlain(j, value);
+                    size++;
+                }
+            }
+            return to;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> V cast(Object value) {
+            return (V) value;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.novelreader.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内限流存储
+ *
+ * 用于测试和单实例调试，多个 {@link ClusterRequestCounterFactory} 共享同一实例即可模拟集群
+ */
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private record Bucket(String key, long windowStart) {}
+
+    private final ConcurrentHashMap<Bucket, Integer> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public int lease(String key, long windowStart, int requested, int limit) {
+        int[] granted = new int[1];
+        buckets.compute(new Bucket(key, windowStart), (k, used) -> {
+            int current = used == null ? 0 : used;
+            granted[0] = Math.max(0, Math.min(requested, limit - current));
+            return current + granted[0];
+        });
+        return granted[0];
+    }
+
+    @Override
+    public void release(String key, long windowStart, int tokens) {
+        buckets.computeIfPresent(new Bucket(key, windowStart),
+            (k, used) -> Math.max(0, used - tokens));
+    }
+
+    @Override
+    public int purgeBefore(long windowStart) {
+        int beforeSize = buckets.size();
+        buckets.keySet().removeIf(bucket -> bucket.windowStart() < windowStart);
+        return beforeSize - buckets.size();
+    }
+
+    /**
+     * 查询桶内已发放的令牌数（测试用）
+     */
+    int used(String key, long windowStart) {
+        return buckets.getOrDefault(new Bucket(key, windowStart), 0);
+    }
+}
@@ -0,0 +1,236 @@
+package com.novelreader.security;
+
+/**
+ * IP 地址解析工具
+ *
+ * 直接在字符串的 [from, to) 区间上解析，不截取子串、不分配对象，供限流热路径使用
+ */
+final class IpAddresses {
+
+    private IpAddresses() {
+    }
+
+    /**
+     * 判断地址类型
+     * @return 4 表示 IPv4，6 表示 IPv6，0 表示非法地址
+     */
+    static int version(String s, int from, int to) {
+        if (from >= to) {
+            return 0;
+        }
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == ':') {
+                return isValidIpv6(s, from, to) ? 6 : 0;
+            }
+        }
+        return ipv4(s, from, to) >= 0 ? 4 : 0;
+    }
+
+    /**
+     * 解析 IPv4 地址
+     * @return 无符号 32 位地址值，非法地址返回 -1
+     */
+    static long ipv4(String s, int from, int to) {
+        long value = 0;
+        int octets = 0;
+        int digits = 0;
+        int octet = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 3) {
+                    return -1;
+                }
+                octet = octet * 10 + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.') {
+                if (digits == 0 || octets == 3) {
+                    return -1;
+                }
+                value = (value << 8) | octet;
+                octets++;
+                digits = 0;
+                octet = 0;
+            } else {
+                return -1;
+            }
+        }
+        if (digits == 0 || octets != 3) {
+            return -1;
+        }
+        return (value << 8) | octet;
+    }
+
+    /**
+     * IPv6 地址高 64 位（调用方需先通过 {@link #version} 校验）
+     */
+    static long ipv6High(String s, int from, int to) {
+        return ipv6Half(s, from, to, false);
+    }
+
+    /**
+     * IPv6 地址低 64 位（调用方需先通过 {@link #version} 校验）
+     */
+    static long ipv6Low(String s, int from, int to) {
+        return ipv6Half(s, from, to, true);
+    }
+
+    private static boolean isValidIpv6(String s, int from, int to) {
+        int groups = 0;
+        boolean compressed = false;
+        int i = from;
+
+        if (to - from >= 2 && s.charAt(from) == ':' && s.charAt(from + 1) == ':') {
+            compressed = true;
+            i = from + 2;
+            if (i == to) {
+                return true;
+            }
+        }
+
+        while (true) {
+            int segStart = i;
+            boolean dotted = false;
+            while (i < to && s.charAt(i) != ':') {
+                if (s.charAt(i) == '.') {
+                    dotted = true;
+                }
+                i++;
+            }
+            if (i == segStart) {
+                return false;
+            }
+            if (dotted) {
+                // 内嵌 IPv4 只能出现在末尾
+                if (i != to || ipv4(s, segStart, i) < 0) {
+                    return false;
+                }
+                groups += 2;
+            } else {
+                if (i - segStart > 4 || !isHex(s, segStart, i)) {
+                    return false;
+                }
+                groups++;
+            }
+            if (i == to) {
+                break;
+            }
+
+            // 跳过分隔符，处理 "::"
+            i++;
+            if (i < to && s.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+                if (i == to) {
+                    break;
+                }
+            } else if (i == to) {
+                return false;
+            }
+        }
+
+        return compressed ? groups < 8 : groups == 8;
+    }
+
+    private static long ipv6Half(String s, int from, int to, boolean low) {
+        int doubleColon = -1;
+        for (int i = from; i + 1 < to; i++) {
+            if (s.charAt(i) == ':' && s.charAt(i + 1) == ':') {
+                doubleColon = i;
+                break;
+            }
+        }
+        if (doubleColon < 0) {
+            return segmentBits(s, from, to, 0, low);
+        }
+
+        long bits = segmentBits(s, from, doubleColon, 0, low);
+        int tailStart = doubleColon + 2;
+        if (tailStart < to) {
+            bits |= segmentBits(s, tailStart, to, 8 - countGroups(s, tailStart, to), low);
+        }
+        return bits;
+    }
+
+    private static long segmentBits(String s, int from, int to, int firstGroup, boolean low) {
+        long bits = 0;
+        int group = firstGroup;
+        int i = from;
+        while (i < to) {
+            int segStart = i;
+            boolean dotted = false;
+            while (i < to && s.charAt(i) != ':') {
+                if (s.charAt(i) == '.') {
+                    dotted = true;
+                }
+                i++;
+            }
+            if (dotted) {
+                long v4 = ipv4(s, segStart, i);
+                bits |= groupBits(v4 >>> 16, group++, low);
+                bits |= groupBits(v4 & 0xFFFF, group++, low);
+            } else {
+                bits |= groupBits(hex(s, segStart, i), group++, low);
+            }
+            i++;
+        }
+        return bits;
+    }
+
+    private static long groupBits(long value, int group, boolean low) {
+        int offset = low ? group - 4 : group;
+        if (offset < 0 || offset > 3) {
+            return 0;
+        }
+        return value << (16 * (3 - offset));
+    }
+
+    private static int countGroups(String s, int from, int to) {
+        int groups = 1;
+        boolean dotted = false;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == ':') {
+                groups++;
+            } else if (c == '.') {
+                dotted = true;
+            }
+        }
+        return dotted ? groups + 1 : groups;
+    }
+
+    private static boolean isHex(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (hexValue(s.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hex(String s, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = (value << 4) | hexValue(s.charAt(i));
+        }
+        return value;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,77 @@
+package com.novelreader.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * 基于共享数据库的限流存储
+ *
+ * 使用 rate_limit_buckets 表，按 (bucket_key, window_start) 记录已发放令牌数，
+ * 通过乐观比较更新保证并发租用不超发，H2 与 PostgreSQL 通用
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final int MAX_CAS_ATTEMPTS = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int lease(String key, long windowStart, int requested, int limit) {
+        for (int attempt = 0; attempt < MAX_CAS_ATTEMPTS; attempt++) {
+            List<Integer> rows = jdbcTemplate.queryForList(
+                "SELECT used FROM rate_limit_buckets WHERE bucket_key = ? AND window_start = ?",
+                Integer.class, key, windowStart);
+
+            if (rows.isEmpty()) {
+                int granted = Math.min(requested, limit);
+                if (granted <= 0) {
+                    return 0;
+                }
+                try {
+                    jdbcTemplate.update(
+                        "INSERT INTO rate_limit_buckets (bucket_key, window_start, used) VALUES (?, ?, ?)",
+                        key, windowStart, granted);
+                    return granted;
+                } catch (DuplicateKeyException e) {
+                    // 其他实例同时创建了桶，重试
+                    continue;
+                }
+            }
+
+            int used = rows.get(0);
+            int granted = Math.min(requested, limit - used);
+            if (granted <= 0) {
+                return 0;
+            }
+            int updated = jdbcTemplate.update(
+                "UPDATE rate_limit_buckets SET used = used + ? " +
+                "WHERE bucket_key = ? AND window_start = ? AND used = ?",
+                granted, key, windowStart, used);
+            if (updated == 1) {
+                return granted;
+            }
+        }
+
+        log.debug("Rate limit lease contention for key: {}", key);
+        return 0;
+    }
+
+    @Override
+    public void release(String key, long windowStart, int tokens) {
+        jdbcTemplate.update(
+            "UPDATE rate_limit_buckets SET used = GREATEST(used - ?, 0) " +
+            "WHERE bucket_key = ? AND window_start = ?",
+            tokens, key, windowStart);
+    }
+
+    @Override
+    public int purgeBefore(long windowStart) {
+        return jdbcTemplate.update("DELETE FROM rate_limit_buckets WHERE window_start < ?", windowStart);
+    }
+}
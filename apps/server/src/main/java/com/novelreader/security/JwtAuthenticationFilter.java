@@ -1,10 +1,13 @@
 package com.novelreader.security;
 
+import com.novelreader.util.FlightEvents;
+import com.novelreader.util.Timings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -15,17 +18,33 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT 认证过滤器
+ *
+ * 携带 Token 的请求按认证结果记录 novel.auth.jwt 耗时：
+ * SUCCESS（认证成功）/ CLIENT_ERROR（Token 无效或过期）/ SERVER_ERROR（加载用户失败）
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final Timer successTimer;
+    private final Timer clientErrorTimer;
+    private final Timer serverErrorTimer;
+
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider,
+                                   CustomUserDetailsService userDetailsService,
+                                   MeterRegistry meterRegistry) {
+        this.tokenProvider = tokenProvider;
+        this.userDetailsService = userDetailsService;
+        this.successTimer = Timings.timer(meterRegistry, "novel.auth.jwt", Timings.SUCCESS);
+        this.clientErrorTimer = Timings.timer(meterRegistry, "novel.auth.jwt", Timings.CLIENT_ERROR);
+        this.serverErrorTimer = Timings.timer(meterRegistry, "novel.auth.jwt", Timings.SERVER_ERROR);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -34,17 +53,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                Long userId = tokenProvider.getUserIdFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserById(userId);
-
-                UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(
-                    new WebAuthenticationDetailsSource().buildDetails(request));
-
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (StringUtils.hasText(jwt)) {
+                authenticate(jwt, request);
             }
         } catch (Exception ex) {
             log.error("无法设置用户认证信息", ex);
@@ -53,6 +63,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private void authenticate(String jwt, HttpServletRequest request) {
+        FlightEvents.Auth event = new FlightEvents.Auth();
+        event.begin();
+        long start = System.nanoTime();
+        Timer timer = serverErrorTimer;
+        String outcome = Timings.SERVER_ERROR;
+        try {
+            if (!tokenProvider.validateToken(jwt)) {
+                timer = clientErrorTimer;
+                outcome = Timings.CLIENT_ERROR;
+                return;
+            }
+            Long userId = tokenProvider.getUserIdFromToken(jwt);
+            event.userId = userId;
+            UserDetails userDetails = userDetailsService.loadUserById(userId);
+
+            UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities());
+            authentication.setDetails(
+                new WebAuthenticationDetailsSource().buildDetails(request));
+
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            timer = successTimer;
+            outcome = Timings.SUCCESS;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
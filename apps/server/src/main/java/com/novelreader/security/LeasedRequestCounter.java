@@ -0,0 +1,124 @@
+package com.novelreader.security;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 集群请求计数器
+ *
+ * 窗口按时间对齐，所有实例共享同一个桶；本地持有一块租来的令牌，
+ * 令牌耗尽时才向 {@link RateLimitStore} 续租，正常请求不产生网络往返。
+ * 存储不可用时同一工厂的所有计数器在 {@link #STORE_RETRY_MS} 内改用本地计数，不再访问存储
+ */
+@Slf4j
+public class LeasedRequestCounter implements RequestCounter {
+
+    /**
+     * 窗口配额耗尽后，重新尝试租用的最小间隔（等待其他实例归还令牌）
+     */
+    private static final long EXHAUSTED_RETRY_MS = 1_000;
+
+    /**
+     * 存储不可用后改用本地计数的时长，到期后由下一次续租探测存储是否恢复
+     */
+    static final long STORE_RETRY_MS = 5_000;
+
+    private final String key;
+    private final RateLimitStore store;
+    private final int blockSize;
+    private final LongSupplier clock;
+
+    /**
+     * 存储恢复探测时间（同一工厂的计数器共享），之前的续租直接使用本地兜底计数器
+     */
+    private final AtomicLong storeRetryAt;
+
+    /**
+     * 存储不可用时的本地兜底计数器
+     */
+    private final LocalRequestCounter fallback = new LocalRequestCounter();
+
+    private long windowStart = -1;
+    private int localTokens;
+    private long nextLeaseAt;
+    private volatile long lastUsedAt;
+
+    LeasedRequestCounter(String key, RateLimitStore store, int blockSize, LongSupplier clock,
+                         AtomicLong storeRetryAt) {
+        this.key = key;
+        this.store = store;
+        this.blockSize = blockSize;
+        this.clock = clock;
+        this.storeRetryAt = storeRetryAt;
+        this.lastUsedAt = clock.getAsLong();
+    }
+
+    @Override
+    public synchronized boolean tryAcquire(int limit, long windowMs) {
+        long now = clock.getAsLong();
+        lastUsedAt = now;
+
+        // 进入新窗口，旧窗口剩余令牌随窗口失效
+        long currentWindow = now - now % windowMs;
+        if (currentWindow != windowStart) {
+            windowStart = currentWindow;
+            localTokens = 0;
+            nextLeaseAt = 0;
+        }
+
+        if (localTokens == 0) {
+            if (now < nextLeaseAt) {
+                return false;
+            }
+            if (now < storeRetryAt.get()) {
+                return fallback.tryAcquire(limit, windowMs);
+            }
+            int granted;
+            try {
+                granted = store.lease(key, windowStart, Math.min(blockSize, limit), limit);
+            } catch (RuntimeException e) {
+                // 只有打开退避的请求记录日志，退避期间的请求不再访问存储
+                long retryAt = storeRetryAt.get();
+                if (now >= retryAt && storeRetryAt.compareAndSet(retryAt, now + STORE_RETRY_MS)) {
+                    log.warn("Rate limit store unavailable, falling back to local counters for {} ms: {}",
+                        STORE_RETRY_MS, e.getMessage());
+                }
+                return fallback.tryAcquire(limit, windowMs);
+            }
+            if (granted == 0) {
+                nextLeaseAt = now + EXHAUSTED_RETRY_MS;
+                return false;
+            }
+            localTokens = granted;
+        }
+
+        localTokens--;
+        return true;
+    }
+
+    /**
+     * 归还空闲超过指定时长的本地令牌，供其他实例使用
+     * @return 归还的令牌数
+     */
+    synchronized int reconcile(long idleMs) {
+        if (localTokens == 0 || clock.getAsLong() - lastUsedAt < idleMs) {
+            return 0;
+        }
+        int tokens = localTokens;
+        try {
+            store.release(key, windowStart, tokens);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release rate limit tokens for key: {}", key);
+            return 0;
+        }
+        localTokens = 0;
+        return tokens;
+    }
+
+    @Override
+    public boolean isExpired(long windowMs) {
+        return clock.getAsLong() - lastUsedAt >= windowMs * 2;
+    }
+}
@@ -0,0 +1,36 @@
+package com.novelreader.security;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单机请求计数器，记录本进程时间窗口内的请求次数
+ */
+public class LocalRequestCounter implements RequestCounter {
+
+    private final AtomicInteger count = new AtomicInteger(0);
+    private volatile long windowStart = System.currentTimeMillis();
+
+    @Override
+    public synchronized boolean tryAcquire(int limit, long windowMs) {
+        long now = System.currentTimeMillis();
+
+        // 如果超出时间窗口，重置计数器
+        if (now - windowStart >= windowMs) {
+            count.set(0);
+            windowStart = now;
+        }
+
+        // 检查是否超出限制
+        if (count.get() >= limit) {
+            return false;
+        }
+
+        count.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public boolean isExpired(long windowMs) {
+        return System.currentTimeMillis() - windowStart >= windowMs * 2;
+    }
+}
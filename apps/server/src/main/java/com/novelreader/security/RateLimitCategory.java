@@ -0,0 +1,87 @@
+package com.novelreader.security;
+
+/**
+ * 限流请求分类
+ *
+ * IP 级限流按 {@link #ipBucket()} 分组计数，用户级限流只关注章节读取与进度写入
+ */
+enum RateLimitCategory {
+
+    /** 登录（防暴力破解） */
+    LOGIN(0, "login"),
+    /** 注册 */
+    REGISTER(1, "register"),
+    /** 上传（含批量导入） */
+    UPLOAD(2, "upload"),
+    /** 章节读取 */
+    CHAPTER_READ(3, "global"),
+    /** 进度/书签写入 */
+    PROGRESS_WRITE(3, "global"),
+    /** 其他请求 */
+    GENERAL(3, "global");
+
+    /**
+     * IP 级限流分组数量
+     */
+    static final int IP_BUCKETS = 4;
+
+    private final int ipBucket;
+    private final String ipBucketName;
+
+    RateLimitCategory(int ipBucket, String ipBucketName) {
+        this.ipBucket = ipBucket;
+        this.ipBucketName = ipBucketName;
+    }
+
+    /**
+     * IP 级限流分组下标
+     */
+    int ipBucket() {
+        return ipBucket;
+    }
+
+    /**
+     * IP 级限流分组名（用于共享存储桶名）
+     */
+    String ipBucketName() {
+        return ipBucketName;
+    }
+
+    /**
+     * 根据请求方法和路径分类，每个请求只扫描一次路径
+     */
+    static RateLimitCategory classify(String method, String path) {
+        int auth = path.indexOf("/auth/");
+        if (auth >= 0) {
+            if (path.startsWith("login", auth + 6)) {
+                return LOGIN;
+            }
+            if (path.startsWith("register", auth + 6)) {
+                return REGISTER;
+            }
+            return GENERAL;
+        }
+
+        int books = path.indexOf("/books/");
+        if (books >= 0) {
+            if (path.startsWith("upload", books + 7)
+                    || ("POST".equals(method) && path.startsWith("import", books + 7))) {
+                return UPLOAD;
+            }
+            if ("GET".equals(method) && path.indexOf("/chapters", books + 7) >= 0) {
+                return CHAPTER_READ;
+            }
+            return GENERAL;
+        }
+
+        if (isWrite(method) && path.contains("/progress")) {
+            return PROGRESS_WRITE;
+        }
+        return GENERAL;
+    }
+
+    private static boolean isWrite(String method) {
+        return "POST".equals(method) || "PUT".equals(method)
+            || "PATCH".equals(method) || "DELETE".equals(method);
+    }
+}
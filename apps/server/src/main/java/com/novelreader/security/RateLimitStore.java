@@ -0,0 +1,31 @@
+package com.novelreader.security;
+
+/**
+ * 集群限流共享存储
+ *
+ * 所有实例按对齐的时间窗口共享同一个桶，实例每次租用一块令牌在本地消费，
+ * 只有令牌耗尽或归还时才访问存储
+ */
+public interface RateLimitStore {
+
+    /**
+     * 在指定窗口内租用令牌
+     * @param key 桶名
+     * @param windowStart 对齐后的窗口起始时间（毫秒）
+     * @param requested 期望租用的令牌数
+     * @param limit 窗口内全集群的最大请求数
+     * @return 实际租到的令牌数，0 表示窗口配额已用尽
+     */
+    int lease(String key, long windowStart, int requested, int limit);
+
+    /**
+     * 归还未使用的令牌
+     */
+    void release(String key, long windowStart, int tokens);
+
+    /**
+     * 清理早于指定窗口的桶
+     * @return 清理的桶数量
+     */
+    int purgeBefore(long windowStart);
+}
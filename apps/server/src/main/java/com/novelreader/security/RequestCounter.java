@@ -0,0 +1,23 @@
+package com.novelreader.security;
+
+/**
+ * 请求计数器，记录时间窗口内的请求次数
+ *
+ * 单机部署使用 {@link LocalRequestCounter}，多实例部署使用 {@link LeasedRequestCounter}
+ * 从共享存储批量租用令牌
+ */
+public interface RequestCounter {
+
+    /**
+     * 尝试获取请求许可
+     * @param limit 时间窗口内的最大请求数
+     * @param windowMs 时间窗口（毫秒）
+     * @return 是否允许请求
+     */
+    boolean tryAcquire(int limit, long windowMs);
+
+    /**
+     * 检查是否过期（用于清理）
+     */
+    boolean isExpired(long windowMs);
+}
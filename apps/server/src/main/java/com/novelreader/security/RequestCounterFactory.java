@@ -0,0 +1,22 @@
+package com.novelreader.security;
+
+/**
+ * 请求计数器工厂
+ *
+ * 过滤器只在首次遇到某个限流 key 时调用，key 同时作为共享存储中的桶名
+ */
+@FunctionalInterface
+public interface RequestCounterFactory {
+
+    /**
+     * 为限流 key 创建计数器
+     */
+    RequestCounter create(String key);
+
+    /**
+     * 单机模式：每个 key 使用本地计数器
+     */
+    static RequestCounterFactory local() {
+        return key -> new LocalRequestCounter();
+    }
+}
@@ -0,0 +1,143 @@
+package com.novelreader.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novelreader.config.RateLimitConfig;
+import com.novelreader.util.Timings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户级请求限流过滤器
+ *
+ * 在 JWT 认证之后执行，直接复用 SecurityContext 中已认证的用户 ID 作为 key（不重复解析 Token），
+ * 章节读取与进度/书签写入分别计数，避免共享出口 IP 的用户互相挤占配额
+ */
+@Slf4j
+@Component
+public class UserRateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitConfig rateLimitConfig;
+    private final ObjectMapper objectMapper;
+    private final RequestCounterFactory counterFactory;
+    private final MeterRegistry meterRegistry;
+    private final Timer allowedTimer;
+    private final Timer rejectedTimer;
+
+    /**
+     * 存储每个用户的请求计数
+     * key: 用户 ID（直接复用 principal 中的 Long，不拼接字符串）
+     */
+    private final ConcurrentHashMap<Long, UserCounters> userCounters = new ConcurrentHashMap<>();
+
+    public UserRateLimitFilter(RateLimitConfig rateLimitConfig,
+                               ObjectMapper objectMapper,
+                               RequestCounterFactory counterFactory,
+                               MeterRegistry meterRegistry) {
+        this.rateLimitConfig = rateLimitConfig;
+        this.objectMapper = objectMapper;
+        this.counterFactory = counterFactory;
+        this.meterRegistry = meterRegistry;
+        this.allowedTimer = Timings.timer(meterRegistry, "novel.ratelimit", Timings.SUCCESS, "scope", "user");
+        this.rejectedTimer = Timings.timer(meterRegistry, "novel.ratelimit", Timings.CLIENT_ERROR, "scope", "user");
+    }
+
+    /**
+     * 单个用户的读写计数器
+     */
+    private static class UserCounters {
+        final RequestCounter read;
+        final RequestCounter write;
+
+        UserCounters(RequestCounterFactory factory, Long userId) {
+            this.read = factory.create("user:" + userId + ":read");
+            this.write = factory.create("user:" + userId + ":write");
+        }
+
+        boolean isExpired(long windowMs) {
+            return read.isExpired(windowMs) && write.isExpired(windowMs);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (!rateLimitConfig.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RateLimitCategory category = RateLimitCategory.classify(request.getMethod(), request.getRequestURI());
+        boolean read = category == RateLimitCategory.CHAPTER_READ;
+        if (!read && category != RateLimitCategory.PROGRESS_WRITE) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Long userId = currentUserId();
+        if (userId == null) {
+            // 未认证请求由 IP 级限流兜底
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        UserCounters counters = userCounters.get(userId);
+        if (counters == null) {
+            counters = userCounters.computeIfAbsent(userId, k -> new UserCounters(counterFactory, k));
+        }
+        boolean allowed = read
+            ? counters.read.tryAcquire(rateLimitConfig.getUserReadRequestsPerMinute(), 60_000)
+            : counters.write.tryAcquire(rateLimitConfig.getUserWriteRequestsPerMinute(), 60_000);
+
+        (allowed ? allowedTimer : rejectedTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!allowed) {
+            RateLimitFilter.countRejection(meterRegistry, "user", category);
+            log.warn("User rate limit exceeded for user: {}, category: {}", userId, category);
+            RateLimitFilter.writeRateLimitResponse(response, objectMapper);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * 从 SecurityContext 获取已认证用户 ID（由 JwtAuthenticationFilter 设置）
+     */
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails user) {
+            return user.getId();
+        }
+        return null;
+    }
+
+    /**
+     * 定期清理过期的计数器（每5分钟执行）
+     */
+    @Scheduled(fixedRate = 300_000)
+    public void cleanupExpiredCounters() {
+        int beforeSize = userCounters.size();
+        userCounters.entrySet().removeIf(entry -> entry.getValue().isExpired(60_000));
+        int removed = beforeSize - userCounters.size();
+        if (removed > 0) {
+            log.debug("Cleaned up {} expired user rate limit counters", removed);
+        }
+    }
+}
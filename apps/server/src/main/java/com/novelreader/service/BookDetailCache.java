@@ -0,0 +1,161 @@
+package com.novelreader.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.novelreader.entity.Book;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 书籍详情（含目录）缓存
+ *
+ * 每本书的详情只序列化一次，之后直接以原始 JSON 写入响应；
+ * ETag 由书籍的更新时间、章节数和文件哈希计算，书籍变更后旧缓存自动失效。
+ * 目录大小随章节数变化很大，缓存按序列化后的总字节数（UTF-16 计 2 字节/字符）而不只是条目数限制，
+ * 超过单条上限的详情每次重新序列化，不占用缓存
+ */
+@Component
+public class BookDetailCache {
+
+    private static final int MAX_ENTRIES = 256;
+    private static final long MAX_BYTES = 64L * 1024 * 1024;
+    private static final long MAX_ENTRY_BYTES = 4L * 1024 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+
+    /**
+     * 按访问顺序排列，最久未使用的在前；读写都在 synchronized (entries) 中
+     */
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    /**
+     * 缓存中所有条目的字节数
+     */
+    private long totalBytes;
+
+    @Autowired
+    public BookDetailCache(ObjectMapper objectMapper) {
+        this(objectMapper, MAX_ENTRIES, MAX_BYTES, MAX_ENTRY_BYTES);
+    }
+
+    BookDetailCache(ObjectMapper objectMapper, int maxEntries, long maxBytes, long maxEntryBytes) {
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    /**
+     * 缓存条目
+     * @param eTag    弱 ETag（响应外层的时间戳每次不同，只保证 data 部分字节一致）
+     * @param content 已序列化的 BookDetailDTO
+     */
+    public record Entry(String eTag, RawValue content) {
+    }
+
+    /**
+     * 获取书籍详情，缓存不存在或已过期时调用 loader 重新构建
+     */
+    public Entry get(Book book, Supplier<?> loader) {
+        String eTag = eTagOf(book);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(book.getId());
+        }
+        if (entry != null && entry.eTag().equals(eTag)) {
+            return entry;
+        }
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(loader.get());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("书籍详情序列化失败: " + book.getId(), e);
+        }
+        entry = new Entry(eTag, new RawValue(json));
+        long bytes = 2L * json.length();
+        if (bytes > maxEntryBytes) {
+            evict(book.getId());
+        } else {
+            put(book.getId(), entry, bytes);
+        }
+        return entry;
+    }
+
+    /**
+     * 放入条目，然后从最久未使用的开始淘汰，直到条目数和总字节数都不超过上限
+     */
+    private void put(Long bookId, Entry entry, long bytes) {
+        synchronized (entries) {
+            Entry previous = entries.put(bookId, entry);
+            if (previous != null) {
+                totalBytes -= bytesOf(previous);
+            }
+            totalBytes += bytes;
+
+            Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || totalBytes > maxBytes) && eldest.hasNext()) {
+                Map.Entry<Long, Entry> next = eldest.next();
+                if (next.getKey().equals(bookId)) {
+                    continue;
+                }
+                totalBytes -= bytesOf(next.getValue());
+                eldest.remove();
+            }
+        }
+    }
+
+    private static long bytesOf(Entry entry) {
+        return 2L * ((String) entry.content().rawValue()).length();
+    }
+
+    /**
+     * 缓存的条目数
+     */
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * 缓存中所有条目的字节数
+     */
+    long totalBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    /**
+     * 计算书籍详情的 ETag（不需要加载章节）
+     */
+    public static String eTagOf(Book book) {
+        long hash = 17;
+        hash = 31 * hash + (book.getUpdatedAt() != null ? book.getUpdatedAt().hashCode() : 0);
+        hash = 31 * hash + (book.getChapterCount() != null ? book.getChapterCount() : 0);
+        hash = 31 * hash + (book.getFileHash() != null ? book.getFileHash().hashCode() : 0);
+        return "W/\"book-" + book.getId() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * 书籍删除时移除缓存
+     */
+    public void evict(Long bookId) {
+        synchronized (entries) {
+            Entry removed = entries.remove(bookId);
+            if (removed != null) {
+                totalBytes -= bytesOf(removed);
+            }
+        }
+    }
+}
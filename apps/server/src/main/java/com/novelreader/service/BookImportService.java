@@ -0,0 +1,369 @@
+package com.novelreader.service;
+
+import com.novelreader.dto.book.ImportJobDTO;
+import com.novelreader.entity.User;
+import com.novelreader.exception.BusinessException;
+import com.novelreader.repository.BookRepository;
+import com.novelreader.repository.UserRepository;
+import com.novelreader.util.TxtParser;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 书籍批量导入服务
+ *
+ * 上传的 ZIP 先落盘为临时文件，由后台任务顺序读取其中的 TXT 条目，
+ * 提交到与 CPU 核数等大的解析线程池并行解析，解析完成后按文件哈希去重并批量写入；
+ * 同时在途（已读取未写入）的原始字节数有上限，内存占用与压缩包大小无关
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookImportService {
+
+    static final long MAX_ARCHIVE_SIZE = 500L * 1024 * 1024; // 500MB
+    static final long MAX_ENTRY_SIZE = 100L * 1024 * 1024;   // 与单本上传一致
+    static final int MAX_ENTRIES = 1000;
+
+    /**
+     * 单个任务同时在途的原始字节上限
+     */
+    static final long MAX_IN_FLIGHT_BYTES = 256L * 1024 * 1024;
+
+    private static final int PARSE_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int MAX_RUNNING_JOBS = 2;
+    private static final int MAX_QUEUED_JOBS = 8;
+    private static final int MAX_ERRORS = 100;
+    private static final Duration JOB_RETENTION = Duration.ofHours(1);
+
+    /**
+     * 未设置 UTF-8 标志的条目名按 GB18030 解码（Windows 中文系统压缩的文件名）
+     */
+    private static final Charset ENTRY_NAME_CHARSET = Charset.forName("GB18030");
+
+    private final TxtParser txtParser;
+    private final BookWriter bookWriter;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * 所有导入任务共享的解析线程池
+     */
+    private final ExecutorService parsePool = Executors.newFixedThreadPool(PARSE_THREADS,
+        Thread.ofPlatform().name("book-parse-", 0).daemon().factory());
+
+    /**
+     * 导入任务线程池：限制同时运行和排队的任务数
+     */
+    private final ExecutorService jobPool = new ThreadPoolExecutor(
+        MAX_RUNNING_JOBS, MAX_RUNNING_JOBS, 0, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(MAX_QUEUED_JOBS),
+        Thread.ofPlatform().name("book-import-", 0).daemon().factory());
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * 创建导入任务
+     */
+    public ImportJobDTO startImport(Long userId, MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw BusinessException.badRequest("文件不能为空");
+        }
+        if (file.getSize() > MAX_ARCHIVE_SIZE) {
+            throw BusinessException.badRequest("文件过大，最大支持 500MB");
+        }
+        String fileName = file.getOriginalFilename();
+        if (fileName == null || !fileName.toLowerCase().endsWith(".zip")) {
+            throw BusinessException.badRequest("只支持 ZIP 格式文件");
+        }
+
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> BusinessException.notFound("用户不存在"));
+
+        // 请求结束后上传的临时文件会被清理，先转存一份供后台任务读取
+        Path archive = Files.createTempFile("book-import-", ".zip");
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), userId);
+        try {
+            file.transferTo(archive);
+            jobs.put(job.id, job);
+            jobPool.execute(() -> runJob(job, user, archive));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            Files.deleteIfExists(archive);
+            throw new BusinessException("导入任务过多，请稍后再试", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (IOException e) {
+            Files.deleteIfExists(archive);
+            throw e;
+        }
+
+        log.info("创建导入任务: {} (用户: {}, 文件: {})", job.id, userId, fileName);
+        return job.toDTO();
+    }
+
+    /**
+     * 查询导入任务进度
+     */
+    public ImportJobDTO getImportJob(Long userId, String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            throw BusinessException.notFound("导入任务不存在");
+        }
+        return job.toDTO();
+    }
+
+    private void runJob(ImportJob job, User user, Path archive) {
+        try (InputStream in = Files.newInputStream(archive)) {
+            importArchive(job, user, in);
+            job.finish(ImportJob.Status.COMPLETED);
+            log.info("导入任务完成: {} - 导入 {}，重复 {}，失败 {}",
+                job.id, job.importedBooks.get(), job.duplicateFiles.get(), job.failedFiles.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.addError("导入任务被中断");
+            job.finish(ImportJob.Status.FAILED);
+        } catch (Exception e) {
+            log.error("导入任务失败: {}", job.id, e);
+            job.addError("压缩包读取失败: " + e.getMessage());
+            job.finish(ImportJob.Status.FAILED);
+        } finally {
+            try {
+                Files.deleteIfExists(archive);
+            } catch (IOException e) {
+                log.warn("删除导入临时文件失败: {}", archive, e);
+            }
+        }
+    }
+
+    /**
+     * 读取压缩包并导入其中的 TXT 文件
+     *
+     * 读取与写入都在当前线程中进行，只有解析在线程池中并行：
+     * 每读到一个条目就提交解析，并顺带写入已完成的结果；在途字节超限时等待最早完成的结果写入后再继续读取
+     */
+    void importArchive(ImportJob job, User user, InputStream archive) throws IOException, InterruptedException {
+        Set<String> knownHashes = new HashSet<>(bookRepository.findFileHashesByUserId(user.getId()));
+        CompletionService<ParsedEntry> completion = new ExecutorCompletionService<>(parsePool);
+        int pending = 0;
+        long inFlightBytes = 0;
+
+        try (ZipInputStream zip = new ZipInputStream(new BufferedInputStream(archive), ENTRY_NAME_CHARSET)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String fileName = txtFileName(entry);
+                if (fileName == null) {
+                    continue;
+                }
+                if (job.totalFiles.get() >= MAX_ENTRIES) {
+                    job.addError("压缩包内 TXT 文件超过 " + MAX_ENTRIES + " 个，其余文件已忽略");
+                    break;
+                }
+                job.totalFiles.incrementAndGet();
+
+                byte[] bytes = readEntry(zip, entry);
+                if (bytes == null) {
+                    job.recordFailure(fileName, "文件过大，最大支持 100MB");
+                    continue;
+                }
+
+                while (pending > 0 && inFlightBytes + bytes.length > MAX_IN_FLIGHT_BYTES) {
+                    inFlightBytes -= persist(job, user, knownHashes, completion.take());
+                    pending--;
+                }
+                completion.submit(() -> parse(fileName, bytes));
+                pending++;
+                inFlightBytes += bytes.length;
+
+                Future<ParsedEntry> done;
+                while ((done = completion.poll()) != null) {
+                    inFlightBytes -= persist(job, user, knownHashes, done);
+                    pending--;
+                }
+            }
+        }
+
+        while (pending > 0) {
+            persist(job, user, knownHashes, completion.take());
+            pending--;
+        }
+    }
+
+    /**
+     * 返回条目的文件名；目录、非 TXT 文件和系统生成的附属文件返回 null
+     */
+    static String txtFileName(ZipEntry entry) {
+        if (entry.isDirectory()) {
+            return null;
+        }
+        String path = entry.getName().replace('\\', '/');
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        if (path.startsWith("__MACOSX/") || name.startsWith(".") || !name.toLowerCase().endsWith(".txt")) {
+            return null;
+        }
+        return name;
+    }
+
+    /**
+     * 读取当前条目的全部内容，超过大小上限时返回 null
+     */
+    private static byte[] readEntry(ZipInputStream zip, ZipEntry entry) throws IOException {
+        if (entry.getSize() > MAX_ENTRY_SIZE) {
+            return null;
+        }
+        byte[] bytes = zip.readNBytes((int) MAX_ENTRY_SIZE + 1);
+        return bytes.length > MAX_ENTRY_SIZE ? null : bytes;
+    }
+
+    private ParsedEntry parse(String fileName, byte[] bytes) {
+        try {
+            return new ParsedEntry(fileName, bytes.length,
+                txtParser.parse(new ByteArrayInputStream(bytes), fileName), null);
+        } catch (Exception e) {
+            log.warn("解析失败: {}", fileName, e);
+            return new ParsedEntry(fileName, bytes.length, null, "解析失败");
+        }
+    }
+
+    /**
+     * 写入一个解析结果，返回其原始字节数
+     */
+    private int persist(ImportJob job, User user, Set<String> knownHashes, Future<ParsedEntry> future)
+            throws InterruptedException {
+        ParsedEntry parsed;
+        try {
+            parsed = future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("解析任务异常", e.getCause());
+        }
+
+        if (parsed.error() != null) {
+            job.recordFailure(parsed.fileName(), parsed.error());
+        } else if (!knownHashes.add(parsed.result().getFileHash())) {
+            job.duplicateFiles.incrementAndGet();
+            job.processedFiles.incrementAndGet();
+        } else {
+            try {
+                bookWriter.save(user, parsed.result());
+                job.importedBooks.incrementAndGet();
+                job.processedFiles.incrementAndGet();
+            } catch (RuntimeException e) {
+                log.warn("保存失败: {}", parsed.fileName(), e);
+                knownHashes.remove(parsed.result().getFileHash());
+                job.recordFailure(parsed.fileName(), "保存失败");
+            }
+        }
+        return parsed.size();
+    }
+
+    /**
+     * 清理已结束超过保留时间的任务
+     */
+    @Scheduled(fixedDelay = 10 * 60 * 1000)
+    public void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(JOB_RETENTION);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobPool.shutdownNow();
+        parsePool.shutdownNow();
+    }
+
+    /**
+     * 解析结果（解析失败时 result 为空、error 为原因）
+     */
+    private record ParsedEntry(String fileName, int size, TxtParser.ParseResult result, String error) {
+    }
+
+    /**
+     * 导入任务进度
+     */
+    static final class ImportJob {
+
+        enum Status { RUNNING, COMPLETED, FAILED }
+
+        final String id;
+        final Long userId;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicInteger totalFiles = new AtomicInteger();
+        final AtomicInteger processedFiles = new AtomicInteger();
+        final AtomicInteger importedBooks = new AtomicInteger();
+        final AtomicInteger duplicateFiles = new AtomicInteger();
+        final AtomicInteger failedFiles = new AtomicInteger();
+        private final List<String> errors = new ArrayList<>();
+        volatile Status status = Status.RUNNING;
+        volatile LocalDateTime finishedAt;
+
+        ImportJob(String id, Long userId) {
+            this.id = id;
+            this.userId = userId;
+        }
+
+        void recordFailure(String fileName, String reason) {
+            failedFiles.incrementAndGet();
+            processedFiles.incrementAndGet();
+            addError(fileName + ": " + reason);
+        }
+
+        synchronized void addError(String error) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        void finish(Status status) {
+            this.finishedAt = LocalDateTime.now();
+            this.status = status;
+        }
+
+        synchronized ImportJobDTO toDTO() {
+            return ImportJobDTO.builder()
+                .jobId(id)
+                .status(status.name())
+                .totalFiles(totalFiles.get())
+                .processedFiles(processedFiles.get())
+                .importedBooks(importedBooks.get())
+                .duplicateFiles(duplicateFiles.get())
+                .failedFiles(failedFiles.get())
+                .errors(List.copyOf(errors))
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .build();
+        }
+    }
+}
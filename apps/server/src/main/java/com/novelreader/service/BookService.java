@@ -1,18 +1,25 @@
 package com.novelreader.service;
 
-import com.novelreader.dto.PageResponse;
+import com.novelreader.dto.CursorPageResponse;
 import com.novelreader.dto.book.*;
+import com.novelreader.dto.progress.ProgressChangesDTO;
 import com.novelreader.entity.Book;
 import com.novelreader.entity.Chapter;
 import com.novelreader.entity.User;
 import com.novelreader.exception.BusinessException;
 import com.novelreader.repository.BookRepository;
 import com.novelreader.repository.ChapterRepository;
+import com.novelreader.repository.ReadingStatsRepository;
+import com.novelreader.repository.SyncRepository;
 import com.novelreader.repository.UserRepository;
+import com.novelreader.util.FlightEvents;
+import com.novelreader.util.PageCursor;
+import com.novelreader.util.Timings;
 import com.novelreader.util.TxtParser;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -20,7 +27,9 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -34,7 +43,14 @@ public class BookService {
     private final BookRepository bookRepository;
     private final ChapterRepository chapterRepository;
     private final UserRepository userRepository;
+    private final ReadingStatsRepository readingStatsRepository;
+    private final SyncRepository syncRepository;
     private final TxtParser txtParser;
+    private final BookWriter bookWriter;
+    private final BookDetailCache bookDetailCache;
+    private final RecentReadingCache recentReadingCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
 
     private static final long MAX_FILE_SIZE = 100 * 1024 * 1024; // 100MB
     private static final int MAX_PAGE_SIZE = 100;
@@ -98,72 +114,54 @@ public class BookService {
         }
         log.info("解析完成: {} - {} 章节", result.getTitle(), result.getChapters().size());
 
-        // 创建书籍
-        Book book = Book.builder()
-            .user(user)
-            .title(result.getTitle())
-            .author(result.getAuthor())
-            .fileHash(result.getFileHash())
-            .fileSize(result.getFileSize())
-            .wordCount(result.getTotalWords())
-            .chapterCount(result.getChapters().size())
-            .build();
-
-        book = bookRepository.save(book);
-
-        // 创建章节
-        Book finalBook = book;
-        List<Chapter> chapters = result.getChapters().stream()
-            .map(c -> Chapter.builder()
-                .book(finalBook)
-                .chapterIndex(c.getChapterIndex())
-                .title(c.getTitle())
-                .content(c.getContent())
-                .wordCount(c.getWordCount())
-                .build())
-            .collect(Collectors.toList());
-
-        chapterRepository.saveAll(chapters);
+        Book book = bookWriter.save(user, result);
         log.info("书籍保存成功: {} (ID: {})", book.getTitle(), book.getId());
 
         return toBookDTO(book);
     }
 
     /**
-     * 获取用户书籍列表
+     * 获取用户书籍列表（游标分页）
+     *
+     * @param cursor    上一页返回的 nextCursor，为空表示第一页
+     * @param withTotal 是否返回总数（额外执行一次 COUNT 查询）
      */
-    public PageResponse<BookDTO> getBooks(Long userId, int page, int size) {
-        // 参数验证和限制
-        page = Math.max(0, page);
+    public CursorPageResponse<BookDTO> getBooks(Long userId, String cursor, int size, boolean withTotal) {
         size = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageCursor after = PageCursor.decode(cursor);
 
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Book> bookPage = bookRepository.findByUserIdOrderByUpdatedAtDesc(userId, pageable);
+        // 多取一行用于判断是否还有下一页
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Book> books = after == null
+            ? bookRepository.findPageByUserId(userId, limit)
+            : bookRepository.findPageByUserIdAfter(userId, after.timestamp(), after.id(), limit);
 
-        List<BookDTO> books = bookPage.getContent().stream()
-            .map(this::toBookDTO)
-            .collect(Collectors.toList());
-
-        return PageResponse.<BookDTO>builder()
-            .content(books)
-            .page(bookPage.getNumber())
-            .size(bookPage.getSize())
-            .totalElements(bookPage.getTotalElements())
-            .totalPages(bookPage.getTotalPages())
-            .first(bookPage.isFirst())
-            .last(bookPage.isLast())
-            .build();
+        Long total = withTotal ? bookRepository.countByUserId(userId) : null;
+        return CursorPageResponse.of(books, size, this::toBookDTO,
+            b -> PageCursor.of(b.getUpdatedAt(), b.getId()), total);
     }
 
     /**
      * 获取书籍详情（含章节列表）
+     *
+     * 先由书籍行计算 ETag，客户端缓存仍有效时不查询目录也不读取缓存；
+     * 否则目录使用不含正文的投影查询，序列化结果按书缓存
+     *
+     * @param notModified 比对客户端的 If-None-Match，命中时返回 true
+     * @return 书籍详情；客户端缓存有效时为 null
      */
-    public BookDetailDTO getBookDetail(Long userId, Long bookId) {
+    public BookDetailCache.Entry getBookDetail(Long userId, Long bookId, Predicate<String> notModified) {
         Book book = bookRepository.findByIdAndUserId(bookId, userId)
             .orElseThrow(() -> BusinessException.notFound("书籍不存在"));
 
-        List<Chapter> chapters = chapterRepository.findByBookIdOrderByChapterIndex(bookId);
-        List<ChapterListDTO> chapterList = chapters.stream()
+        if (notModified.test(BookDetailCache.eTagOf(book))) {
+            return null;
+        }
+        return bookDetailCache.get(book, () -> toBookDetailDTO(book));
+    }
+
+    private BookDetailDTO toBookDetailDTO(Book book) {
+        List<ChapterListDTO> chapterList = chapterRepository.findChapterListByBookId(book.getId()).stream()
             .map(c -> ChapterListDTO.builder()
                 .id(c.getId())
                 .chapterIndex(c.getChapterIndex())
@@ -186,16 +184,54 @@ public class BookService {
             .build();
     }
 
+    /**
+     * 章节版本信息（用于 HTTP 条件请求）
+     * @param eTag         强 ETag，书籍没有文件哈希时为 null
+     * @param lastModified 章节内容的最后修改时间（毫秒），即书籍上传时间；未知时为 -1
+     */
+    public record ChapterVersion(String eTag, long lastModified) {
+    }
+
+    /**
+     * 获取章节版本信息
+     *
+     * 章节内容上传后不再变化，ETag 由文件哈希和章节序号决定，只需查询书籍行，不读取章节正文
+     */
+    public ChapterVersion getChapterVersion(Long userId, Long bookId, Integer chapterIndex) {
+        Book book = bookRepository.findByIdAndUserId(bookId, userId)
+            .orElseThrow(() -> BusinessException.notFound("书籍不存在"));
+
+        String eTag = book.getFileHash() != null
+            ? "\"" + book.getFileHash() + "-" + chapterIndex + "\""
+            : null;
+        long lastModified = book.getCreatedAt() != null
+            ? book.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+            : -1;
+        return new ChapterVersion(eTag, lastModified);
+    }
+
     /**
      * 获取章节内容
      */
     public ChapterDTO getChapter(Long userId, Long bookId, Integer chapterIndex) {
-        // 验证书籍所有权
-        bookRepository.findByIdAndUserId(bookId, userId)
-            .orElseThrow(() -> BusinessException.notFound("书籍不存在"));
+        return Timings.record(meterRegistry, "novel.chapter.get", () -> loadChapter(userId, bookId, chapterIndex));
+    }
 
-        Chapter chapter = chapterRepository.findByBookIdAndChapterIndex(bookId, chapterIndex)
-            .orElseThrow(() -> BusinessException.notFound("章节不存在"));
+    private ChapterDTO loadChapter(Long userId, Long bookId, Integer chapterIndex) {
+        FlightEvents.ChapterFetch event = new FlightEvents.ChapterFetch();
+        event.begin();
+        event.bookId = bookId;
+        event.chapterIndex = chapterIndex;
+
+        // 所有权校验与章节查询合并为一条 SQL
+        Chapter chapter;
+        try {
+            chapter = chapterRepository.findOwnedChapter(userId, bookId, chapterIndex)
+                .orElseThrow(() -> BusinessException.notFound("章节不存在"));
+            event.characters = chapter.getContent() != null ? chapter.getContent().length() : 0;
+        } finally {
+            event.commit();
+        }
 
         return ChapterDTO.builder()
             .id(chapter.getId())
@@ -206,6 +242,48 @@ public class BookService {
             .build();
     }
 
+    /**
+     * 章节区间（闭区间，from > to 表示空区间）
+     */
+    public record ChapterRange(Long bookId, int from, int to) {
+    }
+
+    /**
+     * 校验书籍所有权并确定章节区间
+     *
+     * @param from 起始章节序号，为空时从第一章开始
+     * @param to   结束章节序号（含），为空或超出时截止到最后一章
+     */
+    public ChapterRange getChapterRange(Long userId, Long bookId, Integer from, Integer to) {
+        Book book = bookRepository.findByIdAndUserId(bookId, userId)
+            .orElseThrow(() -> BusinessException.notFound("书籍不存在"));
+
+        int start = from != null ? from : 0;
+        int last = book.getChapterCount() != null ? book.getChapterCount() - 1 : -1;
+        int end = to != null ? Math.min(to, last) : last;
+        if (start < 0 || (to != null && to < start)) {
+            throw BusinessException.badRequest("章节范围无效");
+        }
+        return new ChapterRange(bookId, start, end);
+    }
+
+    /**
+     * 书籍导出信息
+     */
+    public record BookExport(Long bookId, String title, String author, int chapterCount) {
+    }
+
+    /**
+     * 校验书籍所有权并获取导出所需信息（不读取章节）
+     */
+    public BookExport getBookExport(Long userId, Long bookId) {
+        Book book = bookRepository.findByIdAndUserId(bookId, userId)
+            .orElseThrow(() -> BusinessException.notFound("书籍不存在"));
+
+        int chapterCount = book.getChapterCount() != null ? book.getChapterCount() : 0;
+        return new BookExport(book.getId(), book.getTitle(), book.getAuthor(), chapterCount);
+    }
+
     /**
      * 删除书籍
      */
@@ -215,7 +293,18 @@ public class BookService {
             .orElseThrow(() -> BusinessException.notFound("书籍不存在"));
 
         chapterRepository.deleteByBookId(bookId);
+        // 汇总行没有书籍外键；日统计由外键置空 book_id，仍计入用户合计
+        readingStatsRepository.deleteBookRollups(bookId);
         bookRepository.delete(book);
+        // 进度与书签随书籍级联删除，由书籍的删除记录通知其他设备
+        long version = syncRepository.next(userId);
+        syncRepository.addTombstone(userId, SyncRepository.EntityType.BOOK, bookId, version);
+        eventPublisher.publishEvent(new SyncPushService.Changed(userId, ProgressChangesDTO.builder()
+            .version(version)
+            .deletedBookIds(List.of(bookId))
+            .build()));
+        bookDetailCache.evict(bookId);
+        recentReadingCache.evict(userId);
         log.info("书籍已删除: {} (ID: {})", book.getTitle(), bookId);
     }
 
@@ -231,9 +320,10 @@ public class BookService {
     }
 
     /**
-     * 搜索书籍
+     * 搜索书籍（游标分页）
      */
-    public PageResponse<BookDTO> searchBooks(Long userId, String keyword, int page, int size) {
+    public CursorPageResponse<BookDTO> searchBooks(Long userId, String keyword, String cursor,
+                                                   int size, boolean withTotal) {
         // 关键字验证
         if (keyword == null || keyword.trim().isEmpty()) {
             throw BusinessException.badRequest("搜索关键字不能为空");
@@ -247,25 +337,17 @@ public class BookService {
         String escapedKeyword = escapeLikeWildcards(keyword);
 
         // 参数验证和限制
-        page = Math.max(0, page);
         size = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageCursor after = PageCursor.decode(cursor);
 
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Book> bookPage = bookRepository.searchByKeyword(userId, escapedKeyword, pageable);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Book> books = after == null
+            ? bookRepository.searchByKeyword(userId, escapedKeyword, limit)
+            : bookRepository.searchByKeywordAfter(userId, escapedKeyword, after.timestamp(), after.id(), limit);
 
-        List<BookDTO> books = bookPage.getContent().stream()
-            .map(this::toBookDTO)
-            .collect(Collectors.toList());
-
-        return PageResponse.<BookDTO>builder()
-            .content(books)
-            .page(bookPage.getNumber())
-            .size(bookPage.getSize())
-            .totalElements(bookPage.getTotalElements())
-            .totalPages(bookPage.getTotalPages())
-            .first(bookPage.isFirst())
-            .last(bookPage.isLast())
-            .build();
+        Long total = withTotal ? bookRepository.countByKeyword(userId, escapedKeyword) : null;
+        return CursorPageResponse.of(books, size, this::toBookDTO,
+            b -> PageCursor.of(b.getUpdatedAt(), b.getId()), total);
     }
 
     private BookDTO toBookDTO(Book book) {
@@ -0,0 +1,83 @@
+package com.novelreader.service;
+
+import com.novelreader.entity.Book;
+import com.novelreader.entity.User;
+import com.novelreader.repository.BookRepository;
+import com.novelreader.util.FlightEvents;
+import com.novelreader.util.Timings;
+import com.novelreader.util.TxtParser;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 书籍持久化
+ *
+ * 书籍行通过 JPA 保存（需要回填自增 ID），章节使用 JDBC 批量插入：
+ * 章节主键为 IDENTITY，Hibernate 无法对其批量插入，逐条 INSERT 在上千章的书籍上是主要耗时
+ */
+@Component
+@RequiredArgsConstructor
+public class BookWriter {
+
+    /**
+     * 每批插入的章节数
+     */
+    static final int CHAPTER_BATCH_SIZE = 200;
+
+    private static final String INSERT_CHAPTER_SQL =
+        "INSERT INTO chapters (book_id, chapter_index, title, content, word_count, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final BookRepository bookRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 保存解析结果（书籍与全部章节在同一事务中写入）
+     */
+    @Transactional
+    public Book save(User user, TxtParser.ParseResult result) {
+        FlightEvents.BookWrite event = new FlightEvents.BookWrite();
+        event.begin();
+        try {
+            Book book = Timings.record(meterRegistry, "novel.book.write", () -> insert(user, result));
+            Timings.counter(meterRegistry, "novel.chapters.created", "chapters").increment(result.getChapters().size());
+            event.bookId = book.getId();
+            return book;
+        } finally {
+            event.chapterCount = result.getChapters().size();
+            event.bytes = result.getFileSize();
+            event.commit();
+        }
+    }
+
+    private Book insert(User user, TxtParser.ParseResult result) {
+        Book book = bookRepository.save(Book.builder()
+            .user(user)
+            .title(result.getTitle())
+            .author(result.getAuthor())
+            .fileHash(result.getFileHash())
+            .fileSize(result.getFileSize())
+            .wordCount(result.getTotalWords())
+            .chapterCount(result.getChapters().size())
+            .build());
+
+        Long bookId = book.getId();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_CHAPTER_SQL, result.getChapters(), CHAPTER_BATCH_SIZE, (ps, chapter) -> {
+            ps.setLong(1, bookId);
+            ps.setInt(2, chapter.getChapterIndex());
+            ps.setString(3, chapter.getTitle());
+            ps.setString(4, chapter.getContent());
+            ps.setInt(5, chapter.getWordCount());
+            ps.setTimestamp(6, now);
+        });
+        return book;
+    }
+}
@@ -0,0 +1,155 @@
+package com.novelreader.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 章节流式输出（批量读取、整书导出）
+ *
+ * 通过 JDBC 游标逐行读取章节并直接写入输出流，内存占用与书籍章节数无关，
+ * 最多为驱动缓冲的 {@link #FETCH_SIZE} 章：查询固定 fetchSize，并在只读事务中执行
+ * （PostgreSQL 只有在关闭自动提交时才按 fetchSize 分批拉取，否则会一次性把整个结果集读入内存）
+ */
+@Component
+@RequiredArgsConstructor
+public class ChapterStreamer {
+
+    /**
+     * 每次从数据库拉取的行数，即内存中最多同时存在的章节数
+     */
+    static final int FETCH_SIZE = 16;
+
+    private static final String RANGE_SQL =
+        "SELECT chapter_index, title, word_count, content FROM chapters " +
+        "WHERE book_id = ? AND chapter_index BETWEEN ? AND ? ORDER BY chapter_index";
+
+    /**
+     * TXT 导出的写缓冲大小
+     */
+    private static final int TXT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * TxtParser 未识别出章节时使用的章节标题
+     */
+    private static final String UNTITLED_CHAPTER = "正文";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * 章节处理回调（可抛出 IO 异常，用于直接写响应流）
+     */
+    @FunctionalInterface
+    public interface ChapterRowHandler {
+        void handle(ResultSet rs) throws SQLException, IOException;
+    }
+
+    /**
+     * 以 NDJSON 格式输出章节区间：每章一行
+     * {"chapterIndex":0,"title":"...","wordCount":123,"content":"..."}
+     *
+     * 调用方需已完成书籍所有权校验
+     */
+    public void writeNdjson(Long bookId, int from, int to, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            forEachChapter(bookId, from, to, rs -> {
+                generator.writeStartObject();
+                generator.writeNumberField("chapterIndex", rs.getInt("chapter_index"));
+                generator.writeStringField("title", rs.getString("title"));
+                generator.writeNumberField("wordCount", rs.getInt("word_count"));
+                generator.writeFieldName("content");
+                try (Reader content = rs.getCharacterStream("content")) {
+                    if (content == null) {
+                        generator.writeNull();
+                    } else {
+                        generator.writeString(content, -1);
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                // 每章刷新一次，客户端可以边收边渲染
+                generator.flush();
+            });
+        }
+    }
+
+    /**
+     * 以 TXT 格式导出整本书（UTF-8）
+     *
+     * 书名、作者写在开头，之后每章为“标题、空行、正文、空行”，重新上传时可被解析为相同的章节；
+     * 未识别出章节的书籍只有一章“正文”，导出时省略该标题
+     */
+    public void writeTxt(BookService.BookExport book, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), TXT_BUFFER_SIZE);
+        writer.write(book.title());
+        writer.write('\n');
+        if (book.author() != null) {
+            writer.write("作者：" + book.author());
+            writer.write('\n');
+        }
+        writer.write('\n');
+
+        boolean untitled = book.chapterCount() == 1;
+        forEachChapter(book.bookId(), 0, book.chapterCount() - 1, rs -> {
+            String title = rs.getString("title");
+            if (!(untitled && UNTITLED_CHAPTER.equals(title))) {
+                writer.write(title);
+                writer.write("\n\n");
+            }
+            try (Reader content = rs.getCharacterStream("content")) {
+                if (content != null) {
+                    content.transferTo(writer);
+                }
+            }
+            writer.write("\n\n");
+        });
+        writer.flush();
+    }
+
+    /**
+     * 按章节序号顺序逐行处理章节区间 [from, to]
+     */
+    public void forEachChapter(Long bookId, int from, int to, ChapterRowHandler handler) throws IOException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        try {
+            transaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                var statement = con.prepareStatement(RANGE_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(FETCH_SIZE);
+                statement.setLong(1, bookId);
+                statement.setInt(2, from);
+                statement.setInt(3, to);
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    handler.handle(rs);
+                } catch (IOException e) {
+                    // 客户端断开等写出错误：中断查询并原样抛给调用方
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.novelreader.service;
+
+import com.novelreader.config.FlightRecorderConfig;
+import com.novelreader.dto.admin.FlightRecordingDTO;
+import com.novelreader.exception.BusinessException;
+import com.novelreader.util.FlightEvents;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * JFR 持续录制
+ *
+ * 启动时开启一个只保留最近 maxAge / maxSize 数据的录制（写入本地临时目录，不依赖外部服务），
+ * 请求耗时超过阈值时在虚拟线程中把当前录制转储为 .jfr 文件，由管理接口列出和下载。
+ * 转储文件可用 jfr print / jfr summary 或 JDK Mission Control 离线分析
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FlightRecorderService {
+
+    static final String RECORDING_NAME = "novel-reader";
+
+    private static final Pattern DUMP_NAME = Pattern.compile("[\\w.-]+\\.jfr");
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final long NEVER = Long.MIN_VALUE;
+
+    /**
+     * 高频事件，按 eventThresholdMs 过滤
+     */
+    private static final List<Class<? extends Event>> FREQUENT_EVENTS = List.of(
+        FlightEvents.HttpRequest.class,
+        FlightEvents.ChapterFetch.class,
+        FlightEvents.ProgressFlush.class,
+        FlightEvents.Auth.class
+    );
+
+    /**
+     * 低频事件，全部记录
+     */
+    private static final List<Class<? extends Event>> IMPORT_EVENTS = List.of(
+        FlightEvents.TxtParse.class,
+        FlightEvents.BookWrite.class
+    );
+
+    private final FlightRecorderConfig flightRecorderConfig;
+
+    private final AtomicLong lastAutoDump = new AtomicLong(NEVER);
+    private volatile Recording recording;
+
+    @PostConstruct
+    public void start() {
+        if (!flightRecorderConfig.isEnabled()) {
+            return;
+        }
+        if (!FlightRecorder.isAvailable()) {
+            log.warn("当前 JVM 不支持 JFR，跳过持续录制");
+            return;
+        }
+        try {
+            Recording r = new Recording(Configuration.getConfiguration(flightRecorderConfig.getSettings()));
+            r.setName(RECORDING_NAME);
+            r.setToDisk(true);
+            r.setMaxAge(Duration.ofMinutes(flightRecorderConfig.getMaxAgeMinutes()));
+            r.setMaxSize(flightRecorderConfig.getMaxSizeMb() * 1024L * 1024L);
+            Duration threshold = Duration.ofMillis(flightRecorderConfig.getEventThresholdMs());
+            FREQUENT_EVENTS.forEach(type -> r.enable(type).withThreshold(threshold));
+            IMPORT_EVENTS.forEach(r::enable);
+            r.start();
+            recording = r;
+            log.info("JFR 持续录制已开启: settings={}, maxAge={}min, 慢请求阈值={}ms",
+                flightRecorderConfig.getSettings(), flightRecorderConfig.getMaxAgeMinutes(),
+                flightRecorderConfig.getSlowRequestThresholdMs());
+        } catch (IOException | ParseException e) {
+            log.warn("无法开启 JFR 持续录制", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        Recording current = recording;
+        recording = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    /**
+     * 是否正在录制
+     */
+    public boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * 请求结束时调用：超过慢请求阈值且不在冷却期内时异步转储录制
+     *
+     * @return 是否触发了转储
+     */
+    public boolean onRequestCompleted(String request, long elapsedNanos) {
+        if (recording == null
+            || elapsedNanos < TimeUnit.MILLISECONDS.toNanos(flightRecorderConfig.getSlowRequestThresholdMs())) {
+            return false;
+        }
+        long now = System.nanoTime();
+        long last = lastAutoDump.get();
+        if (last != NEVER && now - last < TimeUnit.MILLISECONDS.toNanos(flightRecorderConfig.getDumpCooldownMs())) {
+            return false;
+        }
+        if (!lastAutoDump.compareAndSet(last, now)) {
+            return false;
+        }
+
+        log.warn("慢请求 {} 耗时 {} ms，转储 JFR 录制", request, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        Thread.ofVirtual().name("jfr-dump").start(() -> {
+            try {
+                dump("slow");
+            } catch (Exception e) {
+                log.error("JFR 录制转储失败", e);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * 把当前录制转储为文件
+     *
+     * @param reason 文件名前缀（slow：慢请求自动转储；manual：手动转储）
+     */
+    public synchronized FlightRecordingDTO dump(String reason) {
+        Recording current = recording;
+        if (current == null) {
+            throw new BusinessException("JFR 录制未开启", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        try {
+            Path directory = dumpDirectory();
+            Files.createDirectories(directory);
+            Path file = directory.resolve(reason + "-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+            current.dump(file);
+            log.info("JFR 录制已转储: {} ({} 字节)", file, Files.size(file));
+            prune(directory);
+            return toDTO(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 列出转储文件（最新的在前）
+     */
+    public List<FlightRecordingDTO> listDumps() {
+        try (Stream<Path> files = listDumpFiles(dumpDirectory())) {
+            return files.map(this::toDTO).toList();
+        }
+    }
+
+    /**
+     * 获取转储文件路径（只允许访问转储目录下的 .jfr 文件）
+     */
+    public Path getDump(String name) {
+        if (name == null || !DUMP_NAME.matcher(name).matches()) {
+            throw BusinessException.badRequest("无效的文件名");
+        }
+        Path file = dumpDirectory().resolve(name);
+        if (!Files.isRegularFile(file)) {
+            throw BusinessException.notFound("转储文件不存在");
+        }
+        return file;
+    }
+
+    private Path dumpDirectory() {
+        return Paths.get(flightRecorderConfig.getDumpDirectory()).toAbsolutePath().normalize();
+    }
+
+    /**
+     * 只保留最新的 maxDumps 个文件
+     */
+    private void prune(Path directory) throws IOException {
+        List<Path> stale;
+        try (Stream<Path> files = listDumpFiles(directory)) {
+            stale = files.skip(Math.max(flightRecorderConfig.getMaxDumps(), 1)).toList();
+        }
+        for (Path file : stale) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static Stream<Path> listDumpFiles(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return Stream.empty();
+        }
+        try {
+            return Files.list(directory)
+                .filter(file -> DUMP_NAME.matcher(file.getFileName().toString()).matches())
+                .sorted(Comparator.comparing(FlightRecorderService::lastModified).reversed()
+                    .thenComparing(Comparator.reverseOrder()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private FlightRecordingDTO toDTO(Path file) {
+        try {
+            return FlightRecordingDTO.builder()
+                .name(file.getFileName().toString())
+                .size(Files.size(file))
+                .createdAt(LocalDateTime.ofInstant(Files.getLastModifiedTime(file).toInstant(), ZoneId.systemDefault()))
+                .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.novelreader.service;
+
+import com.novelreader.config.ProgressLogConfig;
+import com.novelreader.repository.ProgressEventRepository;
+import com.novelreader.repository.ProgressEventRepository.ProgressEvent;
+import com.novelreader.util.Timings;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 阅读进度事件压缩
+ *
+ * 按 id 顺序读取尚未压缩的事件，每个 (用户, 书籍) 只保留最后一条，覆盖到 reading_progress 快照，并把这些事件标记为已压缩。
+ * 每批在一个事务中完成，先锁定 progress_compaction_lock，多实例不会重复压缩。
+ * 逐条标记而不是推进 id 水位线：id 较小但提交较晚的事件在下一轮照常压缩，快照按同步版本号只进不退。
+ * 写入不足 compactSettleMs 的事件留到之后，连续上报的进度合并为一次快照更新
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProgressCompactor {
+
+    private final ProgressEventRepository progressEventRepository;
+    private final ProgressLogConfig progressLogConfig;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private record BookKey(long userId, long bookId) {
+    }
+
+    /**
+     * 定时压缩
+     */
+    @Scheduled(fixedDelayString = "${progress-log.compact-interval-ms:1000}")
+    public void compactSettled() {
+        try {
+            compact(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.warn("阅读进度事件压缩失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定时清理已压缩的过期事件
+     */
+    @Scheduled(initialDelayString = "${progress-log.prune-interval-ms:3600000}",
+               fixedDelayString = "${progress-log.prune-interval-ms:3600000}")
+    public void pruneExpired() {
+        if (progressLogConfig.getRetentionDays() <= 0) {
+            return;
+        }
+        try {
+            int deleted = progressEventRepository.deleteCompactedBefore(
+                LocalDateTime.now().minusDays(progressLogConfig.getRetentionDays()));
+            if (deleted > 0) {
+                log.info("清理过期阅读进度事件 {} 条", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("阅读进度事件清理失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 压缩 now - compactSettleMs 之前写入的事件
+     *
+     * @return 压缩的事件数
+     */
+    int compact(LocalDateTime now) {
+        LocalDateTime settledBefore = now.minusNanos(progressLogConfig.getCompactSettleMs() * 1_000_000);
+        int batchSize = Math.max(1, progressLogConfig.getCompactBatchSize());
+        int compacted = 0;
+        while (true) {
+            Integer count = Timings.record(meterRegistry, "novel.progress.compact",
+                () -> transactionTemplate.execute(status -> compactBatch(settledBefore, batchSize)));
+            int batch = count != null ? count : 0;
+            compacted += batch;
+            if (batch < batchSize) {
+                break;
+            }
+        }
+        if (compacted > 0) {
+            Timings.counter(meterRegistry, "novel.progress.compacted", "events").increment(compacted);
+            log.debug("阅读进度事件压缩 {} 条", compacted);
+        }
+        return compacted;
+    }
+
+    /**
+     * 压缩一批事件（在调用方事务中）
+     *
+     * @return 本批压缩的事件数
+     */
+    private int compactBatch(LocalDateTime settledBefore, int batchSize) {
+        // 先锁定：其他实例在此等待，拿到锁后读到的是本批提交后的状态
+        progressEventRepository.lockCompaction();
+        List<ProgressEvent> events = progressEventRepository.findUncompacted(settledBefore, batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        Map<BookKey, ProgressEvent> latest = new LinkedHashMap<>();
+        List<Long> ids = new ArrayList<>(events.size());
+        for (ProgressEvent event : events) {
+            latest.put(new BookKey(event.userId(), event.bookId()), event);
+            ids.add(event.id());
+        }
+        progressEventRepository.applyToSnapshots(latest.values());
+        progressEventRepository.markCompacted(ids);
+        return events.size();
+    }
+}
@@ -0,0 +1,363 @@
+package com.novelreader.service;
+
+import com.novelreader.config.ProgressLogConfig;
+import com.novelreader.exception.BusinessException;
+import com.novelreader.repository.ProgressEventRepository;
+import com.novelreader.repository.ProgressEventRepository.ProgressEvent;
+import com.novelreader.repository.SyncRepository;
+import com.novelreader.util.FlightEvents;
+import com.novelreader.util.Timings;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 阅读进度事件日志写入（组提交）
+ *
+ * 请求线程把事件放入队列并等待写入完成；单个写入线程取出队列中积压的全部事件（不超过 batchSize），
+ * 在一个事务中批量 INSERT 后统一唤醒。并发上报越多，每次提交合并的事件越多，
+ * 随机的逐行 UPDATE 变为顺序追加。单线程写入也保证本实例的事件按 id 顺序提交。
+ * 同一事务内为每个事件分配用户的同步版本号；带基准版本号的上报在锁定用户版本行后比较，冲突时不写入
+ */
+@Slf4j
+@Component
+public class ProgressEventLog {
+
+    private static final long POLL_INTERVAL_MS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private final ProgressLogConfig progressLogConfig;
+    private final ProgressEventRepository progressEventRepository;
+    private final SyncRepository syncRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final BlockingQueue<Pending> queue;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public ProgressEventLog(ProgressLogConfig progressLogConfig,
+                            ProgressEventRepository progressEventRepository,
+                            SyncRepository syncRepository,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry) {
+        this.progressLogConfig = progressLogConfig;
+        this.progressEventRepository = progressEventRepository;
+        this.syncRepository = syncRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, progressLogConfig.getQueueCapacity()));
+    }
+
+    /**
+     * 等待写入的事件
+     *
+     * @param baseVersion 客户端上次同步的版本号，为 null 时不检查冲突
+     */
+    private record Pending(ProgressEvent event, Long baseVersion, CompletableFuture<Appended> written) {
+    }
+
+    /**
+     * 追加结果
+     *
+     * @param event    写入的事件（带同步版本号）；冲突时为服务端当前进度
+     * @param conflict 其他设备已在 baseVersion 之后更新且位置不比本次靠前，本次未写入
+     */
+    public record Appended(ProgressEvent event, boolean conflict) {
+    }
+
+    private record BookKey(long userId, long bookId) {
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("progress-log-writer").daemon().start(this::run);
+    }
+
+    /**
+     * 停止接收新事件，写完队列中剩余的事件
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(SHUTDOWN_TIMEOUT_MS);
+        }
+    }
+
+    /**
+     * 追加一个事件，返回时已提交
+     *
+     * @return 带同步版本号的事件
+     * @throws BusinessException 队列已满或等待超时（503）、书籍已删除（404）
+     */
+    public ProgressEvent append(ProgressEvent event) {
+        return append(event, null).event();
+    }
+
+    /**
+     * 追加一个事件（比较更新），返回时已提交
+     *
+     * 在写入事务中锁定用户的版本行后读取当前进度：版本号超过 baseVersion 且上报位置不比当前靠后时不写入，
+     * 返回当前进度。并发上报的多台设备因此只有一台能基于同一版本号覆盖进度
+     *
+     * @param baseVersion 客户端上次同步的版本号，为 null 时直接写入
+     * @throws BusinessException 队列已满或等待超时（503）、书籍已删除（404）
+     */
+    public Appended append(ProgressEvent event, Long baseVersion) {
+        Pending pending = new Pending(event, baseVersion, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            Timings.counter(meterRegistry, "novel.progress.log.rejected", "events").increment();
+            throw new BusinessException("进度保存繁忙，请稍后重试", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        try {
+            return pending.written().get(progressLogConfig.getAppendTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("进度保存被中断", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (TimeoutException e) {
+            // 事件仍在队列中，稍后会写入；客户端重试只会多一条相同位置的事件
+            throw new BusinessException("进度保存超时，请稍后重试", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * 队列中等待写入的事件数
+     */
+    int pendingSize() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                write(batch);
+            } catch (InterruptedException e) {
+                // 停止由 running 标志控制，中断时写出已取出的事件并继续
+                log.debug("进度日志写入线程被中断");
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+            } catch (RuntimeException e) {
+                log.error("进度日志写入线程异常", e);
+                batch.forEach(p -> p.written().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+        log.debug("进度日志写入线程退出");
+    }
+
+    /**
+     * 凑批：取出已排队的事件，配置了提交窗口时再等待窗口内到达的事件
+     */
+    private void collect(List<Pending> batch) throws InterruptedException {
+        int max = Math.max(1, progressLogConfig.getBatchSize());
+        queue.drainTo(batch, max - batch.size());
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(progressLogConfig.getCommitWindowMs());
+        long remaining;
+        while (batch.size() < max && (remaining = deadline - System.nanoTime()) > 0) {
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, max - batch.size());
+        }
+    }
+
+    /**
+     * 一个事务写入整批；书籍已删除导致外键冲突时整批回滚，改为逐条写入。
+     * 写入失败时以异常唤醒等待的请求，不会抛出
+     */
+    private void write(List<Pending> batch) {
+        List<ProgressEvent> events = batch.stream().map(Pending::event).toList();
+        FlightEvents.ProgressFlush flight = new FlightEvents.ProgressFlush();
+        flight.begin();
+        List<Appended> written = null;
+        RuntimeException failure = null;
+        try {
+            written = Timings.record(meterRegistry, "novel.progress.log.write",
+                () -> transactionTemplate.execute(status -> appendVersioned(batch)));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("进度事件批量写入冲突，改为逐条写入: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("进度事件写入失败，{} 条: {}", batch.size(), e.getMessage());
+            failure = e;
+        }
+
+        // 先记录指标再唤醒等待的请求：请求返回时本批的指标已可见
+        ProgressEvent last = events.get(events.size() - 1);
+        flight.bookId = last.bookId();
+        flight.chapterIndex = last.chapterIndex();
+        flight.records = events.size();
+        flight.commit();
+        Timings.summary(meterRegistry, "novel.progress.log.batch", "events").record(events.size());
+
+        if (written != null) {
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).written().complete(written.get(i));
+            }
+        } else if (failure != null) {
+            RuntimeException cause = failure;
+            batch.forEach(p -> p.written().completeExceptionally(cause));
+        } else {
+            batch.forEach(this::writeOne);
+        }
+    }
+
+    /**
+     * 检查冲突、分配同步版本号并写入（在调用方事务中），返回顺序与 batch 一致
+     */
+    private List<Appended> appendVersioned(List<Pending> batch) {
+        Conflicts conflicts = new Conflicts(batch.size());
+        if (batch.stream().anyMatch(p -> p.baseVersion() != null)) {
+            findConflicts(batch, conflicts);
+        }
+
+        SortedMap<Long, Integer> counts = new TreeMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (!conflicts.isConflict(i)) {
+                counts.merge(batch.get(i).event().userId(), 1, Integer::sum);
+            }
+        }
+        Map<Long, Long> versions = syncRepository.advance(counts);
+
+        // 每个用户占用 [递增后版本号 - 事件数 + 1, 递增后版本号]，按队列顺序分配
+        Map<Long, Long> nextVersion = new HashMap<>();
+        counts.forEach((userId, count) -> nextVersion.put(userId, versions.get(userId) - count + 1));
+        List<ProgressEvent> versioned = new ArrayList<>(batch.size());
+        List<Appended> results = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (conflicts.current[i] != null) {
+                results.add(new Appended(conflicts.current[i], true));
+            } else if (conflicts.winner[i] >= 0) {
+                // 同一批中排在前面的上报，此时已分配版本号
+                results.add(new Appended(results.get(conflicts.winner[i]).event(), true));
+            } else {
+                ProgressEvent event = batch.get(i).event();
+                long version = nextVersion.merge(event.userId(), 1L, Long::sum) - 1;
+                ProgressEvent written = event.withSyncVersion(version);
+                versioned.add(written);
+                results.add(new Appended(written, false));
+            }
+        }
+        progressEventRepository.appendAll(versioned);
+        return results;
+    }
+
+    /**
+     * 一批中冲突的上报：已提交的当前进度，或同一批中胜出的上报下标
+     */
+    private static final class Conflicts {
+
+        private final ProgressEvent[] current;
+        private final int[] winner;
+
+        private Conflicts(int size) {
+            current = new ProgressEvent[size];
+            winner = new int[size];
+            Arrays.fill(winner, -1);
+        }
+
+        private boolean isConflict(int i) {
+            return current[i] != null || winner[i] >= 0;
+        }
+    }
+
+    /**
+     * 锁定本批所有用户的版本行（按用户 ID 升序，与分配版本号的顺序一致），再逐条比较带基准版本号的上报。
+     * 同一批中排在前面、不冲突的上报视为已在客户端同步之后写入
+     */
+    private void findConflicts(List<Pending> batch, Conflicts conflicts) {
+        syncRepository.lock(new TreeSet<>(batch.stream().map(p -> p.event().userId()).toList()));
+
+        // (用户, 书籍) -> 本批中最后一个不冲突的上报下标
+        Map<BookKey, Integer> accepted = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            ProgressEvent event = pending.event();
+            BookKey key = new BookKey(event.userId(), event.bookId());
+            if (pending.baseVersion() != null) {
+                Integer earlier = accepted.get(key);
+                if (earlier != null) {
+                    if (!isAhead(event, batch.get(earlier).event())) {
+                        conflicts.winner[i] = earlier;
+                        continue;
+                    }
+                } else {
+                    ProgressEvent current = progressEventRepository.findLatest(event.userId(), event.bookId())
+                        .or(() -> progressEventRepository.findSnapshot(event.userId(), event.bookId()))
+                        .orElse(null);
+                    if (current != null && current.syncVersion() > pending.baseVersion() && !isAhead(event, current)) {
+                        // 其他设备已在客户端同步之后更新，且位置不比本次上报靠前：保留服务端进度
+                        conflicts.current[i] = current;
+                        continue;
+                    }
+                }
+            }
+            accepted.put(key, i);
+        }
+    }
+
+    /**
+     * 上报位置是否比当前进度靠后（先比较章节，再比较章内滚动位置）
+     */
+    private static boolean isAhead(ProgressEvent event, ProgressEvent current) {
+        int byChapter = Integer.compare(event.chapterIndex(), current.chapterIndex());
+        if (byChapter != 0) {
+            return byChapter > 0;
+        }
+        double scroll = event.scrollPosition() != null ? event.scrollPosition() : 0;
+        return scroll > (current.scrollPosition() != null ? current.scrollPosition() : 0);
+    }
+
+    private void writeOne(Pending pending) {
+        try {
+            List<Appended> written = transactionTemplate.execute(status -> appendVersioned(List.of(pending)));
+            pending.written().complete(written.get(0));
+        } catch (DuplicateKeyException e) {
+            pending.written().completeExceptionally(e);
+        } catch (DataIntegrityViolationException e) {
+            // 外键冲突：书籍已删除
+            pending.written().completeExceptionally(BusinessException.notFound("书籍不存在"));
+        } catch (RuntimeException e) {
+            pending.written().completeExceptionally(e);
+        }
+    }
+}
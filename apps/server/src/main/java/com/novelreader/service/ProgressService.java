@@ -1,25 +1,44 @@
 package com.novelreader.service;
 
-import com.novelreader.dto.PageResponse;
+import com.novelreader.dto.CursorPageResponse;
 import com.novelreader.dto.progress.*;
 import com.novelreader.entity.*;
 import com.novelreader.exception.BusinessException;
 import com.novelreader.repository.*;
+import com.novelreader.repository.ProgressEventRepository.ProgressEvent;
+import com.novelreader.repository.SyncRepository.EntityType;
+import com.novelreader.repository.SyncRepository.Tombstone;
+import com.novelreader.util.PageCursor;
+import com.novelreader.util.Timings;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * 阅读进度服务
+ *
+ * 进度上报追加到事件日志（{@link ProgressEventLog}），由 {@link ProgressCompactor} 异步折叠进
+ * reading_progress 快照；读取时以尚未压缩的事件覆盖快照，上报后立即可见。
+ * 进度、书签和删除记录都带用户的同步版本号，多端通过 {@link #getChanges} 增量同步；
+ * 每次变化提交后由 {@link SyncPushService} 推送给该用户在线的其他设备
  */
 @Slf4j
 @Service
@@ -27,37 +46,66 @@ import java.util.stream.Collectors;
 public class ProgressService {
 
     private final ReadingProgressRepository progressRepository;
+    private final ProgressEventRepository progressEventRepository;
+    private final ProgressEventLog progressEventLog;
     private final BookmarkRepository bookmarkRepository;
     private final BookRepository bookRepository;
     private final ChapterRepository chapterRepository;
     private final UserRepository userRepository;
+    private final SyncRepository syncRepository;
+    private final RecentReadingCache recentReadingCache;
+    private final ReadingStatsCollector readingStatsCollector;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    private static final int MAX_PAGE_SIZE = 100;
 
     // ==================== 阅读进度 ====================
 
     /**
      * 更新阅读进度
+     *
+     * 不开启事务：等待组提交期间不占用数据库连接
      */
-    @Transactional
     public ProgressDTO updateProgress(Long userId, UpdateProgressRequest request) {
+        return Timings.record(meterRegistry, "novel.progress.update", () -> saveProgress(userId, request));
+    }
+
+    private ProgressDTO saveProgress(Long userId, UpdateProgressRequest request) {
         Book book = bookRepository.findByIdAndUserId(request.getBookId(), userId)
             .orElseThrow(() -> BusinessException.notFound("书籍不存在"));
 
-        ReadingProgress progress = progressRepository
-            .findByUserIdAndBookId(userId, request.getBookId())
-            .orElse(ReadingProgress.builder()
-                .user(userRepository.getReferenceById(userId))
-                .book(book)
-                .build());
-
-        progress.setChapterIndex(request.getChapterIndex());
-        progress.setScrollPosition(request.getScrollPosition());
-        progress.setProgressPercent(request.getProgressPercent());
-        progress.setLastReadAt(LocalDateTime.now());
-
-        progress = progressRepository.save(progress);
+        // 统计用的上一位置不要求与写入严格一致
+        ReadingProgress current = findCurrentProgress(userId, book).orElse(null);
+        ReadingStatsCollector.Position previous = current != null
+            ? ReadingStatsCollector.Position.of(
+                current.getChapterIndex(), current.getProgressPercent(), current.getLastReadAt())
+            : null;
+
+        // 追加事件，返回时已提交（与同时上报的其他事件合并为一次提交）；基准版本号在写入事务中比较
+        ProgressEventLog.Appended appended = progressEventLog.append(ProgressEvent.of(userId, book.getId(),
+            request.getChapterIndex(), request.getScrollPosition(), request.getProgressPercent(), LocalDateTime.now()),
+            request.getBaseVersion());
+        ProgressEvent event = appended.event();
+        if (appended.conflict()) {
+            // 其他设备已在客户端同步之后更新，且位置不比本次上报靠前：保留服务端进度，客户端以返回值为准
+            log.debug("进度冲突，保留服务端进度: bookId={}, version={}", book.getId(), event.syncVersion());
+            return toProgressDTO(toProgress(event, book), book);
+        }
         log.debug("更新阅读进度: bookId={}, chapter={}", request.getBookId(), request.getChapterIndex());
 
-        return toProgressDTO(progress, book);
+        // 阅读统计只在内存中累加，定时批量写入
+        readingStatsCollector.recordProgress(userId, book.getId(),
+            book.getWordCount() != null ? book.getWordCount() : 0, previous,
+            ReadingStatsCollector.Position.of(event.chapterIndex(), event.progressPercent(), event.createdAt()));
+
+        ProgressDTO dto = toProgressDTO(toProgress(event, book), book);
+        recentReadingCache.record(userId, dto);
+        eventPublisher.publishEvent(new SyncPushService.Changed(userId, ProgressChangesDTO.builder()
+            .version(dto.getSyncVersion())
+            .progress(List.of(dto))
+            .build()));
+        return dto;
     }
 
     /**
@@ -67,7 +115,7 @@ public class ProgressService {
         Book book = bookRepository.findByIdAndUserId(bookId, userId)
             .orElseThrow(() -> BusinessException.notFound("书籍不存在"));
 
-        return progressRepository.findByUserIdAndBookId(userId, bookId)
+        return findCurrentProgress(userId, book)
             .map(p -> toProgressDTO(p, book))
             .orElse(ProgressDTO.builder()
                 .bookId(bookId)
@@ -78,64 +126,197 @@ public class ProgressService {
                 .build());
     }
 
+    /**
+     * 当前进度：最新事件（含未压缩的），没有事件时（事件日志之前的进度或已清理）取快照
+     */
+    private Optional<ReadingProgress> findCurrentProgress(Long userId, Book book) {
+        return progressEventRepository.findLatest(userId, book.getId())
+            .map(event -> toProgress(event, book))
+            .or(() -> progressRepository.findByUserIdAndBookId(userId, book.getId()));
+    }
+
     /**
      * 获取用户所有阅读进度
      */
     public List<ProgressDTO> getAllProgress(Long userId) {
+        // 先读未压缩的事件再读快照：两次读取之间压缩的事件会出现在快照中
+        List<ProgressEvent> pending = progressEventRepository.findPending(userId);
         // 使用 JOIN FETCH 避免 N+1
-        List<ReadingProgress> progressList = progressRepository.findByUserIdWithBook(userId);
+        List<ReadingProgress> progressList = overlay(
+            progressRepository.findByUserIdWithBook(userId), pending, Integer.MAX_VALUE);
         if (progressList.isEmpty()) {
             return List.of();
         }
 
         // 批量获取章节标题
-        Map<String, String> chapterTitleMap = batchGetChapterTitles(progressList);
+        Map<String, String> chapterTitleMap = batchGetChapterTitles(progressList,
+            p -> p.getBook().getId(), ReadingProgress::getChapterIndex);
 
         return progressList.stream()
             .map(p -> toProgressDTOWithCache(p, p.getBook(), chapterTitleMap))
             .collect(Collectors.toList());
     }
 
+    /**
+     * 获取同步版本号 since 之后的变化
+     *
+     * 没有变化时只读取一次版本号。since 大于当前版本号（客户端数据来自其他环境）时返回全部数据
+     */
+    public ProgressChangesDTO getChanges(Long userId, long since) {
+        long version = syncRepository.findVersion(userId);
+        if (since == version) {
+            return ProgressChangesDTO.builder().version(version).build();
+        }
+        long from = since > version ? 0 : since;
+
+        // 先读未压缩的事件再读快照（同 getAllProgress）
+        List<ProgressEvent> pending = progressEventRepository.findPendingSince(userId, from);
+        List<ReadingProgress> progressList = overlay(
+            progressRepository.findChangedWithBook(userId, from), pending, Integer.MAX_VALUE);
+        List<Bookmark> bookmarks = bookmarkRepository.findChangedWithBook(userId, from);
+        List<Tombstone> tombstones = syncRepository.findTombstonesSince(userId, from);
+
+        // 进度与书签的章节标题一次查询
+        List<Map.Entry<Long, Integer>> chapters = new ArrayList<>();
+        progressList.forEach(p -> chapters.add(Map.entry(p.getBook().getId(), p.getChapterIndex())));
+        bookmarks.forEach(b -> chapters.add(Map.entry(b.getBook().getId(), b.getChapterIndex())));
+        Map<String, String> chapterTitleMap = chapters.isEmpty()
+            ? Map.of()
+            : batchGetChapterTitles(chapters, Map.Entry::getKey, Map.Entry::getValue);
+
+        return ProgressChangesDTO.builder()
+            .version(version)
+            .progress(nullIfEmpty(progressList.stream()
+                .map(p -> toProgressDTOWithCache(p, p.getBook(), chapterTitleMap))
+                .toList()))
+            .bookmarks(nullIfEmpty(bookmarks.stream()
+                .map(b -> toBookmarkDTOWithCache(b, b.getBook(), chapterTitleMap))
+                .toList()))
+            .deletedBookmarkIds(nullIfEmpty(deletedIds(tombstones, EntityType.BOOKMARK)))
+            .deletedBookIds(nullIfEmpty(deletedIds(tombstones, EntityType.BOOK)))
+            .build();
+    }
+
+    private static List<Long> deletedIds(List<Tombstone> tombstones, EntityType type) {
+        return tombstones.stream()
+            .filter(t -> t.entityType() == type)
+            .map(Tombstone::entityId)
+            .distinct()
+            .toList();
+    }
+
+    /**
+     * 没有变化的类型为 null（与只返回版本号时一致）
+     */
+    private static <T> List<T> nullIfEmpty(List<T> list) {
+        return list.isEmpty() ? null : list;
+    }
+
     /**
      * 获取最近阅读
+     *
+     * 不超过缓存容量的请求由内存中的最近阅读缓存直接返回，否则查询数据库
      */
     public List<ProgressDTO> getRecentReading(Long userId, int limit) {
-        // 使用 JOIN FETCH 避免 N+1
-        List<ReadingProgress> progressList = progressRepository.findRecentReadingWithBook(userId)
-            .stream()
-            .limit(limit)
-            .collect(Collectors.toList());
+        limit = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        if (limit <= RecentReadingCache.CAPACITY) {
+            return recentReadingCache.get(userId, limit,
+                () -> loadRecentReading(userId, RecentReadingCache.CAPACITY));
+        }
+        return loadRecentReading(userId, limit);
+    }
+
+    private List<ProgressDTO> loadRecentReading(Long userId, int limit) {
+        // 使用 JOIN FETCH 避免 N+1，LIMIT 在数据库端执行；未压缩的事件都比快照新，覆盖后再截取
+        List<ProgressEvent> pending = progressEventRepository.findPending(userId);
+        List<ReadingProgress> progressList = overlay(
+            progressRepository.findRecentReadingWithBook(userId, PageRequest.of(0, limit)), pending, limit);
 
         if (progressList.isEmpty()) {
             return List.of();
         }
 
         // 批量获取章节标题
-        Map<String, String> chapterTitleMap = batchGetChapterTitles(progressList);
+        Map<String, String> chapterTitleMap = batchGetChapterTitles(progressList,
+            p -> p.getBook().getId(), ReadingProgress::getChapterIndex);
 
         return progressList.stream()
             .map(p -> toProgressDTOWithCache(p, p.getBook(), chapterTitleMap))
             .collect(Collectors.toList());
     }
 
+    /**
+     * 用未压缩的事件覆盖快照（按书取同步版本号较新的一方），按最后阅读时间倒序返回前 limit 条
+     *
+     * 快照中没有的书（首次阅读且尚未压缩）批量加载书籍信息
+     */
+    private List<ReadingProgress> overlay(List<ReadingProgress> snapshots, List<ProgressEvent> pending, int limit) {
+        if (pending.isEmpty()) {
+            return snapshots;
+        }
+        Map<Long, ReadingProgress> byBook = new HashMap<>();
+        snapshots.forEach(p -> byBook.put(p.getBook().getId(), p));
+
+        Map<Long, ProgressEvent> latest = new HashMap<>();
+        pending.forEach(event -> latest.put(event.bookId(), event));
+        Set<Long> missingBooks = new HashSet<>(latest.keySet());
+        missingBooks.removeAll(byBook.keySet());
+        Map<Long, Book> books = new HashMap<>();
+        snapshots.forEach(p -> books.put(p.getBook().getId(), p.getBook()));
+        if (!missingBooks.isEmpty()) {
+            bookRepository.findAllById(missingBooks).forEach(b -> books.put(b.getId(), b));
+        }
+
+        latest.forEach((bookId, event) -> {
+            ReadingProgress snapshot = byBook.get(bookId);
+            Book book = books.get(bookId);
+            // 书籍已删除；或读取快照前已压缩了这条及更新的事件
+            if (book == null || (snapshot != null && snapshot.getSyncVersion() >= event.syncVersion())) {
+                return;
+            }
+            byBook.put(bookId, toProgress(event, book));
+        });
+
+        List<ReadingProgress> merged = new ArrayList<>(byBook.values());
+        merged.sort(Comparator.comparing(ReadingProgress::getLastReadAt,
+            Comparator.nullsLast(Comparator.reverseOrder())));
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    /**
+     * 由事件构建进度（不持久化）
+     */
+    private static ReadingProgress toProgress(ProgressEvent event, Book book) {
+        return ReadingProgress.builder()
+            .book(book)
+            .chapterIndex(event.chapterIndex())
+            .scrollPosition(event.scrollPosition())
+            .progressPercent(event.progressPercent())
+            .lastReadAt(event.createdAt())
+            .syncVersion(event.syncVersion())
+            .build();
+    }
+
     /**
      * 批量获取章节标题，避免 N+1 查询
+     *
+     * 只按精确的 (bookId, chapterIndex) 查询标题，不加载其他章节和章节正文
      */
-    private Map<String, String> batchGetChapterTitles(List<ReadingProgress> progressList) {
+    private <T> Map<String, String> batchGetChapterTitles(List<T> items,
+                                                          Function<T, Long> bookIdOf,
+                                                          Function<T, Integer> chapterIndexOf) {
         // 收集所有需要查询的 (bookId, chapterIndex) 对
-        List<Long> bookIds = progressList.stream()
-            .map(p -> p.getBook().getId())
-            .distinct()
-            .collect(Collectors.toList());
-
-        // 批量查询所有相关章节
-        List<Chapter> chapters = chapterRepository.findByBookIdIn(bookIds);
+        Map<Long, Set<Integer>> indicesByBook = new HashMap<>();
+        for (T item : items) {
+            indicesByBook.computeIfAbsent(bookIdOf.apply(item), k -> new HashSet<>())
+                .add(chapterIndexOf.apply(item));
+        }
 
         // 构建 "bookId-chapterIndex" -> title 的映射
-        return chapters.stream()
+        return chapterRepository.findTitles(indicesByBook).stream()
             .collect(Collectors.toMap(
-                c -> c.getBook().getId() + "-" + c.getChapterIndex(),
-                Chapter::getTitle,
+                t -> t.bookId() + "-" + t.chapterIndex(),
+                ChapterTitle::title,
                 (existing, replacement) -> existing // 处理重复键
             ));
     }
@@ -155,6 +336,7 @@ public class ProgressService {
             .scrollPosition(progress.getScrollPosition())
             .progressPercent(progress.getProgressPercent())
             .lastReadAt(progress.getLastReadAt())
+            .syncVersion(progress.getSyncVersion())
             .build();
     }
 
@@ -176,12 +358,18 @@ public class ProgressService {
             .selectedText(request.getSelectedText())
             .note(request.getNote())
             .color(request.getColor())
+            .syncVersion(syncRepository.next(userId))
             .build();
 
         bookmark = bookmarkRepository.save(bookmark);
         log.info("创建书签: bookId={}, chapter={}", request.getBookId(), request.getChapterIndex());
 
-        return toBookmarkDTO(bookmark, book);
+        BookmarkDTO dto = toBookmarkDTO(bookmark, book);
+        eventPublisher.publishEvent(new SyncPushService.Changed(userId, ProgressChangesDTO.builder()
+            .version(dto.getSyncVersion())
+            .bookmarks(List.of(dto))
+            .build()));
+        return dto;
     }
 
     /**
@@ -191,34 +379,48 @@ public class ProgressService {
         Book book = bookRepository.findByIdAndUserId(bookId, userId)
             .orElseThrow(() -> BusinessException.notFound("书籍不存在"));
 
-        return bookmarkRepository
-            .findByUserIdAndBookIdOrderByChapterIndexAscPositionAsc(userId, bookId)
-            .stream()
-            .map(b -> toBookmarkDTO(b, book))
+        List<Bookmark> bookmarks = bookmarkRepository
+            .findByUserIdAndBookIdOrderByChapterIndexAscPositionAsc(userId, bookId);
+        if (bookmarks.isEmpty()) {
+            return List.of();
+        }
+
+        // 批量获取章节标题
+        Map<String, String> chapterTitleMap = batchGetChapterTitles(bookmarks,
+            b -> bookId, Bookmark::getChapterIndex);
+
+        return bookmarks.stream()
+            .map(b -> toBookmarkDTOWithCache(b, book, chapterTitleMap))
             .collect(Collectors.toList());
     }
 
     /**
-     * 获取用户所有书签（分页）
+     * 获取用户所有书签（游标分页）
+     *
+     * @param cursor    上一页返回的 nextCursor，为空表示第一页
+     * @param withTotal 是否返回总数（额外执行一次 COUNT 查询）
      */
-    public PageResponse<BookmarkDTO> getAllBookmarks(Long userId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Bookmark> bookmarkPage = bookmarkRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
-
-        List<Bookmark> bookmarks = bookmarkPage.getContent();
-        if (bookmarks.isEmpty()) {
-            return PageResponse.<BookmarkDTO>builder()
+    public CursorPageResponse<BookmarkDTO> getAllBookmarks(Long userId, String cursor, int size, boolean withTotal) {
+        size = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageCursor after = PageCursor.decode(cursor);
+
+        // 多取一行用于判断是否还有下一页
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Bookmark> rows = after == null
+            ? bookmarkRepository.findPageByUserId(userId, limit)
+            : bookmarkRepository.findPageByUserIdAfter(userId, after.timestamp(), after.id(), limit);
+        Long total = withTotal ? bookmarkRepository.countByUserId(userId) : null;
+
+        if (rows.isEmpty()) {
+            return CursorPageResponse.<BookmarkDTO>builder()
                 .content(List.of())
-                .page(bookmarkPage.getNumber())
-                .size(bookmarkPage.getSize())
-                .totalElements(bookmarkPage.getTotalElements())
-                .totalPages(bookmarkPage.getTotalPages())
-                .first(bookmarkPage.isFirst())
-                .last(bookmarkPage.isLast())
+                .size(size)
+                .totalElements(total)
                 .build();
         }
 
         // 批量获取 Book 信息，避免 N+1
+        List<Bookmark> bookmarks = rows.size() > size ? rows.subList(0, size) : rows;
         List<Long> bookIds = bookmarks.stream()
             .map(b -> b.getBook().getId())
             .distinct()
@@ -227,35 +429,17 @@ public class ProgressService {
             .collect(Collectors.toMap(Book::getId, b -> b));
 
         // 批量获取章节标题
-        Map<String, String> chapterTitleMap = batchGetChapterTitlesForBookmarks(bookmarks, bookIds);
-
-        List<BookmarkDTO> bookmarkDTOs = bookmarks.stream()
-            .filter(b -> bookMap.containsKey(b.getBook().getId()))
-            .map(b -> toBookmarkDTOWithCache(b, bookMap.get(b.getBook().getId()), chapterTitleMap))
-            .collect(Collectors.toList());
-
-        return PageResponse.<BookmarkDTO>builder()
-            .content(bookmarkDTOs)
-            .page(bookmarkPage.getNumber())
-            .size(bookmarkPage.getSize())
-            .totalElements(bookmarkPage.getTotalElements())
-            .totalPages(bookmarkPage.getTotalPages())
-            .first(bookmarkPage.isFirst())
-            .last(bookmarkPage.isLast())
-            .build();
-    }
-
-    /**
-     * 批量获取书签的章节标题
-     */
-    private Map<String, String> batchGetChapterTitlesForBookmarks(List<Bookmark> bookmarks, List<Long> bookIds) {
-        List<Chapter> chapters = chapterRepository.findByBookIdIn(bookIds);
-        return chapters.stream()
-            .collect(Collectors.toMap(
-                c -> c.getBook().getId() + "-" + c.getChapterIndex(),
-                Chapter::getTitle,
-                (existing, replacement) -> existing
-            ));
+        Map<String, String> chapterTitleMap = batchGetChapterTitles(bookmarks,
+            b -> b.getBook().getId(), Bookmark::getChapterIndex);
+
+        // 书籍已被删除的书签不返回，但仍参与游标推进
+        CursorPageResponse<BookmarkDTO> page = CursorPageResponse.of(rows, size,
+            b -> bookMap.containsKey(b.getBook().getId())
+                ? toBookmarkDTOWithCache(b, bookMap.get(b.getBook().getId()), chapterTitleMap)
+                : null,
+            b -> PageCursor.of(b.getCreatedAt(), b.getId()), total);
+        page.setContent(page.getContent().stream().filter(Objects::nonNull).toList());
+        return page;
     }
 
     /**
@@ -276,6 +460,7 @@ public class ProgressService {
             .note(bookmark.getNote())
             .color(bookmark.getColor())
             .createdAt(bookmark.getCreatedAt())
+            .syncVersion(bookmark.getSyncVersion())
             .build();
     }
 
@@ -288,6 +473,12 @@ public class ProgressService {
             .orElseThrow(() -> BusinessException.notFound("书签不存在"));
 
         bookmarkRepository.delete(bookmark);
+        long version = syncRepository.next(userId);
+        syncRepository.addTombstone(userId, EntityType.BOOKMARK, bookmarkId, version);
+        eventPublisher.publishEvent(new SyncPushService.Changed(userId, ProgressChangesDTO.builder()
+            .version(version)
+            .deletedBookmarkIds(List.of(bookmarkId))
+            .build()));
         log.info("删除书签: id={}", bookmarkId);
     }
 
@@ -295,8 +486,7 @@ public class ProgressService {
 
     private ProgressDTO toProgressDTO(ReadingProgress progress, Book book) {
         String chapterTitle = chapterRepository
-            .findByBookIdAndChapterIndex(book.getId(), progress.getChapterIndex())
-            .map(Chapter::getTitle)
+            .findTitleByBookIdAndChapterIndex(book.getId(), progress.getChapterIndex())
             .orElse("第" + (progress.getChapterIndex() + 1) + "章");
 
         return ProgressDTO.builder()
@@ -307,13 +497,13 @@ public class ProgressService {
             .scrollPosition(progress.getScrollPosition())
             .progressPercent(progress.getProgressPercent())
             .lastReadAt(progress.getLastReadAt())
+            .syncVersion(progress.getSyncVersion())
             .build();
     }
 
     private BookmarkDTO toBookmarkDTO(Bookmark bookmark, Book book) {
         String chapterTitle = chapterRepository
-            .findByBookIdAndChapterIndex(book.getId(), bookmark.getChapterIndex())
-            .map(Chapter::getTitle)
+            .findTitleByBookIdAndChapterIndex(book.getId(), bookmark.getChapterIndex())
             .orElse("第" + (bookmark.getChapterIndex() + 1) + "章");
 
         return BookmarkDTO.builder()
@@ -327,6 +517,7 @@ public class ProgressService {
             .note(bookmark.getNote())
             .color(bookmark.getColor())
             .createdAt(bookmark.getCreatedAt())
+            .syncVersion(bookmark.getSyncVersion())
             .build();
     }
 }
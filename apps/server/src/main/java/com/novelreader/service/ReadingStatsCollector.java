@@ -0,0 +1,193 @@
+package com.novelreader.service;
+
+import com.novelreader.config.ReadingStatsConfig;
+import com.novelreader.util.Timings;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 阅读统计收集
+ *
+ * 由相邻两次进度上报推算阅读时长、字数和章节数，在内存中按 (用户, 书籍, 日期) 累加，
+ * 定时批量写入 reading_stats。请求线程只做一次分段加锁的内存累加，不访问数据库。
+ * 累加表按 key 哈希分为固定数量的分段（与限流计数表相同），写入时逐段整体换出，不丢失并发累加；
+ * 写入失败的批次放回内存，下次重试
+ */
+@Slf4j
+@Component
+public class ReadingStatsCollector {
+
+    private static final int STRIPES = 64;
+
+    private final ReadingStatsConfig readingStatsConfig;
+    private final ReadingStatsWriter readingStatsWriter;
+    private final MeterRegistry meterRegistry;
+    private final Stripe[] stripes;
+
+    public ReadingStatsCollector(ReadingStatsConfig readingStatsConfig,
+                                 ReadingStatsWriter readingStatsWriter,
+                                 MeterRegistry meterRegistry) {
+        this.readingStatsConfig = readingStatsConfig;
+        this.readingStatsWriter = readingStatsWriter;
+        this.meterRegistry = meterRegistry;
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * 统计维度
+     */
+    public record Key(long userId, long bookId, LocalDate date) {
+    }
+
+    /**
+     * 一个维度上待写入的增量
+     */
+    public record Delta(Key key, int readingSeconds, long characters, int chapters) {
+    }
+
+    /**
+     * 阅读位置（一次进度上报）
+     */
+    public record Position(int chapterIndex, double progressPercent, LocalDateTime readAt) {
+
+        public static Position of(Integer chapterIndex, Double progressPercent, LocalDateTime readAt) {
+            return new Position(
+                chapterIndex != null ? chapterIndex : 0,
+                progressPercent != null ? Math.max(0, Math.min(progressPercent, 100)) : 0,
+                readAt);
+        }
+    }
+
+    private static final class Totals {
+        int readingSeconds;
+        long characters;
+        int chapters;
+    }
+
+    private static final class Stripe {
+        Map<Key, Totals> pending = new HashMap<>();
+    }
+
+    /**
+     * 记录一次进度更新
+     *
+     * @param bookWords 书籍总字数（按进度百分比变化换算阅读字数）
+     * @param previous  更新前的位置，首次阅读为 null（不计入）
+     */
+    public void recordProgress(long userId, long bookId, long bookWords, Position previous, Position current) {
+        if (!readingStatsConfig.isEnabled() || previous == null || previous.readAt() == null) {
+            return;
+        }
+        long seconds = Duration.between(previous.readAt(), current.readAt()).toSeconds();
+        if (seconds <= 0 || seconds > readingStatsConfig.getIdleGapSeconds()) {
+            return;
+        }
+
+        double percentDelta = current.progressPercent() - previous.progressPercent();
+        long characters = percentDelta > 0
+            ? Math.min(Math.round(percentDelta / 100 * bookWords), seconds * readingStatsConfig.getMaxCharsPerSecond())
+            : 0;
+        int chapterDelta = current.chapterIndex() - previous.chapterIndex();
+        int chapters = chapterDelta > 0 && chapterDelta <= readingStatsConfig.getMaxChapterJump() ? chapterDelta : 0;
+
+        add(new Delta(new Key(userId, bookId, current.readAt().toLocalDate()), (int) seconds, characters, chapters));
+    }
+
+    private void add(Delta delta) {
+        Stripe stripe = stripes[stripe(delta.key())];
+        synchronized (stripe) {
+            Totals totals = stripe.pending.computeIfAbsent(delta.key(), key -> new Totals());
+            totals.readingSeconds += delta.readingSeconds();
+            totals.characters += delta.characters();
+            totals.chapters += delta.chapters();
+        }
+    }
+
+    private static int stripe(Key key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * 换出全部待写入的增量
+     */
+    List<Delta> drain() {
+        List<Delta> deltas = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            Map<Key, Totals> pending;
+            synchronized (stripe) {
+                if (stripe.pending.isEmpty()) {
+                    continue;
+                }
+                pending = stripe.pending;
+                stripe.pending = new HashMap<>();
+            }
+            pending.forEach((key, totals) ->
+                deltas.add(new Delta(key, totals.readingSeconds, totals.characters, totals.chapters)));
+        }
+        return deltas;
+    }
+
+    /**
+     * 待写入的维度数
+     */
+    int pendingSize() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.pending.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 定时写入 reading_stats
+     */
+    @Scheduled(fixedDelayString = "${reading-stats.flush-interval-ms:60000}")
+    public void flush() {
+        List<Delta> deltas = drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        int batchSize = Math.max(1, readingStatsConfig.getBatchSize());
+        int written = 0;
+        int failed = 0;
+        for (int from = 0; from < deltas.size(); from += batchSize) {
+            List<Delta> batch = deltas.subList(from, Math.min(from + batchSize, deltas.size()));
+            try {
+                written += Timings.record(meterRegistry, "novel.stats.flush", () -> readingStatsWriter.write(batch));
+            } catch (RuntimeException e) {
+                // 放回内存，下次重试
+                log.warn("阅读统计写入失败，{} 行将在下次重试: {}", batch.size(), e.getMessage());
+                batch.forEach(this::add);
+                failed += batch.size();
+            }
+        }
+        Timings.counter(meterRegistry, "novel.stats.rows", "rows").increment(written);
+        log.debug("阅读统计写入 {} 行，失败 {} 行", written, failed);
+    }
+
+    /**
+     * 停机前写入剩余数据
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,128 @@
+package com.novelreader.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 阅读统计持久化
+ *
+ * 每批先批量 UPDATE 累加已有行，再批量 INSERT 缺失的行，两步在同一事务中；
+ * INSERT 冲突（其他实例同时插入）或书籍已删除时整批回滚，改为逐行写入。H2 与 PostgreSQL 通用
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReadingStatsWriter {
+
+    private static final String UPDATE_SQL =
+        "UPDATE reading_stats SET reading_time = reading_time + ?, characters_read = characters_read + ?, " +
+        "chapters_read = chapters_read + ? WHERE user_id = ? AND book_id = ? AND date = ?";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO reading_stats (user_id, book_id, date, reading_time, characters_read, chapters_read) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 累加一批统计
+     *
+     * @return 写入的行数（书籍已删除而丢弃的行不计）
+     */
+    public int write(List<ReadingStatsCollector.Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        try {
+            Integer written = transactionTemplate.execute(status -> writeBatch(deltas));
+            return written != null ? written : 0;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("阅读统计批量写入冲突，改为逐行写入: {}", e.getMessage());
+            int written = 0;
+            for (ReadingStatsCollector.Delta delta : deltas) {
+                written += writeOne(delta);
+            }
+            return written;
+        }
+    }
+
+    private int writeBatch(List<ReadingStatsCollector.Delta> deltas) {
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, deltas, deltas.size(),
+            ReadingStatsWriter::setUpdate);
+
+        // 未命中的行（当天首次写入）
+        List<ReadingStatsCollector.Delta> missing = new ArrayList<>();
+        int i = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                if (count == 0) {
+                    missing.add(deltas.get(i));
+                }
+                i++;
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, missing, missing.size(), ReadingStatsWriter::setInsert);
+        }
+        return deltas.size();
+    }
+
+    /**
+     * 单行写入（自动提交）：UPDATE 未命中则 INSERT，INSERT 冲突再 UPDATE 一次
+     */
+    private int writeOne(ReadingStatsCollector.Delta delta) {
+        try {
+            if (update(delta) > 0) {
+                return 1;
+            }
+            try {
+                jdbcTemplate.update(INSERT_SQL, delta.key().userId(), delta.key().bookId(),
+                    Date.valueOf(delta.key().date()), delta.readingSeconds(), delta.characters(), delta.chapters());
+                return 1;
+            } catch (DuplicateKeyException e) {
+                return update(delta) > 0 ? 1 : 0;
+            }
+        } catch (DataIntegrityViolationException e) {
+            // 书籍或用户已删除
+            log.debug("丢弃阅读统计 {}: {}", delta.key(), e.getMessage());
+            return 0;
+        }
+    }
+
+    private int update(ReadingStatsCollector.Delta delta) {
+        return jdbcTemplate.update(UPDATE_SQL, delta.readingSeconds(), delta.characters(), delta.chapters(),
+            delta.key().userId(), delta.key().bookId(), Date.valueOf(delta.key().date()));
+    }
+
+    private static void setUpdate(PreparedStatement ps, ReadingStatsCollector.Delta delta)
+            throws SQLException {
+        ps.setInt(1, delta.readingSeconds());
+        ps.setLong(2, delta.characters());
+        ps.setInt(3, delta.chapters());
+        ps.setLong(4, delta.key().userId());
+        ps.setLong(5, delta.key().bookId());
+        ps.setDate(6, Date.valueOf(delta.key().date()));
+    }
+
+    private static void setInsert(PreparedStatement ps, ReadingStatsCollector.Delta delta)
+            throws SQLException {
+        ps.setLong(1, delta.key().userId());
+        ps.setLong(2, delta.key().bookId());
+        ps.setDate(3, Date.valueOf(delta.key().date()));
+        ps.setInt(4, delta.readingSeconds());
+        ps.setLong(5, delta.characters());
+        ps.setInt(6, delta.chapters());
+    }
+}
@@ -0,0 +1,172 @@
+package com.novelreader.service;
+
+import com.novelreader.dto.progress.ProgressDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * 用户最近阅读缓存
+ *
+ * 每个用户保存一个固定容量的环形缓冲区（按最近阅读时间从新到旧），
+ * 首次访问时从数据库加载，之后由 updateProgress 在事务提交后写入，读取为 O(limit)。
+ * 超过用户上限时淘汰最久未访问的用户
+ *
+ * 注意：缓存在实例内存中，多实例部署时其他实例写入的进度在本实例缓存淘汰前不可见
+ */
+@Component
+public class RecentReadingCache {
+
+    /**
+     * 每个用户缓存的最近阅读条数，超过该数量的请求直接查询数据库
+     */
+    public static final int CAPACITY = 20;
+
+    static final int MAX_USERS = 10_000;
+
+    /**
+     * 用户 ID -> 环形缓冲区（按访问顺序，超过上限时淘汰最久未访问的）
+     */
+    private final Map<Long, Ring> rings = Collections.synchronizedMap(
+        new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Ring> eldest) {
+                return size() > MAX_USERS;
+            }
+        });
+
+    /**
+     * 获取用户最近阅读
+     *
+     * @param loader 缓存未命中时从数据库加载最近 {@link #CAPACITY} 条
+     */
+    public List<ProgressDTO> get(Long userId, int limit, Supplier<List<ProgressDTO>> loader) {
+        Ring ring = rings.get(userId);
+        if (ring != null && !ring.loading) {
+            return ring.snapshot(limit);
+        }
+
+        // 加载前放入占位，加载期间该用户的写入或移除会删掉占位，此时不安装可能过时的快照
+        Ring placeholder = Ring.placeholder();
+        boolean installing = ring == null && rings.putIfAbsent(userId, placeholder) == null;
+        Ring loaded;
+        try {
+            loaded = new Ring(loader.get());
+        } catch (RuntimeException e) {
+            if (installing) {
+                rings.remove(userId, placeholder);
+            }
+            throw e;
+        }
+        if (installing) {
+            rings.replace(userId, placeholder, loaded);
+        }
+        return loaded.snapshot(limit);
+    }
+
+    /**
+     * 记录一次阅读（在当前事务提交后生效）
+     */
+    public void record(Long userId, ProgressDTO progress) {
+        runAfterCommit(() -> rings.computeIfPresent(userId, (id, ring) -> {
+            if (ring.loading) {
+                // 正在加载的快照可能不包含本次写入，作废
+                return null;
+            }
+            ring.touch(progress);
+            return ring;
+        }));
+    }
+
+    /**
+     * 移除用户缓存（书籍删除等会减少最近阅读条目的操作后调用）
+     */
+    public void evict(Long userId) {
+        runAfterCommit(() -> rings.remove(userId));
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 环形缓冲区：head 指向最近一条，向后依次变旧；容量满时新条目覆盖最旧的一条
+     */
+    private static final class Ring {
+
+        private final ProgressDTO[] entries;
+        /** 加载中的占位，不含数据 */
+        private final boolean loading;
+        private int head;
+        private int size;
+
+        Ring(List<ProgressDTO> newestFirst) {
+            entries = new ProgressDTO[CAPACITY];
+            loading = false;
+            size = Math.min(newestFirst.size(), CAPACITY);
+            for (int i = 0; i < size; i++) {
+                entries[i] = newestFirst.get(i);
+            }
+        }
+
+        private Ring() {
+            entries = null;
+            loading = true;
+        }
+
+        static Ring placeholder() {
+            return new Ring();
+        }
+
+        synchronized void touch(ProgressDTO progress) {
+            // 同一本书已存在时，将它之前（更新）的条目整体后移一位，腾出 head
+            int found = -1;
+            for (int i = 0; i < size; i++) {
+                if (Objects.equals(entries[slot(i)].getBookId(), progress.getBookId())) {
+                    found = i;
+                    break;
+                }
+            }
+
+            if (found >= 0) {
+                for (int i = found; i > 0; i--) {
+                    entries[slot(i)] = entries[slot(i - 1)];
+                }
+            } else {
+                head = (head - 1 + CAPACITY) % CAPACITY;
+                size = Math.min(size + 1, CAPACITY);
+            }
+            entries[head] = progress;
+        }
+
+        synchronized List<ProgressDTO> snapshot(int limit) {
+            int count = Math.min(limit, size);
+            List<ProgressDTO> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(entries[slot(i)]);
+            }
+            return result;
+        }
+
+        private int slot(int offset) {
+            return (head + offset) % CAPACITY;
+        }
+    }
+}
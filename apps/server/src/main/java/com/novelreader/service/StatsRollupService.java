@@ -0,0 +1,138 @@
+package com.novelreader.service;
+
+import com.novelreader.config.ReadingStatsConfig;
+import com.novelreader.repository.ReadingStatsRepository;
+import com.novelreader.repository.ReadingStatsRepository.Period;
+import com.novelreader.repository.ReadingStatsRepository.RollupKey;
+import com.novelreader.repository.ReadingStatsRepository.Totals;
+import com.novelreader.util.Timings;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 阅读统计汇总
+ *
+ * 日期结束（再过 rollupGraceMinutes，确保内存中的日统计已写入）后，把当天的日统计累加到
+ * 周 / 月 / 年 / 累计汇总行，并推进 reading_stats_rollup_state.rolled_through。
+ * 每天在一个事务中完成，进度行的比较更新保证多实例不会重复汇总；
+ * 首次运行时从最早的日统计开始逐天回填。结束后才写入的迟到数据只出现在按日查询中，重建汇总可补上
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatsRollupService {
+
+    private final ReadingStatsRepository readingStatsRepository;
+    private final ReadingStatsConfig readingStatsConfig;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 定时汇总已结束的日期（首次运行即回填历史数据）
+     */
+    @Scheduled(initialDelayString = "${reading-stats.rollup-initial-delay-ms:30000}",
+               fixedDelayString = "${reading-stats.rollup-interval-ms:600000}")
+    public void rollUpClosedDays() {
+        try {
+            rollUpThrough(lastClosedDay(LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            log.warn("阅读统计汇总失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 清空汇总后从头回填
+     *
+     * @return 汇总的天数
+     */
+    public int rebuild() {
+        transactionTemplate.executeWithoutResult(status -> readingStatsRepository.resetRollups());
+        log.info("阅读统计汇总已清空，开始重建");
+        return rollUpThrough(lastClosedDay(LocalDateTime.now()));
+    }
+
+    /**
+     * 已结束的最后一天
+     */
+    LocalDate lastClosedDay(LocalDateTime now) {
+        return now.minusMinutes(readingStatsConfig.getRollupGraceMinutes()).toLocalDate().minusDays(1);
+    }
+
+    /**
+     * 逐天汇总到 lastClosed（含），跳过没有日统计的日期
+     *
+     * @return 汇总的天数
+     */
+    int rollUpThrough(LocalDate lastClosed) {
+        int days = 0;
+        while (true) {
+            LocalDate rolledThrough = readingStatsRepository.findRolledThrough().orElse(null);
+            if (rolledThrough != null && !rolledThrough.isBefore(lastClosed)) {
+                break;
+            }
+            Optional<LocalDate> next = readingStatsRepository.findFirstDateAfter(rolledThrough)
+                .filter(date -> !date.isAfter(lastClosed));
+
+            if (next.isEmpty()) {
+                // 之后没有已结束的日统计：直接推进进度，缩小概览查询中未汇总的日期范围
+                if (rolledThrough != null) {
+                    transactionTemplate.execute(status ->
+                        readingStatsRepository.advanceRolledThrough(rolledThrough, lastClosed));
+                }
+                break;
+            }
+
+            LocalDate day = next.get();
+            Boolean advanced = Timings.record(meterRegistry, "novel.stats.rollup",
+                () -> transactionTemplate.execute(status -> rollUpDay(rolledThrough, day)));
+            if (!Boolean.TRUE.equals(advanced)) {
+                // 其他实例已推进进度
+                break;
+            }
+            days++;
+        }
+        if (days > 0) {
+            Timings.counter(meterRegistry, "novel.stats.rollup.days", "days").increment(days);
+            log.info("阅读统计汇总 {} 天，进度: {}", days, readingStatsRepository.findRolledThrough().orElse(null));
+        }
+        return days;
+    }
+
+    /**
+     * 汇总一天（在调用方事务中）
+     */
+    private boolean rollUpDay(LocalDate expected, LocalDate day) {
+        // 先推进进度：锁定进度行，其他实例的同一天汇总在此等待并失败
+        if (!readingStatsRepository.advanceRolledThrough(expected, day)) {
+            return false;
+        }
+
+        Map<RollupKey, Totals> rollups = new HashMap<>();
+        readingStatsRepository.forEachRowOfDay(day, row -> {
+            for (Period period : Period.values()) {
+                LocalDate start = period.start(day);
+                rollups.merge(new RollupKey(row.userId(), ReadingStatsRepository.ALL_BOOKS, period, start),
+                    row.totals(), Totals::plus);
+                if (row.bookId() != null) {
+                    rollups.merge(new RollupKey(row.userId(), row.bookId(), period, start),
+                        row.totals(), Totals::plus);
+                }
+            }
+        });
+        // 同一用户当天读了多本书时合计行只计 1 天
+        rollups.replaceAll((key, totals) -> totals.withDaysRead(1));
+
+        readingStatsRepository.addToRollups(rollups);
+        return true;
+    }
+}
@@ -0,0 +1,134 @@
+package com.novelreader.service;
+
+import com.novelreader.dto.stats.DailyStatsDTO;
+import com.novelreader.dto.stats.StatsSummaryDTO;
+import com.novelreader.dto.stats.StatsTotalsDTO;
+import com.novelreader.exception.BusinessException;
+import com.novelreader.repository.BookRepository;
+import com.novelreader.repository.ReadingStatsRepository;
+import com.novelreader.repository.ReadingStatsRepository.DayTotals;
+import com.novelreader.repository.ReadingStatsRepository.Period;
+import com.novelreader.repository.ReadingStatsRepository.Totals;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 阅读统计查询服务
+ *
+ * 概览 = 汇总表中已结束日期的周期汇总（主键查找）+ 尚未汇总的日统计（通常只有今天），
+ * 读取的行数与历史长度无关
+ */
+@Service
+@RequiredArgsConstructor
+public class StatsService {
+
+    /**
+     * 按日查询的最大区间（天）
+     */
+    static final int MAX_DAILY_RANGE = 366;
+
+    /**
+     * 未指定区间时返回最近的天数
+     */
+    static final int DEFAULT_DAILY_RANGE = 30;
+
+    private final ReadingStatsRepository readingStatsRepository;
+    private final BookRepository bookRepository;
+
+    /**
+     * 获取阅读统计概览
+     *
+     * @param bookId 为空时统计所有书籍
+     */
+    public StatsSummaryDTO getSummary(Long userId, Long bookId) {
+        checkBook(userId, bookId);
+        LocalDate today = LocalDate.now();
+
+        Map<Period, LocalDate> starts = new EnumMap<>(Period.class);
+        for (Period period : Period.values()) {
+            starts.put(period, period.start(today));
+        }
+
+        LocalDate rolledThrough = readingStatsRepository.findRolledThrough().orElse(null);
+        Map<Period, Totals> rollups = rolledThrough != null
+            ? readingStatsRepository.findRollups(userId, bookId != null ? bookId : ReadingStatsRepository.ALL_BOOKS, starts)
+            : Map.of();
+
+        // 尚未计入汇总的日期
+        LocalDate openFrom = rolledThrough != null ? rolledThrough.plusDays(1) : ReadingStatsRepository.LIFETIME_START;
+        List<DayTotals> openDays = readingStatsRepository.findDaily(userId, bookId, openFrom, today);
+
+        Map<Period, Totals> totals = new EnumMap<>(Period.class);
+        Totals todayTotals = Totals.ZERO;
+        for (Period period : Period.values()) {
+            totals.put(period, rollups.getOrDefault(period, Totals.ZERO));
+        }
+        for (DayTotals day : openDays) {
+            for (Period period : Period.values()) {
+                if (!day.date().isBefore(starts.get(period))) {
+                    totals.merge(period, day.totals(), Totals::plus);
+                }
+            }
+            if (day.date().equals(today)) {
+                todayTotals = day.totals();
+            }
+        }
+
+        return StatsSummaryDTO.builder()
+            .bookId(bookId)
+            .today(toTotalsDTO(todayTotals))
+            .thisWeek(toTotalsDTO(totals.get(Period.WEEK)))
+            .thisMonth(toTotalsDTO(totals.get(Period.MONTH)))
+            .thisYear(toTotalsDTO(totals.get(Period.YEAR)))
+            .lifetime(toTotalsDTO(totals.get(Period.LIFETIME)))
+            .build();
+    }
+
+    /**
+     * 按日获取阅读统计（没有阅读记录的日期不返回）
+     *
+     * @param from 为空时取 to 之前 30 天
+     * @param to   为空时取今天
+     */
+    public List<DailyStatsDTO> getDaily(Long userId, Long bookId, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAILY_RANGE - 1);
+        if (start.isAfter(end)) {
+            throw BusinessException.badRequest("开始日期不能晚于结束日期");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_DAILY_RANGE) {
+            throw BusinessException.badRequest("查询区间不能超过 " + MAX_DAILY_RANGE + " 天");
+        }
+        checkBook(userId, bookId);
+
+        return readingStatsRepository.findDaily(userId, bookId, start, end).stream()
+            .map(day -> DailyStatsDTO.builder()
+                .date(day.date())
+                .readingTime(day.totals().readingTime())
+                .charactersRead(day.totals().charactersRead())
+                .chaptersRead(day.totals().chaptersRead())
+                .build())
+            .toList();
+    }
+
+    private void checkBook(Long userId, Long bookId) {
+        if (bookId != null && bookRepository.findByIdAndUserId(bookId, userId).isEmpty()) {
+            throw BusinessException.notFound("书籍不存在");
+        }
+    }
+
+    private StatsTotalsDTO toTotalsDTO(Totals totals) {
+        return StatsTotalsDTO.builder()
+            .readingTime(totals.readingTime())
+            .charactersRead(totals.charactersRead())
+            .chaptersRead(totals.chaptersRead())
+            .daysRead(totals.daysRead())
+            .build();
+    }
+}
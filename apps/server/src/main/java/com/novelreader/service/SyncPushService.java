@@ -0,0 +1,355 @@
+package com.novelreader.service;
+
+import com.novelreader.config.SyncPushConfig;
+import com.novelreader.dto.progress.ProgressChangesDTO;
+import com.novelreader.exception.BusinessException;
+import com.novelreader.repository.SyncRepository;
+import com.novelreader.util.Timings;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 同步推送（Server-Sent Events）
+ *
+ * 每台设备一个长连接，按用户分组。进度、书签变化提交后（{@link Changed}）推送给该用户的所有连接，
+ * 事件 id 为同步版本号。空闲连接只占用一个 {@link Connection} 对象，不占用线程和缓冲区：
+ * 有待发送的事件时才分配缓冲区并启动虚拟线程写出，写完即释放。
+ * 客户端读取过慢时缓冲区写满，丢弃积压的事件，改为发送一次 resync，由客户端调用 GET /progress/changes 增量同步。
+ * 心跳同时检查版本号，其他实例上的修改最迟在一个心跳间隔后以 resync 通知
+ */
+@Slf4j
+@Service
+public class SyncPushService {
+
+    static final String CHANGES = "changes";
+    static final String RESYNC = "resync";
+
+    private static final String HEARTBEAT = "ping";
+    private static final int VERSION_BATCH_SIZE = 500;
+
+    private final SyncPushConfig syncPushConfig;
+    private final SyncRepository syncRepository;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 用户 ID -> 连接（不可变列表，按建立顺序，修改时整体替换）
+     */
+    private final Map<Long, List<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount;
+
+    public SyncPushService(SyncPushConfig syncPushConfig, SyncRepository syncRepository, MeterRegistry meterRegistry) {
+        this.syncPushConfig = syncPushConfig;
+        this.syncRepository = syncRepository;
+        this.meterRegistry = meterRegistry;
+        this.connectionCount = meterRegistry.gauge("novel.sync.push.connections", new AtomicInteger());
+    }
+
+    /**
+     * 用户数据变化（事务提交后推送；不在事务中发布时立即推送）
+     *
+     * @param changes 本次变化，version 为其同步版本号
+     */
+    public record Changed(long userId, ProgressChangesDTO changes) {
+    }
+
+    /**
+     * 一个设备的连接
+     *
+     * 状态由自身锁保护；同一时刻最多一个虚拟线程在写出
+     */
+    private static final class Connection {
+
+        private final long userId;
+        private final SseEmitter emitter;
+
+        /** 待发送的事件，空闲时为 null */
+        private ArrayDeque<Set<DataWithMediaType>> buffer;
+        private boolean draining;
+        private boolean closed;
+        /** 缓冲区溢出后待通知的版本号，没有时为 -1 */
+        private long resyncVersion = -1;
+        /** 已发送或已排队的最大版本号 */
+        private long version;
+
+        private Connection(long userId, SseEmitter emitter, long version) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.version = version;
+        }
+
+        /**
+         * 下一个待发送的事件：先发送缓冲区中的事件，再发送溢出后的 resync；没有时结束写出并释放缓冲区
+         */
+        private synchronized Set<DataWithMediaType> next() {
+            if (buffer != null && !buffer.isEmpty()) {
+                return buffer.poll();
+            }
+            if (resyncVersion >= 0) {
+                Set<DataWithMediaType> resync = resyncEvent(resyncVersion);
+                resyncVersion = -1;
+                return resync;
+            }
+            buffer = null;
+            draining = false;
+            return null;
+        }
+
+        /**
+         * @return 连接仍然打开并被本次调用关闭时返回 true
+         */
+        private synchronized boolean close() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            buffer = null;
+            return true;
+        }
+    }
+
+    /**
+     * 建立连接
+     *
+     * @param lastEventId 客户端重连时带上的最后一个事件 id；与当前版本号不一致（或没有）时先发送 resync
+     * @throws BusinessException 本实例连接数已满（503）
+     */
+    public SseEmitter connect(long userId, Long lastEventId) {
+        if (connectionCount.incrementAndGet() > syncPushConfig.getMaxConnections()) {
+            connectionCount.decrementAndGet();
+            Timings.counter(meterRegistry, "novel.sync.push.rejected", "connections").increment();
+            throw new BusinessException("推送连接过多，请稍后重试", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        Connection connection = null;
+        try {
+            long version = syncRepository.findVersion(userId);
+            SseEmitter emitter = new SseEmitter(syncPushConfig.getConnectionTimeoutMs());
+            connection = new Connection(userId, emitter, version);
+            register(connection);
+            if (lastEventId == null || lastEventId != version) {
+                offerResync(connection, version);
+            }
+            log.debug("推送连接建立: userId={}, version={}, lastEventId={}", userId, version, lastEventId);
+            return emitter;
+        } catch (RuntimeException e) {
+            // 已计入连接数：登记前失败直接减去，登记后失败随连接移除减去
+            if (connection != null) {
+                remove(connection);
+            } else {
+                connectionCount.decrementAndGet();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 登记连接，同一用户的连接过多时关闭最早的（多为设备重连前未发现断开的旧连接）
+     */
+    private void register(Connection connection) {
+        SseEmitter emitter = connection.emitter;
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(connection));
+
+        int maxPerUser = Math.max(1, syncPushConfig.getMaxConnectionsPerUser());
+        List<Connection> evicted = new ArrayList<>();
+        connections.compute(connection.userId, (id, current) -> {
+            List<Connection> next = new ArrayList<>(current != null ? current : List.of());
+            while (next.size() >= maxPerUser) {
+                evicted.add(next.remove(0));
+            }
+            next.add(connection);
+            return List.copyOf(next);
+        });
+        for (Connection old : evicted) {
+            if (old.close()) {
+                connectionCount.decrementAndGet();
+            }
+            old.emitter.complete();
+        }
+    }
+
+    /**
+     * 推送变化给用户的所有连接
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChanged(Changed changed) {
+        List<Connection> userConnections = connections.get(changed.userId());
+        if (userConnections == null) {
+            return;
+        }
+        long version = changed.changes().getVersion();
+        // 同一事件的内容在多个连接间共享，不会被修改
+        Set<DataWithMediaType> event = SseEmitter.event()
+            .name(CHANGES)
+            .id(Long.toString(version))
+            .data(changed.changes(), MediaType.APPLICATION_JSON)
+            .build();
+        for (Connection connection : userConnections) {
+            offer(connection, event, version);
+        }
+    }
+
+    /**
+     * 心跳：空闲连接发送注释行；用户版本号已超过本连接推送过的（其他实例上的修改），改为发送 resync。
+     * 写出失败的连接随之移除
+     */
+    @Scheduled(initialDelayString = "${sync-push.heartbeat-interval-ms:25000}",
+               fixedDelayString = "${sync-push.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        Set<DataWithMediaType> ping = SseEmitter.event().comment(HEARTBEAT).build();
+        List<Long> userIds = new ArrayList<>(connections.keySet());
+        for (int from = 0; from < userIds.size(); from += VERSION_BATCH_SIZE) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + VERSION_BATCH_SIZE, userIds.size()));
+            Map<Long, Long> versions;
+            try {
+                versions = syncRepository.findVersions(chunk);
+            } catch (RuntimeException e) {
+                log.warn("推送心跳读取版本号失败: {}", e.getMessage());
+                versions = Map.of();
+            }
+            for (Long userId : chunk) {
+                long version = versions.getOrDefault(userId, 0L);
+                for (Connection connection : connections.getOrDefault(userId, List.of())) {
+                    heartbeat(connection, ping, version);
+                }
+            }
+        }
+    }
+
+    /**
+     * 关闭所有连接，客户端重连到其他实例
+     */
+    @PreDestroy
+    public void shutdown() {
+        connections.values().forEach(list -> list.forEach(c -> c.emitter.complete()));
+    }
+
+    /**
+     * 当前连接数
+     */
+    int connectionCount() {
+        return connectionCount.get();
+    }
+
+    private void heartbeat(Connection connection, Set<DataWithMediaType> ping, long version) {
+        synchronized (connection) {
+            if (connection.closed || connection.draining) {
+                // 正在写出，连接是活跃的
+                return;
+            }
+            if (version > connection.version) {
+                connection.resyncVersion = version;
+                connection.version = version;
+            } else {
+                connection.buffer = new ArrayDeque<>(1);
+                connection.buffer.add(ping);
+            }
+            connection.draining = true;
+        }
+        startDrain(connection);
+    }
+
+    private void offerResync(Connection connection, long version) {
+        synchronized (connection) {
+            connection.resyncVersion = Math.max(connection.resyncVersion, version);
+            if (connection.draining) {
+                return;
+            }
+            connection.draining = true;
+        }
+        startDrain(connection);
+    }
+
+    /**
+     * 放入连接的缓冲区，必要时启动写出
+     *
+     * 缓冲区已满时丢弃积压的事件，改为待发送 resync；resync 发出前到达的事件只推进其版本号
+     */
+    private void offer(Connection connection, Set<DataWithMediaType> event, long version) {
+        synchronized (connection) {
+            if (connection.closed) {
+                return;
+            }
+            connection.version = Math.max(connection.version, version);
+            if (connection.resyncVersion >= 0) {
+                connection.resyncVersion = Math.max(connection.resyncVersion, version);
+                dropped(1);
+            } else {
+                if (connection.buffer == null) {
+                    connection.buffer = new ArrayDeque<>(4);
+                }
+                if (connection.buffer.size() >= Math.max(1, syncPushConfig.getBufferSize())) {
+                    dropped(connection.buffer.size() + 1);
+                    connection.buffer = null;
+                    connection.resyncVersion = version;
+                } else {
+                    connection.buffer.add(event);
+                }
+            }
+            if (connection.draining) {
+                return;
+            }
+            connection.draining = true;
+        }
+        startDrain(connection);
+    }
+
+    private void startDrain(Connection connection) {
+        Thread.ofVirtual().name("sync-push-" + connection.userId).start(() -> drain(connection));
+    }
+
+    /**
+     * 写出缓冲区中的事件（虚拟线程）。客户端读取慢时阻塞的只是这个虚拟线程
+     */
+    private void drain(Connection connection) {
+        Set<DataWithMediaType> next;
+        while ((next = connection.next()) != null) {
+            try {
+                connection.emitter.send(next);
+            } catch (Exception e) {
+                // 连接已断开或已完成；容器随后回调 onError / onCompletion
+                log.debug("推送写出失败: userId={}, {}", connection.userId, e.getMessage());
+                remove(connection);
+                return;
+            }
+        }
+    }
+
+    private void remove(Connection connection) {
+        if (!connection.close()) {
+            return;
+        }
+        connectionCount.decrementAndGet();
+        connections.computeIfPresent(connection.userId, (id, current) -> {
+            List<Connection> next = current.stream().filter(c -> c != connection).toList();
+            return next.isEmpty() ? null : next;
+        });
+    }
+
+    private void dropped(int events) {
+        Timings.counter(meterRegistry, "novel.sync.push.dropped", "events").increment(events);
+    }
+
+    private static Set<DataWithMediaType> resyncEvent(long version) {
+        return SseEmitter.event()
+            .name(RESYNC)
+            .data(Map.of("version", version), MediaType.APPLICATION_JSON)
+            .build();
+    }
+}
@@ -0,0 +1,349 @@
+package com.novelreader.util;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * 文本编码检测
+ *
+ * 只检查文件开头的一段和若干随机窗口（总量固定，与文件大小无关），全程只统计字节，不创建字符串：
+ * <ul>
+ *   <li>BOM：直接确定</li>
+ *   <li>UTF-16（无 BOM）：含 0x00 字节，且按某一字节序解读后几乎都是常见文本字符</li>
+ *   <li>UTF-8：多字节序列合法</li>
+ *   <li>GB18030 / Big5：两者的字节范围大量重叠，按高频汉字和标点的双字节编码命中率区分</li>
+ * </ul>
+ */
+public final class CharsetDetector {
+
+    public static final Charset GB18030 = Charset.forName("GB18030");
+    public static final Charset BIG5 = Charset.forName("Big5");
+
+    static final int PREFIX_SIZE = 64 * 1024;
+    static final int WINDOW_SIZE = 16 * 1024;
+    static final int WINDOWS = 4;
+
+    /**
+     * 简体中文高频字与标点（用于 GB18030 命中统计）
+     */
+    private static final String COMMON_SIMPLIFIED =
+        "的一是了不在人有我他这个们中来上大为和国地到以说时要就出会可也你对生能而子那得于着下自之年过发后作里" +
+        "用道行所然家种事成方多经么去法学如都同现当没动面起看定天分还进好小部其些主样理心她本前开但因只从想" +
+        "，。“”！？：、…";
+
+    /**
+     * 繁体中文高频字与标点（用于 Big5 命中统计）
+     */
+    private static final String COMMON_TRADITIONAL =
+        "的一是了不在人有我他這個們中來上大為和國地到以說時要就出會可也你對生能而子那得於著下自之年過發後作裡" +
+        "用道行所然家種事成方多經麼去法學如都同現當沒動面起看定天分還進好小部其些主樣理心她本前開但因只從想" +
+        "，。「」！？：、…";
+
+    private static final BitSet GB18030_COMMON = commonPairs(COMMON_SIMPLIFIED, GB18030);
+    private static final BitSet BIG5_COMMON = commonPairs(COMMON_TRADITIONAL, BIG5);
+
+    private CharsetDetector() {
+    }
+
+    /**
+     * 检测结果
+     * @param charset    检测出的编码
+     * @param confidence 置信度 [0, 1]；样本全部为 ASCII 时为 0.5（任何 ASCII 兼容编码均可）
+     */
+    public record Result(Charset charset, double confidence) {
+    }
+
+    /**
+     * 检测编码
+     */
+    public static Result detect(byte[] bytes) {
+        Result bom = detectBom(bytes);
+        if (bom != null) {
+            return bom;
+        }
+
+        int[][] windows = sampleWindows(bytes);
+
+        Result utf16 = detectUtf16(bytes, windows);
+        if (utf16 != null) {
+            return utf16;
+        }
+
+        Stats utf8 = new Stats();
+        for (int[] window : windows) {
+            scanUtf8(bytes, alignToLine(bytes, window[0], window[1]), window[1], utf8);
+        }
+        if (utf8.multiByte == 0 && utf8.invalid == 0) {
+            return new Result(StandardCharsets.UTF_8, 0.5);
+        }
+        // 允许极少量损坏字节（如截断的下载文件）
+        if (utf8.invalid * 200L <= utf8.multiByte) {
+            double evidence = Math.min(1.0, utf8.multiByte / 16.0);
+            return new Result(StandardCharsets.UTF_8, evidence * (1.0 - (double) utf8.invalid / utf8.multiByte));
+        }
+
+        Stats gb = new Stats();
+        Stats big5 = new Stats();
+        for (int[] window : windows) {
+            int start = alignToLine(bytes, window[0], window[1]);
+            scanGb18030(bytes, start, window[1], gb);
+            scanBig5(bytes, start, window[1], big5);
+        }
+        double gbScore = gb.score();
+        double big5Score = big5.score();
+        if (gbScore == 0 && big5Score == 0) {
+            // 没有可识别的中文特征，按最常见的 GB18030 处理
+            return new Result(GB18030, 0.1 * gb.validity());
+        }
+        return gbScore >= big5Score
+            ? new Result(GB18030, gb.validity() * gbScore / (gbScore + big5Score))
+            : new Result(BIG5, big5.validity() * big5Score / (gbScore + big5Score));
+    }
+
+    private static Result detectBom(byte[] bytes) {
+        if (bytes.length >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF) {
+            return new Result(StandardCharsets.UTF_8, 1.0);
+        }
+        if (bytes.length >= 2 && bytes[0] == (byte) 0xFF && bytes[1] == (byte) 0xFE) {
+            return new Result(StandardCharsets.UTF_16LE, 1.0);
+        }
+        if (bytes.length >= 2 && bytes[0] == (byte) 0xFE && bytes[1] == (byte) 0xFF) {
+            return new Result(StandardCharsets.UTF_16BE, 1.0);
+        }
+        return null;
+    }
+
+    /**
+     * 采样窗口 [start, end)：开头一段加若干随机窗口（以文件长度为种子，结果可复现）
+     */
+    static int[][] sampleWindows(byte[] bytes) {
+        if (bytes.length <= PREFIX_SIZE + WINDOWS * WINDOW_SIZE) {
+            return new int[][]{{0, bytes.length}};
+        }
+        int[][] windows = new int[WINDOWS + 1][];
+        windows[0] = new int[]{0, PREFIX_SIZE};
+        Random random = new Random(bytes.length);
+        int span = (bytes.length - PREFIX_SIZE) / WINDOWS;
+        for (int i = 0; i < WINDOWS; i++) {
+            // 每个窗口落在各自的分段内，避免重叠
+            int start = PREFIX_SIZE + i * span + random.nextInt(Math.max(1, span - WINDOW_SIZE));
+            windows[i + 1] = new int[]{start, Math.min(bytes.length, start + WINDOW_SIZE)};
+        }
+        return windows;
+    }
+
+    /**
+     * 随机窗口可能从多字节字符中间开始：移到下一个换行之后，
+     * 换行符 0x0A 不会出现在 UTF-8 / GB18030 / Big5 的多字节序列中
+     */
+    private static int alignToLine(byte[] bytes, int start, int end) {
+        if (start == 0) {
+            return 0;
+        }
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * 无 BOM 的 UTF-16：文本中的换行、空格等 ASCII 字符会产生 0x00 字节，单字节/变长编码的文本几乎不含 0x00；
+     * 再分别按小端、大端解读为码元，统计落在常见文本区段（ASCII、CJK、中文标点、全角字符）的比例，
+     * 字节序错误时换行和标点会落到不相关的区段
+     */
+    private static Result detectUtf16(byte[] bytes, int[][] windows) {
+        long units = 0;
+        long zeros = 0;
+        long plausibleLe = 0;
+        long plausibleBe = 0;
+        for (int[] window : windows) {
+            for (int i = window[0] & ~1; i + 1 < window[1]; i += 2) {
+                int first = bytes[i] & 0xFF;
+                int second = bytes[i + 1] & 0xFF;
+                units++;
+                if (first == 0 || second == 0) {
+                    zeros++;
+                }
+                if (isPlausibleUtf16((second << 8) | first)) {
+                    plausibleLe++;
+                }
+                if (isPlausibleUtf16((first << 8) | second)) {
+                    plausibleBe++;
+                }
+            }
+        }
+        if (units == 0 || zeros * 500 < units) {
+            return null;
+        }
+        double le = (double) plausibleLe / units;
+        double be = (double) plausibleBe / units;
+        if (Math.max(le, be) < 0.9) {
+            return null;
+        }
+        return le >= be
+            ? new Result(StandardCharsets.UTF_16LE, le)
+            : new Result(StandardCharsets.UTF_16BE, be);
+    }
+
+    private static boolean isPlausibleUtf16(int unit) {
+        return (unit >= 0x20 && unit < 0x7F)
+            || unit == '\n' || unit == '\r' || unit == '\t'
+            || (unit >= 0xA0 && unit <= 0xFF)        // Latin-1
+            || (unit >= 0x2000 && unit <= 0x206F)    // 通用标点（…“”）
+            || (unit >= 0x3000 && unit <= 0x303F)    // 中文标点
+            || (unit >= 0x3400 && unit <= 0x9FFF)    // CJK 统一汉字及扩展 A
+            || (unit >= 0xFF00 && unit <= 0xFFEF);   // 全角字符
+    }
+
+    private static void scanUtf8(byte[] bytes, int start, int end, Stats stats) {
+        int i = start;
+        while (i < end) {
+            int b = bytes[i] & 0xFF;
+            if (b < 0x80) {
+                i++;
+                continue;
+            }
+            int length;
+            int min;
+            if (b >= 0xC2 && b <= 0xDF) {
+                length = 2;
+                min = 0x80;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                length = 3;
+                min = 0x800;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                length = 4;
+                min = 0x10000;
+            } else {
+                stats.invalid++;
+                i++;
+                continue;
+            }
+            if (i + length > end) {
+                // 窗口末尾被截断的字符不计入
+                return;
+            }
+            int codePoint = b & (0xFF >> (length + 1));
+            boolean valid = true;
+            for (int k = 1; k < length; k++) {
+                int c = bytes[i + k] & 0xFF;
+                if ((c & 0xC0) != 0x80) {
+                    valid = false;
+                    break;
+                }
+                codePoint = (codePoint << 6) | (c & 0x3F);
+            }
+            if (valid && codePoint >= min && codePoint <= 0x10FFFF
+                    && (codePoint < 0xD800 || codePoint > 0xDFFF)) {
+                stats.multiByte++;
+                i += length;
+            } else {
+                stats.invalid++;
+                i++;
+            }
+        }
+    }
+
+    private static void scanGb18030(byte[] bytes, int start, int end, Stats stats) {
+        int i = start;
+        while (i < end) {
+            int b = bytes[i] & 0xFF;
+            if (b < 0x80) {
+                i++;
+                continue;
+            }
+            if (b == 0x80 || b == 0xFF || i + 1 >= end) {
+                if (i + 1 < end) {
+                    stats.invalid++;
+                }
+                i++;
+                continue;
+            }
+            int t = bytes[i + 1] & 0xFF;
+            if ((t >= 0x40 && t <= 0x7E) || (t >= 0x80 && t <= 0xFE)) {
+                stats.multiByte++;
+                if (GB18030_COMMON.get((b << 8) | t)) {
+                    stats.common++;
+                }
+                i += 2;
+            } else if (t >= 0x30 && t <= 0x39 && i + 3 < end
+                    && (bytes[i + 2] & 0xFF) >= 0x81 && (bytes[i + 2] & 0xFF) <= 0xFE
+                    && (bytes[i + 3] & 0xFF) >= 0x30 && (bytes[i + 3] & 0xFF) <= 0x39) {
+                // 四字节序列
+                stats.multiByte++;
+                i += 4;
+            } else {
+                stats.invalid++;
+                i++;
+            }
+        }
+    }
+
+    private static void scanBig5(byte[] bytes, int start, int end, Stats stats) {
+        int i = start;
+        while (i < end) {
+            int b = bytes[i] & 0xFF;
+            if (b < 0x80) {
+                i++;
+                continue;
+            }
+            if (b == 0x80 || b == 0xFF || i + 1 >= end) {
+                if (i + 1 < end) {
+                    stats.invalid++;
+                }
+                i++;
+                continue;
+            }
+            int t = bytes[i + 1] & 0xFF;
+            if ((t >= 0x40 && t <= 0x7E) || (t >= 0xA1 && t <= 0xFE)) {
+                stats.multiByte++;
+                if (BIG5_COMMON.get((b << 8) | t)) {
+                    stats.common++;
+                }
+                i += 2;
+            } else {
+                stats.invalid++;
+                i++;
+            }
+        }
+    }
+
+    /**
+     * 高频字符的双字节编码集合（以 lead << 8 | trail 为下标）
+     */
+    private static BitSet commonPairs(String characters, Charset charset) {
+        BitSet pairs = new BitSet(1 << 16);
+        for (int i = 0; i < characters.length(); i++) {
+            byte[] encoded = String.valueOf(characters.charAt(i)).getBytes(charset);
+            if (encoded.length == 2) {
+                pairs.set(((encoded[0] & 0xFF) << 8) | (encoded[1] & 0xFF));
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * 按某种编码扫描样本的统计
+     */
+    private static final class Stats {
+        long multiByte;
+        long invalid;
+        long common;
+
+        double validity() {
+            long total = multiByte + invalid;
+            return total == 0 ? 0 : (double) multiByte / total;
+        }
+
+        /**
+         * 合法度 × 高频字命中率
+         */
+        double score() {
+            return multiByte == 0 ? 0 : validity() * common / multiByte;
+        }
+    }
+}
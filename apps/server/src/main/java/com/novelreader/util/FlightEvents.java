@@ -0,0 +1,177 @@
+package com.novelreader.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder 自定义事件
+ *
+ * 事件耗时由 begin() / commit() 自动记录；未开启录制时 commit() 只做一次开关判断。
+ * 录制由 FlightRecorderService 管理，可用 jfr print --events novelreader.* 或 JDK Mission Control 查看
+ */
+public final class FlightEvents {
+
+    private static final String CATEGORY = "Novel Reader";
+
+    private FlightEvents() {
+    }
+
+    /**
+     * HTTP 请求（只提交超过事件阈值的请求）
+     */
+    @Name("novelreader.HttpRequest")
+    @Label("HTTP Request")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class HttpRequest extends Event {
+        @Label("Method")
+        public String method;
+
+        @Label("URI")
+        @Description("路由模板，未匹配到处理器时为请求路径")
+        public String uri;
+
+        @Label("Status")
+        public int status;
+
+        @Label("SQL Statements")
+        public long queries;
+    }
+
+    /**
+     * 章节读取
+     */
+    @Name("novelreader.ChapterFetch")
+    @Label("Chapter Fetch")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class ChapterFetch extends Event {
+        @Label("Book ID")
+        public long bookId;
+
+        @Label("Chapter Index")
+        public int chapterIndex;
+
+        @Label("Characters")
+        public long characters;
+    }
+
+    /**
+     * TXT 解析（上传导入的解析阶段，各阶段耗时分别记录）
+     */
+    @Name("novelreader.TxtParse")
+    @Label("TXT Parse")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class TxtParse extends Event {
+        @Label("File Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("Charset")
+        public String charset;
+
+        @Label("Chapter Count")
+        public int chapterCount;
+
+        @Label("Read")
+        @Timespan
+        public long read;
+
+        @Label("Detect Charset")
+        @Timespan
+        public long detect;
+
+        @Label("Decode")
+        @Timespan
+        public long decode;
+
+        @Label("Hash")
+        @Timespan
+        public long hash;
+
+        @Label("Segment Chapters")
+        @Timespan
+        public long segment;
+
+        @Label("Count Words")
+        @Timespan
+        public long count;
+
+        /**
+         * 记录阶段耗时（纳秒）
+         */
+        public void phase(String phase, long nanos) {
+            switch (phase) {
+                case "read" -> read = nanos;
+                case "detect" -> detect = nanos;
+                case "decode" -> decode = nanos;
+                case "hash" -> hash = nanos;
+                case "segment" -> segment = nanos;
+                case "count" -> count = nanos;
+                default -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * 书籍写入（上传导入的持久化阶段）
+     */
+    @Name("novelreader.BookWrite")
+    @Label("Book Write")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class BookWrite extends Event {
+        @Label("Book ID")
+        public long bookId;
+
+        @Label("Chapter Count")
+        public int chapterCount;
+
+        @Label("File Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    /**
+     * 阅读进度事件组提交（书籍与章节为批次中最后一条事件）
+     */
+    @Name("novelreader.ProgressFlush")
+    @Label("Progress Flush")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class ProgressFlush extends Event {
+        @Label("Book ID")
+        @Description("批次中最后一条事件的书籍")
+        public long bookId;
+
+        @Label("Chapter Index")
+        public int chapterIndex;
+
+        @Label("Records")
+        @Description("本次写入的记录数")
+        public int records;
+    }
+
+    /**
+     * JWT 认证
+     */
+    @Name("novelreader.Auth")
+    @Label("JWT Authentication")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class Auth extends Event {
+        @Label("User ID")
+        public long userId;
+
+        @Label("Outcome")
+        public String outcome;
+    }
+}
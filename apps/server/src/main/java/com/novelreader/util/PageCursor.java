@@ -0,0 +1,56 @@
+package com.novelreader.util;
+
+import com.novelreader.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 游标分页位置
+ *
+ * 记录上一页最后一行的 (排序时间, id)，下一页直接从该位置继续查询，
+ * 不依赖 OFFSET，翻到多深的页都是同样的索引范围扫描
+ *
+ * 对外编码为 Base64URL 字符串，客户端只需原样回传
+ */
+public record PageCursor(LocalDateTime timestamp, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static PageCursor of(LocalDateTime timestamp, Long id) {
+        return new PageCursor(timestamp, id);
+    }
+
+    /**
+     * 编码为不透明字符串
+     */
+    public String encode() {
+        String raw = timestamp.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析客户端回传的游标
+     * @return 为空时返回 null（表示第一页）
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw BusinessException.badRequest("无效的分页游标");
+            }
+            LocalDateTime timestamp = LocalDateTime.parse(raw.substring(0, separator));
+            long id = Long.parseLong(raw.substring(separator + 1));
+            return new PageCursor(timestamp, id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw BusinessException.badRequest("无效的分页游标");
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.novelreader.util;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 统计 SQL 的数据源包装
+ *
+ * 只有在 {@link QueryStats} 统计范围内获取的连接才会被代理，范围外（启动迁移、定时任务等）直接返回原连接，
+ * 没有额外开销。在 JDBC 层统计，JPA 与 JdbcTemplate 的查询都会计入
+ */
+public class QueryCountingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    public QueryCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    /**
+     * 关闭被包装的连接池（替换后的 Bean 仍需在容器关闭时释放连接）
+     */
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        QueryStats.Counter counter = QueryStats.current();
+        if (counter == null) {
+            return connection;
+        }
+        return proxy(Connection.class, new ConnectionHandler(connection, counter));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+            new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 代理连接创建的 Statement，prepareStatement 时记下 SQL
+     */
+    private record ConnectionHandler(Connection target, QueryStats.Counter counter) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = QueryCountingDataSource.invoke(target, method, args);
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                return proxy(method.getReturnType(), new StatementHandler(statement, counter, sql));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * execute* 计为一条语句，返回的 ResultSet 统计行数与字节数
+     */
+    private record StatementHandler(Statement target, QueryStats.Counter counter, String preparedSql)
+            implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().startsWith("execute")) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+                counter.statement(sql);
+            }
+            Object result = QueryCountingDataSource.invoke(target, method, args);
+            if (result instanceof ResultSet resultSet && method.getReturnType() == ResultSet.class) {
+                return proxy(ResultSet.class, new ResultSetHandler(resultSet, counter));
+            }
+            return result;
+        }
+    }
+
+    private record ResultSetHandler(ResultSet target, QueryStats.Counter counter) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = QueryCountingDataSource.invoke(target, method, args);
+            if (result instanceof Boolean next && next && method.getName().equals("next")) {
+                counter.rows++;
+            } else if (result instanceof String text) {
+                counter.bytes += 2L * text.length();
+            } else if (result instanceof byte[] bytes) {
+                counter.bytes += bytes.length;
+            }
+            return result;
+        }
+    }
+}
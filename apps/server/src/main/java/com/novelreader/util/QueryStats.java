@@ -0,0 +1,125 @@
+package com.novelreader.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 当前线程的 SQL 统计
+ *
+ * 由 {@link #open()} 开启统计范围（可嵌套），范围内从数据源获取的连接会记录执行的语句数、
+ * 读取的行数和读取的字符串/二进制列字节数（字符串按 UTF-16 计 2 字节/字符）。
+ * 请求级统计由 QueryStatsFilter 开启，测试中可直接包裹一段调用以断言查询条数
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<Counter> CURRENT = new ThreadLocal<>();
+
+    private QueryStats() {
+    }
+
+    /**
+     * 统计结果
+     *
+     * @param statements 执行的 SQL 语句数（批量执行计 1 次）
+     * @param rows       读取的结果行数
+     * @param bytes      读取的字符串/二进制列字节数
+     * @param sql        执行的 SQL（仅在 {@link #open(boolean)} 要求记录时非空）
+     */
+    public record Counts(long statements, long rows, long bytes, List<String> sql) {
+    }
+
+    /**
+     * 开启统计范围，不记录 SQL 文本
+     */
+    public static Scope open() {
+        return open(false);
+    }
+
+    /**
+     * 开启统计范围
+     *
+     * @param recordSql 是否记录 SQL 文本（用于测试失败时输出）；外层范围已开启记录时沿用外层设置
+     */
+    public static Scope open(boolean recordSql) {
+        Counter counter = CURRENT.get();
+        if (counter == null) {
+            counter = new Counter();
+            CURRENT.set(counter);
+        }
+        if (recordSql && counter.sql == null) {
+            counter.sql = new ArrayList<>();
+        }
+        counter.depth++;
+        return new Scope(counter);
+    }
+
+    /**
+     * 当前线程的计数器，未开启统计时为 null
+     */
+    static Counter current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 线程内计数器，只在所属线程上更新
+     */
+    static final class Counter {
+        long statements;
+        long rows;
+        long bytes;
+        List<String> sql;
+        int depth;
+
+        void statement(String text) {
+            statements++;
+            if (sql != null) {
+                sql.add(text != null ? text : "<batch>");
+            }
+        }
+    }
+
+    /**
+     * 统计范围，关闭后 {@link #counts()} 保持关闭时的结果
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Counter counter;
+        private final long statements;
+        private final long rows;
+        private final long bytes;
+        private final int sqlOffset;
+        private Counts closed;
+
+        private Scope(Counter counter) {
+            this.counter = counter;
+            this.statements = counter.statements;
+            this.rows = counter.rows;
+            this.bytes = counter.bytes;
+            this.sqlOffset = counter.sql == null ? 0 : counter.sql.size();
+        }
+
+        /**
+         * 范围开启以来的统计
+         */
+        public Counts counts() {
+            if (closed != null) {
+                return closed;
+            }
+            List<String> sql = counter.sql == null
+                ? List.of()
+                : List.copyOf(counter.sql.subList(sqlOffset, counter.sql.size()));
+            return new Counts(counter.statements - statements, counter.rows - rows, counter.bytes - bytes, sql);
+        }
+
+        @Override
+        public void close() {
+            if (closed != null) {
+                return;
+            }
+            closed = counts();
+            if (--counter.depth == 0) {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.novelreader.util;
+
+/**
+ * 文本统计：字数（非空白字符）、行数、汉字数
+ *
+ * 字数沿用原先 replaceAll("\\s", "").length() 的口径：按 UTF-16 字符计数，空白只包括 ASCII 空白
+ * （空格、\t、\n、\x0B、\f、\r），全角空格计入字数，已入库的字数无需重算。
+ *
+ * JVM 启用 jdk.incubator.vector 模块（--add-modules jdk.incubator.vector）时使用 Vector API 按批比较，
+ * 否则使用标量循环，两者结果一致；都不创建中间字符串
+ */
+public final class TextStats {
+
+    /**
+     * 统计结果
+     * @param nonWhitespace 非空白字符数
+     * @param lines         行数（最后一行没有换行符也计入）
+     * @param cjk           汉字数（CJK 统一汉字及扩展 A）
+     */
+    public record Counts(long nonWhitespace, long lines, long cjk) {
+    }
+
+    /**
+     * 统计内核：将 [from, to) 的统计结果累加到 counts（非空白、换行、汉字）
+     */
+    interface Kernel {
+        void count(char[] chars, int from, int to, long[] counts);
+    }
+
+    /**
+     * String 分段复制到缓冲区后统计，避免复制整个字符串
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    private static final Kernel KERNEL = selectKernel();
+
+    private TextStats() {
+    }
+
+    /**
+     * 统计字符数组的 [from, to) 区间
+     */
+    public static Counts of(char[] chars, int from, int to) {
+        long[] counts = new long[3];
+        KERNEL.count(chars, from, to, counts);
+        return toCounts(counts, to > from && chars[to - 1] != '\n');
+    }
+
+    /**
+     * 统计字符串
+     */
+    public static Counts of(String text) {
+        long[] counts = new long[3];
+        int length = text.length();
+        char[] buffer = new char[Math.min(length, CHUNK_SIZE)];
+        for (int start = 0; start < length; start += CHUNK_SIZE) {
+            int end = Math.min(length, start + CHUNK_SIZE);
+            text.getChars(start, end, buffer, 0);
+            KERNEL.count(buffer, 0, end - start, counts);
+        }
+        return toCounts(counts, length > 0 && text.charAt(length - 1) != '\n');
+    }
+
+    /**
+     * 字数（非空白字符数）
+     */
+    public static int nonWhitespace(String text) {
+        return (int) of(text).nonWhitespace();
+    }
+
+    /**
+     * 当前是否使用 Vector API
+     */
+    public static boolean vectorized() {
+        return KERNEL.getClass() != ScalarKernel.class;
+    }
+
+    private static Counts toCounts(long[] counts, boolean unterminatedLastLine) {
+        return new Counts(counts[0], counts[1] + (unterminatedLastLine ? 1 : 0), counts[2]);
+    }
+
+    static boolean isWhitespace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    static boolean isCjk(char c) {
+        return (c >= 0x4E00 && c <= 0x9FFF) || (c >= 0x3400 && c <= 0x4DBF);
+    }
+
+    /**
+     * 标量统计（也用于向量内核处理不足一批的尾部）
+     */
+    static void countScalar(char[] chars, int from, int to, long[] counts) {
+        long nonWhitespace = 0;
+        long newlines = 0;
+        long cjk = 0;
+        for (int i = from; i < to; i++) {
+            char c = chars[i];
+            if (!isWhitespace(c)) {
+                nonWhitespace++;
+            }
+            if (c == '\n') {
+                newlines++;
+            }
+            if (isCjk(c)) {
+                cjk++;
+            }
+        }
+        counts[0] += nonWhitespace;
+        counts[1] += newlines;
+        counts[2] += cjk;
+    }
+
+    /**
+     * 仅在模块可用时加载向量内核，避免未启用模块时触发类加载错误
+     */
+    private static Kernel selectKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (Kernel) Class.forName("com.novelreader.util.VectorTextKernel")
+                    .getDeclaredConstructor()
+                    .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // 回退到标量实现
+            }
+        }
+        return new ScalarKernel();
+    }
+
+    static final class ScalarKernel implements Kernel {
+        @Override
+        public void count(char[] chars, int from, int to, long[] counts) {
+            countScalar(chars, from, to, counts);
+        }
+    }
+}
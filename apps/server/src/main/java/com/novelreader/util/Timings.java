@@ -0,0 +1,95 @@
+package com.novelreader.util;
+
+import com.novelreader.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 业务指标工具
+ *
+ * 计时器统一发布百分位直方图（由 Prometheus 按桶计算 p50/p99 等分位数，多实例可聚合），
+ * 并带 outcome 标签，取值与 Spring 的 http.server.requests 一致：
+ * SUCCESS / CLIENT_ERROR（4xx 业务异常）/ SERVER_ERROR（其他异常）
+ */
+public final class Timings {
+
+    public static final String OUTCOME = "outcome";
+    public static final String SUCCESS = "SUCCESS";
+    public static final String CLIENT_ERROR = "CLIENT_ERROR";
+    public static final String SERVER_ERROR = "SERVER_ERROR";
+
+    private Timings() {
+    }
+
+    /**
+     * 可抛出受检异常的操作
+     */
+    @FunctionalInterface
+    public interface Action<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /**
+     * 执行操作并按结果记录耗时，异常原样抛出
+     *
+     * @param tags 额外标签（键值交替）
+     */
+    public static <T, E extends Exception> T record(MeterRegistry registry, String name,
+                                                    Action<T, E> action, String... tags) throws E {
+        long start = System.nanoTime();
+        String outcome = SERVER_ERROR;
+        try {
+            T result = action.run();
+            outcome = SUCCESS;
+            return result;
+        } catch (BusinessException e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            timer(registry, name, outcome, tags).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 获取计时器（首次调用时注册）
+     */
+    public static Timer timer(MeterRegistry registry, String name, String outcome, String... tags) {
+        return Timer.builder(name)
+            .tags(tags)
+            .tag(OUTCOME, outcome)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    /**
+     * 获取计数器（首次调用时注册）
+     */
+    public static Counter counter(MeterRegistry registry, String name, String baseUnit, String... tags) {
+        return Counter.builder(name)
+            .baseUnit(baseUnit)
+            .tags(tags)
+            .register(registry);
+    }
+
+    /**
+     * 获取分布统计（首次调用时注册，发布百分位直方图）
+     */
+    public static DistributionSummary summary(MeterRegistry registry, String name, String baseUnit, String... tags) {
+        return DistributionSummary.builder(name)
+            .baseUnit(baseUnit)
+            .tags(tags)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    /**
+     * 业务异常按 HTTP 状态区分客户端错误与服务端错误
+     */
+    public static String outcome(BusinessException e) {
+        return e.getStatus().is4xxClientError() ? CLIENT_ERROR : SERVER_ERROR;
+    }
+}
@@ -1,16 +1,22 @@
 package com.novelreader.util;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.Builder;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.*;
 import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -33,27 +39,71 @@ public class TxtParser {
         Pattern.compile("^\\s*【第?[0-9零一二三四五六七八九十百千万]+[章节卷集部篇回]?】.*$"),
     };
 
+    /**
+     * 超过该字符数的文本使用并行方式解析章节
+     */
+    static final int PARALLEL_THRESHOLD = 2 * 1024 * 1024;
+
+    /**
+     * 并行解析时每个区域的字符数（区域边界对齐到行首）
+     */
+    static final int REGION_SIZE = 256 * 1024;
+
+    /**
+     * 章节标题的最大长度（去除首尾空白后）
+     */
+    private static final int MAX_TITLE_LENGTH = 60;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 单元测试与基准测试使用，指标记录在独立的内存注册表中
+     */
+    public TxtParser() {
+        this(new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public TxtParser(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * 解析 TXT 文件
+     *
+     * 各阶段耗时记录在 novel.parse.phase（phase 标签：read / detect / decode / hash / segment / count），
+     * 同时提交一个 {@link FlightEvents.TxtParse} 事件
      */
     public ParseResult parse(InputStream inputStream, String fileName) throws IOException {
+        FlightEvents.TxtParse event = new FlightEvents.TxtParse();
+        event.begin();
+
         // 读取全部内容并检测编码
-        byte[] bytes = inputStream.readAllBytes();
-        Charset charset = detectCharset(bytes);
-        String content = new String(bytes, charset);
+        byte[] bytes = phase(event, "read", inputStream::readAllBytes);
+        Charset charset = phase(event, "detect", () -> detectCharset(bytes));
+        String content = phase(event, "decode", () -> new String(bytes, charset));
+        Timings.counter(meterRegistry, "novel.ingest.bytes", "bytes", "charset", charset.name())
+            .increment(bytes.length);
 
         // 计算文件哈希
-        String fileHash = calculateHash(bytes);
+        String fileHash = phase(event, "hash", () -> calculateHash(bytes));
 
         // 提取书名和作者
         String title = extractTitle(fileName, content);
         String author = extractAuthor(content);
 
-        // 解析章节
-        List<ChapterInfo> chapters = parseChapters(content);
+        // 解析章节（大文件并行识别章节标题）
+        List<ChapterInfo> chapters = phase(event, "segment", () -> content.length() >= PARALLEL_THRESHOLD
+            ? parseChaptersParallel(content, REGION_SIZE)
+            : parseChapters(content));
 
         // 计算总字数
-        long totalWords = content.replaceAll("\\s", "").length();
+        long totalWords = phase(event, "count", () -> TextStats.of(content).nonWhitespace());
+
+        event.bytes = bytes.length;
+        event.charset = charset.name();
+        event.chapterCount = chapters.size();
+        event.commit();
 
         return ParseResult.builder()
             .title(title)
@@ -65,36 +115,23 @@ public class TxtParser {
             .build();
     }
 
+    private <T, E extends Exception> T phase(FlightEvents.TxtParse event, String phase,
+                                             Timings.Action<T, E> action) throws E {
+        long start = System.nanoTime();
+        try {
+            return Timings.record(meterRegistry, "novel.parse.phase", action, "phase", phase);
+        } finally {
+            event.phase(phase, System.nanoTime() - start);
+        }
+    }
+
     /**
-     * 检测文件编码
+     * 检测文件编码（采样统计，耗时与文件大小无关）
      */
     private Charset detectCharset(byte[] bytes) {
-        // 检查 BOM
-        if (bytes.length >= 3 && bytes[0] == (byte) 0xEF &&
-            bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF) {
-            return StandardCharsets.UTF_8;
-        }
-        if (bytes.length >= 2 && bytes[0] == (byte) 0xFF && bytes[1] == (byte) 0xFE) {
-            return StandardCharsets.UTF_16LE;
-        }
-        if (bytes.length >= 2 && bytes[0] == (byte) 0xFE && bytes[1] == (byte) 0xFF) {
-            return StandardCharsets.UTF_16BE;
-        }
-
-        // 尝试 UTF-8
-        try {
-            String utf8 = new String(bytes, StandardCharsets.UTF_8);
-            if (!utf8.contains("\uFFFD")) {
-                return StandardCharsets.UTF_8;
-            }
-        } catch (Exception ignored) {}
-
-        // 尝试 GBK
-        try {
-            return Charset.forName("GBK");
-        } catch (Exception e) {
-            return StandardCharsets.UTF_8;
-        }
+        CharsetDetector.Result result = CharsetDetector.detect(bytes);
+        log.debug("编码检测: {} (置信度 {})", result.charset(), result.confidence());
+        return result.charset();
     }
 
     /**
@@ -154,9 +191,9 @@ public class TxtParser {
     }
 
     /**
-     * 解析章节
+     * 解析章节（逐行）
      */
-    private List<ChapterInfo> parseChapters(String content) {
+    List<ChapterInfo> parseChapters(String content) {
         List<ChapterInfo> chapters = new ArrayList<>();
         String[] lines = content.split("\\r?\\n");
 
@@ -173,7 +210,7 @@ public class TxtParser {
                         .chapterIndex(chapterIndex++)
                         .title(currentTitle)
                         .content(chapterContent)
-                        .wordCount(chapterContent.replaceAll("\\s", "").length())
+                        .wordCount(TextStats.nonWhitespace(chapterContent))
                         .build());
                 }
                 currentTitle = line.trim();
@@ -190,29 +227,178 @@ public class TxtParser {
                 .chapterIndex(chapterIndex)
                 .title(currentTitle)
                 .content(chapterContent)
-                .wordCount(chapterContent.replaceAll("\\s", "").length())
+                .wordCount(TextStats.nonWhitespace(chapterContent))
                 .build());
         }
 
         // 如果没有识别到章节，整本书作为一章
         if (chapters.isEmpty()) {
-            chapters.add(ChapterInfo.builder()
-                .chapterIndex(0)
-                .title("正文")
-                .content(content)
-                .wordCount(content.replaceAll("\\s", "").length())
-                .build());
+            chapters.add(wholeBookChapter(content));
         }
 
         return chapters;
     }
 
+    private ChapterInfo wholeBookChapter(String content) {
+        return ChapterInfo.builder()
+            .chapterIndex(0)
+            .title("正文")
+            .content(content)
+            .wordCount(TextStats.nonWhitespace(content))
+            .build();
+    }
+
+    /**
+     * 并行解析章节，结果与 {@link #parseChapters(String)} 完全一致
+     *
+     * 1. 将全文按行边界切分为多个区域，在 ForkJoinPool 中并行识别每个区域内的章节标题行；
+     * 2. 按标题行位置切出相邻标题之间的正文（与逐行拼接等价：统一换行为 \n 后去除首尾空白），
+     *    同样并行构建，章节序号即标题在全文中的顺序
+     */
+    List<ChapterInfo> parseChaptersParallel(String content, int regionSize) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        List<TitleLine> titles = pool.invoke(new TitleScanTask(content, 0, content.length(), regionSize));
+
+        List<ChapterInfo> chapters = new ArrayList<>(Math.max(titles.size(), 1));
+        if (titles.isEmpty()) {
+            chapters.add(wholeBookChapter(content));
+            return chapters;
+        }
+
+        ChapterInfo[] built = new ChapterInfo[titles.size()];
+        pool.invoke(new ChapterBuildTask(content, titles, built, 0, built.length));
+        chapters.addAll(Arrays.asList(built));
+        return chapters;
+    }
+
+    /**
+     * 章节标题行
+     * @param start     行首位置
+     * @param bodyStart 下一行行首（正文起始位置）
+     * @param title     去除首尾空白后的标题
+     */
+    private record TitleLine(int start, int bodyStart, String title) {
+    }
+
+    /**
+     * 识别 [start, end) 内的章节标题行，start 和 end 均位于行首（或文本末尾）
+     */
+    private List<TitleLine> scanTitles(String content, int start, int end) {
+        List<TitleLine> titles = new ArrayList<>();
+        int lineStart = start;
+        while (lineStart < end) {
+            int newline = content.indexOf('\n', lineStart);
+            int lineEnd = newline < 0 || newline >= end ? end : newline;
+            int next = lineEnd < end ? lineEnd + 1 : end;
+
+            // 先按去除空白后的长度过滤，绝大多数正文行无需创建字符串
+            int s = lineStart;
+            int e = lineEnd;
+            while (s < e && content.charAt(s) <= ' ') {
+                s++;
+            }
+            while (e > s && content.charAt(e - 1) <= ' ') {
+                e--;
+            }
+            if (e > s && e - s <= MAX_TITLE_LENGTH) {
+                String line = content.substring(s, e);
+                if (isChapterTitle(line)) {
+                    titles.add(new TitleLine(lineStart, next, line));
+                }
+            }
+            lineStart = next;
+        }
+        return titles;
+    }
+
+    /**
+     * 按行边界二分区域，直到区域不超过 regionSize
+     */
+    private final class TitleScanTask extends RecursiveTask<List<TitleLine>> {
+
+        private final String content;
+        private final int start;
+        private final int end;
+        private final int regionSize;
+
+        TitleScanTask(String content, int start, int end, int regionSize) {
+            this.content = content;
+            this.start = start;
+            this.end = end;
+            this.regionSize = regionSize;
+        }
+
+        @Override
+        protected List<TitleLine> compute() {
+            if (end - start <= regionSize) {
+                return scanTitles(content, start, end);
+            }
+            // 从中点向后对齐到下一行行首
+            int newline = content.indexOf('\n', start + (end - start) / 2);
+            int mid = newline < 0 || newline + 1 >= end ? end : newline + 1;
+            if (mid == end) {
+                return scanTitles(content, start, end);
+            }
+
+            TitleScanTask left = new TitleScanTask(content, start, mid, regionSize);
+            left.fork();
+            List<TitleLine> right = new TitleScanTask(content, mid, end, regionSize).compute();
+            List<TitleLine> titles = left.join();
+            titles.addAll(right);
+            return titles;
+        }
+    }
+
+    /**
+     * 构建第 [from, to) 个章节
+     */
+    private final class ChapterBuildTask extends RecursiveAction {
+
+        private static final int BATCH = 16;
+
+        private final String content;
+        private final List<TitleLine> titles;
+        private final ChapterInfo[] chapters;
+        private final int from;
+        private final int to;
+
+        ChapterBuildTask(String content, List<TitleLine> titles, ChapterInfo[] chapters, int from, int to) {
+            this.content = content;
+            this.titles = titles;
+            this.chapters = chapters;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BATCH) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ChapterBuildTask(content, titles, chapters, from, mid),
+                    new ChapterBuildTask(content, titles, chapters, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                TitleLine title = titles.get(i);
+                int bodyEnd = i + 1 < titles.size() ? titles.get(i + 1).start() : content.length();
+                // 逐行解析时去掉了 \r\n 中的 \r；首尾的 \r 由 trim 去除
+                String chapterContent = content.substring(title.bodyStart(), bodyEnd).trim().replace("\r\n", "\n");
+                chapters[i] = ChapterInfo.builder()
+                    .chapterIndex(i)
+                    .title(title.title())
+                    .content(chapterContent)
+                    .wordCount(TextStats.nonWhitespace(chapterContent))
+                    .build();
+            }
+        }
+    }
+
     /**
      * 判断是否为章节标题
      */
-    private boolean isChapterTitle(String line) {
+    boolean isChapterTitle(String line) {
         line = line.trim();
-        if (line.isEmpty() || line.length() > 60) {
+        if (line.isEmpty() || line.length() > MAX_TITLE_LENGTH) {
             return false;
         }
 
@@ -0,0 +1,67 @@
+package com.novelreader.util;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 基于 Vector API 的文本统计内核
+ *
+ * 每批比较 SPECIES.length() 个字符，命中数先累加在向量的各通道中，
+ * 在 16 位累加和溢出前归约一次；char 按无符号 16 位比较
+ *
+ * 只能通过 {@link TextStats} 在 jdk.incubator.vector 模块可用时反射加载
+ */
+final class VectorTextKernel implements TextStats.Kernel {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+    /**
+     * 累加多少批后归约一次：保证所有通道之和不超过 Short.MAX_VALUE
+     */
+    private static final int FLUSH_INTERVAL = Short.MAX_VALUE / SPECIES.length();
+
+    @Override
+    public void count(char[] chars, int from, int to, long[] counts) {
+        int step = SPECIES.length();
+        int upper = from + SPECIES.loopBound(to - from);
+        long whitespace = 0;
+        long newlines = 0;
+        long cjk = 0;
+
+        int i = from;
+        while (i < upper) {
+            ShortVector whitespaceAcc = ShortVector.zero(SPECIES);
+            ShortVector newlineAcc = ShortVector.zero(SPECIES);
+            ShortVector cjkAcc = ShortVector.zero(SPECIES);
+            int batchEnd = (int) Math.min(upper, i + (long) FLUSH_INTERVAL * step);
+            for (; i < batchEnd; i += step) {
+                ShortVector v = ShortVector.fromCharArray(SPECIES, chars, i);
+                // \t..\r 为连续区间：c - '\t' 按无符号比较不超过 4
+                VectorMask<Short> isWhitespace = v.sub((short) '\t')
+                    .compare(VectorOperators.UNSIGNED_LE, (short) ('\r' - '\t'))
+                    .or(v.compare(VectorOperators.EQ, (short) ' '));
+                VectorMask<Short> isNewline = v.compare(VectorOperators.EQ, (short) '\n');
+                VectorMask<Short> isCjk = v.sub((short) 0x4E00)
+                    .compare(VectorOperators.UNSIGNED_LE, (short) (0x9FFF - 0x4E00))
+                    .or(v.sub((short) 0x3400).compare(VectorOperators.UNSIGNED_LE, (short) (0x4DBF - 0x3400)));
+                whitespaceAcc = whitespaceAcc.add((short) 1, isWhitespace);
+                newlineAcc = newlineAcc.add((short) 1, isNewline);
+                cjkAcc = cjkAcc.add((short) 1, isCjk);
+            }
+            whitespace += sum(whitespaceAcc);
+            newlines += sum(newlineAcc);
+            cjk += sum(cjkAcc);
+        }
+
+        counts[0] += (upper - from) - whitespace;
+        counts[1] += newlines;
+        counts[2] += cjk;
+        TextStats.countScalar(chars, upper, to, counts);
+    }
+
+    private static long sum(ShortVector acc) {
+        return acc.reduceLanes(VectorOperators.ADD);
+    }
+}
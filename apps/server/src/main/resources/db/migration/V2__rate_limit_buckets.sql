@@ -0,0 +1,11 @@
+-- V2: 集群限流共享令牌桶
+-- 每行记录一个限流 key 在一个对齐时间窗口内已发放的令牌数
+CREATE TABLE rate_limit_buckets (
+    bucket_key VARCHAR(128) NOT NULL,
+    window_start BIGINT NOT NULL,
+    used INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_key, window_start)
+);
+
+-- 索引（过期窗口清理）
+CREATE INDEX idx_rate_limit_buckets_window ON rate_limit_buckets(window_start);
@@ -0,0 +1,4 @@
+-- V3: 游标分页索引
+-- 列顺序与排序方向和查询的 ORDER BY 一致，任意深度的分页都是一次索引范围扫描
+CREATE INDEX idx_books_user_updated ON books(user_id, updated_at DESC, id DESC);
+CREATE INDEX idx_bookmarks_user_created ON bookmarks(user_id, created_at DESC, id DESC);
@@ -0,0 +1,22 @@
+-- V4: 按查询模式整理复合索引
+-- 每个仓库查询方法都应命中一个以过滤列开头、并按排序列延续的索引（见 QueryPlanTest）
+
+-- 章节：按 (book_id, chapter_index) 定位章节、目录按 chapter_index 排序
+-- 同一本书的章节序号唯一
+ALTER TABLE chapters ADD CONSTRAINT uk_chapters_book_index UNIQUE (book_id, chapter_index);
+DROP INDEX idx_chapters_book_id;
+
+-- 书籍：同名检查；idx_books_user_id 已是 idx_books_user_updated 的前缀
+CREATE INDEX idx_books_user_title ON books(user_id, title);
+DROP INDEX idx_books_user_id;
+
+-- 阅读进度：最近阅读按 last_read_at 排序；删除书籍时按 book_id 清理
+-- idx_reading_progress_user_book 与 UNIQUE (user_id, book_id) 重复
+CREATE INDEX idx_reading_progress_user_last_read ON reading_progress(user_id, last_read_at DESC);
+CREATE INDEX idx_reading_progress_book ON reading_progress(book_id);
+DROP INDEX idx_reading_progress_user_book;
+
+-- 书签：单本书的书签按 (chapter_index, position) 排序；删除书籍时按 book_id 清理
+CREATE INDEX idx_bookmarks_user_book_position ON bookmarks(user_id, book_id, chapter_index, position);
+CREATE INDEX idx_bookmarks_book ON bookmarks(book_id);
+DROP INDEX idx_bookmarks_user_book;
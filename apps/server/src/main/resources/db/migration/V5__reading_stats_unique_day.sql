@@ -0,0 +1,3 @@
+-- V5: 阅读统计按 (用户, 书籍, 日期) 累加
+-- ReadingStatsWriter 先 UPDATE 累加再 INSERT 缺失行，唯一约束防止多实例并发插入重复行
+ALTER TABLE reading_stats ADD CONSTRAINT uk_reading_stats_user_book_date UNIQUE (user_id, book_id, date);
@@ -0,0 +1,28 @@
+-- V6: 阅读统计汇总
+-- 按周 / 月 / 年 / 累计预先汇总已结束的日统计，book_id = 0 表示用户所有书籍的合计
+-- 汇总行不设书籍外键（合计行没有对应书籍），删除书籍时由 BookService 清理
+CREATE TABLE reading_stats_rollups (
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL DEFAULT 0,
+    period VARCHAR(10) NOT NULL,
+    period_start DATE NOT NULL,
+    reading_time BIGINT NOT NULL DEFAULT 0,
+    characters_read BIGINT NOT NULL DEFAULT 0,
+    chapters_read BIGINT NOT NULL DEFAULT 0,
+    days_read INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, book_id, period, period_start),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- 索引（删除书籍时清理）
+CREATE INDEX idx_reading_stats_rollups_book ON reading_stats_rollups(book_id);
+
+-- 汇总进度：rolled_through 及之前的日统计已计入汇总，NULL 表示尚未回填
+CREATE TABLE reading_stats_rollup_state (
+    id INT PRIMARY KEY,
+    rolled_through DATE
+);
+INSERT INTO reading_stats_rollup_state (id, rolled_through) VALUES (1, NULL);
+
+-- 按日期汇总时读取当天所有行
+CREATE INDEX idx_reading_stats_date ON reading_stats(date);
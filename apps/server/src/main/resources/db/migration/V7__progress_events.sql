@@ -0,0 +1,28 @@
+-- V7: 阅读进度事件日志
+-- 每次进度上报追加一行（只插入，不更新），后台压缩任务按 id 顺序把事件折叠进 reading_progress 快照；
+-- 事件保留一段时间作为阅读历史
+CREATE TABLE progress_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    chapter_index INT NOT NULL,
+    scroll_position DOUBLE DEFAULT 0,
+    progress_percent DOUBLE DEFAULT 0,
+    created_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE
+);
+
+-- 某本书的最新事件 / 用户尚未压缩的事件
+CREATE INDEX idx_progress_events_user_book ON progress_events(user_id, book_id, id);
+CREATE INDEX idx_progress_events_user ON progress_events(user_id, id);
+
+-- 索引（外键级联删除）
+CREATE INDEX idx_progress_events_book ON progress_events(book_id);
+
+-- 压缩进度：compacted_through 及之前的事件已折叠进 reading_progress
+CREATE TABLE progress_compaction_state (
+    id INT PRIMARY KEY,
+    compacted_through BIGINT NOT NULL
+);
+INSERT INTO progress_compaction_state (id, compacted_through) VALUES (1, 0);
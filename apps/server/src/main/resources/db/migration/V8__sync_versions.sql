@@ -0,0 +1,35 @@
+-- V8: 多端同步版本号
+-- 每个用户一个单调递增的版本号，进度事件、进度快照、书签和删除记录都带上修改时的版本号，
+-- 客户端用 GET /progress/changes?since= 只拉取版本号之后的变化
+CREATE TABLE user_sync_state (
+    user_id BIGINT PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+ALTER TABLE progress_events ADD COLUMN sync_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE reading_progress ADD COLUMN sync_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookmarks ADD COLUMN sync_version BIGINT NOT NULL DEFAULT 0;
+
+-- 已有数据：快照与书签为版本 1（since=0 的首次同步可取到），事件为版本 2
+-- （尚未压缩的事件比快照新），用户当前版本为 2
+INSERT INTO user_sync_state (user_id, version) SELECT id, 2 FROM users;
+UPDATE reading_progress SET sync_version = 1;
+UPDATE bookmarks SET sync_version = 1;
+UPDATE progress_events SET sync_version = 2;
+
+-- 按版本号范围读取变化
+CREATE INDEX idx_reading_progress_user_version ON reading_progress(user_id, sync_version);
+CREATE INDEX idx_bookmarks_user_version ON bookmarks(user_id, sync_version);
+
+-- 删除记录（书签删除、书籍删除），客户端据此移除本地数据
+CREATE TABLE sync_tombstones (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    sync_version BIGINT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+CREATE INDEX idx_sync_tombstones_user_version ON sync_tombstones(user_id, sync_version);
@@ -0,0 +1,21 @@
+-- V9: 进度事件逐条标记压缩状态
+-- compacted_through 水位线按 id 推进，id 较小但提交较晚的事件（慢提交、多实例）会落在水位线之下，
+-- 既不会被压缩也不再被视为待压缩。改为每个事件记录是否已折叠进 reading_progress 快照
+ALTER TABLE progress_events ADD COLUMN compacted BOOLEAN NOT NULL DEFAULT FALSE;
+UPDATE progress_events SET compacted = TRUE
+WHERE id <= (SELECT compacted_through FROM progress_compaction_state WHERE id = 1);
+
+-- 压缩任务按 id 顺序读取未压缩的事件；读取用户未压缩的事件
+CREATE INDEX idx_progress_events_compacted ON progress_events(compacted, id);
+DROP INDEX idx_progress_events_user;
+CREATE INDEX idx_progress_events_user_compacted ON progress_events(user_id, compacted, id);
+
+-- 过期事件清理
+CREATE INDEX idx_progress_events_created ON progress_events(created_at);
+
+-- 压缩互斥：每批压缩在事务中先锁定这一行，多实例的压缩依次执行
+DROP TABLE progress_compaction_state;
+CREATE TABLE progress_compaction_lock (
+    id INT PRIMARY KEY
+);
+INSERT INTO progress_compaction_lock (id) VALUES (1);
@@ -0,0 +1,158 @@
+package com.novelreader.controller;
+
+import com.novelreader.security.JwtTokenProvider;
+import com.novelreader.util.QueryCountAssertions;
+import com.novelreader.util.QueryStats;
+import com.novelreader.util.TestData;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 接口 SQL 条数回归测试（N+1 检测）
+ *
+ * 小书库与大书库用户请求同一接口，执行的 SQL 条数必须相同且不超过上限：
+ * 条数随数据量增长说明出现了逐行懒加载。修改接口的数据访问时同步调整 {@link #endpoints()} 中的上限。
+ * 流式接口（/books/{id}/chapters）在异步线程中查询，不在统计范围内
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:querycount;DB_CLOSE_DELAY=-1",
+    "rate-limit.enabled=false",
+    "query-stats.headers=true"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointQueryCountTest {
+
+    private static final long SMALL_USER = 1;
+    private static final long LARGE_USER = 2;
+    private static final long SMALL_BOOK = 1;
+    private static final long LARGE_BOOK = 2;
+    private static final int LARGE_BOOKS = 40;
+    private static final int CHAPTERS_PER_BOOK = 20;
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private TestData testData;
+
+    /**
+     * 在测试事务外灌入数据（统计范围只覆盖请求内获取的连接）
+     */
+    @BeforeAll
+    void seed() {
+        testData = new TestData(jdbcTemplate);
+        testData.user(SMALL_USER, "small");
+        testData.user(LARGE_USER, "large");
+
+        addBook(SMALL_BOOK, SMALL_USER, 1);
+        addBook(LARGE_BOOK, LARGE_USER, CHAPTERS_PER_BOOK);
+        for (long bookId = 3; bookId < 2 + LARGE_BOOKS; bookId++) {
+            addBook(bookId, LARGE_USER, CHAPTERS_PER_BOOK);
+        }
+    }
+
+    /**
+     * 书籍的每一章都有书签，最后一章有阅读进度
+     */
+    private void addBook(long bookId, long userId, int chapterCount) {
+        testData.book(bookId, userId, "书籍" + bookId, null, chapterCount, BASE_TIME.minusHours(bookId));
+        testData.chapters(bookId, chapterCount);
+        for (int c = 0; c < chapterCount; c++) {
+            testData.bookmark(userId, bookId, c, c * 10, BASE_TIME.minusMinutes(bookId * 100 + c));
+        }
+        testData.progress(userId, bookId, chapterCount - 1, BASE_TIME.minusMinutes(bookId));
+    }
+
+    @AfterAll
+    void cleanUp() {
+        testData.deleteAll();
+    }
+
+    /**
+     * 接口路径模板（%d 为书籍 ID）与 SQL 条数上限（含认证时加载用户的 1 条）
+     */
+    static Stream<Arguments> endpoints() {
+        return Stream.of(
+            Arguments.of("/books", 2),
+            Arguments.of("/books/%d", 3),
+            Arguments.of("/books/%d/chapters/0", 3),
+            Arguments.of("/progress", 4),
+            Arguments.of("/progress/changes?since=0", 2),
+            Arguments.of("/progress/bookmarks", 4),
+            Arguments.of("/progress/bookmarks/book/%d", 4)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("endpoints")
+    @DisplayName("SQL 条数与数据量无关且不超过上限")
+    void queryCountIndependentOfLibrarySize(String path, int maxQueries) throws Exception {
+        // Given
+        String smallPath = path.formatted(SMALL_BOOK);
+        String largePath = path.formatted(LARGE_BOOK);
+        request(smallPath, SMALL_USER, "small");
+        request(largePath, LARGE_USER, "large");
+
+        // When
+        QueryStats.Counts small = QueryCountAssertions.assertMaxQueries(maxQueries,
+            () -> request(smallPath, SMALL_USER, "small"));
+        QueryStats.Counts large = QueryCountAssertions.assertMaxQueries(maxQueries,
+            () -> request(largePath, LARGE_USER, "large"));
+
+        // Then
+        assertThat(large.statements())
+            .as("大书库 SQL：%n%s", String.join(System.lineSeparator(), large.sql()))
+            .isEqualTo(small.statements());
+        assertThat(large.rows()).isGreaterThanOrEqualTo(small.rows());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("endpoints")
+    @DisplayName("响应头输出本次请求的 SQL 统计")
+    void writesQueryHeaders(String path, int maxQueries) throws Exception {
+        // Given
+        String largePath = path.formatted(LARGE_BOOK);
+
+        // When
+        MvcResult result = request(largePath, LARGE_USER, "large");
+
+        // Then
+        assertThat(result.getResponse().getHeader("X-Query-Count"))
+            .isNotNull()
+            .satisfies(count -> assertThat(Integer.parseInt(count)).isBetween(1, maxQueries));
+        assertThat(result.getResponse().getHeader("X-Query-Rows")).isNotNull();
+        assertThat(result.getResponse().getHeader("X-Query-Bytes")).isNotNull();
+    }
+
+    private MvcResult request(String path, long userId, String username) throws Exception {
+        return mockMvc.perform(get(path)
+                .header("Authorization", "Bearer " + jwtTokenProvider.generateToken(userId, username)))
+            .andExpect(status().isOk())
+            .andReturn();
+    }
+}
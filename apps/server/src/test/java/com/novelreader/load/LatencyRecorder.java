@@ -0,0 +1,112 @@
+package com.novelreader.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按接口记录请求耗时
+ *
+ * 保存全部样本并在结束时排序求分位数（压测时长内样本量在百万级以内，精确值比直方图近似更直观）。
+ * 预热阶段的样本不记录，吞吐量按正式测量时长计算
+ */
+class LatencyRecorder {
+
+    private final Map<String, Samples> endpoints = new ConcurrentHashMap<>();
+
+    private volatile boolean measuring;
+    private volatile long measureStartNanos;
+    private volatile long measureEndNanos;
+
+    /**
+     * 预热结束，开始记录样本
+     */
+    void startMeasuring() {
+        measureStartNanos = System.nanoTime();
+        measuring = true;
+    }
+
+    /**
+     * 测量结束，之后完成的请求不再计入
+     */
+    void stopMeasuring() {
+        measuring = false;
+        measureEndNanos = System.nanoTime();
+    }
+
+    void record(String endpoint, long nanos, boolean success) {
+        if (measuring) {
+            endpoints.computeIfAbsent(endpoint, key -> new Samples()).add(nanos, success);
+        }
+    }
+
+    /**
+     * 单个接口的统计结果，耗时单位为毫秒
+     */
+    record EndpointStats(String endpoint, int requests, int errors, double throughput,
+                         double p50, double p99, double p999, double max) {
+
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+    }
+
+    List<EndpointStats> stats() {
+        double seconds = (measureEndNanos - measureStartNanos) / 1e9;
+        List<EndpointStats> stats = new ArrayList<>();
+        endpoints.forEach((endpoint, samples) -> stats.add(samples.stats(endpoint, seconds)));
+        stats.sort((a, b) -> a.endpoint().compareTo(b.endpoint()));
+        return stats;
+    }
+
+    /**
+     * 格式化为表格
+     */
+    static String format(List<EndpointStats> stats) {
+        StringBuilder table = new StringBuilder(String.format("%-40s %9s %7s %9s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "errors", "req/s", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)"));
+        for (EndpointStats s : stats) {
+            table.append(String.format("%-40s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                s.endpoint(), s.requests(), s.errors(), s.throughput(), s.p50(), s.p99(), s.p999(), s.max()));
+        }
+        return table.toString();
+    }
+
+    private static final class Samples {
+
+        private long[] nanos = new long[1024];
+        private int size;
+        private int errors;
+
+        synchronized void add(long value, boolean success) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized EndpointStats stats(String endpoint, double seconds) {
+            long[] sorted = Arrays.copyOf(nanos, size);
+            Arrays.sort(sorted);
+            return new EndpointStats(endpoint, size, errors, size / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                size == 0 ? 0 : sorted[size - 1] / 1e6);
+        }
+
+        /**
+         * 最近秩法：不小于 p 比例样本的最小值
+         */
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(p * sorted.length);
+            return sorted[Math.max(rank - 1, 0)] / 1e6;
+        }
+    }
+}
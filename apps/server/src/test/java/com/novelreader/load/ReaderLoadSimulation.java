@@ -0,0 +1,296 @@
+package com.novelreader.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读者流量模型压测
+ *
+ * 每个虚拟读者（一个虚拟线程）模拟一次阅读会话：
+ * 1. 登录一次
+ * 2. 打开书架、书籍目录，读取阅读进度
+ * 3. 从进度处顺序阅读章节；每章停留一段阅读时间，期间每隔几秒上报一次进度
+ * 4. 偶尔在当前章节添加书签
+ *
+ * 注册账号和上传书籍属于准备阶段，不计入统计；读者在预热时间内逐个启动，预热结束后开始记录。
+ * 可通过 {@link ReaderLoadTest} 对内嵌服务运行，也可通过 main 方法对已部署的服务运行
+ */
+final class ReaderLoadSimulation {
+
+    private static final String PASSWORD = "LoadTest123";
+
+    private final URI baseUrl;
+    private final Settings settings;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    private volatile boolean running;
+
+    /**
+     * 压测参数，均可通过 -Dload.* 系统属性覆盖
+     *
+     * @param readers          并发读者数
+     * @param rampUp           预热时长，读者在此期间均匀启动
+     * @param duration         正式测量时长
+     * @param chapterReadTime  平均每章阅读时间（实际在 0.5~1.5 倍之间随机）
+     * @param progressInterval 进度上报间隔
+     * @param bookmarkRate     每章添加书签的概率
+     * @param bookChapters     每个读者书籍的章节数
+     */
+    record Settings(int readers, Duration rampUp, Duration duration, Duration chapterReadTime,
+                    Duration progressInterval, double bookmarkRate, int bookChapters) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                Integer.getInteger("load.readers", 100),
+                Duration.ofSeconds(Long.getLong("load.rampUpSeconds", 10)),
+                Duration.ofSeconds(Long.getLong("load.durationSeconds", 60)),
+                Duration.ofMillis(Long.getLong("load.chapterReadMillis", 6_000)),
+                Duration.ofMillis(Long.getLong("load.progressIntervalMillis", 2_000)),
+                Double.parseDouble(System.getProperty("load.bookmarkRate", "0.05")),
+                Integer.getInteger("load.bookChapters", 60));
+        }
+    }
+
+    /**
+     * 准备阶段创建的读者账号与书籍
+     */
+    private record Reader(String username, long bookId, int chapterCount) {
+    }
+
+    ReaderLoadSimulation(URI baseUrl, Settings settings) {
+        this.baseUrl = baseUrl;
+        this.settings = settings;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    }
+
+    /**
+     * 执行压测，返回各接口的统计结果
+     */
+    List<LatencyRecorder.EndpointStats> run() throws Exception {
+        List<Reader> readers = prepareReaders();
+
+        running = true;
+        try (ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor()) {
+            long stagger = settings.rampUp().toNanos() / Math.max(settings.readers(), 1);
+            for (int i = 0; i < readers.size(); i++) {
+                Reader reader = readers.get(i);
+                long delay = stagger * i;
+                sessions.submit(() -> {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                    readSession(reader);
+                    return null;
+                });
+            }
+
+            Thread.sleep(settings.rampUp().toMillis());
+            recorder.startMeasuring();
+            Thread.sleep(settings.duration().toMillis());
+            recorder.stopMeasuring();
+            running = false;
+            sessions.shutdownNow();
+        }
+        return recorder.stats();
+    }
+
+    // ==================== 准备阶段 ====================
+
+    private List<Reader> prepareReaders() throws Exception {
+        byte[] book = generateBook(settings.bookChapters());
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+
+        // 注册需要计算密码哈希，限制并发避免准备阶段本身压垮服务
+        try (ExecutorService setup = Executors.newFixedThreadPool(8)) {
+            List<Future<Reader>> futures = new ArrayList<>();
+            for (int i = 0; i < settings.readers(); i++) {
+                String username = "load-" + runId + "-" + i;
+                futures.add(setup.submit(() -> prepareReader(username, book)));
+            }
+            List<Reader> readers = new ArrayList<>(futures.size());
+            for (Future<Reader> future : futures) {
+                readers.add(future.get());
+            }
+            return readers;
+        }
+    }
+
+    private Reader prepareReader(String username, byte[] book) throws IOException, InterruptedException {
+        JsonNode auth = expectOk(send(HttpRequest.newBuilder(uri("/auth/register"))
+            .header("Content-Type", "application/json")
+            .POST(json(Map.of("username", username, "email", username + "@load.test", "password", PASSWORD)))));
+        String token = auth.path("data").path("token").asText();
+
+        String boundary = "----load-" + UUID.randomUUID();
+        JsonNode uploaded = expectOk(send(HttpRequest.newBuilder(uri("/books/upload"))
+            .header("Authorization", "Bearer " + token)
+            .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(multipart(boundary, "book.txt", book)))));
+        JsonNode data = uploaded.path("data");
+        return new Reader(username, data.path("id").asLong(), data.path("chapterCount").asInt());
+    }
+
+    /**
+     * 生成测试书籍：每章约 3000 字
+     */
+    static byte[] generateBook(int chapters) {
+        Random random = new Random(chapters);
+        String chars = "的一是了我不人在他有这个上们来到时大地为子中你说生国年着就那和要她出也得里后自以会家可下而过天去能对小多然于心";
+        StringBuilder text = new StringBuilder("作者：压测\n\n");
+        for (int c = 1; c <= chapters; c++) {
+            text.append("第").append(c).append("章 第").append(c).append("夜\n");
+            for (int p = 0; p < 30; p++) {
+                text.append("　　");
+                for (int i = 0; i < 100; i++) {
+                    text.append(chars.charAt(random.nextInt(chars.length())));
+                }
+                text.append("。\n");
+            }
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] multipart(String boundary, String fileName, byte[] content) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(content.length + 256);
+        body.write(("--" + boundary + "\r\n"
+            + "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"\r\n"
+            + "Content-Type: text/plain\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(content);
+        body.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    // ==================== 阅读会话 ====================
+
+    private void readSession(Reader reader) throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        JsonNode login = call("POST /auth/login", HttpRequest.newBuilder(uri("/auth/login"))
+            .header("Content-Type", "application/json")
+            .POST(json(Map.of("username", reader.username(), "password", PASSWORD))));
+        if (login == null) {
+            return;
+        }
+        String authorization = "Bearer " + login.path("data").path("token").asText();
+
+        call("GET /books", get("/books?size=20", authorization));
+        call("GET /books/{id}", get("/books/" + reader.bookId(), authorization));
+        JsonNode progress = call("GET /progress/book/{id}", get("/progress/book/" + reader.bookId(), authorization));
+        int chapter = progress == null ? 0 : progress.path("data").path("chapterIndex").asInt();
+
+        while (running) {
+            call("GET /books/{id}/chapters/{index}",
+                get("/books/" + reader.bookId() + "/chapters/" + chapter, authorization));
+
+            // 阅读本章：按间隔上报滚动进度，读完时进度为 1
+            long readMillis = (long) (settings.chapterReadTime().toMillis() * (0.5 + random.nextDouble()));
+            long interval = settings.progressInterval().toMillis();
+            for (long elapsed = 0; elapsed < readMillis && running; elapsed += interval) {
+                Thread.sleep(Math.min(interval, readMillis - elapsed));
+                double scroll = Math.min(1.0, (double) (elapsed + interval) / readMillis);
+                call("POST /progress", HttpRequest.newBuilder(uri("/progress"))
+                    .header("Authorization", authorization)
+                    .header("Content-Type", "application/json")
+                    .POST(json(Map.of(
+                        "bookId", reader.bookId(),
+                        "chapterIndex", chapter,
+                        "scrollPosition", scroll,
+                        "progressPercent", (chapter + scroll) * 100 / reader.chapterCount()))));
+            }
+
+            if (running && random.nextDouble() < settings.bookmarkRate()) {
+                call("POST /progress/bookmarks", HttpRequest.newBuilder(uri("/progress/bookmarks"))
+                    .header("Authorization", authorization)
+                    .header("Content-Type", "application/json")
+                    .POST(json(Map.of(
+                        "bookId", reader.bookId(),
+                        "chapterIndex", chapter,
+                        "position", random.nextInt(3000),
+                        "note", "压测书签"))));
+            }
+
+            chapter = (chapter + 1) % reader.chapterCount();
+        }
+    }
+
+    /**
+     * 发送请求并记录耗时；非 2xx 或网络异常记为错误，返回 null
+     */
+    private JsonNode call(String endpoint, HttpRequest.Builder request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = send(request);
+            boolean success = response.statusCode() / 100 == 2;
+            recorder.record(endpoint, System.nanoTime() - start, success);
+            return success ? objectMapper.readTree(response.body()) : null;
+        } catch (IOException e) {
+            recorder.record(endpoint, System.nanoTime() - start, false);
+            return null;
+        } catch (InterruptedException e) {
+            // 测量结束时会话被中断，不计入统计
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private JsonNode expectOk(HttpResponse<byte[]> response) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("准备阶段请求失败: HTTP " + response.statusCode() + " "
+                + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private HttpRequest.Builder get(String path, String authorization) {
+        return HttpRequest.newBuilder(uri(path)).header("Authorization", authorization).GET();
+    }
+
+    private HttpRequest.BodyPublisher json(Map<String, Object> body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    /**
+     * 对已部署的服务运行（需关闭限流或调高阈值）：
+     * java ... com.novelreader.load.ReaderLoadSimulation http://localhost:8080/api
+     */
+    public static void main(String[] args) throws Exception {
+        URI baseUrl = URI.create(args.length > 0 ? args[0] : "http://localhost:8080/api");
+        Settings settings = Settings.fromSystemProperties();
+        System.out.println("Load test against " + baseUrl + ": " + settings);
+        System.out.print(LatencyRecorder.format(new ReaderLoadSimulation(baseUrl, settings).run()));
+    }
+}
@@ -0,0 +1,57 @@
+package com.novelreader.load;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 读者流量压测（内嵌服务 + 内存 H2）
+ *
+ * 默认不运行，通过 -Dloadtest=true 启用，参数见 {@link ReaderLoadSimulation.Settings}：
+ * ./mvnw test -Dtest=ReaderLoadTest -Dloadtest=true -Dload.readers=200 -Dload.durationSeconds=120
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "rate-limit.enabled=false",
+        "logging.level.root=WARN",
+        "logging.level.com.novelreader=WARN",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+    })
+class ReaderLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    @DisplayName("读者流量模型：各接口吞吐量与延迟分位数")
+    void readerTraffic() throws Exception {
+        // Given
+        ReaderLoadSimulation.Settings settings = ReaderLoadSimulation.Settings.fromSystemProperties();
+        ReaderLoadSimulation simulation =
+            new ReaderLoadSimulation(URI.create("http://localhost:" + port + "/api"), settings);
+
+        // When
+        List<LatencyRecorder.EndpointStats> stats = simulation.run();
+
+        // Then
+        System.out.println("Reader load test: " + settings);
+        System.out.print(LatencyRecorder.format(stats));
+        assertThat(stats)
+            .extracting(LatencyRecorder.EndpointStats::endpoint)
+            .contains("GET /books/{id}/chapters/{index}", "POST /progress");
+        assertThat(stats).allSatisfy(s -> assertThat(s.errorRate()).as(s.endpoint()).isLessThan(0.01));
+    }
+}
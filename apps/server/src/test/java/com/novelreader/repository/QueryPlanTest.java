@@ -0,0 +1,348 @@
+package com.novelreader.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novelreader.config.QueryStatsConfig;
+import com.novelreader.repository.ProgressEventRepository.ProgressEvent;
+import com.novelreader.repository.ReadingStatsRepository.Period;
+import com.novelreader.repository.ReadingStatsRepository.RollupKey;
+import com.novelreader.repository.ReadingStatsRepository.Totals;
+import com.novelreader.security.JdbcRateLimitStore;
+import com.novelreader.service.ChapterStreamer;
+import com.novelreader.service.ReadingStatsCollector;
+import com.novelreader.service.ReadingStatsWriter;
+import com.novelreader.util.QueryStats;
+import com.novelreader.util.TestData;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 查询计划回归测试
+ *
+ * 在迁移后的 H2 Schema 上灌入测试数据，在回滚的事务中调用每个仓库方法，由 {@link QueryStats} 记录实际发出的 SQL
+ * 并逐条执行 EXPLAIN，任何一个表的访问路径退化为全表扫描（或不带条件的全索引扫描）即失败。
+ * 新增仓库查询时，需要在 {@link #queries()} 中同步登记
+ */
+@DataJpaTest
+@Import({ProgressEventRepository.class, ReadingStatsRepository.class, SyncRepository.class, QueryStatsConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    /**
+     * H2 在计划中以注释标注每个表的访问路径：
+     * 索引查找形如 "PUBLIC.IDX_NAME: 条件"，全表扫描形如 "PUBLIC.TABLE.tableScan"
+     */
+    private static final Pattern ACCESS_PATH = Pattern.compile("/\\* (PUBLIC\\.[\\w.]+)(: [^*]*)? \\*/");
+
+    private static final int USERS = 20;
+    private static final int BOOKS_PER_USER = 10;
+    private static final int CHAPTERS_PER_BOOK = 30;
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ChapterRepository chapterRepository;
+
+    @Autowired
+    private ReadingProgressRepository readingProgressRepository;
+
+    @Autowired
+    private BookmarkRepository bookmarkRepository;
+
+    @Autowired
+    private ProgressEventRepository progressEventRepository;
+
+    @Autowired
+    private ReadingStatsRepository readingStatsRepository;
+
+    @Autowired
+    private SyncRepository syncRepository;
+
+    private TestData testData;
+
+    @BeforeAll
+    void seed() {
+        testData = new TestData(jdbcTemplate);
+        List<Object[]> events = new ArrayList<>();
+
+        long bookId = 0;
+        for (long userId = 1; userId <= USERS; userId++) {
+            testData.user(userId);
+            for (int b = 0; b < BOOKS_PER_USER; b++) {
+                bookId++;
+                testData.book(bookId, userId, "书籍" + bookId, "作者" + (bookId % 7), CHAPTERS_PER_BOOK,
+                    BASE_TIME.minusHours(bookId));
+                testData.chapters(bookId, CHAPTERS_PER_BOOK);
+                if (b < 5) {
+                    testData.progress(userId, bookId, b, BASE_TIME.minusMinutes(bookId));
+                    for (int e = 0; e < 3; e++) {
+                        events.add(new Object[]{userId, bookId, b,
+                            Timestamp.valueOf(BASE_TIME.minusMinutes(bookId).plusSeconds(e))});
+                    }
+                }
+                for (int m = 0; m < 2; m++) {
+                    testData.bookmark(userId, bookId, m * 3, m * 100, BASE_TIME.minusMinutes(bookId * 2 + m));
+                }
+            }
+        }
+
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO progress_events (user_id, book_id, chapter_index, created_at) VALUES (?, ?, ?, ?)",
+            events);
+        jdbcTemplate.update("INSERT INTO user_sync_state (user_id, version) SELECT id, 10 FROM users");
+        jdbcTemplate.update("INSERT INTO sync_tombstones (user_id, entity_type, entity_id, sync_version) " +
+            "SELECT user_id, 'BOOKMARK', id, MOD(id, 10) FROM bookmarks");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    /**
+     * 种子数据已提交，上下文缓存后可能被其他测试类复用，结束时清理
+     */
+    @AfterAll
+    void cleanUp() {
+        testData.deleteAll();
+    }
+
+    /**
+     * 仓库方法调用（参数取种子数据中的值），执行时记录实际发出的 SQL
+     */
+    @FunctionalInterface
+    interface RepositoryCall {
+        void run() throws Exception;
+    }
+
+    Stream<Arguments> queries() {
+        LocalDateTime cursor = LocalDateTime.of(2024, 4, 30, 20, 0);
+        LocalDate day = LocalDate.of(2024, 5, 1);
+        Pageable page = PageRequest.of(0, 21);
+        return Stream.of(
+            // UserRepository
+            call("UserRepository.findByUsername", () -> userRepository.findByUsername("reader3")),
+            call("UserRepository.findByEmail", () -> userRepository.findByEmail("reader3@example.com")),
+            call("UserRepository.existsByUsername", () -> userRepository.existsByUsername("reader3")),
+            call("UserRepository.existsByEmail", () -> userRepository.existsByEmail("reader3@example.com")),
+
+            // BookRepository
+            call("BookRepository.findPageByUserId", () -> bookRepository.findPageByUserId(3L, page)),
+            call("BookRepository.findPageByUserIdAfter",
+                () -> bookRepository.findPageByUserIdAfter(3L, cursor, 25L, page)),
+            call("BookRepository.findByUserIdOrderByUpdatedAtDesc",
+                () -> bookRepository.findByUserIdOrderByUpdatedAtDesc(3L)),
+            call("BookRepository.findByIdAndUserId", () -> bookRepository.findByIdAndUserId(25L, 3L)),
+            call("BookRepository.searchByKeyword", () -> bookRepository.searchByKeyword(3L, "书籍", page)),
+            call("BookRepository.searchByKeywordAfter",
+                () -> bookRepository.searchByKeywordAfter(3L, "书籍", cursor, 25L, page)),
+            call("BookRepository.countByKeyword", () -> bookRepository.countByKeyword(3L, "书籍")),
+            call("BookRepository.existsByUserIdAndTitle", () -> bookRepository.existsByUserIdAndTitle(3L, "书籍25")),
+            call("BookRepository.findFileHashesByUserId", () -> bookRepository.findFileHashesByUserId(3L)),
+            call("BookRepository.countByUserId", () -> bookRepository.countByUserId(3L)),
+
+            // ChapterRepository
+            call("ChapterRepository.findByBookIdOrderByChapterIndex",
+                () -> chapterRepository.findByBookIdOrderByChapterIndex(25L)),
+            call("ChapterRepository.findByBookIdAndChapterIndex",
+                () -> chapterRepository.findByBookIdAndChapterIndex(25L, 7)),
+            call("ChapterRepository.findChapterListByBookId", () -> chapterRepository.findChapterListByBookId(25L)),
+            call("ChapterRepository.countByBookId", () -> chapterRepository.countByBookId(25L)),
+            call("ChapterRepository.findOwnedChapter", () -> chapterRepository.findOwnedChapter(3L, 25L, 7)),
+            call("ChapterRepository.findTitleByBookIdAndChapterIndex",
+                () -> chapterRepository.findTitleByBookIdAndChapterIndex(25L, 7)),
+            call("ChapterRepository.findTitles",
+                () -> chapterRepository.findTitles(Map.of(21L, Set.of(1), 25L, Set.of(7)))),
+            call("ChapterRepository.deleteByBookId", () -> chapterRepository.deleteByBookId(25L)),
+
+            // ReadingProgressRepository
+            call("ReadingProgressRepository.findByUserIdAndBookId",
+                () -> readingProgressRepository.findByUserIdAndBookId(3L, 25L)),
+            call("ReadingProgressRepository.findByUserIdOrderByLastReadAtDesc",
+                () -> readingProgressRepository.findByUserIdOrderByLastReadAtDesc(3L)),
+            call("ReadingProgressRepository.findByUserIdWithBook",
+                () -> readingProgressRepository.findByUserIdWithBook(3L)),
+            call("ReadingProgressRepository.findRecentReading",
+                () -> readingProgressRepository.findRecentReading(3L)),
+            call("ReadingProgressRepository.findRecentReadingWithBook",
+                () -> readingProgressRepository.findRecentReadingWithBook(3L, PageRequest.of(0, 10))),
+            call("ReadingProgressRepository.findChangedWithBook",
+                () -> readingProgressRepository.findChangedWithBook(3L, 0L)),
+            call("ReadingProgressRepository.deleteByBookId", () -> readingProgressRepository.deleteByBookId(25L)),
+
+            // ProgressEventRepository
+            call("ProgressEventRepository.findLatest", () -> progressEventRepository.findLatest(3, 25)),
+            call("ProgressEventRepository.findSnapshot", () -> progressEventRepository.findSnapshot(3, 25)),
+            call("ProgressEventRepository.findPending", () -> progressEventRepository.findPending(3)),
+            call("ProgressEventRepository.findPendingSince", () -> progressEventRepository.findPendingSince(3, 5)),
+            call("ProgressEventRepository.lockCompaction", () -> progressEventRepository.lockCompaction()),
+            call("ProgressEventRepository.findUncompacted",
+                () -> progressEventRepository.findUncompacted(LocalDateTime.of(2024, 1, 1, 0, 0), 1000)),
+            call("ProgressEventRepository.markCompacted", () -> progressEventRepository.markCompacted(List.of(1L))),
+            // 书籍 25 已有快照（UPDATE），书籍 26 没有（确认不存在后 INSERT）
+            call("ProgressEventRepository.applyToSnapshots", () -> progressEventRepository.applyToSnapshots(List.of(
+                new ProgressEvent(null, 3, 25, 1, null, null, BASE_TIME, 5),
+                new ProgressEvent(null, 3, 26, 1, null, null, BASE_TIME, 5)))),
+            call("ProgressEventRepository.deleteCompactedBefore",
+                () -> progressEventRepository.deleteCompactedBefore(LocalDateTime.of(2024, 1, 1, 0, 0))),
+
+            // BookmarkRepository
+            call("BookmarkRepository.findByUserIdAndBookIdOrderByChapterIndexAscPositionAsc",
+                () -> bookmarkRepository.findByUserIdAndBookIdOrderByChapterIndexAscPositionAsc(3L, 25L)),
+            call("BookmarkRepository.findPageByUserId", () -> bookmarkRepository.findPageByUserId(3L, page)),
+            call("BookmarkRepository.findPageByUserIdAfter",
+                () -> bookmarkRepository.findPageByUserIdAfter(3L, cursor, 50L, page)),
+            call("BookmarkRepository.findByUserIdWithBook", () -> bookmarkRepository.findByUserIdWithBook(3L)),
+            call("BookmarkRepository.findChangedWithBook", () -> bookmarkRepository.findChangedWithBook(3L, 0L)),
+            call("BookmarkRepository.findByIdAndUserId", () -> bookmarkRepository.findByIdAndUserId(50L, 3L)),
+            call("BookmarkRepository.deleteByBookId", () -> bookmarkRepository.deleteByBookId(25L)),
+            call("BookmarkRepository.countByUserId", () -> bookmarkRepository.countByUserId(3L)),
+            call("BookmarkRepository.countByUserIdAndBookId", () -> bookmarkRepository.countByUserIdAndBookId(3L, 25L)),
+
+            // ChapterStreamer
+            call("ChapterStreamer.forEachChapter",
+                () -> new ChapterStreamer(jdbcTemplate, new ObjectMapper(), transactionManager)
+                    .forEachChapter(25L, 5, 14, rs -> { })),
+
+            // ReadingStatsRepository
+            call("ReadingStatsRepository.findDaily",
+                () -> readingStatsRepository.findDaily(3, null, day.minusMonths(1), day)),
+            call("ReadingStatsRepository.findDaily(book)",
+                () -> readingStatsRepository.findDaily(3, 25L, day.minusMonths(1), day)),
+            call("ReadingStatsRepository.findRollups", () -> readingStatsRepository.findRollups(3,
+                ReadingStatsRepository.ALL_BOOKS, Map.of(
+                    Period.WEEK, LocalDate.of(2024, 4, 29),
+                    Period.MONTH, LocalDate.of(2024, 5, 1),
+                    Period.YEAR, LocalDate.of(2024, 1, 1),
+                    Period.LIFETIME, ReadingStatsRepository.LIFETIME_START))),
+            call("ReadingStatsRepository.findRolledThrough", () -> readingStatsRepository.findRolledThrough()),
+            call("ReadingStatsRepository.findFirstDateAfter",
+                () -> readingStatsRepository.findFirstDateAfter(day.minusDays(1))),
+            call("ReadingStatsRepository.advanceRolledThrough",
+                () -> readingStatsRepository.advanceRolledThrough(null, day)),
+            call("ReadingStatsRepository.forEachRowOfDay", () -> readingStatsRepository.forEachRowOfDay(day, row -> { })),
+            call("ReadingStatsRepository.addToRollups", () -> readingStatsRepository.addToRollups(Map.of(
+                new RollupKey(3, 25, Period.WEEK, LocalDate.of(2024, 4, 29)), new Totals(60, 1000, 1, 1)))),
+            call("ReadingStatsRepository.deleteBookRollups", () -> readingStatsRepository.deleteBookRollups(25)),
+
+            // SyncRepository
+            call("SyncRepository.findVersion", () -> syncRepository.findVersion(3)),
+            call("SyncRepository.findVersions", () -> syncRepository.findVersions(List.of(3L, 4L))),
+            call("SyncRepository.next", () -> syncRepository.next(3)),
+            call("SyncRepository.lock", () -> syncRepository.lock(List.of(3L, 4L))),
+            call("SyncRepository.findTombstonesSince", () -> syncRepository.findTombstonesSince(3, 5)),
+
+            // ReadingStatsWriter
+            call("ReadingStatsWriter.write", () -> new ReadingStatsWriter(jdbcTemplate, transactionTemplate)
+                .write(List.of(new ReadingStatsCollector.Delta(
+                    new ReadingStatsCollector.Key(3, 25, day), 60, 1000, 1)))),
+
+            // JdbcRateLimitStore
+            call("JdbcRateLimitStore.lease", () -> new JdbcRateLimitStore(jdbcTemplate).lease("ip:1:global", 60_000, 1, 10)),
+            call("JdbcRateLimitStore.release", () -> new JdbcRateLimitStore(jdbcTemplate).release("ip:1:global", 60_000, 1)),
+            call("JdbcRateLimitStore.purgeBefore", () -> new JdbcRateLimitStore(jdbcTemplate).purgeBefore(60_000))
+        );
+    }
+
+    private static Arguments call(String name, RepositoryCall call) {
+        return Arguments.of(name, call);
+    }
+
+    /**
+     * 在回滚的事务中执行调用，返回统计范围内记录的 SQL（事务在范围内开始，连接才会被统计）
+     */
+    private List<String> capture(RepositoryCall call) {
+        try (QueryStats.Scope scope = QueryStats.open(true)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                try {
+                    call.run();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                entityManager.flush();
+                status.setRollbackOnly();
+            });
+            return scope.counts().sql();
+        }
+    }
+
+    /**
+     * INSERT 没有表访问路径，只检查 SELECT / UPDATE / DELETE
+     */
+    private static boolean explainable(String sql) {
+        String verb = sql.stripLeading().split("\\s+", 2)[0].toUpperCase(Locale.ROOT);
+        return verb.equals("SELECT") || verb.equals("UPDATE") || verb.equals("DELETE");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    @DisplayName("查询命中索引，不退化为全表扫描")
+    void queryUsesIndex(String name, RepositoryCall call) {
+        // Given - 仓库方法实际发出的 SQL
+        List<String> statements = capture(call).stream().filter(QueryPlanTest::explainable).toList();
+        assertThat(statements).as("%s 没有执行可检查的 SQL", name).isNotEmpty();
+
+        for (String sql : statements) {
+            // When - 参数保持未绑定（?），H2 按索引统计信息选择访问路径
+            String plan = jdbcTemplate.query(con -> con.prepareStatement("EXPLAIN " + sql), rs -> {
+                rs.next();
+                return rs.getString(1);
+            });
+
+            // Then - 每个表的访问路径都必须带索引条件
+            Matcher matcher = ACCESS_PATH.matcher(plan);
+            int accessPaths = 0;
+            while (matcher.find()) {
+                accessPaths++;
+                assertThat(matcher.group(2))
+                    .as("%s 访问 %s 时没有使用索引条件，执行计划：%n%s", name, matcher.group(1), plan)
+                    .isNotNull();
+            }
+            assertThat(accessPaths).as("%s 无法识别的执行计划：%n%s", name, plan).isPositive();
+            assertThat(plan).doesNotContain("tableScan");
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.novelreader.security;
+
+import com.novelreader.config.RateLimitConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ClientIpResolver / CidrTrie 单元测试
+ */
+class ClientIpResolverTest {
+
+    private ClientIpResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new ClientIpResolver(new RateLimitConfig().getTrustedProxies());
+    }
+
+    private static long key(String ip) {
+        return ClientIpResolver.clientKey(ip, 0, ip.length());
+    }
+
+    @Test
+    @DisplayName("可信代理网段匹配 IPv4 与 IPv6")
+    void cidrTrie_MatchesIpv4AndIpv6() {
+        CidrTrie trie = CidrTrie.compile(List.of("10.0.0.0/8", "172.16.0.0/12", "2001:db8::/32", "::1"));
+
+        assertThat(trie.contains("10.1.2.3", 0, 8)).isTrue();
+        assertThat(trie.contains("172.31.255.255", 0, 14)).isTrue();
+        assertThat(trie.contains("172.32.0.1", 0, 10)).isFalse();
+        assertThat(trie.contains("2001:db8:1::5", 0, 13)).isTrue();
+        assertThat(trie.contains("2001:db9::5", 0, 11)).isFalse();
+        assertThat(trie.contains("::1", 0, 3)).isTrue();
+        assertThat(trie.contains("0:0:0:0:0:0:0:1", 0, 15)).isTrue();
+        // IPv4 映射地址按 IPv4 匹配
+        assertThat(trie.contains("::ffff:10.0.0.1", 0, 15)).isTrue();
+        // 非法地址不可信
+        assertThat(trie.contains("not-an-ip", 0, 9)).isFalse();
+        assertThat(trie.contains("10.0.0.256", 0, 10)).isFalse();
+    }
+
+    @Test
+    @DisplayName("非法 CIDR 启动时报错")
+    void cidrTrie_InvalidCidr_Throws() {
+        assertThatThrownBy(() -> CidrTrie.compile(List.of("10.0.0.0/33")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CidrTrie.compile(List.of("example.com/8")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("限流 key：IPv4 取地址值，IPv6 取 /64 前缀")
+    void clientKey_DerivedFromAddress() {
+        assertThat(key("203.0.113.50")).isEqualTo(0xCB007132L);
+        assertThat(key("::ffff:203.0.113.50")).isEqualTo(key("203.0.113.50"));
+        assertThat(key("2001:db8:1:2::1")).isEqualTo(key("2001:db8:1:2:ffff::9"));
+        assertThat(key("2001:db8:1:2::1")).isNotEqualTo(key("2001:db8:1:3::1"));
+        assertThat(key("2001:0db8:0001:0002:0000:0000:0000:0001")).isEqualTo(key("2001:db8:1:2::1"));
+    }
+
+    @Test
+    @DisplayName("X-Forwarded-For 从右向左取第一个非可信地址")
+    void xForwardedFor_RightmostUntrusted() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("127.0.0.1");
+        request.addHeader("X-Forwarded-For", "203.0.113.50, 70.41.3.18 , 10.0.0.2");
+
+        assertThat(resolver.resolveAddress(request)).isEqualTo("70.41.3.18");
+        assertThat(resolver.resolveKey(request)).isEqualTo(key("70.41.3.18"));
+    }
+
+    @Test
+    @DisplayName("X-Forwarded-For 全部可信时取最左边地址")
+    void xForwardedFor_AllTrusted_Leftmost() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("127.0.0.1");
+        request.addHeader("X-Forwarded-For", " 192.168.1.5,fd00::1, 10.0.0.1");
+
+        assertThat(resolver.resolveAddress(request)).isEqualTo("192.168.1.5");
+        assertThat(resolver.resolveKey(request)).isEqualTo(key("192.168.1.5"));
+    }
+
+    @Test
+    @DisplayName("X-Real-IP 优先，私有地址时回退")
+    void xRealIp_PreferredUnlessTrusted() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.9");
+        request.addHeader("X-Real-IP", " 198.51.100.7 ");
+        request.addHeader("X-Forwarded-For", "203.0.113.50");
+        assertThat(resolver.resolveAddress(request)).isEqualTo("198.51.100.7");
+
+        MockHttpServletRequest privateRealIp = new MockHttpServletRequest();
+        privateRealIp.setRemoteAddr("10.0.0.9");
+        privateRealIp.addHeader("X-Real-IP", "10.0.0.8");
+        assertThat(resolver.resolveAddress(privateRealIp)).isEqualTo("10.0.0.9");
+        assertThat(resolver.resolveKey(privateRealIp)).isEqualTo(key("10.0.0.9"));
+    }
+
+    @Test
+    @DisplayName("请求分类")
+    void classify_ReturnsExpectedCategory() {
+        assertThat(RateLimitCategory.classify("POST", "/api/auth/login")).isEqualTo(RateLimitCategory.LOGIN);
+        assertThat(RateLimitCategory.classify("POST", "/api/auth/register")).isEqualTo(RateLimitCategory.REGISTER);
+        assertThat(RateLimitCategory.classify("GET", "/api/auth/me")).isEqualTo(RateLimitCategory.GENERAL);
+        assertThat(RateLimitCategory.classify("POST", "/api/books/upload")).isEqualTo(RateLimitCategory.UPLOAD);
+        assertThat(RateLimitCategory.classify("POST", "/api/books/import")).isEqualTo(RateLimitCategory.UPLOAD);
+        assertThat(RateLimitCategory.classify("GET", "/api/books/import/abc")).isEqualTo(RateLimitCategory.GENERAL);
+        assertThat(RateLimitCategory.classify("GET", "/api/books/1/chapters/5")).isEqualTo(RateLimitCategory.CHAPTER_READ);
+        assertThat(RateLimitCategory.classify("GET", "/api/books/1/chapters")).isEqualTo(RateLimitCategory.CHAPTER_READ);
+        assertThat(RateLimitCategory.classify("GET", "/api/books")).isEqualTo(RateLimitCategory.GENERAL);
+        assertThat(RateLimitCategory.classify("POST", "/api/progress")).isEqualTo(RateLimitCategory.PROGRESS_WRITE);
+        assertThat(RateLimitCategory.classify("DELETE", "/api/progress/bookmarks/3")).isEqualTo(RateLimitCategory.PROGRESS_WRITE);
+        assertThat(RateLimitCategory.classify("GET", "/api/progress")).isEqualTo(RateLimitCategory.GENERAL);
+    }
+}
@@ -0,0 +1,159 @@
+package com.novelreader.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 集群限流单元测试（使用进程内存储模拟多个实例）
+ */
+class ClusterRequestCounterFactoryTest {
+
+    private static final long WINDOW_MS = 60_000;
+
+    private InMemoryRateLimitStore store;
+    private AtomicLong clock;
+    private ClusterRequestCounterFactory nodeA;
+    private ClusterRequestCounterFactory nodeB;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryRateLimitStore();
+        clock = new AtomicLong(10 * WINDOW_MS);
+        nodeA = new ClusterRequestCounterFactory(store, 3, 5_000, clock::get);
+        nodeB = new ClusterRequestCounterFactory(store, 3, 5_000, clock::get);
+    }
+
+    private int acquireAll(RequestCounter counter, int attempts, int limit) {
+        int allowed = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (counter.tryAcquire(limit, WINDOW_MS)) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+
+    @Test
+    @DisplayName("多实例共享同一窗口配额")
+    void limitHoldsAcrossNodes() {
+        // Given
+        RequestCounter counterA = nodeA.create("ip:203.0.113.50:global");
+        RequestCounter counterB = nodeB.create("ip:203.0.113.50:global");
+
+        // When - 两个实例各自收到大量请求
+        int allowedA = acquireAll(counterA, 20, 10);
+        int allowedB = acquireAll(counterB, 20, 10);
+
+        // Then - 合计不超过配置的限额
+        assertThat(allowedA + allowedB).isEqualTo(10);
+        assertThat(store.used("ip:203.0.113.50:global", 10 * WINDOW_MS)).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("按块租用令牌，块内请求不访问存储")
+    void leasesInBlocks() {
+        // Given
+        RequestCounter counter = nodeA.create("user:1:read");
+
+        // When
+        assertThat(counter.tryAcquire(100, WINDOW_MS)).isTrue();
+
+        // Then - 首次请求即租下一整块
+        assertThat(store.used("user:1:read", 10 * WINDOW_MS)).isEqualTo(3);
+
+        counter.tryAcquire(100, WINDOW_MS);
+        counter.tryAcquire(100, WINDOW_MS);
+        assertThat(store.used("user:1:read", 10 * WINDOW_MS)).isEqualTo(3);
+
+        counter.tryAcquire(100, WINDOW_MS);
+        assertThat(store.used("user:1:read", 10 * WINDOW_MS)).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("对账归还空闲令牌后其他实例可继续使用")
+    void reconcileReleasesIdleTokens() {
+        // Given - 实例A 租下令牌后只用了一个
+        RequestCounter counterA = nodeA.create("ip:203.0.113.50:login");
+        RequestCounter counterB = nodeB.create("ip:203.0.113.50:login");
+        assertThat(counterA.tryAcquire(3, WINDOW_MS)).isTrue();
+        assertThat(counterB.tryAcquire(3, WINDOW_MS)).isFalse();
+
+        // When - 空闲超过对账间隔
+        clock.addAndGet(5_000);
+        nodeA.reconcile();
+        clock.addAndGet(1_000);
+
+        // Then - 实例B 可以租到归还的令牌
+        assertThat(acquireAll(counterB, 5, 3)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("进入新窗口后配额重置")
+    void newWindowResetsQuota() {
+        // Given
+        RequestCounter counter = nodeA.create("ip:203.0.113.50:upload");
+        assertThat(acquireAll(counter, 5, 2)).isEqualTo(2);
+
+        // When
+        clock.addAndGet(WINDOW_MS);
+
+        // Then
+        assertThat(acquireAll(counter, 5, 2)).isEqualTo(2);
+        assertThat(store.purgeBefore(11 * WINDOW_MS)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("长时间空闲后仍被持有的计数器继续参与对账")
+    void reconcilesCounterIdleForWindows() {
+        // Given - 计数器空闲超过两个窗口，期间执行过对账
+        RequestCounter counter = nodeA.create("user:2:write");
+        assertThat(counter.tryAcquire(10, WINDOW_MS)).isTrue();
+        clock.addAndGet(3 * WINDOW_MS);
+        nodeA.reconcile();
+
+        // When - 过滤器继续使用同一个计数器，之后空闲
+        assertThat(counter.tryAcquire(10, WINDOW_MS)).isTrue();
+        clock.addAndGet(5_000);
+        nodeA.reconcile();
+
+        // Then - 新窗口中未使用的令牌已归还
+        assertThat(store.used("user:2:write", 13 * WINDOW_MS)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("存储不可用时退避：退避期间改用本地计数，不再访问存储")
+    void backsOffWhileStoreUnavailable() {
+        // Given
+        AtomicInteger leases = new AtomicInteger();
+        RateLimitStore down = new InMemoryRateLimitStore() {
+            @Override
+            public int lease(String key, long windowStart, int requested, int limit) {
+                leases.incrementAndGet();
+                throw new IllegalStateException("connection refused");
+            }
+        };
+        ClusterRequestCounterFactory factory = new ClusterRequestCounterFactory(down, 3, 5_000, clock::get);
+        RequestCounter first = factory.create("ip:203.0.113.50:global");
+        RequestCounter second = factory.create("ip:203.0.113.51:global");
+
+        // When
+        int allowed = acquireAll(first, 5, 100) + acquireAll(second, 5, 100);
+
+        // Then - 本地兜底计数器放行，只有第一次访问了存储
+        assertThat(allowed).isEqualTo(10);
+        assertThat(leases).hasValue(1);
+
+        // When - 退避到期后再次探测
+        clock.addAndGet(LeasedRequestCounter.STORE_RETRY_MS);
+        acquireAll(first, 3, 100);
+
+        // Then
+        assertThat(leases).hasValue(2);
+    }
+}
@@ -0,0 +1,81 @@
+package com.novelreader.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ConcurrentLongMap 单元测试
+ */
+class ConcurrentLongMapTest {
+
+    @Test
+    @DisplayName("放入、查找与按条件删除")
+    void putGetRemove() {
+        // Given
+        ConcurrentLongMap<String> map = new ConcurrentLongMap<>();
+        for (long key = 0; key < 1_000; key++) {
+            map.putIfAbsent(key, "v" + key);
+        }
+
+        // When
+        String existing = map.putIfAbsent(7, "other");
+        int removed = map.removeIf(v -> Long.parseLong(v.substring(1)) % 2 == 0);
+
+        // Then
+        assertThat(existing).isEqualTo("v7");
+        assertThat(removed).isEqualTo(500);
+        assertThat(map.size()).isEqualTo(500);
+        assertThat(map.get(7)).isEqualTo("v7");
+        assertThat(map.get(8)).isNull();
+        assertThat(map.get(-1)).isNull();
+    }
+
+    @Test
+    @DisplayName("无锁读取：扩容与删除期间已存在的 key 始终可见")
+    void readsDuringResizeAndRemove() throws Exception {
+        // Given - 常驻 key 为负数，写线程不断放入并删除正数 key，触发扩容和整表替换
+        ConcurrentLongMap<Long> map = new ConcurrentLongMap<>();
+        for (long key = -1; key >= -256; key--) {
+            map.putIfAbsent(key, key);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(3)) {
+            Future<?> writer = executor.submit(() -> {
+                for (int round = 0; round < 200; round++) {
+                    for (long key = 0; key < 2_000; key++) {
+                        map.putIfAbsent(key, key);
+                    }
+                    map.removeIf(v -> v >= 0);
+                }
+                running.set(false);
+            });
+
+            // When
+            Future<Integer> misses = executor.submit(() -> {
+                int missing = 0;
+                while (running.get()) {
+                    for (long key = -1; key >= -256; key--) {
+                        Long value = map.get(key);
+                        if (value == null || value != key) {
+                            missing++;
+                        }
+                    }
+                }
+                return missing;
+            });
+
+            // Then
+            writer.get();
+            assertThat(misses.get()).isZero();
+        }
+        assertThat(map.size()).isEqualTo(256);
+    }
+}
@@ -3,6 +3,7 @@ package com.novelreader.security;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.novelreader.config.RateLimitConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
@@ -27,6 +28,7 @@ class RateLimitFilterTest {
     private RateLimitFilter rateLimitFilter;
     private RateLimitConfig rateLimitConfig;
     private ObjectMapper objectMapper;
+    private SimpleMeterRegistry meterRegistry;
 
     @Mock
     private FilterChain filterChain;
@@ -40,9 +42,10 @@ class RateLimitFilterTest {
         rateLimitConfig.setRegisterRequestsPerMinute(3);
         rateLimitConfig.setUploadRequestsPerMinute(10);
 
+        meterRegistry = new SimpleMeterRegistry();
         objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule()); // 支持 Java 8 日期类型
-        rateLimitFilter = new RateLimitFilter(rateLimitConfig, objectMapper);
+        rateLimitFilter = new RateLimitFilter(rateLimitConfig, objectMapper, RequestCounterFactory.local(), meterRegistry);
     }
 
     @Test
@@ -99,6 +102,9 @@ class RateLimitFilterTest {
 
         assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
         assertThat(response.getContentAsString()).contains("请求过于频繁");
+        assertThat(meterRegistry.get("novel.ratelimit.rejections").tag("scope", "ip").tag("category", "LOGIN")
+            .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("novel.ratelimit").tag("outcome", "SUCCESS").timer().count()).isEqualTo(5);
     }
 
     @Test
@@ -0,0 +1,140 @@
+package com.novelreader.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.novelreader.config.RateLimitConfig;
+import com.novelreader.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * UserRateLimitFilter 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class UserRateLimitFilterTest {
+
+    private UserRateLimitFilter userRateLimitFilter;
+    private RateLimitConfig rateLimitConfig;
+    private SimpleMeterRegistry meterRegistry;
+
+    @Mock
+    private FilterChain filterChain;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitConfig = new RateLimitConfig();
+        rateLimitConfig.setEnabled(true);
+        rateLimitConfig.setUserReadRequestsPerMinute(3);
+        rateLimitConfig.setUserWriteRequestsPerMinute(2);
+
+        meterRegistry = new SimpleMeterRegistry();
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        userRateLimitFilter = new UserRateLimitFilter(
+            rateLimitConfig, objectMapper, RequestCounterFactory.local(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void authenticateAs(long userId) {
+        User user = User.builder()
+            .username("user" + userId)
+            .email("user" + userId + "@example.com")
+            .passwordHash("hashedPassword")
+            .build();
+        user.setId(userId);
+        CustomUserDetails userDetails = new CustomUserDetails(user);
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    private MockHttpServletResponse send(String method, String uri) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr("192.168.1.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        userRateLimitFilter.doFilter(request, response, filterChain);
+        return response;
+    }
+
+    @Test
+    @DisplayName("章节读取超过用户配额时返回429")
+    void chapterRead_ExceedsLimit_Returns429() throws Exception {
+        // Given
+        authenticateAs(1L);
+
+        // When - 发送达到限制的请求
+        for (int i = 0; i < 3; i++) {
+            assertThat(send("GET", "/api/books/1/chapters/" + i).getStatus())
+                .isEqualTo(HttpStatus.OK.value());
+        }
+
+        // Then - 第4个请求应该被拒绝
+        MockHttpServletResponse response = send("GET", "/api/books/1/chapters/3");
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(response.getContentAsString()).contains("请求过于频繁");
+    }
+
+    @Test
+    @DisplayName("读写配额独立计数")
+    void readAndWrite_CountedSeparately() throws Exception {
+        // Given
+        authenticateAs(1L);
+
+        // When - 用尽写入配额
+        send("POST", "/api/progress");
+        send("POST", "/api/progress/bookmarks");
+        assertThat(send("POST", "/api/progress").getStatus())
+            .isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+
+        // Then - 章节读取不受影响
+        assertThat(send("GET", "/api/books/1/chapters/0").getStatus())
+            .isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    @DisplayName("同一 IP 下不同用户独立计数")
+    void differentUsers_CountedSeparately() throws Exception {
+        // Given - 用户1 用尽读取配额
+        authenticateAs(1L);
+        for (int i = 0; i < 3; i++) {
+            send("GET", "/api/books/1/chapters/" + i);
+        }
+        assertThat(send("GET", "/api/books/1/chapters/3").getStatus())
+            .isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+
+        // When - 用户2 从同一 IP 请求
+        authenticateAs(2L);
+        MockHttpServletResponse response = send("GET", "/api/books/2/chapters/0");
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    @DisplayName("未认证请求不参与用户级限流")
+    void unauthenticated_PassesThrough() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertThat(send("GET", "/api/books/1/chapters/0").getStatus())
+                .isEqualTo(HttpStatus.OK.value());
+        }
+        verify(filterChain, times(10)).doFilter(any(), any());
+    }
+}
@@ -0,0 +1,108 @@
+package com.novelreader.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novelreader.entity.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * BookDetailCache 单元测试
+ *
+ * 详情为 n 个字符的字符串，序列化后带引号共 n + 2 个字符，即 2 * (n + 2) 字节
+ */
+class BookDetailCacheTest {
+
+    private static final int MAX_ENTRIES = 10;
+    private static final long MAX_BYTES = 1_000;
+    private static final long MAX_ENTRY_BYTES = 400;
+
+    private BookDetailCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BookDetailCache(new ObjectMapper(), MAX_ENTRIES, MAX_BYTES, MAX_ENTRY_BYTES);
+        loads = new AtomicInteger();
+    }
+
+    private static Book book(long id, int chapterCount) {
+        Book book = Book.builder().title("书籍" + id).chapterCount(chapterCount).build();
+        book.setId(id);
+        return book;
+    }
+
+    private BookDetailCache.Entry get(Book book, int length) {
+        return cache.get(book, () -> {
+            loads.incrementAndGet();
+            return "x".repeat(length);
+        });
+    }
+
+    @Test
+    @DisplayName("总字节数超过上限时淘汰最久未使用的书籍")
+    void evictsLeastRecentlyUsedByBytes() {
+        // Given - 5 本书各 200 字节，正好达到上限
+        for (long id = 1; id <= 5; id++) {
+            get(book(id, 1), 98);
+        }
+        assertThat(cache.totalBytes()).isEqualTo(1_000);
+        get(book(1, 1), 98);
+
+        // When
+        get(book(6, 1), 98);
+
+        // Then - 书籍 1 刚被访问，淘汰的是书籍 2
+        assertThat(cache.size()).isEqualTo(5);
+        assertThat(cache.totalBytes()).isEqualTo(1_000);
+        loads.set(0);
+        get(book(1, 1), 98);
+        assertThat(loads).hasValue(0);
+        get(book(2, 1), 98);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("超过单条上限的详情照常返回但不缓存，并移除该书的旧缓存")
+    void skipsOversizedEntry() {
+        // Given
+        get(book(1, 1), 98);
+        get(book(2, 1), 98);
+
+        // When - 书籍 1 变更后目录超过单条上限
+        BookDetailCache.Entry first = get(book(1, 500), 300);
+        BookDetailCache.Entry second = get(book(1, 500), 300);
+
+        // Then
+        assertThat((String) first.content().rawValue()).hasSize(302);
+        assertThat(second.eTag()).isEqualTo(first.eTag());
+        assertThat(loads).hasValue(4);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.totalBytes()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("同一本书更新后替换旧条目，移除时扣减字节数")
+    void replaceAndEvictTrackBytes() {
+        // Given
+        get(book(1, 1), 98);
+
+        // When
+        get(book(1, 2), 48);
+
+        // Then
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.totalBytes()).isEqualTo(100);
+
+        // When
+        cache.evict(1L);
+
+        // Then
+        assertThat(cache.size()).isZero();
+        assertThat(cache.totalBytes()).isZero();
+    }
+}
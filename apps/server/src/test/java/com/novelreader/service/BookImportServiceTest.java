@@ -0,0 +1,160 @@
+package com.novelreader.service;
+
+import com.novelreader.dto.book.ImportJobDTO;
+import com.novelreader.entity.User;
+import com.novelreader.exception.BusinessException;
+import com.novelreader.repository.BookRepository;
+import com.novelreader.repository.UserRepository;
+import com.novelreader.util.TxtParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * BookImportService 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceTest {
+
+    @Spy
+    private TxtParser txtParser = new TxtParser();
+
+    @Mock
+    private BookWriter bookWriter;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private BookImportService bookImportService;
+
+    private User user;
+    private BookImportService.ImportJob job;
+
+    private static final String BOOK_A = "第一章 开始\n正文A\n第二章 继续\n正文A2\n";
+    private static final String BOOK_B = "第一章 起点\n正文B\n";
+    private static final String BOOK_OLD = "第一章 旧书\n正文\n";
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder().username("reader").build();
+        user.setId(1L);
+        job = new BookImportService.ImportJob("job-1", 1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookImportService.shutdown();
+    }
+
+    private static byte[] zip(Map<String, String> entries) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                if (entry.getValue() != null) {
+                    zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                }
+                zip.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(String content) throws Exception {
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(hash);
+    }
+
+    @Test
+    @DisplayName("并行解析压缩包内的 TXT 文件，按文件哈希去重后写入")
+    void importArchive_DedupesByHash() throws Exception {
+        // Given
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("第一本.txt", BOOK_A);
+        entries.put("备份/", null);
+        entries.put("备份/第一本-副本.txt", BOOK_A);
+        entries.put("第二本.TXT", BOOK_B);
+        entries.put("旧书.txt", BOOK_OLD);
+        entries.put("说明.md", "不是小说");
+        entries.put("__MACOSX/._第一本.txt", "元数据");
+        when(bookRepository.findFileHashesByUserId(1L)).thenReturn(List.of(sha256(BOOK_OLD)));
+
+        // When
+        bookImportService.importArchive(job, user, new ByteArrayInputStream(zip(entries)));
+
+        // Then
+        ImportJobDTO progress = job.toDTO();
+        assertThat(progress.getTotalFiles()).isEqualTo(4);
+        assertThat(progress.getProcessedFiles()).isEqualTo(4);
+        assertThat(progress.getImportedBooks()).isEqualTo(2);
+        assertThat(progress.getDuplicateFiles()).isEqualTo(2);
+        assertThat(progress.getFailedFiles()).isZero();
+
+        ArgumentCaptor<TxtParser.ParseResult> saved = ArgumentCaptor.forClass(TxtParser.ParseResult.class);
+        verify(bookWriter, times(2)).save(eq(user), saved.capture());
+        assertThat(saved.getAllValues())
+            .extracting(TxtParser.ParseResult::getFileHash)
+            .containsExactlyInAnyOrder(sha256(BOOK_A), sha256(BOOK_B));
+    }
+
+    @Test
+    @DisplayName("单个文件保存失败时记录错误并继续导入其余文件")
+    void importArchive_RecordsFailures() throws Exception {
+        // Given
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("第一本.txt", BOOK_A);
+        entries.put("第二本.txt", BOOK_B);
+        when(bookRepository.findFileHashesByUserId(1L)).thenReturn(List.of());
+        when(bookWriter.save(eq(user), any())).thenAnswer(invocation -> {
+            TxtParser.ParseResult result = invocation.getArgument(1);
+            if (result.getTitle().equals("第一本")) {
+                throw new IllegalStateException("数据库不可用");
+            }
+            return null;
+        });
+
+        // When
+        bookImportService.importArchive(job, user, new ByteArrayInputStream(zip(entries)));
+
+        // Then
+        ImportJobDTO progress = job.toDTO();
+        assertThat(progress.getImportedBooks()).isEqualTo(1);
+        assertThat(progress.getFailedFiles()).isEqualTo(1);
+        assertThat(progress.getErrors()).containsExactly("第一本.txt: 保存失败");
+    }
+
+    @Test
+    @DisplayName("任务不存在或不属于当前用户时返回404")
+    void getImportJob_NotFound() {
+        assertThatThrownBy(() -> bookImportService.getImportJob(2L, "job-1"))
+            .isInstanceOf(BusinessException.class)
+            .hasMessage("导入任务不存在");
+    }
+}
@@ -0,0 +1,282 @@
+package com.novelreader.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.novelreader.dto.CursorPageResponse;
+import com.novelreader.dto.book.BookDTO;
+import com.novelreader.entity.Book;
+import com.novelreader.entity.Chapter;
+import com.novelreader.exception.BusinessException;
+import com.novelreader.repository.BookRepository;
+import com.novelreader.repository.ChapterRepository;
+import com.novelreader.repository.ReadingStatsRepository;
+import com.novelreader.repository.SyncRepository;
+import com.novelreader.repository.UserRepository;
+import com.novelreader.util.PageCursor;
+import com.novelreader.util.TxtParser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * BookService 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class BookServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private ChapterRepository chapterRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ReadingStatsRepository readingStatsRepository;
+
+    @Mock
+    private SyncRepository syncRepository;
+
+    @Mock
+    private TxtParser txtParser;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private BookDetailCache bookDetailCache =
+        new BookDetailCache(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private BookService bookService;
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123_456_000);
+
+    /**
+     * 按 (updatedAt, id) 倒序构造书籍
+     */
+    private List<Book> books(int count) {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Book book = Book.builder().title("书籍" + i).build();
+            book.setId(100L - i);
+            book.setUpdatedAt(BASE_TIME.minusMinutes(i));
+            books.add(book);
+        }
+        return books;
+    }
+
+    @Nested
+    @DisplayName("书籍列表游标分页测试")
+    class GetBooksTests {
+
+        @Test
+        @DisplayName("第一页多取一行判断是否有下一页，游标指向本页最后一行")
+        void firstPage_HasMore() {
+            // Given
+            List<Book> rows = books(3);
+            when(bookRepository.findPageByUserId(1L, PageRequest.of(0, 3))).thenReturn(rows);
+
+            // When
+            CursorPageResponse<BookDTO> page = bookService.getBooks(1L, null, 2, false);
+
+            // Then
+            assertThat(page.getContent()).extracting(BookDTO::getId).containsExactly(100L, 99L);
+            assertThat(page.isHasMore()).isTrue();
+            PageCursor next = PageCursor.decode(page.getNextCursor());
+            assertThat(next.id()).isEqualTo(99L);
+            assertThat(next.timestamp()).isEqualTo(BASE_TIME.minusMinutes(1));
+            assertThat(page.getTotalElements()).isNull();
+            verify(bookRepository, never()).countByUserId(anyLong());
+        }
+
+        @Test
+        @DisplayName("传入游标时从游标位置继续查询")
+        void nextPage_UsesCursor() {
+            // Given
+            String cursor = PageCursor.of(BASE_TIME, 99L).encode();
+            when(bookRepository.findPageByUserIdAfter(1L, BASE_TIME, 99L, PageRequest.of(0, 3)))
+                .thenReturn(books(1));
+
+            // When
+            CursorPageResponse<BookDTO> page = bookService.getBooks(1L, cursor, 2, false);
+
+            // Then
+            assertThat(page.getContent()).hasSize(1);
+            assertThat(page.isHasMore()).isFalse();
+            assertThat(page.getNextCursor()).isNull();
+            verify(bookRepository, never()).findPageByUserId(anyLong(), any());
+        }
+
+        @Test
+        @DisplayName("请求总数时才执行 COUNT 查询")
+        void withTotal_CountsOnDemand() {
+            // Given
+            when(bookRepository.findPageByUserId(eq(1L), any())).thenReturn(books(2));
+            when(bookRepository.countByUserId(1L)).thenReturn(2L);
+
+            // When
+            CursorPageResponse<BookDTO> page = bookService.getBooks(1L, "", 20, true);
+
+            // Then
+            assertThat(page.getTotalElements()).isEqualTo(2L);
+        }
+
+        @Test
+        @DisplayName("无效游标返回错误")
+        void invalidCursor_ThrowsException() {
+            assertThatThrownBy(() -> bookService.getBooks(1L, "not-a-cursor", 20, false))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("无效的分页游标");
+        }
+    }
+
+    @Nested
+    @DisplayName("书籍详情测试")
+    class GetBookDetailTests {
+
+        private Book book;
+
+        @BeforeEach
+        void setUp() {
+            book = books(1).get(0);
+            book.setChapterCount(2);
+            book.setFileHash("abc123");
+            when(bookRepository.findByIdAndUserId(100L, 1L)).thenReturn(Optional.of(book));
+        }
+
+        @Test
+        @DisplayName("目录使用不含正文的投影查询")
+        void detail_UsesContentFreeProjection() {
+            // Given
+            when(chapterRepository.findChapterListByBookId(100L)).thenReturn(List.of(
+                new Chapter(1L, 0, "第一章", 1000),
+                new Chapter(2L, 1, "第二章", 2000)));
+
+            // When
+            BookDetailCache.Entry detail = bookService.getBookDetail(1L, 100L, eTag -> false);
+
+            // Then
+            assertThat(detail.content().rawValue().toString())
+                .contains("\"title\":\"第一章\"")
+                .contains("\"title\":\"第二章\"")
+                .doesNotContain("content");
+            verify(chapterRepository, never()).findByBookIdOrderByChapterIndex(anyLong());
+        }
+
+        @Test
+        @DisplayName("书籍未变化时复用缓存，不再查询章节")
+        void repeatedDetail_ServedFromCache() {
+            // Given
+            when(chapterRepository.findChapterListByBookId(100L)).thenReturn(List.of());
+            BookDetailCache.Entry first = bookService.getBookDetail(1L, 100L, eTag -> false);
+
+            // When
+            BookDetailCache.Entry second = bookService.getBookDetail(1L, 100L, eTag -> false);
+
+            // Then
+            assertThat(second).isSameAs(first);
+            verify(chapterRepository, times(1)).findChapterListByBookId(100L);
+        }
+
+        @Test
+        @DisplayName("ETag 与客户端缓存一致时返回 null，不查询章节")
+        void unchangedETag_SkipsChapterQuery() {
+            // Given
+            String eTag = BookDetailCache.eTagOf(book);
+
+            // When
+            BookDetailCache.Entry detail = bookService.getBookDetail(1L, 100L, eTag::equals);
+
+            // Then
+            assertThat(detail).isNull();
+            verify(chapterRepository, never()).findChapterListByBookId(anyLong());
+        }
+
+        @Test
+        @DisplayName("书籍更新后 ETag 变化并重新构建")
+        void updatedBook_ChangesETag() {
+            // Given
+            when(chapterRepository.findChapterListByBookId(100L)).thenReturn(List.of());
+            String before = bookService.getBookDetail(1L, 100L, eTag -> false).eTag();
+
+            // When
+            book.setUpdatedAt(BASE_TIME.plusSeconds(1));
+            String after = bookService.getBookDetail(1L, 100L, eTag -> false).eTag();
+
+            // Then
+            assertThat(after).isNotEqualTo(before).startsWith("W/\"");
+            verify(chapterRepository, times(2)).findChapterListByBookId(100L);
+        }
+    }
+
+    @Nested
+    @DisplayName("章节条件请求测试")
+    class ChapterVersionTests {
+
+        @Test
+        @DisplayName("ETag 由文件哈希和章节序号生成，不读取章节")
+        void version_DerivedFromFileHash() {
+            // Given
+            Book book = books(1).get(0);
+            book.setFileHash("abc123");
+            book.setCreatedAt(BASE_TIME);
+            when(bookRepository.findByIdAndUserId(100L, 1L)).thenReturn(Optional.of(book));
+
+            // When
+            BookService.ChapterVersion version = bookService.getChapterVersion(1L, 100L, 7);
+
+            // Then
+            assertThat(version.eTag()).isEqualTo("\"abc123-7\"");
+            assertThat(version.lastModified()).isPositive();
+            verifyNoInteractions(chapterRepository);
+        }
+
+        @Test
+        @DisplayName("没有文件哈希的书籍不生成 ETag")
+        void version_WithoutFileHash() {
+            // Given
+            when(bookRepository.findByIdAndUserId(100L, 1L)).thenReturn(Optional.of(books(1).get(0)));
+
+            // When
+            BookService.ChapterVersion version = bookService.getChapterVersion(1L, 100L, 7);
+
+            // Then
+            assertThat(version.eTag()).isNull();
+        }
+
+        @Test
+        @DisplayName("书籍不属于当前用户时返回404")
+        void version_NotOwned() {
+            when(bookRepository.findByIdAndUserId(100L, 2L)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> bookService.getChapterVersion(2L, 100L, 7))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("书籍不存在");
+        }
+    }
+}
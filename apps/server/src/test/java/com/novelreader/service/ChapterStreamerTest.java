@@ -0,0 +1,132 @@
+package com.novelreader.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novelreader.util.TestData;
+import com.novelreader.util.TxtParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ChapterStreamer 测试
+ */
+@JdbcTest
+class ChapterStreamerTest {
+
+    private static final long BOOK_ID = 1;
+    private static final int CHAPTERS = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ChapterStreamer chapterStreamer;
+
+    @BeforeEach
+    void setUp() {
+        chapterStreamer = new ChapterStreamer(jdbcTemplate, objectMapper, transactionManager);
+
+        TestData testData = new TestData(jdbcTemplate);
+        testData.user(1);
+        testData.book(BOOK_ID, 1, "书籍", null, CHAPTERS, LocalDateTime.now());
+        testData.chapters(BOOK_ID, CHAPTERS, c -> "正文\n\"" + c + "\"");
+    }
+
+    private List<JsonNode> stream(int from, int to) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        chapterStreamer.writeNdjson(BOOK_ID, from, to, out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    @DisplayName("按章节序号输出区间内的章节，每行一章")
+    void range_OneLinePerChapter() throws IOException {
+        // When - 区间跨越多个 fetch 批次
+        List<JsonNode> lines = stream(3, 3 + ChapterStreamer.FETCH_SIZE * 2);
+
+        // Then
+        assertThat(lines).hasSize(ChapterStreamer.FETCH_SIZE * 2 + 1);
+        assertThat(lines).extracting(n -> n.get("chapterIndex").asInt())
+            .startsWith(3, 4, 5)
+            .isSorted();
+        JsonNode first = lines.get(0);
+        assertThat(first.get("title").asText()).isEqualTo("第4章");
+        assertThat(first.get("content").asText()).isEqualTo("正文\n\"3\"");
+        assertThat(first.get("wordCount").asInt()).isEqualTo("正文\n\"3\"".length());
+    }
+
+    @Test
+    @DisplayName("空区间不输出任何内容")
+    void emptyRange_WritesNothing() throws IOException {
+        assertThat(stream(10, 9)).isEmpty();
+        assertThat(stream(CHAPTERS, CHAPTERS + 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("导出的 TXT 重新解析后得到相同的章节")
+    void txtExport_RoundTripsThroughParser() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        chapterStreamer.writeTxt(new BookService.BookExport(BOOK_ID, "书籍", "作者甲", CHAPTERS), out);
+
+        // Then
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertThat(text).startsWith("书籍\n作者：作者甲\n\n第1章\n\n正文\n\"0\"\n\n第2章");
+        TxtParser.ParseResult parsed = new TxtParser()
+            .parse(new ByteArrayInputStream(out.toByteArray()), "书籍.txt");
+        assertThat(parsed.getAuthor()).isEqualTo("作者甲");
+        assertThat(parsed.getChapters()).hasSize(CHAPTERS);
+        assertThat(parsed.getChapters().get(CHAPTERS - 1).getTitle()).isEqualTo("第" + CHAPTERS + "章");
+        assertThat(parsed.getChapters().get(CHAPTERS - 1).getContent()).isEqualTo("正文\n\"" + (CHAPTERS - 1) + "\"");
+    }
+
+    @Test
+    @DisplayName("客户端断开时中断查询并抛出 IOException")
+    void brokenOutput_PropagatesIOException() {
+        // Given - 第一次刷新时即失败
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("连接已断开");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("连接已断开");
+            }
+        };
+
+        // When & Then
+        assertThatThrownBy(() -> chapterStreamer.writeNdjson(BOOK_ID, 0, CHAPTERS - 1, broken))
+            .isInstanceOf(IOException.class)
+            .hasMessage("连接已断开");
+    }
+}
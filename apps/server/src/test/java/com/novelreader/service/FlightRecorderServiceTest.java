@@ -0,0 +1,183 @@
+package com.novelreader.service;
+
+import com.novelreader.config.FlightRecorderConfig;
+import com.novelreader.dto.admin.FlightRecordingDTO;
+import com.novelreader.exception.BusinessException;
+import com.novelreader.util.FlightEvents;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * FlightRecorderService 单元测试
+ */
+class FlightRecorderServiceTest {
+
+    @TempDir
+    Path dumpDirectory;
+
+    private FlightRecorderConfig config;
+    private FlightRecorderService service;
+
+    @BeforeEach
+    void setUp() {
+        config = new FlightRecorderConfig();
+        config.setDumpDirectory(dumpDirectory.toString());
+        config.setEventThresholdMs(0);
+        config.setSlowRequestThresholdMs(100);
+        config.setMaxDumps(2);
+        service = new FlightRecorderService(config);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Nested
+    @DisplayName("转储")
+    class Dump {
+
+        @Test
+        @DisplayName("转储文件包含自定义事件")
+        void containsCustomEvents() throws Exception {
+            // Given
+            FlightEvents.ChapterFetch event = new FlightEvents.ChapterFetch();
+            event.begin();
+            event.bookId = 42;
+            event.chapterIndex = 7;
+            event.characters = 3_000;
+            event.commit();
+
+            // When
+            FlightRecordingDTO dump = service.dump("manual");
+
+            // Then
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dumpDirectory.resolve(dump.getName()));
+            assertThat(events)
+                .filteredOn(e -> e.getEventType().getName().equals("novelreader.ChapterFetch"))
+                .anySatisfy(e -> {
+                    assertThat(e.getLong("bookId")).isEqualTo(42);
+                    assertThat(e.getInt("chapterIndex")).isEqualTo(7);
+                    assertThat(e.getLong("characters")).isEqualTo(3_000);
+                });
+            assertThat(dump.getName()).startsWith("manual-").endsWith(".jfr");
+            assertThat(dump.getSize()).isPositive();
+        }
+
+        @Test
+        @DisplayName("只保留最新的 maxDumps 个文件")
+        void prunesOldDumps() throws Exception {
+            // Given
+            FlightRecordingDTO first = service.dump("manual");
+            Thread.sleep(10);
+            FlightRecordingDTO second = service.dump("manual");
+            Thread.sleep(10);
+
+            // When
+            FlightRecordingDTO third = service.dump("manual");
+
+            // Then
+            assertThat(service.listDumps())
+                .extracting(FlightRecordingDTO::getName)
+                .containsExactly(third.getName(), second.getName());
+            assertThat(dumpDirectory.resolve(first.getName())).doesNotExist();
+        }
+
+        @Test
+        @DisplayName("录制未开启时返回 503")
+        void notRecording() {
+            // Given
+            service.stop();
+
+            // When & Then
+            assertThatThrownBy(() -> service.dump("manual"))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getStatus())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    @Nested
+    @DisplayName("慢请求自动转储")
+    class SlowRequest {
+
+        @Test
+        @DisplayName("低于阈值不转储")
+        void belowThreshold() {
+            // When
+            boolean dumped = service.onRequestCompleted("GET /books", TimeUnit.MILLISECONDS.toNanos(50));
+
+            // Then
+            assertThat(dumped).isFalse();
+            assertThat(service.listDumps()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("超过阈值异步转储，冷却期内不重复转储")
+        void dumpsOncePerCooldown() {
+            // When
+            boolean first = service.onRequestCompleted("GET /books", TimeUnit.MILLISECONDS.toNanos(150));
+            boolean second = service.onRequestCompleted("GET /books", TimeUnit.SECONDS.toNanos(5));
+
+            // Then
+            assertThat(first).isTrue();
+            assertThat(second).isFalse();
+            await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(service.listDumps())
+                    .singleElement()
+                    .satisfies(dump -> assertThat(dump.getName()).startsWith("slow-")));
+        }
+    }
+
+    @Nested
+    @DisplayName("下载")
+    class Download {
+
+        @Test
+        @DisplayName("返回转储目录下的文件")
+        void returnsDumpFile() {
+            // Given
+            FlightRecordingDTO dump = service.dump("manual");
+
+            // When
+            Path file = service.getDump(dump.getName());
+
+            // Then
+            assertThat(file).isRegularFile();
+            assertThat(file.getParent()).isEqualTo(dumpDirectory.toAbsolutePath().normalize());
+        }
+
+        @Test
+        @DisplayName("拒绝目录穿越和非 .jfr 文件名")
+        void rejectsInvalidNames() throws Exception {
+            // Given
+            Files.writeString(dumpDirectory.resolve("notes.txt"), "x");
+
+            // When & Then
+            assertThatThrownBy(() -> service.getDump("../secret.jfr"))
+                .isInstanceOf(BusinessException.class);
+            assertThatThrownBy(() -> service.getDump("notes.txt"))
+                .isInstanceOf(BusinessException.class);
+            assertThatThrownBy(() -> service.getDump("missing.jfr"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("转储文件不存在");
+        }
+    }
+}
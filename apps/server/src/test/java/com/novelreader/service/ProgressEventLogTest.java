@@ -0,0 +1,383 @@
+package com.novelreader.service;
+
+import com.novelreader.config.ProgressLogConfig;
+import com.novelreader.exception.BusinessException;
+import com.novelreader.repository.ProgressEventRepository;
+import com.novelreader.repository.ProgressEventRepository.ProgressEvent;
+import com.novelreader.repository.SyncRepository;
+import com.novelreader.util.TestData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ProgressEventLog / ProgressCompactor 测试
+ *
+ * 不使用测试事务：写入线程与压缩任务自行管理事务
+ */
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProgressEventLogTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ProgressLogConfig config = new ProgressLogConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProgressEventRepository repository;
+    private TestData testData;
+
+    /** 数据库生成的 ID，不与共用同一数据库的其他测试冲突 */
+    private long userId;
+    private long bookA;
+    private long bookB;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ProgressEventRepository(jdbcTemplate);
+
+        testData = new TestData(jdbcTemplate);
+        userId = testData.newUser("log-reader");
+        bookA = testData.newBook(userId, "书籍一");
+        bookB = testData.newBook(userId, "书籍二");
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteAll();
+    }
+
+    private ProgressEvent event(long bookId, int chapterIndex, LocalDateTime at) {
+        return ProgressEvent.of(userId, bookId, chapterIndex, 0.5, chapterIndex * 10.0, at);
+    }
+
+    /**
+     * 直接写入的事件以章节序号作为同步版本号
+     */
+    private ProgressEvent versioned(long bookId, int chapterIndex, LocalDateTime at) {
+        return event(bookId, chapterIndex, at).withSyncVersion(chapterIndex);
+    }
+
+    @Nested
+    @DisplayName("组提交")
+    class GroupCommit {
+
+        private ProgressEventLog eventLog;
+
+        @BeforeEach
+        void setUp() {
+            // 提交窗口内到达的事件合并为一次提交
+            config.setCommitWindowMs(50);
+            eventLog = new ProgressEventLog(config, repository, new SyncRepository(jdbcTemplate),
+                new TransactionTemplate(transactionManager), meterRegistry);
+            eventLog.start();
+        }
+
+        @AfterEach
+        void tearDown() throws InterruptedException {
+            eventLog.shutdown();
+        }
+
+        @Test
+        @DisplayName("并发上报合并为少量提交，返回时均已写入")
+        void concurrentAppendsShareCommits() throws Exception {
+            // Given
+            int appends = 50;
+
+            // When
+            List<Future<?>> futures = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < appends; i++) {
+                    int chapter = i;
+                    futures.add(executor.submit(() -> eventLog.append(event(chapter % 2 == 0 ? bookA : bookB, chapter, NOW))));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            // Then
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM progress_events", Integer.class))
+                .isEqualTo(appends);
+            assertThat(meterRegistry.get("novel.progress.log.batch").summary().count())
+                .isLessThan(appends);
+            assertThat(eventLog.pendingSize()).isZero();
+        }
+
+        @Test
+        @DisplayName("每个事件分配不重复的同步版本号，与 id 顺序一致")
+        void assignsSyncVersions() {
+            // When
+            ProgressEvent first = eventLog.append(event(bookA, 1, NOW));
+            ProgressEvent second = eventLog.append(event(bookB, 2, NOW));
+
+            // Then
+            assertThat(second.syncVersion()).isEqualTo(first.syncVersion() + 1);
+            assertThat(jdbcTemplate.queryForList("SELECT sync_version FROM progress_events ORDER BY id", Long.class))
+                .containsExactly(first.syncVersion(), second.syncVersion());
+            assertThat(new SyncRepository(jdbcTemplate).findVersion(userId)).isEqualTo(second.syncVersion());
+        }
+
+        @Test
+        @DisplayName("基于同一版本号并发上报相同位置：只有一次写入，其余返回胜出的进度")
+        void concurrentBaseVersionAppendsConflict() throws Exception {
+            // Given
+            long base = eventLog.append(event(bookA, 1, NOW)).syncVersion();
+
+            // When
+            List<Future<ProgressEventLog.Appended>> futures = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 5; i++) {
+                    futures.add(executor.submit(() -> eventLog.append(event(bookA, 3, NOW), base)));
+                }
+            }
+            List<ProgressEventLog.Appended> results = new ArrayList<>();
+            for (Future<ProgressEventLog.Appended> future : futures) {
+                results.add(future.get());
+            }
+
+            // Then
+            assertThat(results).filteredOn(r -> !r.conflict()).hasSize(1);
+            long winner = results.stream().filter(r -> !r.conflict()).findFirst().orElseThrow().event().syncVersion();
+            assertThat(results).extracting(r -> r.event().syncVersion()).containsOnly(winner);
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM progress_events", Integer.class))
+                .isEqualTo(2);
+            assertThat(new SyncRepository(jdbcTemplate).findVersion(userId)).isEqualTo(winner);
+        }
+
+        @Test
+        @DisplayName("书籍已删除的事件返回 404，不影响其他事件")
+        void deletedBookRejected() {
+            // When
+            eventLog.append(event(bookA, 3, NOW));
+
+            // Then
+            assertThatThrownBy(() -> eventLog.append(event(bookB + 1_000, 1, NOW)))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getStatus())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+            assertThat(repository.findLatest(userId, bookA)).get()
+                .extracting(ProgressEvent::chapterIndex)
+                .isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("停止后拒绝新的上报")
+        void rejectsAfterShutdown() throws InterruptedException {
+            // Given
+            eventLog.shutdown();
+
+            // When / Then
+            assertThatThrownBy(() -> eventLog.append(event(bookA, 1, NOW)))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getStatus())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    @Nested
+    @DisplayName("同步版本号")
+    class SyncVersions {
+
+        @Test
+        @DisplayName("首次修改并发插入版本行：后提交的事务改为递增，不中止事务")
+        void concurrentFirstInsert() throws Exception {
+            // Given - 第一个事务已插入版本行，尚未提交
+            SyncRepository syncRepository = new SyncRepository(jdbcTemplate);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            CountDownLatch inserted = new CountDownLatch(1);
+            CountDownLatch commit = new CountDownLatch(1);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                Future<Long> first = executor.submit(() -> transactionTemplate.execute(status -> {
+                    long version = syncRepository.next(userId);
+                    inserted.countDown();
+                    await(commit);
+                    return version;
+                }));
+                assertThat(inserted.await(10, TimeUnit.SECONDS)).isTrue();
+
+                // When - 第二个事务同时插入，等待第一个提交
+                Future<Long> second = executor.submit(() -> transactionTemplate.execute(status -> {
+                    long version = syncRepository.next(userId);
+                    // 事务仍然可用
+                    syncRepository.addTombstone(userId, SyncRepository.EntityType.BOOKMARK, 1, version);
+                    return version;
+                }));
+                Thread.sleep(100);
+                commit.countDown();
+
+                // Then
+                assertThat(first.get()).isEqualTo(1);
+                assertThat(second.get()).isEqualTo(2);
+            }
+            assertThat(syncRepository.findVersion(userId)).isEqualTo(2);
+        }
+
+        private static void await(CountDownLatch latch) {
+            try {
+                latch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("压缩")
+    class Compaction {
+
+        private ProgressCompactor compactor;
+
+        @BeforeEach
+        void setUp() {
+            config.setCompactSettleMs(2_000);
+            compactor = new ProgressCompactor(repository, config, new TransactionTemplate(transactionManager),
+                meterRegistry);
+        }
+
+        private List<Map<String, Object>> snapshots() {
+            return jdbcTemplate.queryForList(
+                "SELECT book_id, chapter_index, last_read_at FROM reading_progress ORDER BY book_id");
+        }
+
+        @Test
+        @DisplayName("每本书折叠为最后一条事件，并标记为已压缩")
+        void foldsLatestEventPerBook() {
+            // Given - 书籍一已有快照（UPDATE），书籍二首次阅读（INSERT）
+            testData.progress(userId, bookA, 0, NOW.minusDays(1));
+            repository.appendAll(List.of(
+                versioned(bookA, 1, NOW.minusMinutes(3)),
+                versioned(bookB, 5, NOW.minusMinutes(2)),
+                versioned(bookA, 2, NOW.minusMinutes(1))));
+
+            // When
+            int compacted = compactor.compact(NOW);
+
+            // Then
+            assertThat(compacted).isEqualTo(3);
+            assertThat(snapshots())
+                .extracting(r -> ((Number) r.get("BOOK_ID")).longValue(),
+                    r -> ((Number) r.get("CHAPTER_INDEX")).intValue(),
+                    r -> ((Timestamp) r.get("LAST_READ_AT")).toLocalDateTime())
+                .containsExactly(
+                    tuple(bookA, 2, NOW.minusMinutes(1)),
+                    tuple(bookB, 5, NOW.minusMinutes(2)));
+            assertThat(jdbcTemplate.queryForList(
+                "SELECT sync_version FROM reading_progress ORDER BY book_id", Long.class))
+                .containsExactly(2L, 5L);
+            assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM progress_events WHERE compacted = FALSE", Integer.class)).isZero();
+            assertThat(repository.findPending(userId)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("跳过尚未稳定的事件，之后的已稳定事件照常压缩")
+        void skipsUnsettledEvents() {
+            // Given - 第二条刚写入，第三条虽然更早但排在其后
+            repository.appendAll(List.of(
+                event(bookA, 1, NOW.minusMinutes(1)),
+                event(bookA, 2, NOW.minusSeconds(1)),
+                event(bookB, 3, NOW.minusMinutes(1))));
+
+            // When
+            int compacted = compactor.compact(NOW);
+
+            // Then
+            assertThat(compacted).isEqualTo(2);
+            assertThat(snapshots()).hasSize(2);
+            assertThat(repository.findPending(userId))
+                .extracting(ProgressEvent::chapterIndex)
+                .containsExactly(2);
+        }
+
+        @Test
+        @DisplayName("id 较小的事件在较大的之后压缩：仍会压缩，且不回退版本号更大的快照")
+        void compactsLowerIdAfterHigher() {
+            // Given - 较小 id 的事件尚未稳定（相当于较晚提交），较大 id 的已压缩
+            repository.appendAll(List.of(
+                versioned(bookA, 1, NOW.minusSeconds(1)),
+                versioned(bookA, 2, NOW.minusMinutes(1))));
+            assertThat(compactor.compact(NOW)).isEqualTo(1);
+
+            // When
+            int compacted = compactor.compact(NOW.plusMinutes(1));
+
+            // Then
+            assertThat(compacted).isEqualTo(1);
+            assertThat(repository.findPending(userId)).isEmpty();
+            assertThat(snapshots())
+                .extracting(r -> ((Number) r.get("CHAPTER_INDEX")).intValue())
+                .containsExactly(2);
+        }
+
+        @Test
+        @DisplayName("多批压缩直到没有稳定的事件")
+        void compactsInBatches() {
+            // Given
+            config.setCompactBatchSize(2);
+            List<ProgressEvent> events = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                events.add(event(bookA, i, NOW.minusMinutes(10 - i)));
+            }
+            repository.appendAll(events);
+
+            // When
+            int compacted = compactor.compact(NOW);
+
+            // Then
+            assertThat(compacted).isEqualTo(5);
+            assertThat(snapshots())
+                .extracting(r -> ((Number) r.get("CHAPTER_INDEX")).intValue())
+                .containsExactly(4);
+        }
+
+        @Test
+        @DisplayName("清理只删除已压缩的过期事件")
+        void prunesOnlyCompactedEvents() {
+            // Given
+            repository.appendAll(List.of(
+                event(bookA, 1, NOW.minusDays(200)),
+                event(bookA, 2, NOW.minusDays(190))));
+            long first = jdbcTemplate.queryForObject("SELECT MIN(id) FROM progress_events", Long.class);
+            repository.markCompacted(List.of(first));
+
+            // When
+            int deleted = repository.deleteCompactedBefore(NOW.minusDays(180));
+
+            // Then
+            assertThat(deleted).isEqualTo(1);
+            assertThat(repository.findLatest(userId, bookA)).get()
+                .extracting(ProgressEvent::chapterIndex)
+                .isEqualTo(2);
+        }
+    }
+}
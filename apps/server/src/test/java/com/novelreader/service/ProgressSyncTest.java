@@ -0,0 +1,171 @@
+package com.novelreader.service;
+
+import com.novelreader.config.ProgressLogConfig;
+import com.novelreader.config.ReadingStatsConfig;
+import com.novelreader.dto.progress.BookmarkDTO;
+import com.novelreader.dto.progress.CreateBookmarkRequest;
+import com.novelreader.dto.progress.ProgressChangesDTO;
+import com.novelreader.dto.progress.ProgressDTO;
+import com.novelreader.dto.progress.UpdateProgressRequest;
+import com.novelreader.repository.ProgressEventRepository;
+import com.novelreader.repository.SyncRepository;
+import com.novelreader.util.TestData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 多端同步测试（GET /progress/changes 与进度冲突处理）
+ *
+ * 不使用测试事务：进度事件由写入线程在独立事务中提交
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ProgressService.class, RecentReadingCache.class, ReadingStatsCollector.class, ReadingStatsWriter.class,
+    ReadingStatsConfig.class, ProgressEventLog.class, ProgressEventRepository.class, ProgressLogConfig.class,
+    SyncRepository.class, SimpleMeterRegistry.class})
+class ProgressSyncTest {
+
+    private static final long USER_ID = 1;
+    private static final long BOOK_A = 10;
+    private static final long BOOK_B = 11;
+
+    @Autowired
+    private ProgressService progressService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        testData = new TestData(jdbcTemplate);
+        testData.user(1);
+        for (long bookId : new long[]{BOOK_A, BOOK_B}) {
+            testData.book(bookId, 1);
+            testData.chapters(bookId, 10);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteAll();
+    }
+
+    private ProgressDTO report(long bookId, int chapterIndex, Long baseVersion) {
+        UpdateProgressRequest request = new UpdateProgressRequest();
+        request.setBookId(bookId);
+        request.setChapterIndex(chapterIndex);
+        request.setProgressPercent(chapterIndex * 10.0);
+        request.setBaseVersion(baseVersion);
+        return progressService.updateProgress(USER_ID, request);
+    }
+
+    private BookmarkDTO bookmark(long bookId, int chapterIndex) {
+        CreateBookmarkRequest request = new CreateBookmarkRequest();
+        request.setBookId(bookId);
+        request.setChapterIndex(chapterIndex);
+        return progressService.createBookmark(USER_ID, request);
+    }
+
+    @Test
+    @DisplayName("没有变化时只返回版本号")
+    void noChanges() {
+        // Given
+        report(BOOK_A, 1, null);
+        long version = progressService.getChanges(USER_ID, 0).getVersion();
+
+        // When
+        ProgressChangesDTO changes = progressService.getChanges(USER_ID, version);
+
+        // Then
+        assertThat(changes.getVersion()).isEqualTo(version);
+        assertThat(changes.getProgress()).isNull();
+        assertThat(changes.getBookmarks()).isNull();
+        assertThat(changes.getDeletedBookmarkIds()).isNull();
+    }
+
+    @Test
+    @DisplayName("按版本号增量返回进度、书签与删除记录")
+    void returnsChangesSinceVersion() {
+        // Given
+        ProgressDTO progress = report(BOOK_A, 2, null);
+        BookmarkDTO bookmark = bookmark(BOOK_B, 4);
+
+        // When - 首次同步
+        ProgressChangesDTO all = progressService.getChanges(USER_ID, 0);
+
+        // Then
+        assertThat(all.getVersion()).isEqualTo(bookmark.getSyncVersion()).isGreaterThan(progress.getSyncVersion());
+        assertThat(all.getProgress())
+            .singleElement()
+            .satisfies(p -> {
+                assertThat(p.getBookId()).isEqualTo(BOOK_A);
+                assertThat(p.getChapterTitle()).isEqualTo("第3章");
+                assertThat(p.getSyncVersion()).isEqualTo(progress.getSyncVersion());
+            });
+        assertThat(all.getBookmarks())
+            .extracting(BookmarkDTO::getId, BookmarkDTO::getChapterTitle)
+            .containsExactly(tuple(bookmark.getId(), "第5章"));
+
+        // When - 其他设备只更新了书籍二的进度并删除了书签
+        report(BOOK_B, 6, null);
+        progressService.deleteBookmark(USER_ID, bookmark.getId());
+        ProgressChangesDTO delta = progressService.getChanges(USER_ID, all.getVersion());
+
+        // Then
+        assertThat(delta.getVersion()).isGreaterThan(all.getVersion());
+        assertThat(delta.getProgress())
+            .extracting(ProgressDTO::getBookId, ProgressDTO::getChapterIndex)
+            .containsExactly(tuple(BOOK_B, 6));
+        assertThat(delta.getBookmarks()).isNull();
+        assertThat(delta.getDeletedBookmarkIds()).containsExactly(bookmark.getId());
+    }
+
+    @Test
+    @DisplayName("客户端版本号大于服务端时返回全部数据")
+    void fullResyncWhenClientAhead() {
+        // Given
+        report(BOOK_A, 2, null);
+
+        // When
+        ProgressChangesDTO changes = progressService.getChanges(USER_ID, 1_000);
+
+        // Then
+        assertThat(changes.getProgress()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("冲突：其他设备已更新时，只有位置更靠后的上报生效")
+    void resolvesConflictsByPosition() {
+        // Given - 设备一、二都同步到版本 v1，设备二先读到第 6 章
+        ProgressDTO v1 = report(BOOK_A, 1, null);
+        ProgressDTO second = report(BOOK_A, 5, v1.getSyncVersion());
+
+        // When - 设备一基于过期版本上报更靠前的位置
+        ProgressDTO stale = report(BOOK_A, 3, v1.getSyncVersion());
+
+        // Then - 保留服务端进度
+        assertThat(stale.getChapterIndex()).isEqualTo(5);
+        assertThat(stale.getSyncVersion()).isEqualTo(second.getSyncVersion());
+
+        // When - 设备一基于过期版本上报更靠后的位置
+        ProgressDTO ahead = report(BOOK_A, 7, v1.getSyncVersion());
+
+        // Then
+        assertThat(ahead.getChapterIndex()).isEqualTo(7);
+        assertThat(ahead.getSyncVersion()).isGreaterThan(second.getSyncVersion());
+        assertThat(progressService.getProgress(USER_ID, BOOK_A).getChapterIndex()).isEqualTo(7);
+    }
+}
@@ -0,0 +1,162 @@
+package com.novelreader.service;
+
+import com.novelreader.config.ProgressLogConfig;
+import com.novelreader.config.QueryStatsConfig;
+import com.novelreader.config.ReadingStatsConfig;
+import com.novelreader.dto.progress.ProgressDTO;
+import com.novelreader.entity.Chapter;
+import com.novelreader.repository.ProgressEventRepository;
+import com.novelreader.repository.SyncRepository;
+import com.novelreader.util.QueryStats;
+import com.novelreader.util.TestData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 阅读进度章节标题查询基准测试
+ *
+ * 对比小书库和大书库（书更多、每本书章节更多）下 /progress 与 /progress/recent 的开销：
+ * SQL 条数固定、不加载任何章节实体，耗时只随进度条数增长，与章节总量无关；
+ * /progress/recent 预热后由内存缓存返回。
+ * SQL 条数由 {@link QueryStats} 在 JDBC 层统计（含 JdbcTemplate 查询），统计范围内才获取连接，因此不开启测试事务
+ */
+@Slf4j
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ProgressService.class, RecentReadingCache.class, ReadingStatsCollector.class, ReadingStatsWriter.class,
+    ReadingStatsConfig.class, ProgressEventLog.class, ProgressEventRepository.class, ProgressLogConfig.class,
+    SyncRepository.class, SimpleMeterRegistry.class, QueryStatsConfig.class})
+class ProgressTitleLookupBenchmarkTest {
+
+    private static final long SMALL_USER = 1;
+    private static final long LARGE_USER = 2;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 20;
+
+    @Autowired
+    private ProgressService progressService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        testData = new TestData(jdbcTemplate);
+        seedLibrary(SMALL_USER, 1, 10, 20);
+        seedLibrary(LARGE_USER, 1_000, 60, 150);
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteAll();
+    }
+
+    /**
+     * 为用户创建书库：每本书都有阅读进度，每章带 1KB 正文
+     */
+    private void seedLibrary(long userId, long firstBookId, int books, int chaptersPerBook) {
+        testData.user(userId);
+
+        String content = "字".repeat(1024);
+        LocalDateTime now = LocalDateTime.now();
+        for (int b = 0; b < books; b++) {
+            long bookId = firstBookId + b;
+            testData.book(bookId, userId);
+            testData.chapters(bookId, chaptersPerBook, c -> content);
+            testData.progress(userId, bookId, b % chaptersPerBook, now.minusMinutes(b));
+        }
+    }
+
+    /**
+     * 测量结果：平均耗时（微秒）、每次调用的 SQL 条数与执行的 SQL
+     */
+    private record Measurement(double averageMicros, long statementsPerCall, List<String> sql) {
+    }
+
+    private Measurement measure(String name, Supplier<List<ProgressDTO>> call) {
+        for (int i = 0; i < WARMUP; i++) {
+            call.get();
+        }
+
+        statistics.clear();
+        QueryStats.Counts counts;
+        long start = System.nanoTime();
+        try (QueryStats.Scope scope = QueryStats.open(true)) {
+            for (int i = 0; i < ITERATIONS; i++) {
+                call.get();
+            }
+            counts = scope.counts();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertThat(statistics.getEntityStatistics(Chapter.class.getName()).getLoadCount())
+            .as("不应加载章节实体（含正文）")
+            .isZero();
+        Measurement measurement = new Measurement(elapsed / 1_000.0 / ITERATIONS,
+            counts.statements() / ITERATIONS, counts.sql());
+        log.info("{}: {} us, {} statements", name, "%.1f".formatted(measurement.averageMicros()),
+            measurement.statementsPerCall());
+        return measurement;
+    }
+
+    @Test
+    @DisplayName("/progress：SQL 条数固定，不加载章节正文")
+    void allProgress_ConstantStatements() {
+        // When
+        Measurement small = measure("/progress small(10 books x 20 chapters)",
+            () -> progressService.getAllProgress(SMALL_USER));
+        Measurement large = measure("/progress large(60 books x 150 chapters)",
+            () -> progressService.getAllProgress(LARGE_USER));
+
+        // Then - 进度查询、标题查询与未压缩事件查询各一条
+        assertThat(small.statementsPerCall()).as("SQL：%n%s", String.join(System.lineSeparator(), small.sql()))
+            .isEqualTo(3);
+        assertThat(large.statementsPerCall()).as("SQL：%n%s", String.join(System.lineSeparator(), large.sql()))
+            .isEqualTo(3);
+        assertThat(progressService.getAllProgress(LARGE_USER))
+            .hasSize(60)
+            .allSatisfy(p -> assertThat(p.getChapterTitle()).isEqualTo("第" + (p.getChapterIndex() + 1) + "章"));
+    }
+
+    @Test
+    @DisplayName("/progress/recent：SQL 条数固定，不加载章节正文")
+    void recentReading_ConstantStatements() {
+        // When
+        Measurement small = measure("/progress/recent small(10 books x 20 chapters)",
+            () -> progressService.getRecentReading(SMALL_USER, 10));
+        Measurement large = measure("/progress/recent large(60 books x 150 chapters)",
+            () -> progressService.getRecentReading(LARGE_USER, 10));
+
+        // Then
+        // 预热后由最近阅读缓存直接返回，不再访问数据库
+        assertThat(small.statementsPerCall()).isZero();
+        assertThat(large.statementsPerCall()).isZero();
+        assertThat(progressService.getRecentReading(LARGE_USER, 10)).hasSize(10);
+    }
+}
@@ -0,0 +1,216 @@
+package com.novelreader.service;
+
+import com.novelreader.config.ReadingStatsConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReadingStatsCollector 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class ReadingStatsCollectorTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 21, 0);
+    private static final LocalDate DAY = T0.toLocalDate();
+    private static final long BOOK_WORDS = 1_000_000;
+
+    @Mock
+    private ReadingStatsWriter readingStatsWriter;
+
+    private ReadingStatsConfig config;
+    private ReadingStatsCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        config = new ReadingStatsConfig();
+        collector = new ReadingStatsCollector(config, readingStatsWriter, new SimpleMeterRegistry());
+    }
+
+    private static ReadingStatsCollector.Position at(int chapterIndex, double percent, int secondsAfterT0) {
+        return ReadingStatsCollector.Position.of(chapterIndex, percent, T0.plusSeconds(secondsAfterT0));
+    }
+
+    private static ReadingStatsCollector.Key key(long userId, long bookId) {
+        return new ReadingStatsCollector.Key(userId, bookId, DAY);
+    }
+
+    @Nested
+    @DisplayName("推算阅读量")
+    class Derive {
+
+        @Test
+        @DisplayName("相邻两次上报的间隔计为阅读时长，进度变化换算为字数")
+        void derivesTimeAndCharacters() {
+            // When - 2 分钟读了 0.2%（2000 字）并翻到下一章
+            collector.recordProgress(1, 10, BOOK_WORDS, at(5, 10.0, 0), at(6, 10.2, 120));
+
+            // Then
+            assertThat(collector.drain()).containsExactly(
+                new ReadingStatsCollector.Delta(key(1, 10), 120, 2_000, 1));
+        }
+
+        @Test
+        @DisplayName("首次阅读和超过离开间隔的上报不计入")
+        void ignoresNewSessions() {
+            // When
+            collector.recordProgress(1, 10, BOOK_WORDS, null, at(0, 0.1, 0));
+            collector.recordProgress(1, 10, BOOK_WORDS, at(0, 0.1, 0), at(1, 0.5, config.getIdleGapSeconds() + 1));
+
+            // Then
+            assertThat(collector.drain()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("进度跳跃按阅读速度上限计字数，目录跳转不计章节")
+        void capsJumps() {
+            // When - 10 秒内从 10% 跳到 50%，跨 20 章
+            collector.recordProgress(1, 10, BOOK_WORDS, at(5, 10.0, 0), at(25, 50.0, 10));
+
+            // Then
+            assertThat(collector.drain()).containsExactly(
+                new ReadingStatsCollector.Delta(key(1, 10), 10, 10L * config.getMaxCharsPerSecond(), 0));
+        }
+
+        @Test
+        @DisplayName("回退不产生负数")
+        void ignoresBackwardMoves() {
+            // When
+            collector.recordProgress(1, 10, BOOK_WORDS, at(6, 12.0, 0), at(5, 10.0, 30));
+
+            // Then
+            assertThat(collector.drain()).containsExactly(
+                new ReadingStatsCollector.Delta(key(1, 10), 30, 0, 0));
+        }
+
+        @Test
+        @DisplayName("未启用时不统计")
+        void disabled() {
+            // Given
+            config.setEnabled(false);
+
+            // When
+            collector.recordProgress(1, 10, BOOK_WORDS, at(5, 10.0, 0), at(6, 10.2, 120));
+
+            // Then
+            assertThat(collector.drain()).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("内存累加")
+    class Aggregate {
+
+        @Test
+        @DisplayName("同一 (用户, 书籍, 日期) 的上报合并为一行")
+        void mergesByKey() {
+            // When
+            collector.recordProgress(1, 10, BOOK_WORDS, at(5, 10.0, 0), at(5, 10.1, 60));
+            collector.recordProgress(1, 10, BOOK_WORDS, at(5, 10.1, 60), at(6, 10.2, 120));
+            collector.recordProgress(1, 11, BOOK_WORDS, at(0, 0.0, 0), at(0, 0.1, 60));
+
+            // Then
+            assertThat(collector.drain()).containsExactlyInAnyOrder(
+                new ReadingStatsCollector.Delta(key(1, 10), 120, 2_000, 1),
+                new ReadingStatsCollector.Delta(key(1, 11), 60, 1_000, 0));
+            assertThat(collector.pendingSize()).isZero();
+        }
+
+        @Test
+        @DisplayName("并发上报不丢失")
+        void concurrentRecords() throws Exception {
+            // Given
+            int threads = 16;
+            int perThread = 1_000;
+            CountDownLatch start = new CountDownLatch(1);
+
+            // When
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int t = 0; t < threads; t++) {
+                    long userId = t % 4;
+                    executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < perThread; i++) {
+                            collector.recordProgress(userId, 10, BOOK_WORDS, at(0, 0.0, 0), at(0, 0.0, 1));
+                        }
+                        return null;
+                    });
+                }
+                start.countDown();
+            }
+
+            // Then
+            assertThat(collector.drain())
+                .hasSize(4)
+                .allSatisfy(delta -> assertThat(delta.readingSeconds()).isEqualTo(threads / 4 * perThread));
+        }
+    }
+
+    @Nested
+    @DisplayName("定时写入")
+    class Flush {
+
+        @Test
+        @DisplayName("按批写入并清空内存")
+        @SuppressWarnings("unchecked")
+        void writesInBatches() {
+            // Given
+            config.setBatchSize(2);
+            for (long bookId = 1; bookId <= 5; bookId++) {
+                collector.recordProgress(1, bookId, BOOK_WORDS, at(0, 0.0, 0), at(0, 0.1, 60));
+            }
+            when(readingStatsWriter.write(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+            // When
+            collector.flush();
+
+            // Then
+            ArgumentCaptor<List<ReadingStatsCollector.Delta>> batches = ArgumentCaptor.forClass(List.class);
+            verify(readingStatsWriter, times(3)).write(batches.capture());
+            assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 2, 1);
+            assertThat(collector.pendingSize()).isZero();
+        }
+
+        @Test
+        @DisplayName("写入失败的批次放回内存，下次重试")
+        void keepsFailedBatch() {
+            // Given
+            collector.recordProgress(1, 10, BOOK_WORDS, at(5, 10.0, 0), at(6, 10.2, 120));
+            when(readingStatsWriter.write(anyList())).thenThrow(new IllegalStateException("数据库不可用"));
+
+            // When
+            collector.flush();
+
+            // Then
+            assertThat(collector.drain()).containsExactly(
+                new ReadingStatsCollector.Delta(key(1, 10), 120, 2_000, 1));
+        }
+
+        @Test
+        @DisplayName("没有数据时不访问数据库")
+        void skipsWhenEmpty() {
+            // When
+            collector.flush();
+
+            // Then
+            verifyNoInteractions(readingStatsWriter);
+        }
+    }
+}
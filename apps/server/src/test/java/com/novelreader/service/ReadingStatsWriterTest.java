@@ -0,0 +1,107 @@
+package com.novelreader.service;
+
+import com.novelreader.util.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ReadingStatsWriter 测试
+ *
+ * 不使用测试事务：写入器自行管理事务，批量失败时依赖整批回滚后逐行重写
+ */
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadingStatsWriterTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ReadingStatsWriter writer;
+    private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        writer = new ReadingStatsWriter(jdbcTemplate, new TransactionTemplate(transactionManager));
+
+        testData = new TestData(jdbcTemplate);
+        testData.user(1);
+        testData.book(10, 1, "书籍一");
+        testData.book(11, 1, "书籍二");
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteAll();
+    }
+
+    private static ReadingStatsCollector.Delta delta(long bookId, LocalDate date, int seconds, long characters, int chapters) {
+        return new ReadingStatsCollector.Delta(new ReadingStatsCollector.Key(1, bookId, date), seconds, characters, chapters);
+    }
+
+    private List<Map<String, Object>> rows() {
+        return jdbcTemplate.queryForList(
+            "SELECT book_id, date, reading_time, characters_read, chapters_read FROM reading_stats ORDER BY book_id, date");
+    }
+
+    @Test
+    @DisplayName("首次写入插入新行，之后累加到同一行")
+    void insertsThenAccumulates() {
+        // Given
+        writer.write(List.of(delta(10, DAY, 60, 1_000, 1)));
+
+        // When
+        int written = writer.write(List.of(
+            delta(10, DAY, 120, 2_000, 2),
+            delta(10, DAY.plusDays(1), 30, 500, 0),
+            delta(11, DAY, 10, 100, 0)));
+
+        // Then
+        assertThat(written).isEqualTo(3);
+        assertThat(rows())
+            .extracting(r -> ((Number) r.get("BOOK_ID")).longValue(), r -> ((Number) r.get("READING_TIME")).intValue(),
+                r -> ((Number) r.get("CHARACTERS_READ")).longValue(), r -> ((Number) r.get("CHAPTERS_READ")).intValue())
+            .containsExactly(
+                tuple(10L, 180, 3_000L, 3),
+                tuple(10L, 30, 500L, 0),
+                tuple(11L, 10, 100L, 0));
+    }
+
+    @Test
+    @DisplayName("书籍已删除的行被丢弃，同批其他行正常写入且不重复累加")
+    void dropsRowsOfDeletedBooks() {
+        // Given
+        writer.write(List.of(delta(10, DAY, 60, 1_000, 1)));
+
+        // When
+        int written = writer.write(List.of(
+            delta(10, DAY, 60, 1_000, 1),
+            delta(99, DAY, 60, 1_000, 1),
+            delta(11, DAY, 10, 100, 0)));
+
+        // Then
+        assertThat(written).isEqualTo(2);
+        assertThat(rows())
+            .extracting(r -> ((Number) r.get("BOOK_ID")).longValue(), r -> ((Number) r.get("READING_TIME")).intValue())
+            .containsExactly(tuple(10L, 120), tuple(11L, 10));
+    }
+}
@@ -0,0 +1,142 @@
+package com.novelreader.service;
+
+import com.novelreader.dto.progress.ProgressDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * RecentReadingCache 单元测试
+ */
+class RecentReadingCacheTest {
+
+    private RecentReadingCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RecentReadingCache();
+        loads = new AtomicInteger();
+    }
+
+    private ProgressDTO progress(long bookId) {
+        return ProgressDTO.builder().bookId(bookId).bookTitle("书籍" + bookId).chapterIndex(0).build();
+    }
+
+    private List<ProgressDTO> loadBooks(long... bookIds) {
+        loads.incrementAndGet();
+        List<ProgressDTO> list = new ArrayList<>();
+        for (long bookId : bookIds) {
+            list.add(progress(bookId));
+        }
+        return list;
+    }
+
+    private List<Long> recentBookIds(int limit) {
+        return cache.get(1L, limit, () -> loadBooks(3, 2, 1)).stream()
+            .map(ProgressDTO::getBookId)
+            .toList();
+    }
+
+    @Test
+    @DisplayName("首次访问从数据库加载，之后直接读取缓存")
+    void loadsOnce() {
+        assertThat(recentBookIds(10)).containsExactly(3L, 2L, 1L);
+        assertThat(recentBookIds(2)).containsExactly(3L, 2L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("再次阅读已有书籍时移到最前")
+    void touchMovesToFront() {
+        // Given
+        recentBookIds(10);
+
+        // When
+        cache.record(1L, progress(1));
+
+        // Then
+        assertThat(recentBookIds(10)).containsExactly(1L, 3L, 2L);
+    }
+
+    @Test
+    @DisplayName("超过容量时淘汰最旧的条目")
+    void overflowDropsOldest() {
+        // Given
+        recentBookIds(10);
+
+        // When
+        for (long bookId = 100; bookId < 100 + RecentReadingCache.CAPACITY - 2; bookId++) {
+            cache.record(1L, progress(bookId));
+        }
+
+        // Then - 最旧的书籍1被挤出，书籍2仍在末尾
+        List<Long> ids = recentBookIds(RecentReadingCache.CAPACITY);
+        assertThat(ids).hasSize(RecentReadingCache.CAPACITY);
+        assertThat(ids.get(0)).isEqualTo(100L + RecentReadingCache.CAPACITY - 3);
+        assertThat(ids).endsWith(3L, 2L).doesNotContain(1L);
+    }
+
+    @Test
+    @DisplayName("加载期间发生写入时不安装旧快照")
+    void writeDuringLoad_SkipsInstall() {
+        // When - 加载过程中另一个请求写入了进度
+        cache.get(1L, 10, () -> {
+            cache.record(1L, progress(9));
+            return loadBooks(3, 2, 1);
+        });
+
+        // Then - 下次访问重新加载
+        recentBookIds(10);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("加载期间其他用户的写入不影响安装")
+    void otherUserWriteDuringLoad_Installs() {
+        // When
+        cache.get(1L, 10, () -> {
+            cache.record(2L, progress(9));
+            return loadBooks(3, 2, 1);
+        });
+
+        // Then
+        recentBookIds(10);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("超过用户上限时只淘汰最久未访问的用户")
+    void evictsLeastRecentlyUsedUser() {
+        // Given - 用户 1 最先加载
+        recentBookIds(10);
+        cache.get(2L, 10, () -> loadBooks(5));
+
+        // When - 访问用户 1 后再加载足够多的用户
+        recentBookIds(10);
+        for (long userId = 3; userId <= RecentReadingCache.MAX_USERS + 1; userId++) {
+            cache.get(userId, 10, List::of);
+        }
+
+        // Then - 用户 1 仍在缓存中，用户 2 被淘汰
+        recentBookIds(10);
+        assertThat(loads).hasValue(2);
+        cache.get(2L, 10, () -> loadBooks(5));
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("移除后重新加载")
+    void evictReloads() {
+        recentBookIds(10);
+        cache.evict(1L);
+        recentBookIds(10);
+        assertThat(loads).hasValue(2);
+    }
+}
@@ -0,0 +1,282 @@
+package com.novelreader.service;
+
+import com.novelreader.config.ReadingStatsConfig;
+import com.novelreader.dto.stats.DailyStatsDTO;
+import com.novelreader.dto.stats.StatsSummaryDTO;
+import com.novelreader.dto.stats.StatsTotalsDTO;
+import com.novelreader.entity.Book;
+import com.novelreader.exception.BusinessException;
+import com.novelreader.repository.BookRepository;
+import com.novelreader.repository.ReadingStatsRepository;
+import com.novelreader.repository.ReadingStatsRepository.Period;
+import com.novelreader.util.TestData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * StatsService / StatsRollupService 测试
+ *
+ * 在迁移后的 H2 Schema 上灌入一年多的日统计，验证"汇总 + 未汇总日期"得到的概览
+ * 与直接对日统计求和的结果一致
+ */
+@JdbcTest
+class StatsServiceTest {
+
+    private static final long USER_ID = 1;
+    private static final long BOOK_A = 10;
+    private static final long BOOK_B = 11;
+    private static final int HISTORY_DAYS = 400;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+
+    private ReadingStatsRepository readingStatsRepository;
+    private StatsRollupService statsRollupService;
+    private StatsService statsService;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        readingStatsRepository = new ReadingStatsRepository(jdbcTemplate);
+        statsRollupService = new StatsRollupService(readingStatsRepository, new ReadingStatsConfig(),
+            new TransactionTemplate(transactionManager), new SimpleMeterRegistry());
+        statsService = new StatsService(readingStatsRepository, bookRepository);
+        today = LocalDate.now();
+
+        TestData testData = new TestData(jdbcTemplate);
+        testData.user(USER_ID);
+        testData.book(BOOK_A, USER_ID, "书籍一");
+        testData.book(BOOK_B, USER_ID, "书籍二");
+
+        // 书 A 每天都读，书 B 每三天读一次（含今天）
+        List<Object[]> rows = new ArrayList<>();
+        for (int d = 0; d < HISTORY_DAYS; d++) {
+            Date date = Date.valueOf(today.minusDays(d));
+            rows.add(new Object[]{USER_ID, BOOK_A, date, 600 + d, 5_000L + d, 1 + d % 2});
+            if (d % 3 == 0) {
+                rows.add(new Object[]{USER_ID, BOOK_B, date, 300, 2_000L, 1});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO reading_stats (user_id, book_id, date, reading_time, " +
+            "characters_read, chapters_read) VALUES (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * 直接对日统计求和
+     */
+    private StatsTotalsDTO expected(Long bookId, LocalDate from) {
+        String bookFilter = bookId != null ? " AND book_id = " + bookId : "";
+        return jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(reading_time), 0), COALESCE(SUM(characters_read), 0), " +
+            "COALESCE(SUM(chapters_read), 0), COUNT(DISTINCT date) FROM reading_stats " +
+            "WHERE user_id = 1 AND date BETWEEN ? AND ?" + bookFilter,
+            (rs, i) -> StatsTotalsDTO.builder()
+                .readingTime(rs.getLong(1))
+                .charactersRead(rs.getLong(2))
+                .chaptersRead(rs.getLong(3))
+                .daysRead(rs.getInt(4))
+                .build(),
+            Date.valueOf(from), Date.valueOf(today));
+    }
+
+    private void assertMatchesDailyRows(StatsSummaryDTO summary, Long bookId) {
+        assertThat(summary.getToday()).isEqualTo(expected(bookId, today));
+        assertThat(summary.getThisWeek()).isEqualTo(expected(bookId, Period.WEEK.start(today)));
+        assertThat(summary.getThisMonth()).isEqualTo(expected(bookId, Period.MONTH.start(today)));
+        assertThat(summary.getThisYear()).isEqualTo(expected(bookId, Period.YEAR.start(today)));
+        assertThat(summary.getLifetime()).isEqualTo(expected(bookId, ReadingStatsRepository.LIFETIME_START));
+    }
+
+    @Nested
+    @DisplayName("概览")
+    class Summary {
+
+        @Test
+        @DisplayName("回填前直接汇总日统计")
+        void beforeBackfill() {
+            // When
+            StatsSummaryDTO summary = statsService.getSummary(USER_ID, null);
+
+            // Then
+            assertMatchesDailyRows(summary, null);
+        }
+
+        @Test
+        @DisplayName("回填后由汇总行与今天的日统计组成，结果不变")
+        void afterBackfill() {
+            // Given
+            int days = statsRollupService.rollUpThrough(today.minusDays(1));
+
+            // When
+            StatsSummaryDTO summary = statsService.getSummary(USER_ID, null);
+
+            // Then
+            assertThat(days).isEqualTo(HISTORY_DAYS - 1);
+            assertThat(readingStatsRepository.findRolledThrough()).contains(today.minusDays(1));
+            assertMatchesDailyRows(summary, null);
+        }
+
+        @Test
+        @DisplayName("按书籍统计")
+        void perBook() {
+            // Given
+            when(bookRepository.findByIdAndUserId(BOOK_B, USER_ID)).thenReturn(Optional.of(new Book()));
+            statsRollupService.rollUpThrough(today.minusDays(1));
+
+            // When
+            StatsSummaryDTO summary = statsService.getSummary(USER_ID, BOOK_B);
+
+            // Then
+            assertThat(summary.getBookId()).isEqualTo(BOOK_B);
+            assertMatchesDailyRows(summary, BOOK_B);
+        }
+
+        @Test
+        @DisplayName("书籍已删除后日统计仍计入用户合计")
+        void deletedBook() {
+            // Given
+            jdbcTemplate.update("DELETE FROM books WHERE id = ?", BOOK_B);
+            statsRollupService.rollUpThrough(today.minusDays(1));
+
+            // When
+            StatsSummaryDTO summary = statsService.getSummary(USER_ID, null);
+
+            // Then
+            assertMatchesDailyRows(summary, null);
+        }
+
+        @Test
+        @DisplayName("不属于当前用户的书籍返回 404")
+        void foreignBook() {
+            // Given
+            when(bookRepository.findByIdAndUserId(anyLong(), eq(USER_ID))).thenReturn(Optional.empty());
+
+            // When & Then
+            assertThatThrownBy(() -> statsService.getSummary(USER_ID, 99L))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("书籍不存在");
+        }
+    }
+
+    @Nested
+    @DisplayName("汇总任务")
+    class Rollup {
+
+        @Test
+        @DisplayName("分多次增量汇总与一次回填结果相同，重复运行不重复累加")
+        void incremental() {
+            // Given
+            statsRollupService.rollUpThrough(today.minusDays(100));
+            statsRollupService.rollUpThrough(today.minusDays(3));
+
+            // When
+            int days = statsRollupService.rollUpThrough(today.minusDays(1));
+            int again = statsRollupService.rollUpThrough(today.minusDays(1));
+
+            // Then
+            assertThat(days).isEqualTo(2);
+            assertThat(again).isZero();
+            assertMatchesDailyRows(statsService.getSummary(USER_ID, null), null);
+        }
+
+        @Test
+        @DisplayName("重建后结果不变")
+        void rebuild() {
+            // Given
+            statsRollupService.rollUpThrough(today.minusDays(1));
+
+            // When
+            statsRollupService.rebuild();
+
+            // Then
+            assertMatchesDailyRows(statsService.getSummary(USER_ID, null), null);
+        }
+
+        @Test
+        @DisplayName("进度已被其他实例推进时不汇总")
+        void concurrentInstance() {
+            // Given - 其他实例已汇总到昨天
+            readingStatsRepository.advanceRolledThrough(null, today.minusDays(1));
+
+            // When
+            int days = statsRollupService.rollUpThrough(today.minusDays(1));
+
+            // Then
+            assertThat(days).isZero();
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reading_stats_rollups", Integer.class))
+                .isZero();
+        }
+
+        @Test
+        @DisplayName("日期结束后等待宽限期再汇总")
+        void gracePeriod() {
+            // When & Then
+            assertThat(statsRollupService.lastClosedDay(LocalDateTime.of(2024, 5, 2, 0, 5)))
+                .isEqualTo(LocalDate.of(2024, 4, 30));
+            assertThat(statsRollupService.lastClosedDay(LocalDateTime.of(2024, 5, 2, 0, 15)))
+                .isEqualTo(LocalDate.of(2024, 5, 1));
+        }
+    }
+
+    @Nested
+    @DisplayName("按日查询")
+    class Daily {
+
+        @Test
+        @DisplayName("返回区间内每天所有书籍的合计")
+        void sumsBooksPerDay() {
+            // When
+            List<DailyStatsDTO> daily = statsService.getDaily(USER_ID, null, today.minusDays(6), today);
+
+            // Then
+            assertThat(daily).hasSize(7);
+            assertThat(daily.get(6).getDate()).isEqualTo(today);
+            assertThat(daily.get(6).getReadingTime()).isEqualTo(600 + 300);
+        }
+
+        @Test
+        @DisplayName("默认返回最近 30 天")
+        void defaultRange() {
+            // When
+            List<DailyStatsDTO> daily = statsService.getDaily(USER_ID, null, null, null);
+
+            // Then
+            assertThat(daily).hasSize(StatsService.DEFAULT_DAILY_RANGE);
+        }
+
+        @Test
+        @DisplayName("拒绝倒置或过长的区间")
+        void rejectsInvalidRanges() {
+            // When & Then
+            assertThatThrownBy(() -> statsService.getDaily(USER_ID, null, today, today.minusDays(1)))
+                .isInstanceOf(BusinessException.class);
+            assertThatThrownBy(() -> statsService.getDaily(USER_ID, null, today.minusDays(StatsService.MAX_DAILY_RANGE), today))
+                .isInstanceOf(BusinessException.class);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.novelreader.service;
+
+import com.novelreader.config.SyncPushConfig;
+import com.novelreader.controller.ProgressController;
+import com.novelreader.dto.progress.ProgressChangesDTO;
+import com.novelreader.dto.progress.ProgressDTO;
+import com.novelreader.entity.User;
+import com.novelreader.exception.BusinessException;
+import com.novelreader.repository.SyncRepository;
+import com.novelreader.security.CustomUserDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * SyncPushService 测试（GET /progress/events）
+ *
+ * 连接由 MockMvc 建立，事件由虚拟线程异步写出，断言时等待响应内容
+ */
+@ExtendWith(MockitoExtension.class)
+class SyncPushServiceTest {
+
+    private static final long USER_ID = 1;
+    private static final long OTHER_USER_ID = 2;
+    private static final long VERSION = 5;
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Mock
+    private SyncRepository syncRepository;
+
+    private final SyncPushConfig config = new SyncPushConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /** 置位后第一次写出 JSON 时阻塞，模拟读取缓慢的客户端 */
+    private volatile boolean blockNextWrite;
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private SyncPushService syncPushService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        when(syncRepository.findVersion(anyLong())).thenReturn(VERSION);
+        syncPushService = new SyncPushService(config, syncRepository, meterRegistry);
+
+        MappingJackson2HttpMessageConverter json =
+            new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json().build()) {
+                @Override
+                protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                        throws IOException {
+                    if (blockNextWrite) {
+                        blockNextWrite = false;
+                        writing.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    super.writeInternal(object, type, outputMessage);
+                }
+            };
+        mockMvc = MockMvcBuilders
+            .standaloneSetup(new ProgressController(mock(ProgressService.class), syncPushService))
+            .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+            .setMessageConverters(new StringHttpMessageConverter(StandardCharsets.UTF_8), json)
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        syncPushService.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    private MvcResult connect(long userId, Long lastEventId) throws Exception {
+        User user = User.builder().username("reader" + userId).email(userId + "@example.com").build();
+        user.setId(userId);
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(new CustomUserDetails(user), null, List.of()));
+
+        MockHttpServletRequestBuilder builder = get("/progress/events");
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private static String content(MvcResult result) throws IOException {
+        return result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private static SyncPushService.Changed progress(long userId, long version) {
+        return new SyncPushService.Changed(userId, ProgressChangesDTO.builder()
+            .version(version)
+            .progress(List.of(ProgressDTO.builder()
+                .bookId(10L)
+                .chapterIndex((int) version)
+                .syncVersion(version)
+                .build()))
+            .build());
+    }
+
+    @Nested
+    @DisplayName("推送")
+    class Push {
+
+        @Test
+        @DisplayName("首次连接先发送 resync，带上当前版本号重连时不发送")
+        void resyncOnConnect() throws Exception {
+            // When
+            MvcResult fresh = connect(USER_ID, null);
+            MvcResult resumed = connect(USER_ID, VERSION);
+
+            // Then
+            await().atMost(TIMEOUT).untilAsserted(() ->
+                assertThat(content(fresh)).contains("event:resync", "\"version\":5"));
+
+            // When - resync 之后的变化照常推送
+            syncPushService.onChanged(progress(USER_ID, 6));
+
+            // Then
+            await().atMost(TIMEOUT).untilAsserted(() -> {
+                assertThat(content(fresh)).contains("id:6");
+                assertThat(content(resumed)).contains("id:6");
+            });
+            assertThat(content(resumed)).doesNotContain("event:resync");
+        }
+
+        @Test
+        @DisplayName("变化推送给该用户的所有连接，事件 id 为同步版本号")
+        void fansOutToUserConnections() throws Exception {
+            // Given
+            MvcResult phone = connect(USER_ID, VERSION);
+            MvcResult tablet = connect(USER_ID, VERSION);
+            MvcResult other = connect(OTHER_USER_ID, VERSION);
+
+            // When
+            syncPushService.onChanged(progress(USER_ID, 6));
+
+            // Then
+            await().atMost(TIMEOUT).untilAsserted(() -> {
+                assertThat(content(phone)).contains("event:changes", "id:6", "\"chapterIndex\":6");
+                assertThat(content(tablet)).contains("event:changes", "id:6");
+            });
+            assertThat(content(other)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("客户端读取过慢、缓冲区写满时丢弃积压的事件，改为发送一次 resync")
+        void overflowFallsBackToResync() throws Exception {
+            // Given - 第一个事件写出时阻塞
+            config.setBufferSize(2);
+            MvcResult slow = connect(USER_ID, VERSION);
+            blockNextWrite = true;
+            syncPushService.onChanged(progress(USER_ID, 6));
+            assertThat(writing.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // When - 7、8 进入缓冲区，9 溢出，10 只推进 resync 的版本号
+            for (long version = 7; version <= 10; version++) {
+                syncPushService.onChanged(progress(USER_ID, version));
+            }
+            release.countDown();
+
+            // Then
+            await().atMost(TIMEOUT).untilAsserted(() ->
+                assertThat(content(slow)).contains("id:6", "event:resync", "\"version\":10"));
+            assertThat(content(slow)).doesNotContain("id:7", "id:8", "id:9", "id:10");
+            assertThat(meterRegistry.get("novel.sync.push.dropped").counter().count()).isEqualTo(4);
+        }
+    }
+
+    @Nested
+    @DisplayName("连接管理")
+    class Connections {
+
+        @Test
+        @DisplayName("同一用户超过连接上限时关闭最早的连接")
+        void evictsOldestConnection() {
+            // Given
+            config.setMaxConnectionsPerUser(2);
+
+            // When
+            for (int i = 0; i < 3; i++) {
+                syncPushService.connect(USER_ID, VERSION);
+            }
+
+            // Then
+            assertThat(syncPushService.connectionCount()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("本实例连接数已满时返回 503")
+        void rejectsWhenFull() {
+            // Given
+            config.setMaxConnections(1);
+            syncPushService.connect(USER_ID, VERSION);
+
+            // When / Then
+            assertThatThrownBy(() -> syncPushService.connect(OTHER_USER_ID, VERSION))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getStatus())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+            assertThat(syncPushService.connectionCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("读取版本号失败时不占用连接数")
+        void failedConnectReleasesSlot() {
+            // Given
+            config.setMaxConnections(1);
+            when(syncRepository.findVersion(USER_ID)).thenThrow(new IllegalStateException("connection refused"));
+
+            // When / Then
+            assertThatThrownBy(() -> syncPushService.connect(USER_ID, VERSION))
+                .isInstanceOf(IllegalStateException.class);
+            assertThat(syncPushService.connectionCount()).isZero();
+            syncPushService.connect(OTHER_USER_ID, VERSION);
+            assertThat(syncPushService.connectionCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("心跳：版本号落后（其他实例上的修改）时发送 resync，否则发送注释行")
+        void heartbeat() throws Exception {
+            // Given
+            when(syncRepository.findVersions(anyCollection())).thenReturn(Map.of(USER_ID, 8L));
+            MvcResult connection = connect(USER_ID, VERSION);
+
+            // When
+            syncPushService.heartbeat();
+
+            // Then
+            await().atMost(TIMEOUT).untilAsserted(() ->
+                assertThat(content(connection)).contains("event:resync", "\"version\":8"));
+            assertThat(content(connection)).doesNotContain(":ping");
+
+            // When / Then - 版本号已通知过
+            await().atMost(TIMEOUT).untilAsserted(() -> {
+                syncPushService.heartbeat();
+                assertThat(content(connection)).contains(":ping");
+            });
+        }
+    }
+}
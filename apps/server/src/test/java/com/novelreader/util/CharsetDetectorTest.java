@@ -0,0 +1,81 @@
+package com.novelreader.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * CharsetDetector 测试
+ */
+class CharsetDetectorTest {
+
+    private static final String SIMPLIFIED = "第一章 风起\n　　夜色渐深，长安城的街道上已经没有多少行人。" +
+        "他站在城楼上，望着远处的灯火，心中却想起了那个已经离开的人。“你真的要走吗？”她问道。" +
+        "他没有回答，只是转过身去，把手中的剑握得更紧了一些。\n";
+
+    private static final String TRADITIONAL = "第一章 風起\n　　夜色漸深，長安城的街道上已經沒有多少行人。" +
+        "他站在城樓上，望著遠處的燈火，心中卻想起了那個已經離開的人。「你真的要走嗎？」她問道。" +
+        "他沒有回答，只是轉過身去，把手中的劍握得更緊了一些。\n";
+
+    private static void assertDetected(byte[] bytes, Charset expected) {
+        CharsetDetector.Result result = CharsetDetector.detect(bytes);
+        assertThat(result.charset()).isEqualTo(expected);
+        assertThat(result.confidence()).isGreaterThan(0.5);
+    }
+
+    @ParameterizedTest(name = "重复 {0} 次")
+    @ValueSource(ints = {1, 20, 20_000})
+    @DisplayName("识别 UTF-8 / GB18030 / Big5 / 无 BOM 的 UTF-16")
+    void detectsEncodings(int repeat) {
+        String simplified = SIMPLIFIED.repeat(repeat);
+        String traditional = TRADITIONAL.repeat(repeat);
+
+        assertDetected(simplified.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        assertDetected(simplified.getBytes(CharsetDetector.GB18030), CharsetDetector.GB18030);
+        assertDetected(traditional.getBytes(CharsetDetector.GB18030), CharsetDetector.GB18030);
+        assertDetected(traditional.getBytes(CharsetDetector.BIG5), CharsetDetector.BIG5);
+        assertDetected(simplified.getBytes(StandardCharsets.UTF_16LE), StandardCharsets.UTF_16LE);
+        assertDetected(simplified.getBytes(StandardCharsets.UTF_16BE), StandardCharsets.UTF_16BE);
+    }
+
+    @Test
+    @DisplayName("BOM 优先")
+    void bom() {
+        byte[] utf8 = ("\uFEFF" + SIMPLIFIED).getBytes(StandardCharsets.UTF_8);
+        byte[] utf16 = ("\uFEFF" + SIMPLIFIED).getBytes(StandardCharsets.UTF_16LE);
+
+        assertThat(CharsetDetector.detect(utf8)).isEqualTo(new CharsetDetector.Result(StandardCharsets.UTF_8, 1.0));
+        assertThat(CharsetDetector.detect(utf16).charset()).isEqualTo(StandardCharsets.UTF_16LE);
+    }
+
+    @Test
+    @DisplayName("纯 ASCII 按 UTF-8 处理，置信度为 0.5")
+    void asciiOnly() {
+        CharsetDetector.Result result = CharsetDetector.detect("hello world\n".repeat(100).getBytes(StandardCharsets.US_ASCII));
+
+        assertThat(result.charset()).isEqualTo(StandardCharsets.UTF_8);
+        assertThat(result.confidence()).isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("大文件开头为纯英文时，由随机窗口识别出中文编码")
+    void largeFile_SampledWindows() {
+        String text = "Preface in English only\n".repeat(4_000) + SIMPLIFIED.repeat(20_000);
+        byte[] bytes = text.getBytes(CharsetDetector.GB18030);
+
+        // 采样总量固定
+        int sampled = 0;
+        for (int[] window : CharsetDetector.sampleWindows(bytes)) {
+            sampled += window[1] - window[0];
+        }
+        assertThat(sampled).isLessThanOrEqualTo(CharsetDetector.PREFIX_SIZE
+            + CharsetDetector.WINDOWS * CharsetDetector.WINDOW_SIZE);
+        assertDetected(bytes, CharsetDetector.GB18030);
+    }
+}
@@ -0,0 +1,35 @@
+package com.novelreader.util;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * SQL 条数断言
+ *
+ * 在 {@link QueryStats} 统计范围内执行一段调用，超出上限时在失败信息中列出执行的全部 SQL
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    /**
+     * 执行操作并返回统计结果（记录 SQL 文本）
+     */
+    public static QueryStats.Counts count(Timings.Action<?, Exception> action) throws Exception {
+        try (QueryStats.Scope scope = QueryStats.open(true)) {
+            action.run();
+            return scope.counts();
+        }
+    }
+
+    /**
+     * 断言操作执行的 SQL 不超过 max 条
+     */
+    public static QueryStats.Counts assertMaxQueries(int max, Timings.Action<?, Exception> action) throws Exception {
+        QueryStats.Counts counts = count(action);
+        assertThat(counts.statements())
+            .as("SQL 条数超过 %d：%n%s", max, String.join(System.lineSeparator(), counts.sql()))
+            .isLessThanOrEqualTo(max);
+        return counts;
+    }
+}
@@ -0,0 +1,127 @@
+package com.novelreader.util;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * 测试数据
+ *
+ * 用 JdbcTemplate 直接写入用户、书籍、章节、阅读进度和书签，不经过实体和服务逻辑。
+ * 在测试事务外写入的数据由 {@link #deleteAll()} 清理
+ */
+public final class TestData {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TestData(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // ==================== 用户 ====================
+
+    /**
+     * 用户 reader{id}
+     */
+    public void user(long id) {
+        user(id, "reader" + id);
+    }
+
+    /**
+     * 指定 ID 和用户名的用户（邮箱为 {username}@example.com）
+     */
+    public void user(long id, String username) {
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password_hash) VALUES (?, ?, ?, 'x')",
+            id, username, username + "@example.com");
+    }
+
+    /**
+     * 由数据库生成 ID 的用户，不与共用同一数据库的其他测试冲突
+     *
+     * @return 用户 ID
+     */
+    public long newUser(String username) {
+        jdbcTemplate.update("INSERT INTO users (username, email, password_hash) VALUES (?, ?, 'x')",
+            username, username + "@example.com");
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+    }
+
+    // ==================== 书籍与章节 ====================
+
+    /**
+     * 书籍《书籍{id}》
+     */
+    public void book(long id, long userId) {
+        book(id, userId, "书籍" + id);
+    }
+
+    public void book(long id, long userId, String title) {
+        book(id, userId, title, null, 0, LocalDateTime.now());
+    }
+
+    public void book(long id, long userId, String title, String author, int chapterCount, LocalDateTime updatedAt) {
+        jdbcTemplate.update(
+            "INSERT INTO books (id, user_id, title, author, chapter_count, updated_at) VALUES (?, ?, ?, ?, ?, ?)",
+            id, userId, title, author, chapterCount, Timestamp.valueOf(updatedAt));
+    }
+
+    /**
+     * 由数据库生成 ID 的书籍
+     *
+     * @return 书籍 ID
+     */
+    public long newBook(long userId, String title) {
+        jdbcTemplate.update("INSERT INTO books (user_id, title) VALUES (?, ?)", userId, title);
+        return jdbcTemplate.queryForObject("SELECT id FROM books WHERE user_id = ? AND title = ?",
+            Long.class, userId, title);
+    }
+
+    /**
+     * 章节 0 ~ count - 1，标题为"第 n 章"，正文为"正文"
+     */
+    public void chapters(long bookId, int count) {
+        chapters(bookId, count, index -> "正文");
+    }
+
+    /**
+     * 章节 0 ~ count - 1，标题为"第 n 章"，字数为正文长度
+     *
+     * @param content 章节序号 -> 正文
+     */
+    public void chapters(long bookId, int count, IntFunction<String> content) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            String text = content.apply(c);
+            rows.add(new Object[]{bookId, c, "第" + (c + 1) + "章", text, text.length()});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO chapters (book_id, chapter_index, title, content, word_count) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    // ==================== 进度与书签 ====================
+
+    public void progress(long userId, long bookId, int chapterIndex, LocalDateTime lastReadAt) {
+        jdbcTemplate.update(
+            "INSERT INTO reading_progress (user_id, book_id, chapter_index, last_read_at) VALUES (?, ?, ?, ?)",
+            userId, bookId, chapterIndex, Timestamp.valueOf(lastReadAt));
+    }
+
+    public void bookmark(long userId, long bookId, int chapterIndex, int position, LocalDateTime createdAt) {
+        jdbcTemplate.update(
+            "INSERT INTO bookmarks (user_id, book_id, chapter_index, position, created_at) VALUES (?, ?, ?, ?, ?)",
+            userId, bookId, chapterIndex, position, Timestamp.valueOf(createdAt));
+    }
+
+    // ==================== 清理 ====================
+
+    /**
+     * 删除所有用户：书籍、章节、进度、书签、进度事件、统计与同步记录都随用户级联删除
+     */
+    public void deleteAll() {
+        jdbcTemplate.update("DELETE FROM users");
+    }
+}
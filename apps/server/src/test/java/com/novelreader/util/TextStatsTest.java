@@ -0,0 +1,87 @@
+package com.novelreader.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * TextStats 测试
+ */
+class TextStatsTest {
+
+    /**
+     * 随机文本：ASCII 空白、换行、全角空格、汉字（含扩展 A）、任意 UTF-16 字符混合，
+     * 长度覆盖不足一批、整批和带尾部的情况
+     */
+    private static String randomText(long seed) {
+        Random random = new Random(seed);
+        int length = random.nextInt(2_000);
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(switch (random.nextInt(8)) {
+                case 0 -> ' ';
+                case 1 -> '\n';
+                case 2 -> (char) ('\t' + random.nextInt(5));
+                case 3 -> '　';
+                case 4 -> (char) (0x4E00 + random.nextInt(0x5200));
+                case 5 -> (char) (0x3400 + random.nextInt(0x1A00));
+                case 6 -> (char) random.nextInt(0x10000);
+                default -> (char) ('a' + random.nextInt(26));
+            });
+        }
+        return text.toString();
+    }
+
+    static LongStream seeds() {
+        return LongStream.range(0, 200);
+    }
+
+    @ParameterizedTest(name = "seed={0}")
+    @MethodSource("seeds")
+    @DisplayName("字数与正则实现一致，向量内核与标量实现一致")
+    void matchesRegexAndScalar(long seed) {
+        // Given
+        String text = randomText(seed);
+        char[] chars = text.toCharArray();
+        long[] scalar = new long[3];
+        TextStats.countScalar(chars, 0, chars.length, scalar);
+
+        // When
+        TextStats.Counts counts = TextStats.of(text);
+
+        // Then
+        assertThat(counts.nonWhitespace()).isEqualTo(text.replaceAll("\\s", "").length()).isEqualTo(scalar[0]);
+        assertThat(counts.cjk()).isEqualTo(scalar[2]);
+        assertThat(TextStats.of(chars, 0, chars.length)).isEqualTo(counts);
+    }
+
+    @Test
+    @DisplayName("行数：最后一行没有换行符也计入")
+    void lines() {
+        assertThat(TextStats.of("").lines()).isZero();
+        assertThat(TextStats.of("第一行\n第二行").lines()).isEqualTo(2);
+        assertThat(TextStats.of("第一行\n第二行\n").lines()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("全角空格计入字数，汉字单独统计")
+    void fullWidthSpace() {
+        TextStats.Counts counts = TextStats.of("　　第一章 abc\r\n");
+
+        assertThat(counts.nonWhitespace()).isEqualTo(8);
+        assertThat(counts.cjk()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("测试环境启用了 Vector API")
+    void vectorKernelEnabled() {
+        // surefire 以 --add-modules jdk.incubator.vector 运行，确保上面的用例覆盖了向量内核
+        assertThat(TextStats.vectorized()).isTrue();
+    }
+}
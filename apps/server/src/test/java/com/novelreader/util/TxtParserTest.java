@@ -0,0 +1,107 @@
+package com.novelreader.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * TxtParser 测试
+ */
+class TxtParserTest {
+
+    private final TxtParser txtParser = new TxtParser();
+
+    /**
+     * 标题行（含超长、前后空白等边界情况）
+     */
+    private static final String[] TITLE_LINES = {
+        "第1章 开始", "第十二章", "  第3节  回归 ", "Chapter 7: Dawn", "12. 起程", "【第五章】",
+        "\t第二百回 终\t", "第1章" + "长".repeat(55),
+    };
+
+    private static final String[] LINE_ENDINGS = {"\n", "\r\n", "\r\r\n", "\n\n"};
+
+    /**
+     * 随机生成一本书：标题行、空白行、含单独 \r 的行、中英文正文行，混合各种换行符，
+     * 部分样本没有任何标题，部分样本末尾没有换行
+     */
+    private static String randomBook(long seed) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        int lines = random.nextInt(80);
+        boolean withTitles = random.nextInt(8) != 0;
+        for (int i = 0; i < lines; i++) {
+            int kind = random.nextInt(10);
+            if (kind < 2 && withTitles) {
+                text.append(TITLE_LINES[random.nextInt(TITLE_LINES.length)]);
+            } else if (kind == 2) {
+                text.append(" ".repeat(random.nextInt(4)));
+            } else if (kind == 3) {
+                text.append("a\rb");
+            } else {
+                int length = random.nextInt(90);
+                for (int j = 0; j < length; j++) {
+                    text.append(random.nextBoolean()
+                        ? (char) ('一' + random.nextInt(50))
+                        : (char) ('a' + random.nextInt(26)));
+                }
+            }
+            if (i < lines - 1 || random.nextBoolean()) {
+                text.append(LINE_ENDINGS[random.nextInt(LINE_ENDINGS.length)]);
+            }
+        }
+        return text.toString();
+    }
+
+    static LongStream seeds() {
+        return LongStream.range(0, 500);
+    }
+
+    @ParameterizedTest(name = "seed={0}")
+    @MethodSource("seeds")
+    @DisplayName("并行解析与逐行解析结果一致（任意区域大小）")
+    void parallelMatchesSequential(long seed) {
+        // Given
+        String text = randomBook(seed);
+        List<TxtParser.ChapterInfo> expected = txtParser.parseChapters(text);
+
+        // When & Then - 区域越小，区域边界落在章节内部的情况越多
+        for (int regionSize : new int[]{1, 7, 64, 1024}) {
+            assertThat(txtParser.parseChaptersParallel(text, regionSize))
+                .as("regionSize=%d", regionSize)
+                .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("大文件自动使用并行解析，章节按顺序编号")
+    void largeFile_ParsedInParallel() throws IOException {
+        // Given
+        StringBuilder text = new StringBuilder("作者：测试\n");
+        int chapters = 0;
+        while (text.length() < TxtParser.PARALLEL_THRESHOLD) {
+            text.append("第").append(++chapters).append("章 标题\n")
+                .append("正文内容".repeat(200)).append("\r\n\n");
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+
+        // When
+        TxtParser.ParseResult result = txtParser.parse(new ByteArrayInputStream(bytes), "长篇.txt");
+
+        // Then
+        assertThat(result.getChapters()).hasSize(chapters);
+        assertThat(result.getChapters().get(chapters - 1).getChapterIndex()).isEqualTo(chapters - 1);
+        assertThat(result.getChapters().get(chapters - 1).getTitle()).isEqualTo("第" + chapters + "章 标题");
+        assertThat(result.getChapters()).isEqualTo(txtParser.parseChapters(text.toString()));
+    }
+}
@@ -157,10 +157,10 @@ export const bookApi = {
   },
 
   /**
-   * 获取书籍列表
+   * 获取书籍列表（游标分页：cursor 传上一页返回的 nextCursor，首页不传）
    */
-  getList: (page = 0, size = 20) =>
-    api.get('/books', { params: { page, size } }),
+  getList: (cursor, size = 20) =>
+    api.get('/books', { params: { cursor, size } }),
 
   /**
    * 获取书籍详情
@@ -179,10 +179,10 @@ export const bookApi = {
   delete: (bookId) => api.delete(`/books/${bookId}`),
 
   /**
-   * 搜索书籍
+   * 搜索书籍（游标分页）
    */
-  search: (keyword, page = 0, size = 20) =>
-    api.get('/books/search', { params: { keyword, page, size } }),
+  search: (keyword, cursor, size = 20) =>
+    api.get('/books/search', { params: { keyword, cursor, size } }),
 }
 
 // ==================== 阅读进度 API ====================
@@ -224,10 +224,10 @@ export const bookmarkApi = {
   getByBook: (bookId) => api.get(`/progress/bookmarks/book/${bookId}`),
 
   /**
-   * 获取所有书签
+   * 获取所有书签（游标分页）
    */
-  getAll: (page = 0, size = 20) =>
-    api.get('/progress/bookmarks', { params: { page, size } }),
+  getAll: (cursor, size = 20) =>
+    api.get('/progress/bookmarks', { params: { cursor, size } }),
 
   /**
    * 删除书签
@@ -235,4 +235,20 @@ export const bookmarkApi = {
   delete: (bookmarkId) => api.delete(`/progress/bookmarks/${bookmarkId}`),
 }
 
+/**
+ * 按 nextCursor 逐页拉取游标分页接口的全部数据
+ * @param {(cursor?: string) => Promise<{data: {content: any[], nextCursor?: string, hasMore: boolean}}>} fetchPage
+ */
+export async function fetchAllPages(fetchPage) {
+  const items = []
+  let cursor
+  do {
+    const response = await fetchPage(cursor)
+    const page = response.data || {}
+    items.push(...(page.content || []))
+    cursor = page.hasMore ? page.nextCursor : undefined
+  } while (cursor)
+  return items
+}
+
 export default api
@@ -6,7 +6,7 @@
  */
 
 import { create } from 'zustand'
-import { bookApi, progressApi, bookmarkApi } from '../services/api'
+import { bookApi, progressApi, bookmarkApi, fetchAllPages } from '../services/api'
 import { db, booksStore, progressStore, bookmarksStore } from './db'
 import useAuthStore from './auth'
 
@@ -54,8 +54,7 @@ const useSyncStore = create((set, get) => ({
    */
   syncBooks: async () => {
     try {
-      const response = await bookApi.getList(0, 100)
-      const cloudBooks = response.data?.content || []
+      const cloudBooks = await fetchAllPages((cursor) => bookApi.getList(cursor, 100))
       set({ cloudBooks })
       return cloudBooks
     } catch (error) {
@@ -200,9 +199,8 @@ const useSyncStore = create((set, get) => ({
    */
   syncBookmarks: async () => {
     try {
-      // 获取云端所有书签（分页获取全部）
-      const response = await bookmarkApi.getAll(0, 1000)
-      const cloudBookmarks = response.data?.content || []
+      // 获取云端所有书签（按 nextCursor 逐页获取全部）
+      const cloudBookmarks = await fetchAllPages((cursor) => bookmarkApi.getAll(cursor, 100))
 
       // 这里简化处理：云端书签作为只读同步
       // 完整实现需要更复杂的合并逻辑
@@ -248,7 +246,7 @@ const useSyncStore = create((set, get) => ({
    */
   searchCloudBooks: async (keyword) => {
     try {
-      const response = await bookApi.search(keyword, 0, 50)
+      const response = await bookApi.search(keyword, undefined, 50)
       return response.data?.content || []
     } catch (error) {
       console.error('[Sync] 搜索失败:', error)